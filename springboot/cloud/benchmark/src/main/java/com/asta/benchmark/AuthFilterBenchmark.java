@@ -0,0 +1,151 @@
+package com.asta.benchmark;
+
+import com.asta.auth.util.JwtUtil;
+import com.asta.gateway.Filter.AuthFilter;
+import com.asta.gateway.Filter.PublicPathMatcher;
+import com.asta.gateway.cache.TokenRevocationList;
+import com.asta.gateway.cache.VerifiedTokenCache;
+import com.asta.gateway.util.GatewayIdentitySigner;
+import com.asta.gateway.util.JwtVerifier;
+import com.asta.gateway.util.StageMetrics;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.data.redis.core.ReactiveStringRedisTemplate;
+import org.springframework.data.redis.core.ReactiveValueOperations;
+import org.springframework.core.env.StandardEnvironment;
+import org.springframework.data.redis.core.ScanOptions;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.userdetails.User;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * 网关 AuthFilter.filter 基准测试
+ * <p>
+ * authenticated 为携带有效 token 的请求：验签 (命中已验签 token 缓存)、吊销检查 (本地过滤器已加载且 token 未吊销，
+ * 不访问 Redis) 并改写请求头；authenticatedUncached 关闭缓存，每个请求都在 jwt-verify 线程池中验签；
+ * publicPath 为无需认证的 /auth/** 路径。下游 chain 直接完成，Redis 使用 mock，分阶段耗时记录到 SimpleMeterRegistry。
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class AuthFilterBenchmark {
+
+    private static final GatewayFilterChain CHAIN = exchange -> Mono.empty();
+
+    private TokenRevocationList revocationList;
+
+    private VerifiedTokenCache cache;
+
+    private VerifiedTokenCache uncached;
+
+    private AuthFilter authFilter;
+
+    private AuthFilter uncachedFilter;
+
+    private MockServerWebExchange authenticated;
+
+    private MockServerWebExchange publicPath;
+
+    /**
+     * 访问 Redis 的次数，用于确认本地过滤器已加载
+     */
+    private final AtomicInteger redisReads = new AtomicInteger();
+
+    @Setup
+    @SuppressWarnings("unchecked")
+    public void setup() throws InterruptedException {
+        ReactiveStringRedisTemplate redisTemplate = mock(ReactiveStringRedisTemplate.class);
+        ReactiveValueOperations<String, String> valueOperations = mock(ReactiveValueOperations.class);
+        when(redisTemplate.opsForValue()).thenReturn(valueOperations);
+        when(valueOperations.get(anyString())).thenAnswer(invocation -> {
+            redisReads.incrementAndGet();
+            return Mono.empty();
+        });
+        doReturn(Flux.never()).when(redisTemplate).listenToChannel(any(String[].class));
+        when(redisTemplate.scan(any(ScanOptions.class))).thenReturn(Flux.empty());
+        revocationList = new TokenRevocationList(redisTemplate, JwtUtilBenchmark.EXPIRATION,
+                3600000L, 10000, 0.001, 1000, 300000L, 10000, 60000);
+        JwtVerifier verifier = new JwtVerifier(JwtUtilBenchmark.SECRET);
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        StageMetrics stageMetrics = new StageMetrics(meterRegistry,
+                new Duration[]{Duration.ofNanos(100_000), Duration.ofMillis(1), Duration.ofMillis(10), Duration.ofMillis(100)});
+        cache = new VerifiedTokenCache(verifier, true, 10000, 300000L, 0, 256, meterRegistry);
+        uncached = new VerifiedTokenCache(verifier, false, 10000, 300000L, 0, 256, meterRegistry);
+        PublicPathMatcher publicPathMatcher = new PublicPathMatcher(new StandardEnvironment());
+        GatewayIdentitySigner identitySigner = new GatewayIdentitySigner(JwtUtilBenchmark.SECRET);
+        authFilter = new AuthFilter(revocationList, cache, stageMetrics, publicPathMatcher, identitySigner);
+        uncachedFilter = new AuthFilter(revocationList, uncached, stageMetrics, publicPathMatcher, identitySigner);
+
+        String token = new JwtUtil(JwtUtilBenchmark.SECRET, JwtUtilBenchmark.EXPIRATION)
+                .generateToken(new User("benchmark", "", List.of(new SimpleGrantedAuthority("ROLE_USER"))));
+        authenticated = MockServerWebExchange.from(MockServerHttpRequest.get("/api/users/me")
+                .header(HttpHeaders.AUTHORIZATION, "Bearer " + token));
+        publicPath = MockServerWebExchange.from(MockServerHttpRequest.post("/auth/login"));
+
+        // 首次加载在后台线程完成，加载完成后未吊销的 token 不再访问 Redis
+        revocationList.initialize();
+        for (int i = 0; i < 500; i++) {
+            redisReads.set(0);
+            authFilter.filter(authenticated, CHAIN).block();
+            if (redisReads.get() == 0) {
+                return;
+            }
+            Thread.sleep(10);
+        }
+        throw new IllegalStateException("token 吊销列表未能加载");
+    }
+
+    @TearDown
+    public void tearDown() {
+        revocationList.close();
+        cache.close();
+        uncached.close();
+    }
+
+    @Benchmark
+    public void authenticated() {
+        authFilter.filter(authenticated, CHAIN).block();
+    }
+
+    @Benchmark
+    public void authenticatedUncached() {
+        uncachedFilter.filter(authenticated, CHAIN).block();
+    }
+
+    @Benchmark
+    public void publicPath() {
+        authFilter.filter(publicPath, CHAIN).block();
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options options = new OptionsBuilder()
+                .include(AuthFilterBenchmark.class.getSimpleName())
+                .addProfiler(GCProfiler.class)
+                .build();
+        new Runner(options).run();
+    }
+}
@@ -0,0 +1,123 @@
+package com.asta.benchmark;
+
+import com.asta.auth.config.JsonVOHttpMessageConverter;
+import com.asta.auth.util.JwtUtil;
+import com.asta.domain.po.User;
+import com.asta.domain.vo.JsonVO;
+import com.asta.domain.vo.ResultStatus;
+import com.asta.domain.vo.auth.LoginVO;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JsonVO 响应写出基准测试：默认的 MappingJackson2HttpMessageConverter (default) 与 JsonVOHttpMessageConverter (jsonvo) 对比
+ * <p>
+ * ObjectMapper 与 Spring Boot 默认配置一致 (Jackson2ObjectMapperBuilder，注册 JavaTimeModule 等模块)，
+ * 即 MVC 写出响应时使用的 ObjectMapper。响应体写入一个复用的缓冲区 (相当于容器的响应输出缓冲区)。
+ * login 为登录响应；users 为一页 20 个用户的列表响应。
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JsonVOBenchmark {
+
+    @Param({"default", "jsonvo"})
+    private String converter;
+
+    private HttpMessageConverter<Object> messageConverter;
+
+    private JsonVO<LoginVO> login;
+
+    private JsonVO<List<User>> users;
+
+    private final ByteArrayOutputStream buffer = new ByteArrayOutputStream(8192);
+
+    private final HttpOutputMessage outputMessage = new HttpOutputMessage() {
+
+        private final HttpHeaders headers = new HttpHeaders();
+
+        @Override
+        public OutputStream getBody() {
+            return buffer;
+        }
+
+        @Override
+        public HttpHeaders getHeaders() {
+            return headers;
+        }
+    };
+
+    @Setup
+    @SuppressWarnings("unchecked")
+    public void setup() {
+        ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        messageConverter = (HttpMessageConverter<Object>) ("default".equals(converter)
+                ? new MappingJackson2HttpMessageConverter(objectMapper)
+                : new JsonVOHttpMessageConverter(objectMapper));
+
+        LoginVO loginVO = new LoginVO();
+        loginVO.setUsername("benchmark");
+        loginVO.setToken(new JwtUtil(JwtUtilBenchmark.SECRET, JwtUtilBenchmark.EXPIRATION).generateToken(
+                new org.springframework.security.core.userdetails.User("benchmark", "", List.of())));
+        login = JsonVO.create(loginVO, ResultStatus.SUCCESS);
+
+        List<User> page = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            User user = new User();
+            user.setUserId(i);
+            user.setUsername("user" + i);
+            user.setEmail("user" + i + "@example.com");
+            user.setRole("USER");
+            user.setCreateTime(LocalDateTime.of(2025, 6, 29, 12, 0).plusMinutes(i));
+            page.add(user);
+        }
+        users = JsonVO.create(page, ResultStatus.SUCCESS);
+    }
+
+    private int write(JsonVO<?> response) throws IOException {
+        buffer.reset();
+        outputMessage.getHeaders().clear();
+        messageConverter.write(response, MediaType.APPLICATION_JSON, outputMessage);
+        return buffer.size();
+    }
+
+    @Benchmark
+    public int login() throws IOException {
+        return write(login);
+    }
+
+    @Benchmark
+    public int users() throws IOException {
+        return write(users);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options options = new OptionsBuilder()
+                .include(JsonVOBenchmark.class.getSimpleName())
+                .addProfiler(GCProfiler.class)
+                .build();
+        new Runner(options).run();
+    }
+}
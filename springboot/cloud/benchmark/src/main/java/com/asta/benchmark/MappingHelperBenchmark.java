@@ -0,0 +1,42 @@
+package com.asta.benchmark;
+
+import com.asta.common.components.MappingHelper;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * MappingHelper.stringToSet 基准测试，覆盖空串、单个角色与多个 (带空格) 角色
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MappingHelperBenchmark {
+
+    @Param({"", "ADMIN", "ADMIN, USER, AUDITOR, OPERATOR"})
+    private String input;
+
+    private final MappingHelper mappingHelper = new MappingHelper();
+
+    @Benchmark
+    public Set<String> stringToSet() {
+        return mappingHelper.stringToSet(input);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options options = new OptionsBuilder()
+                .include(MappingHelperBenchmark.class.getSimpleName())
+                .addProfiler(GCProfiler.class)
+                .build();
+        new Runner(options).run();
+    }
+}
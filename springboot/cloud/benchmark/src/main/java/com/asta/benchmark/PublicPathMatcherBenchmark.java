@@ -0,0 +1,110 @@
+package com.asta.benchmark;
+
+import com.asta.gateway.util.PathPatternTrie;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.util.AntPathMatcher;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 网关无需认证路径的匹配：逐条 AntPathMatcher.match 与预编译前缀树 (PathPatternTrie) 的对比
+ * <p>
+ * 规则按 health、docs、webhooks、static 四类轮流生成 (见 {@link #pattern(int)})。protectedPath 为需要认证的普通请求，
+ * 不匹配任何规则，逐条匹配时需要检查全部规则；publicPath 命中最后一条规则。
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PublicPathMatcherBenchmark {
+
+    private static final String PROTECTED_PATH = "/api/users/1024/profile";
+
+    @Param({"10", "100", "1000"})
+    private int patterns;
+
+    private final AntPathMatcher antPathMatcher = new AntPathMatcher();
+
+    private List<String> rules;
+
+    private PathPatternTrie trie;
+
+    private String publicPath;
+
+    @Setup
+    public void setup() {
+        rules = new ArrayList<>(patterns);
+        for (int i = 0; i < patterns; i++) {
+            rules.add(pattern(i));
+        }
+        trie = PathPatternTrie.compile(rules);
+        publicPath = path(patterns - 1);
+        if (!trie.matches(publicPath) || trie.matches(PROTECTED_PATH) || !antMatch(publicPath)) {
+            throw new IllegalStateException("规则生成有误");
+        }
+    }
+
+    private static String pattern(int i) {
+        return switch (i % 4) {
+            case 0 -> "/service" + i + "/actuator/health";
+            case 1 -> "/service" + i + "/docs/**";
+            case 2 -> "/webhooks/provider" + i + "/{event}";
+            default -> "/static/app" + i + "/**/*.js";
+        };
+    }
+
+    private static String path(int i) {
+        return switch (i % 4) {
+            case 0 -> "/service" + i + "/actuator/health";
+            case 1 -> "/service" + i + "/docs/v3/api-docs";
+            case 2 -> "/webhooks/provider" + i + "/push";
+            default -> "/static/app" + i + "/assets/chunks/main.js";
+        };
+    }
+
+    private boolean antMatch(String path) {
+        for (String rule : rules) {
+            if (antPathMatcher.match(rule, path)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Benchmark
+    public boolean antProtectedPath() {
+        return antMatch(PROTECTED_PATH);
+    }
+
+    @Benchmark
+    public boolean antPublicPath() {
+        return antMatch(publicPath);
+    }
+
+    @Benchmark
+    public boolean trieProtectedPath() {
+        return trie.matches(PROTECTED_PATH);
+    }
+
+    @Benchmark
+    public boolean triePublicPath() {
+        return trie.matches(publicPath);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options options = new OptionsBuilder()
+                .include(PublicPathMatcherBenchmark.class.getSimpleName())
+                .addProfiler(GCProfiler.class)
+                .build();
+        new Runner(options).run();
+    }
+}
@@ -0,0 +1,66 @@
+package com.asta.benchmark;
+
+import com.asta.auth.mapper.UserMapper;
+import com.asta.domain.po.User;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Proxy;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * UserMapper.findByUsername 基准测试
+ * <p>
+ * 只测量数据库之外的开销：由查询结果构建 Spring Security User (权限为共享实例)。
+ * selectCredentialsByUsername 由动态代理直接返回固定的用户，其余 default 方法调用真实实现。
+ * 包含 MyBatis 调用链与数据库访问的对比见单体项目的 UserLookupBenchmark。
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class UserMapperBenchmark {
+
+    private UserMapper userMapper;
+
+    @Setup
+    public void setup() {
+        User user = new User()
+                .setUserId(1)
+                .setUsername("benchmark")
+                .setPassword("{bcrypt}$2a$10$7EqJtq98hPqEX7fNZaFWoO5T9Z2nY1K3E8j8n9iXq8B6lq8P0cG1W")
+                .setRole("USER");
+        InvocationHandler handler = (proxy, method, args) -> {
+            if (method.getName().equals("selectCredentialsByUsername")) {
+                return user;
+            }
+            if (method.isDefault()) {
+                return InvocationHandler.invokeDefault(proxy, method, args);
+            }
+            throw new UnsupportedOperationException(method.getName());
+        };
+        userMapper = (UserMapper) Proxy.newProxyInstance(UserMapper.class.getClassLoader(),
+                new Class<?>[]{UserMapper.class}, handler);
+    }
+
+    @Benchmark
+    public Optional<org.springframework.security.core.userdetails.User> findByUsername() {
+        return userMapper.findByUsername("benchmark");
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options options = new OptionsBuilder()
+                .include(UserMapperBenchmark.class.getSimpleName())
+                .addProfiler(GCProfiler.class)
+                .build();
+        new Runner(options).run();
+    }
+}
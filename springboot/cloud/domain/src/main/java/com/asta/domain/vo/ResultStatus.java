@@ -7,6 +7,7 @@ public enum ResultStatus {
 
     UNAUTHORIZED("暂未登录或TOKEN已经过期", 401),
     FORBIDDEN("没有相关权限", 403),
+    TOO_MANY_REQUESTS("请求过于频繁", 429),
     SERVER_ERROR("服务器错误", 9994),
     PARAMS_INVALID("上传参数异常", 9995),
     CONTENT_TYPE_ERR("ContentType错误", 9996),
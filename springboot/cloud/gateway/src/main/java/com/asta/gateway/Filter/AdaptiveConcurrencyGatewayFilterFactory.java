@@ -0,0 +1,179 @@
+package com.asta.gateway.Filter;
+
+import com.asta.gateway.util.GradientConcurrencyLimiter;
+import com.asta.gateway.util.GradientConcurrencyLimiter.Outcome;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.TimeGauge;
+import lombok.Data;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.factory.AbstractGatewayFilterFactory;
+import org.springframework.cloud.gateway.support.HasRouteId;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.SignalType;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * 路由级的自适应并发限制，在路由的 filters 中配置：
+ * <pre>
+ * filters:
+ *   - name: AdaptiveConcurrency
+ *     args:
+ *       initial-limit: 10
+ *       max-limit: 200
+ * </pre>
+ * 每个路由一个 {@link GradientConcurrencyLimiter}，按后端的 RTT 持续估计其容量；超出上限的请求立即返回 503，不在网关中排队。
+ * RTT 从转发开始计到响应写完，后端返回 429/503/504 或转发出错 (超时、连接失败) 视为过载信号，客户端取消不计入样本。
+ * <p>
+ * 指标 (标签 route 为路由 id)：gateway.concurrency.limit 当前上限，gateway.concurrency.inflight 进行中的请求数，
+ * gateway.concurrency.rtt{window=short|long} 最近窗口的平均 RTT 与长期基线，gateway.concurrency.rejected 被拒绝的请求数。
+ * 路由刷新时参数不变则沿用原有的限制器状态。
+ */
+@Component
+public class AdaptiveConcurrencyGatewayFilterFactory
+        extends AbstractGatewayFilterFactory<AdaptiveConcurrencyGatewayFilterFactory.Config> {
+
+    private static final String METRIC_PREFIX = "gateway.concurrency.";
+
+    private final MeterRegistry meterRegistry;
+
+    /**
+     * 路由 id -> 限制器，指标按路由 id 从这里读取，路由刷新替换限制器后指标仍然有效
+     */
+    private final Map<String, RouteLimiter> limiters = new ConcurrentHashMap<>();
+
+    public AdaptiveConcurrencyGatewayFilterFactory(MeterRegistry meterRegistry) {
+        super(Config.class);
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public GatewayFilter apply(Config config) {
+        String routeId = config.getRouteId() != null ? config.getRouteId() : "unknown";
+        RouteLimiter routeLimiter = limiters.compute(routeId, (id, existing) ->
+                existing != null && existing.config().equals(config) ? existing : newRouteLimiter(id, config));
+        GradientConcurrencyLimiter limiter = routeLimiter.limiter();
+        Counter rejected = routeLimiter.rejected();
+        return (exchange, chain) -> {
+            if (!limiter.tryAcquire()) {
+                rejected.increment();
+                return serviceUnavailable(exchange, config.getRetryAfter());
+            }
+            long start = System.nanoTime();
+            return chain.filter(exchange)
+                    .doFinally(signal -> limiter.release(start, outcome(signal, exchange)));
+        };
+    }
+
+    private RouteLimiter newRouteLimiter(String routeId, Config config) {
+        GradientConcurrencyLimiter limiter = new GradientConcurrencyLimiter(config.getInitialLimit(),
+                config.getMinLimit(), config.getMaxLimit(), config.getRttTolerance(), config.getSmoothing(),
+                config.getLongWindow(), config.getBackoffRatio(), config.getWindow(), config.getMinWindowSamples());
+        // 同一路由的指标只在首次注册时生效，之后按路由 id 读取当前的限制器
+        gauge(routeId, "limit", "当前并发上限", GradientConcurrencyLimiter::getLimit);
+        gauge(routeId, "inflight", "进行中的请求数", GradientConcurrencyLimiter::getInflight);
+        rttGauge(routeId, "short", GradientConcurrencyLimiter::getShortRttNanos);
+        rttGauge(routeId, "long", GradientConcurrencyLimiter::getLongRttNanos);
+        Counter rejected = Counter.builder(METRIC_PREFIX + "rejected")
+                .description("超出并发上限被拒绝的请求数")
+                .tag("route", routeId)
+                .register(meterRegistry);
+        return new RouteLimiter(config, limiter, rejected);
+    }
+
+    private void gauge(String routeId, String name, String description,
+                       ToDoubleFunction<GradientConcurrencyLimiter> value) {
+        Gauge.builder(METRIC_PREFIX + name, limiters, map -> read(map, routeId, value))
+                .description(description)
+                .tag("route", routeId)
+                .register(meterRegistry);
+    }
+
+    private void rttGauge(String routeId, String window, ToDoubleFunction<GradientConcurrencyLimiter> value) {
+        TimeGauge.builder(METRIC_PREFIX + "rtt", limiters, TimeUnit.NANOSECONDS, map -> read(map, routeId, value))
+                .description("后端 RTT，short 为最近窗口的平均值，long 为长期基线")
+                .tag("route", routeId)
+                .tag("window", window)
+                .register(meterRegistry);
+    }
+
+    private static double read(Map<String, RouteLimiter> limiters, String routeId,
+                               ToDoubleFunction<GradientConcurrencyLimiter> value) {
+        RouteLimiter routeLimiter = limiters.get(routeId);
+        return routeLimiter != null ? value.applyAsDouble(routeLimiter.limiter()) : Double.NaN;
+    }
+
+    private static Outcome outcome(SignalType signal, ServerWebExchange exchange) {
+        if (signal == SignalType.CANCEL) {
+            return Outcome.IGNORED;
+        }
+        if (signal == SignalType.ON_ERROR) {
+            return Outcome.DROPPED;
+        }
+        HttpStatusCode status = exchange.getResponse().getStatusCode();
+        if (status != null && (status.value() == HttpStatus.TOO_MANY_REQUESTS.value()
+                || status.value() == HttpStatus.SERVICE_UNAVAILABLE.value()
+                || status.value() == HttpStatus.GATEWAY_TIMEOUT.value())) {
+            return Outcome.DROPPED;
+        }
+        return Outcome.SUCCESS;
+    }
+
+    // 超出并发上限，立即返回 503 并提示客户端稍后重试
+    private static Mono<Void> serviceUnavailable(ServerWebExchange exchange, long retryAfterSeconds) {
+        exchange.getResponse().setStatusCode(HttpStatus.SERVICE_UNAVAILABLE);
+        exchange.getResponse().getHeaders().set(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfterSeconds));
+        return exchange.getResponse().setComplete();
+    }
+
+    private record RouteLimiter(Config config, GradientConcurrencyLimiter limiter, Counter rejected) {
+    }
+
+    /**
+     * 参数说明见 {@link GradientConcurrencyLimiter}
+     */
+    @Data
+    public static class Config implements HasRouteId {
+
+        private String routeId;
+
+        private int initialLimit = 10;
+
+        private int minLimit = 1;
+
+        private int maxLimit = 200;
+
+        private double rttTolerance = 1.5;
+
+        private double smoothing = 0.2;
+
+        /**
+         * 长期 RTT 的平滑窗口数
+         */
+        private int longWindow = 60;
+
+        private double backoffRatio = 0.9;
+
+        /**
+         * 窗口的最短时长 (毫秒)
+         */
+        private long window = 1000;
+
+        private int minWindowSamples = 10;
+
+        /**
+         * 503 响应中 Retry-After 的秒数
+         */
+        private long retryAfter = 1;
+    }
+}
@@ -1,10 +1,12 @@
 package com.asta.gateway.Filter;
 
-import io.jsonwebtoken.Claims;
+import com.asta.gateway.cache.TokenRevocationList;
+import com.asta.gateway.cache.VerifiedTokenCache;
+import com.asta.gateway.cache.VerifiedTokenCache.VerifiedToken;
+import com.asta.gateway.util.GatewayIdentitySigner;
+import com.asta.gateway.util.StageMetrics;
+import com.asta.gateway.util.StageMetrics.Outcome;
 import io.jsonwebtoken.JwtException;
-import io.jsonwebtoken.Jwts;
-import io.jsonwebtoken.io.Decoders;
-import io.jsonwebtoken.security.Keys;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
@@ -15,28 +17,66 @@ import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.server.reactive.ServerHttpRequest;
 import org.springframework.stereotype.Component;
-import org.springframework.util.AntPathMatcher;
 import org.springframework.web.server.ServerWebExchange;
 import reactor.core.publisher.Mono;
 
 import java.util.List;
-import java.util.Optional;
+import java.util.concurrent.RejectedExecutionException;
 
 @Slf4j
 @Component
 @RequiredArgsConstructor
 public class AuthFilter implements GlobalFilter, Ordered {
 
-    // 从 nacos 读取
-    @Value("${jwt.secret}")
-    private String secret;
+    /**
+     * 分阶段耗时指标 auth.stage{pipeline=gateway}：verify 为解析与验签 (含缓存查找与排队)，revocation 为吊销检查，mutate 为改写请求头
+     */
+    private static final String PIPELINE = "gateway";
+
+    /**
+     * 已认证用户名的 exchange 属性，供后续过滤器使用；不读取可被客户端伪造的 X-User-Name 请求头
+     */
+    public static final String USERNAME_ATTRIBUTE = AuthFilter.class.getName() + ".username";
+
+    /**
+     * 转发给下游服务的用户信息与签名 (GatewayIdentitySigner)，下游 (如 service-auth 的管理端点) 校验签名后据此授权
+     */
+    private static final String USERNAME_HEADER = "X-User-Name";
+
+    private static final String ROLES_HEADER = "X-User-Roles";
+
+    private static final String TIMESTAMP_HEADER = "X-User-Timestamp";
+
+    private static final String SIGNATURE_HEADER = "X-User-Signature";
+
+    private static final List<String> IDENTITY_HEADERS =
+            List.of(USERNAME_HEADER, ROLES_HEADER, TIMESTAMP_HEADER, SIGNATURE_HEADER);
+
+    // 验签线程池繁忙时建议客户端重试的等待时间 (秒)
+    @Value("${jwt.verify.retry-after:1}")
+    private long retryAfterSeconds;
 
     private Mono<Void> unauthorized(ServerWebExchange exchange) {
         exchange.getResponse().setStatusCode(HttpStatus.UNAUTHORIZED);
         return exchange.getResponse().setComplete();
     }
 
-    private final AntPathMatcher antPathMatcher = new AntPathMatcher();
+    // 验签线程池繁忙，返回 503 并提示客户端稍后重试
+    private Mono<Void> serviceUnavailable(ServerWebExchange exchange) {
+        exchange.getResponse().setStatusCode(HttpStatus.SERVICE_UNAVAILABLE);
+        exchange.getResponse().getHeaders().set(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfterSeconds));
+        return exchange.getResponse().setComplete();
+    }
+
+    private final TokenRevocationList revocationList;
+
+    private final VerifiedTokenCache verifiedTokenCache;
+
+    private final StageMetrics stageMetrics;
+
+    private final PublicPathMatcher publicPathMatcher;
+
+    private final GatewayIdentitySigner identitySigner;
 
     @Override
     public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
@@ -44,8 +84,15 @@ public class AuthFilter implements GlobalFilter, Ordered {
         ServerHttpRequest request = exchange.getRequest();
         String path = request.getURI().getPath();
 
-        // 1. 跳过不需要认证的路径
-        if (antPathMatcher.match("/auth/**", path)) {
+        // 1. 跳过不需要认证的路径，删除客户端伪造的用户信息请求头
+        if (publicPathMatcher.isPublic(path)) {
+            HttpHeaders headers = request.getHeaders();
+            if (IDENTITY_HEADERS.stream().anyMatch(headers::containsKey)) {
+                ServerHttpRequest stripped = request.mutate()
+                        .headers(h -> IDENTITY_HEADERS.forEach(h::remove))
+                        .build();
+                return chain.filter(exchange.mutate().request(stripped).build());
+            }
             return chain.filter(exchange);
         }
 
@@ -56,31 +103,51 @@ public class AuthFilter implements GlobalFilter, Ordered {
         }
         String token = authHeader.substring(7);
 
-        // 3. 校验JWT
-        try{
-            Claims claims = Jwts.parserBuilder()
-                    .setSigningKey(Keys.hmacShaKeyFor(Decoders.BASE64.decode(secret)))
-                    .build()
-                    .parseClaimsJws(token)
-                    .getBody();
-
-            // 处理可能的空指针异常
-            String rolesStr = Optional.ofNullable(claims.get("roles", List.class))
-                    .map(Object::toString)
-                    .orElse("");
-
-            // 将用户信息添加到请求头，转发给下游服务
-            ServerHttpRequest newRequest = request.mutate()
-                    .header("X-User-Name", claims.getSubject())
-                    .header("X-User-Roles", rolesStr)
-                    .build();
-
-            return chain.filter(exchange.mutate().request(newRequest).build());
-        }catch (JwtException e) {
-            // JWT解析或验证失败
-            return unauthorized(exchange);
-        }
+        // 3. 校验JWT，命中缓存时不解析也不验签，未命中时在验签线程池中执行
+        long start = System.nanoTime();
+        return verifiedTokenCache.verify(token)
+                .onErrorResume(e -> {
+                    if (e instanceof RejectedExecutionException) {
+                        stageMetrics.record(PIPELINE, "verify", start, Outcome.ERROR);
+                        return serviceUnavailable(exchange).then(Mono.empty());
+                    }
+                    if (e instanceof JwtException || e instanceof IllegalArgumentException) {
+                        // JWT解析或验证失败
+                        stageMetrics.record(PIPELINE, "verify", start, Outcome.INVALID);
+                        return unauthorized(exchange).then(Mono.empty());
+                    }
+                    return Mono.error(e);
+                })
+                .flatMap(verified -> {
+                    stageMetrics.record(PIPELINE, "verify", start, Outcome.SUCCESS);
+                    return authorize(exchange, chain, verified);
+                });
+    }
 
+    private Mono<Void> authorize(ServerWebExchange exchange, GatewayFilterChain chain, VerifiedToken verified) {
+        // 将用户信息与签名添加到请求头 (覆盖客户端自带的同名请求头)，转发给下游服务
+        long start = System.nanoTime();
+        long timestamp = System.currentTimeMillis();
+        ServerHttpRequest newRequest = exchange.getRequest().mutate()
+                .header(USERNAME_HEADER, verified.username())
+                .header(ROLES_HEADER, verified.roles())
+                .header(TIMESTAMP_HEADER, String.valueOf(timestamp))
+                .header(SIGNATURE_HEADER, identitySigner.sign(verified.username(), verified.roles(), timestamp))
+                .build();
+        stageMetrics.record(PIPELINE, "mutate", start, Outcome.SUCCESS);
+
+        // 4. 拒绝已注销或被强制下线的 token，本地过滤器判定未吊销时不访问 Redis
+        long revocationStart = System.nanoTime();
+        return revocationList.isRevoked(verified.claims())
+                .doOnNext(revoked -> stageMetrics.record(PIPELINE, "revocation", revocationStart,
+                        revoked ? Outcome.REVOKED : Outcome.SUCCESS))
+                .flatMap(revoked -> {
+                    if (revoked) {
+                        return unauthorized(exchange);
+                    }
+                    exchange.getAttributes().put(USERNAME_ATTRIBUTE, verified.username());
+                    return chain.filter(exchange.mutate().request(newRequest).build());
+                });
     }
 
     @Override
@@ -0,0 +1,66 @@
+package com.asta.gateway.Filter;
+
+import com.asta.gateway.util.PathPatternTrie;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.cloud.context.environment.EnvironmentChangeEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * 无需认证的路径 (auth.public-paths)
+ * <p>
+ * 规则启动时编译为 {@link PathPatternTrie}，匹配耗时与规则数量基本无关。规则通常放在 Nacos 中，修改后由
+ * EnvironmentChangeEvent 触发重新编译，编译完成后整体替换 (volatile 写)，请求路径上只有一次 volatile 读，不加锁；
+ * 新规则无法编译时保留当前规则。fast-startup (AOT) 模式下关闭了配置刷新，规则只在启动时加载。
+ */
+@Slf4j
+@Component
+public class PublicPathMatcher {
+
+    public static final String PROPERTY = "auth.public-paths";
+
+    /**
+     * 只放行登录、注册与注销 (注销由 service-auth 自行验签)；/auth/users/** 等管理端点需由网关认证后转发用户信息
+     */
+    private static final List<String> DEFAULT_PATHS = List.of("/auth/login", "/auth/register", "/auth/logout");
+
+    private final Environment environment;
+
+    private volatile PathPatternTrie patterns;
+
+    public PublicPathMatcher(Environment environment) {
+        this.environment = environment;
+        this.patterns = PathPatternTrie.compile(load());
+    }
+
+    /**
+     * @param path 请求路径
+     * @return 是否无需认证
+     */
+    public boolean isPublic(String path) {
+        return patterns.matches(path);
+    }
+
+    @EventListener
+    public void onEnvironmentChange(EnvironmentChangeEvent event) {
+        if (event.getKeys().stream().noneMatch(key -> key.startsWith(PROPERTY))) {
+            return;
+        }
+        List<String> paths = load();
+        try {
+            patterns = PathPatternTrie.compile(paths);
+            log.info("无需认证的路径已更新, 共 {} 条", paths.size());
+        } catch (IllegalArgumentException e) {
+            log.error("无需认证的路径配置无效，保留当前的 {} 条规则: {}", patterns.size(), e.getMessage());
+        }
+    }
+
+    private List<String> load() {
+        return Binder.get(environment).bind(PROPERTY, Bindable.listOf(String.class)).orElse(DEFAULT_PATHS);
+    }
+}
@@ -0,0 +1,50 @@
+package com.asta.gateway.Filter;
+
+import com.asta.gateway.cache.UserRateLimiter;
+import lombok.RequiredArgsConstructor;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.GlobalFilter;
+import org.springframework.core.Ordered;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 按已认证用户限流，在 {@link AuthFilter} 之后执行，无需认证的路径不限流
+ */
+@Component
+@RequiredArgsConstructor
+public class UserRateLimitFilter implements GlobalFilter, Ordered {
+
+    private final UserRateLimiter userRateLimiter;
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
+        String username = exchange.getAttribute(AuthFilter.USERNAME_ATTRIBUTE);
+        if (username == null) {
+            return chain.filter(exchange);
+        }
+        long waitNanos = userRateLimiter.tryAcquire(username);
+        if (waitNanos > 0) {
+            return tooManyRequests(exchange, waitNanos);
+        }
+        return chain.filter(exchange);
+    }
+
+    // 超出限额，返回 429 并提示客户端等待到下一个令牌补充
+    private Mono<Void> tooManyRequests(ServerWebExchange exchange, long waitNanos) {
+        long retryAfterSeconds = Math.max(1, TimeUnit.NANOSECONDS.toSeconds(waitNanos + 999_999_999L));
+        exchange.getResponse().setStatusCode(HttpStatus.TOO_MANY_REQUESTS);
+        exchange.getResponse().getHeaders().set(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfterSeconds));
+        return exchange.getResponse().setComplete();
+    }
+
+    @Override
+    public int getOrder() {
+        return 0;
+    }
+}
@@ -0,0 +1,264 @@
+package com.asta.gateway.cache;
+
+import com.asta.gateway.constant.RedisConstant;
+import com.asta.gateway.util.ExpiringBloomFilter;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.jsonwebtoken.Claims;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.redis.core.ReactiveStringRedisTemplate;
+import org.springframework.data.redis.core.ScanOptions;
+import org.springframework.stereotype.Component;
+import reactor.core.Disposable;
+import reactor.core.Disposables;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.util.retry.Retry;
+
+import java.time.Duration;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * token 吊销列表 (只读)
+ * <p>
+ * 吊销记录由 service-auth 写入 Redis 并广播。网关在本地维护按 exp 分桶的布隆过滤器 ({@link ExpiringBloomFilter})，
+ * 请求路径上只查询本地过滤器，判定可能已吊销时才访问 Redis 确认，未吊销的 token 不产生任何网络请求。
+ * 新的吊销记录通过 pub/sub 写入本地过滤器，同时定期从 Redis 全量重新加载，弥补订阅中断期间丢失的消息；
+ * 过滤器加载完成前直接查询 Redis。
+ */
+@Slf4j
+@Component
+public class TokenRevocationList {
+
+    private static final String TOKEN_PREFIX = "t:";
+
+    private static final String USER_PREFIX = "u:";
+
+    private static final Mono<Boolean> NOT_REVOKED = Mono.just(false);
+
+    private static final Mono<Boolean> REVOKED = Mono.just(true);
+
+    private final ReactiveStringRedisTemplate redisTemplate;
+
+    private final long maxTokenLifetime;
+
+    private final long bucketMillis;
+
+    private final long expectedPerBucket;
+
+    private final double fpp;
+
+    private final int batchSize;
+
+    private final long reloadIntervalMillis;
+
+    /**
+     * 当前生效的过滤器，首次加载完成前为 null
+     */
+    private final AtomicReference<ExpiringBloomFilter> current = new AtomicReference<>();
+
+    /**
+     * 重新加载过程中收到的吊销记录同时写入正在构建的过滤器，避免在扫描与切换之间丢失
+     */
+    private final AtomicReference<ExpiringBloomFilter> building = new AtomicReference<>();
+
+    /**
+     * 过滤器判定可能吊销后从 Redis 确认的结果，避免误判的 token 每次请求都访问 Redis；收到新的吊销记录时清空
+     */
+    private final Cache<String, Long> confirmed;
+
+    private final Disposable.Composite subscriptions = Disposables.composite();
+
+    public TokenRevocationList(ReactiveStringRedisTemplate redisTemplate,
+                               @Value("${jwt.expiration:86400000}") long maxTokenLifetime,
+                               @Value("${jwt.revocation.bucket-size:3600000}") long bucketMillis,
+                               @Value("${jwt.revocation.expected-per-bucket:10000}") long expectedPerBucket,
+                               @Value("${jwt.revocation.fpp:0.001}") double fpp,
+                               @Value("${jwt.revocation.batch-size:1000}") int batchSize,
+                               @Value("${jwt.revocation.reload-interval:300000}") long reloadIntervalMillis,
+                               @Value("${jwt.revocation.confirm-cache.maximum-size:10000}") long confirmCacheSize,
+                               @Value("${jwt.revocation.confirm-cache.ttl:60000}") long confirmCacheTtlMillis) {
+        this.redisTemplate = redisTemplate;
+        this.maxTokenLifetime = maxTokenLifetime;
+        this.bucketMillis = bucketMillis;
+        this.expectedPerBucket = expectedPerBucket;
+        this.fpp = fpp;
+        this.batchSize = batchSize;
+        this.reloadIntervalMillis = reloadIntervalMillis;
+        this.confirmed = Caffeine.newBuilder()
+                .maximumSize(confirmCacheSize)
+                .expireAfterWrite(confirmCacheTtlMillis, TimeUnit.MILLISECONDS)
+                .build();
+    }
+
+    /**
+     * 应用启动完成后订阅广播并开始定期加载，Redis 不可用时不影响启动，订阅断开后自动重试
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void initialize() {
+        subscriptions.add(redisTemplate.listenToChannel(RedisConstant.TOKEN_REVOCATION_CHANNEL)
+                .doOnNext(message -> addLocal(message.getMessage()))
+                .doOnError(e -> log.debug("token 吊销广播订阅中断，稍后重试: {}", e.getMessage()))
+                .retryWhen(Retry.backoff(Long.MAX_VALUE, Duration.ofSeconds(1)).maxBackoff(Duration.ofSeconds(30)))
+                .subscribe());
+        subscriptions.add(Flux.interval(Duration.ZERO, Duration.ofMillis(reloadIntervalMillis))
+                .onBackpressureDrop()
+                .concatMap(tick -> reload())
+                .subscribe());
+    }
+
+    @PreDestroy
+    public void close() {
+        subscriptions.dispose();
+    }
+
+    /**
+     * 判断 token 是否已被吊销
+     * @param claims 已验签的claims
+     * @return 是否已吊销
+     */
+    public Mono<Boolean> isRevoked(Claims claims) {
+        Date expiration = claims.getExpiration();
+        if (expiration == null) {
+            return NOT_REVOKED;
+        }
+        String jti = claims.getId();
+        String username = claims.getSubject();
+        ExpiringBloomFilter filter = current.get();
+        if (filter == null) {
+            // 过滤器尚未加载，直接查询 Redis；Redis 也不可用时无从判断，放行
+            return confirm(jti, username, claims.getIssuedAt()).onErrorReturn(false);
+        }
+
+        long now = System.currentTimeMillis();
+        long exp = expiration.getTime();
+        if ((jti == null || !filter.mightContain(TOKEN_PREFIX + jti, exp, now))
+                && !filter.mightContain(USER_PREFIX + username, exp, now)) {
+            return NOT_REVOKED;
+        }
+        return confirm(jti, username, claims.getIssuedAt())
+                .onErrorResume(e -> {
+                    // 本地过滤器已给出可能吊销的信号，无法确认时按已吊销处理
+                    log.warn("确认 token 吊销状态失败: {}", e.getMessage());
+                    return REVOKED;
+                });
+    }
+
+    /**
+     * 写入本地过滤器，由广播消息调用
+     * @param entry 吊销记录，格式为 t:过期时刻:jti 或 u:失效时刻:用户名
+     */
+    public void addLocal(String entry) {
+        String[] parts = entry.split(":", 3);
+        if (parts.length != 3) {
+            log.warn("忽略无法识别的吊销记录: {}", entry);
+            return;
+        }
+        boolean token = entry.startsWith(TOKEN_PREFIX);
+        String value = (token ? TOKEN_PREFIX : USER_PREFIX) + parts[2];
+        long until = Long.parseLong(parts[1]);
+        long now = System.currentTimeMillis();
+        addTo(current.get(), token, value, until, now);
+        addTo(building.get(), token, value, until, now);
+        // 确认缓存中可能有该 token / 用户 "未吊销" 的结果
+        confirmed.invalidateAll();
+    }
+
+    private static void addTo(ExpiringBloomFilter filter, boolean token, String value, long until, long now) {
+        if (filter == null) {
+            return;
+        }
+        if (token) {
+            filter.put(value, until, now);
+        } else {
+            filter.putUntil(value, until, now);
+        }
+    }
+
+    /**
+     * 从 Redis 全量加载吊销记录，完成后原子替换当前过滤器；失败时保留当前过滤器并丢弃已过期的桶
+     */
+    private Mono<Void> reload() {
+        long start = System.currentTimeMillis();
+        ExpiringBloomFilter next = new ExpiringBloomFilter(bucketMillis, maxTokenLifetime, expectedPerBucket, fpp);
+        building.set(next);
+        return scan(RedisConstant.REVOKED_TOKEN_KEY_PREFIX, (value, exp) -> next.put(TOKEN_PREFIX + value, exp, start))
+                .then(scan(RedisConstant.REVOKED_USER_KEY_PREFIX,
+                        (value, revokedAt) -> next.putUntil(USER_PREFIX + value, revokedAt + maxTokenLifetime, start)))
+                .doOnSuccess(ignored -> {
+                    current.set(next);
+                    confirmed.invalidateAll();
+                    log.debug("token 吊销列表加载完成, 耗时 {}ms", System.currentTimeMillis() - start);
+                })
+                .onErrorResume(e -> {
+                    ExpiringBloomFilter filter = current.get();
+                    if (filter != null) {
+                        filter.expire(System.currentTimeMillis());
+                    }
+                    log.warn("加载 token 吊销列表失败: {}", e.getMessage());
+                    return Mono.empty();
+                })
+                .doFinally(signal -> building.compareAndSet(next, null));
+    }
+
+    /**
+     * 按前缀分批扫描吊销记录，值均为时间戳 (毫秒)
+     */
+    private Mono<Void> scan(String prefix, EntryConsumer consumer) {
+        return redisTemplate.scan(ScanOptions.scanOptions().match(prefix + "*").count(batchSize).build())
+                .buffer(batchSize)
+                .concatMap(keys -> redisTemplate.opsForValue().multiGet(keys)
+                        .doOnNext(values -> consume(prefix, keys, values, consumer)))
+                .then();
+    }
+
+    private static void consume(String prefix, List<String> keys, List<String> values, EntryConsumer consumer) {
+        for (int i = 0; i < keys.size(); i++) {
+            // 扫描与读取之间 key 可能已过期
+            if (values.get(i) != null) {
+                consumer.accept(keys.get(i).substring(prefix.length()), Long.parseLong(values.get(i)));
+            }
+        }
+    }
+
+    /**
+     * 从 Redis 确认吊销状态，结果短暂缓存
+     * @return 是否已吊销
+     */
+    private Mono<Boolean> confirm(String jti, String username, Date issuedAt) {
+        // iat 精确到秒，同一秒内签发的 token 视为下线前签发
+        Mono<Boolean> user = timestamp(USER_PREFIX + username, RedisConstant.REVOKED_USER_KEY_PREFIX + username)
+                .map(revokedAt -> revokedAt != 0 && (issuedAt == null || issuedAt.getTime() <= revokedAt));
+        if (jti == null) {
+            return user;
+        }
+        return timestamp(TOKEN_PREFIX + jti, RedisConstant.REVOKED_TOKEN_KEY_PREFIX + jti)
+                .flatMap(exp -> exp != 0 ? REVOKED : user);
+    }
+
+    /**
+     * 读取吊销记录中的时间戳，不存在时为 0
+     */
+    private Mono<Long> timestamp(String cacheKey, String redisKey) {
+        Long cached = confirmed.getIfPresent(cacheKey);
+        if (cached != null) {
+            return Mono.just(cached);
+        }
+        return redisTemplate.opsForValue().get(redisKey)
+                .map(Long::parseLong)
+                .defaultIfEmpty(0L)
+                .doOnNext(value -> confirmed.put(cacheKey, value));
+    }
+
+    @FunctionalInterface
+    private interface EntryConsumer {
+        void accept(String value, long timestamp);
+    }
+}
@@ -0,0 +1,260 @@
+package com.asta.gateway.cache;
+
+import com.asta.gateway.constant.RedisConstant;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.redis.core.ReactiveStringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Component;
+import reactor.core.Disposable;
+import reactor.core.Disposables;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 按用户限流，请求路径上只访问本地状态
+ * <p>
+ * 每个用户一个令牌桶，使用 GCRA 实现 (与登录限流 LoginThrottle 相同)：状态只有一个 "理论到达时间" (TAT)，
+ * 保存在 AtomicLong 中并通过 CAS 更新，无锁；桶按用户名保存在有容量上限的 Caffeine 缓存中。全局限额为每 refill-period
+ * capacity 个请求。
+ * <p>
+ * 多实例部署时各实例定期 (sync-interval) 把每个用户在本周期收到的请求数批量上报到 Redis，同时取回上一周期所有实例的汇总，
+ * 本实例的份额 = 本实例上一周期的请求数 / 全局请求数，本地桶的速率与容量都按份额缩放，各实例的限额之和约等于全局限额。
+ * 份额按收到的请求数 (含被拒绝的) 计算，被限流不会使份额继续下降。份额滞后一个周期，用户在实例间迁移时短时间内可能超出限额；
+ * 新出现的用户份额为 1。Redis 不可用或 sync-interval 为 0 时保留已有份额 (单实例即为 1)，不影响请求处理。
+ * <p>
+ * 指标：gateway.ratelimit.user.rejected 为被限流拒绝的请求数。
+ */
+@Slf4j
+@Component
+public class UserRateLimiter {
+
+    private static final String METRIC_NAME = "gateway.ratelimit.user.rejected";
+
+    /**
+     * 每批上报的用户数
+     */
+    private static final int BATCH_SIZE = 500;
+
+    /**
+     * KEYS[1] 为本周期的汇总，KEYS[2] 为上一周期的汇总；ARGV[1] 为汇总的存活时间 (毫秒)，之后依次为 用户名、本实例的请求数。
+     * 累加本周期的请求数，返回每个用户上一周期的全局请求数
+     */
+    private static final RedisScript<List> SCRIPT = new DefaultRedisScript<>("""
+            local totals = {}
+            for i = 2, #ARGV, 2 do
+                local count = tonumber(ARGV[i + 1])
+                if count > 0 then
+                    redis.call('HINCRBY', KEYS[1], ARGV[i], count)
+                end
+                totals[#totals + 1] = tonumber(redis.call('HGET', KEYS[2], ARGV[i]) or '0')
+            end
+            redis.call('PEXPIRE', KEYS[1], ARGV[1])
+            return totals
+            """, List.class);
+
+    private final ReactiveStringRedisTemplate redisTemplate;
+
+    private final boolean enabled;
+
+    /**
+     * 每补充一个令牌的间隔 (份额为 1 时)
+     */
+    private final long intervalNanos;
+
+    /**
+     * 桶满时可连续通过的请求数对应的时长 (份额为 1 时)，即 capacity * intervalNanos
+     */
+    private final long burstNanos;
+
+    private final long syncIntervalMillis;
+
+    private final Cache<String, UserBucket> buckets;
+
+    private final Counter rejected;
+
+    private final Disposable.Composite subscriptions = Disposables.composite();
+
+    public UserRateLimiter(ReactiveStringRedisTemplate redisTemplate,
+                           MeterRegistry meterRegistry,
+                           @Value("${rate-limit.user.enabled:true}") boolean enabled,
+                           @Value("${rate-limit.user.capacity:600}") long capacity,
+                           @Value("${rate-limit.user.refill-period:60000}") long refillMillis,
+                           @Value("${rate-limit.user.maximum-users:100000}") long maximumUsers,
+                           @Value("${rate-limit.user.sync-interval:1000}") long syncIntervalMillis) {
+        if (capacity <= 0 || refillMillis <= 0 || syncIntervalMillis < 0) {
+            throw new IllegalArgumentException("用户限流的 capacity 与 refill-period 必须大于 0，sync-interval 不能为负数");
+        }
+        this.redisTemplate = redisTemplate;
+        this.enabled = enabled;
+        this.intervalNanos = TimeUnit.MILLISECONDS.toNanos(refillMillis) / capacity;
+        this.burstNanos = intervalNanos * capacity;
+        this.syncIntervalMillis = syncIntervalMillis;
+        // 桶补满后与新建的桶相同；份额需要保留到下一次同步
+        long idleNanos = Math.max(burstNanos, TimeUnit.MILLISECONDS.toNanos(syncIntervalMillis * 2));
+        this.buckets = Caffeine.newBuilder()
+                .maximumSize(maximumUsers)
+                .expireAfterAccess(idleNanos, TimeUnit.NANOSECONDS)
+                .build();
+        this.rejected = Counter.builder(METRIC_NAME)
+                .description("被按用户限流拒绝的请求数")
+                .register(meterRegistry);
+    }
+
+    /**
+     * 应用启动完成后开始定期同步，周期与墙上时钟对齐，各实例在同一周期内上报；Redis 不可用时不影响启动
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void initialize() {
+        if (!enabled || syncIntervalMillis == 0) {
+            return;
+        }
+        // 在周期的中点同步，避免时钟的小幅偏差使上报落入相邻周期
+        long delay = Math.floorMod(syncIntervalMillis / 2 - System.currentTimeMillis(), syncIntervalMillis);
+        subscriptions.add(Flux.interval(Duration.ofMillis(delay), Duration.ofMillis(syncIntervalMillis))
+                .onBackpressureDrop()
+                .concatMap(tick -> sync(System.currentTimeMillis() / syncIntervalMillis))
+                .subscribe());
+    }
+
+    @PreDestroy
+    public void close() {
+        subscriptions.dispose();
+    }
+
+    /**
+     * 消耗用户的一个令牌
+     * @param username 已认证的用户名
+     * @return 需等待的纳秒数，不大于 0 表示已放行
+     */
+    public long tryAcquire(String username) {
+        if (!enabled) {
+            return 0;
+        }
+        long now = System.nanoTime();
+        UserBucket bucket = buckets.get(username, k -> new UserBucket());
+        bucket.attempts.incrementAndGet();
+        long wait = bucket.take(now);
+        if (wait > 0) {
+            rejected.increment();
+        }
+        return wait;
+    }
+
+    /**
+     * 上报本周期的请求数并按上一周期的全局汇总更新份额
+     * @param period 同步周期序号，即 墙上时钟 / sync-interval
+     */
+    Mono<Void> sync(long period) {
+        List<Map.Entry<String, UserBucket>> active = new ArrayList<>();
+        for (Map.Entry<String, UserBucket> entry : buckets.asMap().entrySet()) {
+            UserBucket bucket = entry.getValue();
+            bucket.reportedPrevious = bucket.reported;
+            bucket.reported = bucket.attempts.getAndSet(0);
+            if (bucket.reported > 0 || bucket.reportedPrevious > 0) {
+                active.add(entry);
+            }
+        }
+        if (active.isEmpty()) {
+            return Mono.empty();
+        }
+        List<String> keys = List.of(RedisConstant.USER_RATE_LIMIT_KEY_PREFIX + period,
+                RedisConstant.USER_RATE_LIMIT_KEY_PREFIX + (period - 1));
+        String ttl = String.valueOf(syncIntervalMillis * 3);
+        return Flux.fromIterable(active)
+                .buffer(BATCH_SIZE)
+                .concatMap(batch -> {
+                    List<String> args = new ArrayList<>(batch.size() * 2 + 1);
+                    args.add(ttl);
+                    for (Map.Entry<String, UserBucket> entry : batch) {
+                        args.add(entry.getKey());
+                        args.add(String.valueOf(entry.getValue().reported));
+                    }
+                    return redisTemplate.execute(SCRIPT, keys, args)
+                            .doOnNext(totals -> applyTotals(batch, totals));
+                })
+                .then()
+                .onErrorResume(e -> {
+                    log.debug("同步用户限流计数失败，保留当前份额: {}", e.getMessage());
+                    return Mono.empty();
+                });
+    }
+
+    private static void applyTotals(List<Map.Entry<String, UserBucket>> batch, List<?> totals) {
+        for (int i = 0; i < batch.size() && i < totals.size(); i++) {
+            UserBucket bucket = batch.get(i).getValue();
+            long total = ((Number) totals.get(i)).longValue();
+            // 上一周期本实例没有该用户的请求时份额无从计算，保留原值
+            if (bucket.reportedPrevious > 0 && total >= bucket.reportedPrevious) {
+                bucket.share = (double) bucket.reportedPrevious / total;
+            }
+        }
+    }
+
+    /**
+     * 单个用户的令牌桶与份额
+     */
+    private final class UserBucket {
+
+        /**
+         * 新桶的 TAT 取最小值，首次计算时按当前时间处理 (System.nanoTime 可能为负数)
+         */
+        private final AtomicLong tat = new AtomicLong(Long.MIN_VALUE);
+
+        /**
+         * 自上次同步以来收到的请求数 (含被拒绝的)
+         */
+        private final AtomicInteger attempts = new AtomicInteger();
+
+        /**
+         * 本实例在该用户全局流量中的份额，范围 (0, 1]
+         */
+        private volatile double share = 1;
+
+        // 以下字段只在同步流程中访问，同步串行执行
+
+        /**
+         * 本周期上报的请求数
+         */
+        private int reported;
+
+        /**
+         * 上一周期上报的请求数
+         */
+        private int reportedPrevious;
+
+        /**
+         * 扣减一个令牌
+         * @return 需等待的纳秒数，不大于 0 表示已扣减
+         */
+        long take(long now) {
+            // 间隔按份额放大，突发时长不变，即容量同样按份额缩小；份额很小时至少保留一个令牌
+            long interval = (long) (intervalNanos / share);
+            long burst = Math.max(burstNanos, interval);
+            while (true) {
+                long current = tat.get();
+                long next = Math.max(current, now) + interval;
+                long wait = next - now - burst;
+                if (wait > 0 || tat.compareAndSet(current, next)) {
+                    return wait;
+                }
+            }
+        }
+    }
+}
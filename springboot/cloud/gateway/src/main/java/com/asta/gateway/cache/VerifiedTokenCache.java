@@ -0,0 +1,193 @@
+package com.asta.gateway.cache;
+
+import com.asta.gateway.util.JwtVerifier;
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import io.jsonwebtoken.Claims;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Date;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiFunction;
+
+/**
+ * 已验签 token 缓存
+ * <p>
+ * 以 token 的 SHA-256 摘要为 key，缓存验签后的 claims 与转发给下游的请求头值。命中时直接在 Netty 事件循环上返回，
+ * 不再解析与验签；条目最迟在 token 的 exp 时刻失效，且不超过配置的最大存活时间。
+ * <p>
+ * 未命中时验签在独立的有界线程池 (jwt-verify) 中执行，不占用事件循环；同一 token 的并发请求共享同一次验签。
+ * 线程池队列已满时快速失败 ({@link java.util.concurrent.RejectedExecutionException})，由调用方返回 503，
+ * 验签失败的结果不缓存。
+ */
+@Component
+public class VerifiedTokenCache {
+
+    private static final String CACHE_NAME = "jwt.token.cache";
+
+    private static final String ROLES_CLAIM = "roles";
+
+    private final JwtVerifier verifier;
+
+    private final boolean enabled;
+
+    private final long maxTtlNanos;
+
+    private final AsyncCache<String, VerifiedToken> cache;
+
+    private final Scheduler verifyScheduler;
+
+    /**
+     * 摘要原型，每次计算时 clone，省去 MessageDigest.getInstance 的 provider 查找
+     */
+    private final MessageDigest sha256;
+
+    /**
+     * @param threads 验签线程数，0 表示 CPU 核数
+     * @param queueCapacity 每个验签线程的等待队列容量，超出后立即拒绝
+     */
+    public VerifiedTokenCache(JwtVerifier verifier,
+                              @Value("${jwt.cache.enabled:true}") boolean enabled,
+                              @Value("${jwt.cache.maximum-size:10000}") long maximumSize,
+                              @Value("${jwt.cache.ttl:300000}") long maxTtlMillis,
+                              @Value("${jwt.verify.threads:0}") int threads,
+                              @Value("${jwt.verify.queue-capacity:256}") int queueCapacity,
+                              MeterRegistry meterRegistry) {
+        this.verifier = verifier;
+        this.enabled = enabled;
+        this.maxTtlNanos = TimeUnit.MILLISECONDS.toNanos(maxTtlMillis);
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfter(new TokenExpiry())
+                .recordStats()
+                .buildAsync();
+        // 暴露命中、未命中、驱逐等指标
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, CACHE_NAME);
+        this.verifyScheduler = Schedulers.newBoundedElastic(
+                threads > 0 ? threads : Runtime.getRuntime().availableProcessors(), queueCapacity, "jwt-verify");
+        try {
+            this.sha256 = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            // 所有 JRE 均必须支持 SHA-256
+            throw new IllegalStateException(e);
+        }
+    }
+
+    @PreDestroy
+    public void close() {
+        verifyScheduler.dispose();
+    }
+
+    /**
+     * 校验 token，命中缓存时同步返回
+     * @param token 原始token
+     * @return 验签结果；token 无效时以 JwtException / IllegalArgumentException 结束，验签线程池繁忙时以
+     * RejectedExecutionException 结束
+     */
+    public Mono<VerifiedToken> verify(String token) {
+        if (!enabled) {
+            return offload(token);
+        }
+        String key = digest(token);
+        BiFunction<String, Executor, CompletableFuture<VerifiedToken>> loader = (k, executor) -> offload(token).toFuture();
+        CompletableFuture<VerifiedToken> future = cache.getIfPresent(key);
+        if (future != null && future.isCompletedExceptionally()) {
+            // Caffeine 在失败结果的回调中才移除条目，这之前到达的请求不复用失败结果，重新验签；
+            // 只检查已有的条目，本次发起的验签即使立即失败也直接返回，不重复验签
+            cache.asMap().remove(key, future);
+            future = null;
+        }
+        if (future == null) {
+            future = cache.get(key, loader);
+        }
+        if (future.isDone() && !future.isCompletedExceptionally()) {
+            VerifiedToken verified = future.join();
+            // 双重保险：条目尚未被清理时不返回已过 exp 的结果，重新验签由解析器给出过期异常
+            if (verified.isExpired(System.currentTimeMillis())) {
+                cache.synchronous().invalidate(key);
+                return offload(token);
+            }
+            return Mono.just(verified);
+        }
+        // 取消当前请求不能取消其他请求共享的验签
+        return Mono.fromFuture(future, true);
+    }
+
+    private Mono<VerifiedToken> offload(String token) {
+        return Mono.fromCallable(() -> VerifiedToken.of(verifier.verify(token)))
+                .subscribeOn(verifyScheduler);
+    }
+
+    private String digest(String token) {
+        try {
+            MessageDigest digest = (MessageDigest) sha256.clone();
+            return HexFormat.of().formatHex(digest.digest(token.getBytes(StandardCharsets.US_ASCII)));
+        } catch (CloneNotSupportedException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * 缓存条目
+     * @param claims 已验签的claims
+     * @param username 转发给下游的 X-User-Name
+     * @param roles 转发给下游的 X-User-Roles
+     */
+    public record VerifiedToken(Claims claims, String username, String roles) {
+
+        static VerifiedToken of(Claims claims) {
+            // 处理可能的空指针异常
+            String roles = Optional.ofNullable(claims.get(ROLES_CLAIM, List.class))
+                    .map(Object::toString)
+                    .orElse("");
+            return new VerifiedToken(claims, claims.getSubject(), roles);
+        }
+
+        boolean isExpired(long nowMillis) {
+            Date expiration = claims.getExpiration();
+            return expiration != null && expiration.getTime() <= nowMillis;
+        }
+    }
+
+    /**
+     * 条目过期策略：取 token 剩余有效期与最大存活时间中的较小值，没有 exp 的 token 不缓存
+     */
+    private class TokenExpiry implements Expiry<String, VerifiedToken> {
+
+        @Override
+        public long expireAfterCreate(String key, VerifiedToken value, long currentTime) {
+            Date expiration = value.claims().getExpiration();
+            if (expiration == null) {
+                return 0;
+            }
+            long remainingMillis = expiration.getTime() - System.currentTimeMillis();
+            return Math.max(0, Math.min(TimeUnit.MILLISECONDS.toNanos(remainingMillis), maxTtlNanos));
+        }
+
+        @Override
+        public long expireAfterUpdate(String key, VerifiedToken value, long currentTime, long currentDuration) {
+            return expireAfterCreate(key, value, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(String key, VerifiedToken value, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+}
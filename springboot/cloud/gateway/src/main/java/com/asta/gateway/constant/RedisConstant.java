@@ -0,0 +1,29 @@
+package com.asta.gateway.constant;
+
+/**
+ * Redis key 与频道，与 service-auth 中的定义保持一致
+ */
+public class RedisConstant {
+
+    /**
+     * 已注销 token key 前缀，完整 key 为 前缀 + jti，值为 token 的过期时刻 (毫秒)，过期时间与 token 的 exp 一致
+     */
+    public static final String REVOKED_TOKEN_KEY_PREFIX = "token:revoked:jti:";
+
+    /**
+     * 用户强制下线 key 前缀，完整 key 为 前缀 + 用户名，值为下线时刻 (毫秒)，该时刻之前签发的 token 全部失效
+     */
+    public static final String REVOKED_USER_KEY_PREFIX = "token:revoked:user:";
+
+    /**
+     * token 注销广播频道，消息体为 t:过期时刻:jti 或 u:失效时刻:用户名，收到后写入本地过滤器
+     */
+    public static final String TOKEN_REVOCATION_CHANNEL = "token:revoked";
+
+    /**
+     * 网关按用户限流的请求数汇总 key 前缀，完整 key 为 前缀 + 同步周期序号，hash 的 field 为用户名，值为所有网关实例在该周期上报的请求数。
+     * {} 内为 hash tag，集群模式下相邻周期的 key 位于同一 slot，可在同一脚本中访问
+     */
+    public static final String USER_RATE_LIMIT_KEY_PREFIX = "{ratelimit:user}:";
+
+}
@@ -0,0 +1,14 @@
+package com.asta.gateway.loadbalancer;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.cloud.loadbalancer.annotation.LoadBalancerClients;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * lb:// 路由使用基于延迟的 P2C 负载均衡 ({@link PeakEwmaLoadBalancer})，lb.peak-ewma.enabled=false 时恢复默认的轮询
+ */
+@Configuration
+@ConditionalOnProperty(name = "lb.peak-ewma.enabled", havingValue = "true", matchIfMissing = true)
+@LoadBalancerClients(defaultConfiguration = PeakEwmaLoadBalancerConfiguration.class)
+public class LoadBalancerConfig {
+}
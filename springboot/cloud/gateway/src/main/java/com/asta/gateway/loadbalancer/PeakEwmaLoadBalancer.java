@@ -0,0 +1,301 @@
+package com.asta.gateway.loadbalancer;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.loadbalancer.CompletionContext;
+import org.springframework.cloud.client.loadbalancer.EmptyResponse;
+import org.springframework.cloud.client.loadbalancer.LoadBalancerLifecycle;
+import org.springframework.cloud.client.loadbalancer.Request;
+import org.springframework.cloud.client.loadbalancer.Response;
+import org.springframework.cloud.loadbalancer.core.NoopServiceInstanceListSupplier;
+import org.springframework.cloud.loadbalancer.core.ReactorServiceInstanceLoadBalancer;
+import org.springframework.cloud.loadbalancer.core.SelectedInstanceCallback;
+import org.springframework.cloud.loadbalancer.core.ServiceInstanceListSupplier;
+import reactor.core.publisher.Mono;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.LongSupplier;
+
+/**
+ * 基于延迟的 P2C (power of two choices) 负载均衡
+ * <p>
+ * 每次从实例列表中随机取两个，选择代价较低的一个。代价 = peak EWMA 延迟 × (进行中的请求数 + 1) / 预热权重：
+ * <ul>
+ *     <li>peak EWMA：新样本高于当前值时直接取新样本 (对变慢立即反应)，低于时按时间衰减的指数加权平均缓慢下降；
+ *     空闲期间同样随时间衰减，变慢后被冷落的实例会逐渐重新获得流量</li>
+ *     <li>进行中的请求数：GC 停顿或卡住的实例在出结果之前就会因请求堆积而被避开</li>
+ *     <li>预热 (slow start)：首次出现的实例以同伴的平均延迟为初值，权重在 slow-start 时间内从 min-weight 线性升到 1</li>
+ * </ul>
+ * 延迟由 {@link LoadBalancerLifecycle} 回调测量：网关在转发前调用 onStartRequest，响应写完 (或失败) 后调用 onComplete，
+ * 因此包含下游处理与响应传输的时间；连接失败等异常按 failure-penalty 计入。每个服务一个实例 (LoadBalancer 子上下文)。
+ */
+@Slf4j
+public class PeakEwmaLoadBalancer implements ReactorServiceInstanceLoadBalancer,
+        LoadBalancerLifecycle<Object, Object, ServiceInstance> {
+
+    private final ObjectProvider<ServiceInstanceListSupplier> supplierProvider;
+
+    private final String serviceId;
+
+    private final double decayNanos;
+
+    private final long slowStartNanos;
+
+    private final double minWeight;
+
+    private final long failurePenaltyNanos;
+
+    private final long initialLatencyNanos;
+
+    /**
+     * 纳秒时钟，测试中替换为手动推进的时钟
+     */
+    private final LongSupplier nanoClock;
+
+    /**
+     * 实例 -> 统计，实例下线后在下一次选择时清除
+     */
+    private final Map<String, InstanceStats> stats = new ConcurrentHashMap<>();
+
+    /**
+     * @param decayMillis EWMA 的时间常数 (毫秒)，越大越平滑
+     * @param slowStartMillis 新实例的预热时间 (毫秒)，0 表示不预热
+     * @param minWeight 预热开始时的权重，范围 (0, 1]
+     * @param failurePenaltyMillis 请求失败时计入的延迟 (毫秒)
+     * @param initialLatencyMillis 没有任何延迟样本时新实例的初始延迟 (毫秒)
+     */
+    public PeakEwmaLoadBalancer(ObjectProvider<ServiceInstanceListSupplier> supplierProvider, String serviceId,
+                                long decayMillis, long slowStartMillis, double minWeight,
+                                long failurePenaltyMillis, long initialLatencyMillis) {
+        this(supplierProvider, serviceId, decayMillis, slowStartMillis, minWeight, failurePenaltyMillis,
+                initialLatencyMillis, System::nanoTime);
+    }
+
+    PeakEwmaLoadBalancer(ObjectProvider<ServiceInstanceListSupplier> supplierProvider, String serviceId,
+                         long decayMillis, long slowStartMillis, double minWeight,
+                         long failurePenaltyMillis, long initialLatencyMillis, LongSupplier nanoClock) {
+        if (decayMillis <= 0 || minWeight <= 0 || minWeight > 1) {
+            throw new IllegalArgumentException("decay 必须大于 0，min-weight 必须位于 (0, 1]");
+        }
+        this.supplierProvider = supplierProvider;
+        this.serviceId = serviceId;
+        this.decayNanos = TimeUnit.MILLISECONDS.toNanos(decayMillis);
+        this.slowStartNanos = TimeUnit.MILLISECONDS.toNanos(slowStartMillis);
+        this.minWeight = minWeight;
+        this.failurePenaltyNanos = TimeUnit.MILLISECONDS.toNanos(failurePenaltyMillis);
+        this.initialLatencyNanos = TimeUnit.MILLISECONDS.toNanos(initialLatencyMillis);
+        this.nanoClock = nanoClock;
+    }
+
+    @Override
+    @SuppressWarnings("rawtypes")
+    public Mono<Response<ServiceInstance>> choose(Request request) {
+        ServiceInstanceListSupplier supplier = supplierProvider.getIfAvailable(NoopServiceInstanceListSupplier::new);
+        return supplier.get(request).next().map(instances -> {
+            Response<ServiceInstance> response = choose(instances);
+            if (supplier instanceof SelectedInstanceCallback callback && response.hasServer()) {
+                callback.selectedServiceInstance(response.getServer());
+            }
+            return response;
+        });
+    }
+
+    Response<ServiceInstance> choose(List<ServiceInstance> instances) {
+        int size = instances.size();
+        if (size == 0) {
+            log.warn("服务 {} 没有可用实例", serviceId);
+            return new EmptyResponse();
+        }
+        long now = nanoClock.getAsLong();
+        if (stats.size() > size) {
+            evict(instances);
+        }
+        if (size == 1) {
+            ServiceInstance only = instances.get(0);
+            return new TrackedResponse(only, stats(only, instances, now));
+        }
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int first = random.nextInt(size);
+        int second = random.nextInt(size - 1);
+        if (second >= first) {
+            second++;
+        }
+        ServiceInstance a = instances.get(first);
+        ServiceInstance b = instances.get(second);
+        InstanceStats statsA = stats(a, instances, now);
+        InstanceStats statsB = stats(b, instances, now);
+        return statsA.cost(now) <= statsB.cost(now) ? new TrackedResponse(a, statsA) : new TrackedResponse(b, statsB);
+    }
+
+    private InstanceStats stats(ServiceInstance instance, List<ServiceInstance> peers, long now) {
+        String key = key(instance);
+        InstanceStats existing = stats.get(key);
+        if (existing != null) {
+            return existing;
+        }
+        return stats.computeIfAbsent(key, k -> new InstanceStats(seedLatency(peers, now), now));
+    }
+
+    /**
+     * 新实例的初始延迟：已有样本的同伴的平均值，都没有样本时取 initial-latency
+     */
+    private double seedLatency(List<ServiceInstance> peers, long now) {
+        double sum = 0;
+        int count = 0;
+        for (ServiceInstance peer : peers) {
+            InstanceStats peerStats = stats.get(key(peer));
+            if (peerStats != null && peerStats.sampled) {
+                sum += peerStats.ewma(now);
+                count++;
+            }
+        }
+        return count > 0 ? sum / count : initialLatencyNanos;
+    }
+
+    private void evict(List<ServiceInstance> instances) {
+        Set<String> alive = new HashSet<>(instances.size() * 2);
+        for (ServiceInstance instance : instances) {
+            alive.add(key(instance));
+        }
+        stats.keySet().retainAll(alive);
+    }
+
+    private static String key(ServiceInstance instance) {
+        String instanceId = instance.getInstanceId();
+        return instanceId != null ? instanceId : instance.getHost() + ":" + instance.getPort();
+    }
+
+    @Override
+    public void onStart(Request<Object> request) {
+    }
+
+    @Override
+    public void onStartRequest(Request<Object> request, Response<ServiceInstance> lbResponse) {
+        if (lbResponse instanceof TrackedResponse tracked) {
+            tracked.start();
+        }
+    }
+
+    @Override
+    public void onComplete(CompletionContext<Object, ServiceInstance, Object> completionContext) {
+        if (completionContext.getLoadBalancerResponse() instanceof TrackedResponse tracked) {
+            tracked.complete(completionContext.status() == CompletionContext.Status.FAILED);
+        }
+    }
+
+    /**
+     * 单个实例的延迟与进行中的请求数
+     */
+    private final class InstanceStats {
+
+        private final long firstSeenNanos;
+
+        private final AtomicInteger outstanding = new AtomicInteger();
+
+        private double ewma;
+
+        private long stamp;
+
+        /**
+         * 是否已有真实的延迟样本 (而非初值)
+         */
+        private volatile boolean sampled;
+
+        InstanceStats(double initialLatency, long now) {
+            this.firstSeenNanos = now;
+            this.ewma = initialLatency;
+            this.stamp = now;
+        }
+
+        synchronized void observe(double latencyNanos, long now) {
+            update(latencyNanos, now);
+        }
+
+        /**
+         * 读取时先按空闲时间衰减
+         */
+        synchronized double ewma(long now) {
+            update(0, now);
+            return ewma;
+        }
+
+        private void update(double latencyNanos, long now) {
+            double elapsed = Math.max(now - stamp, 0);
+            stamp = now;
+            if (latencyNanos > ewma) {
+                ewma = latencyNanos;
+            } else {
+                double weight = Math.exp(-elapsed / decayNanos);
+                ewma = ewma * weight + latencyNanos * (1 - weight);
+            }
+        }
+
+        double cost(long now) {
+            return ewma(now) * (outstanding.get() + 1) / weight(now);
+        }
+
+        private double weight(long now) {
+            if (slowStartNanos <= 0) {
+                return 1;
+            }
+            double ramp = (double) (now - firstSeenNanos) / slowStartNanos;
+            return ramp >= 1 ? 1 : Math.max(minWeight, ramp);
+        }
+    }
+
+    /**
+     * 选择结果，网关在生命周期回调中原样传回，用于测量该次请求的延迟
+     */
+    private final class TrackedResponse implements Response<ServiceInstance> {
+
+        private final ServiceInstance instance;
+
+        private final InstanceStats stats;
+
+        private final AtomicBoolean inFlight = new AtomicBoolean();
+
+        private volatile long startNanos;
+
+        TrackedResponse(ServiceInstance instance, InstanceStats stats) {
+            this.instance = instance;
+            this.stats = stats;
+        }
+
+        @Override
+        public boolean hasServer() {
+            return true;
+        }
+
+        @Override
+        public ServiceInstance getServer() {
+            return instance;
+        }
+
+        void start() {
+            if (inFlight.compareAndSet(false, true)) {
+                startNanos = nanoClock.getAsLong();
+                stats.outstanding.incrementAndGet();
+            }
+        }
+
+        void complete(boolean failed) {
+            if (!inFlight.compareAndSet(true, false)) {
+                return;
+            }
+            long now = nanoClock.getAsLong();
+            stats.outstanding.decrementAndGet();
+            long latency = now - startNanos;
+            stats.observe(failed ? Math.max(latency, failurePenaltyNanos) : latency, now);
+            stats.sampled = true;
+        }
+    }
+}
@@ -0,0 +1,32 @@
+package com.asta.gateway.loadbalancer;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.loadbalancer.core.ReactorLoadBalancer;
+import org.springframework.cloud.loadbalancer.core.ServiceInstanceListSupplier;
+import org.springframework.cloud.loadbalancer.support.LoadBalancerClientFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.core.env.Environment;
+
+/**
+ * 各服务 LoadBalancer 子上下文的配置，替换默认的轮询
+ * <p>
+ * 只通过 {@link LoadBalancerConfig} 的 @LoadBalancerClients 注册到子上下文，不能标注 @Configuration 被组件扫描到网关的主上下文。
+ */
+public class PeakEwmaLoadBalancerConfiguration {
+
+    @Bean
+    public ReactorLoadBalancer<ServiceInstance> peakEwmaLoadBalancer(
+            Environment environment,
+            LoadBalancerClientFactory loadBalancerClientFactory,
+            @Value("${lb.peak-ewma.decay:10000}") long decayMillis,
+            @Value("${lb.peak-ewma.slow-start:30000}") long slowStartMillis,
+            @Value("${lb.peak-ewma.min-weight:0.1}") double minWeight,
+            @Value("${lb.peak-ewma.failure-penalty:1000}") long failurePenaltyMillis,
+            @Value("${lb.peak-ewma.initial-latency:10}") long initialLatencyMillis) {
+        String serviceId = environment.getProperty(LoadBalancerClientFactory.PROPERTY_NAME);
+        return new PeakEwmaLoadBalancer(
+                loadBalancerClientFactory.getLazyProvider(serviceId, ServiceInstanceListSupplier.class), serviceId,
+                decayMillis, slowStartMillis, minWeight, failurePenaltyMillis, initialLatencyMillis);
+    }
+}
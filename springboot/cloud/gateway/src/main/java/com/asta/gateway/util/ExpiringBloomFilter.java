@@ -0,0 +1,117 @@
+package com.asta.gateway.util;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 按过期时间分桶的布隆过滤器，条目在指定时刻后自动失效
+ * <p>
+ * 时间轴按 bucketMillis 切分为若干桶，每个桶是一个独立的 {@link BloomFilter}，条目写入其过期时刻所在的桶，
+ * 判断时也只检查该桶。桶的结束时刻早于当前时间后整桶丢弃，无需逐条删除。
+ * <p>
+ * 只记录过期时刻位于 (now, now + horizonMillis] 内的条目，因此桶的数量不超过 horizonMillis / bucketMillis + 2，
+ * 每个桶的大小固定，总内存有上界；超出范围的过期时刻一律判定为可能存在，由调用方回落到权威数据源。
+ */
+public class ExpiringBloomFilter {
+
+    private final long bucketMillis;
+
+    private final long horizonMillis;
+
+    private final long expectedInsertionsPerBucket;
+
+    private final double fpp;
+
+    /**
+     * 桶序号 (过期时刻 / bucketMillis) 到过滤器的映射，桶在首次写入时创建
+     */
+    private final Map<Long, BloomFilter> buckets = new ConcurrentHashMap<>();
+
+    /**
+     * @param bucketMillis 每个桶覆盖的时间长度 (毫秒)
+     * @param horizonMillis 条目的最长存活时间 (毫秒)，通常为 token 的有效期
+     * @param expectedInsertionsPerBucket 每个桶的预期条目数
+     * @param fpp 每个桶的目标误判率
+     */
+    public ExpiringBloomFilter(long bucketMillis, long horizonMillis, long expectedInsertionsPerBucket, double fpp) {
+        if (bucketMillis <= 0 || horizonMillis <= 0) {
+            throw new IllegalArgumentException("bucketMillis 与 horizonMillis 必须大于 0");
+        }
+        this.bucketMillis = bucketMillis;
+        this.horizonMillis = horizonMillis;
+        this.expectedInsertionsPerBucket = expectedInsertionsPerBucket;
+        this.fpp = fpp;
+        // 提前校验参数，避免在首次写入时才抛出异常
+        BloomFilter.create(expectedInsertionsPerBucket, fpp);
+    }
+
+    /**
+     * 添加一个在 expiresAtMillis 失效的条目
+     * @param value 元素
+     * @param expiresAtMillis 失效时刻
+     * @param nowMillis 当前时间
+     */
+    public void put(String value, long expiresAtMillis, long nowMillis) {
+        if (expiresAtMillis <= nowMillis || expiresAtMillis > nowMillis + horizonMillis) {
+            return;
+        }
+        bucket(expiresAtMillis / bucketMillis).put(value);
+    }
+
+    /**
+     * 添加一个对 [nowMillis, untilMillis] 内任意过期时刻都生效的条目，即写入这段时间覆盖的每个桶
+     * @param value 元素
+     * @param untilMillis 条目失效时刻
+     * @param nowMillis 当前时间
+     */
+    public void putUntil(String value, long untilMillis, long nowMillis) {
+        long last = Math.min(untilMillis, nowMillis + horizonMillis) / bucketMillis;
+        for (long index = nowMillis / bucketMillis; index <= last; index++) {
+            bucket(index).put(value);
+        }
+    }
+
+    /**
+     * 判断过期时刻为 expiresAtMillis 的条目是否可能存在
+     * @param value 元素
+     * @param expiresAtMillis 条目的过期时刻
+     * @param nowMillis 当前时间
+     * @return false 表示一定不存在；过期时刻超出记录范围时返回 true
+     */
+    public boolean mightContain(String value, long expiresAtMillis, long nowMillis) {
+        if (expiresAtMillis > nowMillis + horizonMillis) {
+            return true;
+        }
+        BloomFilter filter = buckets.get(expiresAtMillis / bucketMillis);
+        return filter != null && filter.mightContain(value);
+    }
+
+    /**
+     * 丢弃结束时刻不晚于当前时间的桶
+     * @param nowMillis 当前时间
+     * @return 丢弃的桶数
+     */
+    public int expire(long nowMillis) {
+        int before = buckets.size();
+        buckets.keySet().removeIf(index -> (index + 1) * bucketMillis <= nowMillis);
+        return before - buckets.size();
+    }
+
+    /**
+     * @return 当前的桶数
+     */
+    public int bucketCount() {
+        return buckets.size();
+    }
+
+    /**
+     * @return 所有桶的估算条目数之和
+     */
+    public long approximateElementCount() {
+        return buckets.values().stream().mapToLong(BloomFilter::approximateElementCount).sum();
+    }
+
+    private BloomFilter bucket(long index) {
+        return buckets.computeIfAbsent(index, i -> BloomFilter.create(expectedInsertionsPerBucket, fpp));
+    }
+}
@@ -0,0 +1,65 @@
+package com.asta.gateway.util;
+
+import io.jsonwebtoken.io.Decoders;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.util.Base64;
+
+/**
+ * 对转发给下游服务的用户信息签名
+ * <p>
+ * 签名为 HMAC-SHA256(用户名 + "\n" + 权限 + "\n" + 时间戳)，Base64URL (无填充) 编码后写入 X-User-Signature，
+ * 时间戳 (epoch 毫秒) 写入 X-User-Timestamp。密钥 auth.gateway.signing-secret (Base64，至少 32 字节) 与
+ * 下游服务共享，保存在 Nacos system.yml 中；下游按相同格式校验签名与时间戳，不信任未签名的用户信息请求头。
+ */
+@Component
+public class GatewayIdentitySigner {
+
+    private static final String ALGORITHM = "HmacSHA256";
+
+    private final SecretKeySpec key;
+
+    /**
+     * Mac 不是线程安全的，每个线程 (事件循环与验签线程数固定) 复用一个实例
+     */
+    private final ThreadLocal<Mac> mac;
+
+    /**
+     * @param secret 从 nacos 读取 secret (Base64)
+     */
+    public GatewayIdentitySigner(@Value("${auth.gateway.signing-secret}") String secret) {
+        byte[] bytes = Decoders.BASE64.decode(secret);
+        if (bytes.length < 32) {
+            throw new IllegalArgumentException("auth.gateway.signing-secret 至少需要 32 字节");
+        }
+        this.key = new SecretKeySpec(bytes, ALGORITHM);
+        this.mac = ThreadLocal.withInitial(this::newMac);
+    }
+
+    /**
+     * @param username 用户名
+     * @param roles 权限列表，格式为 [ROLE_A, ROLE_B]
+     * @param timestampMillis 签名时间 (epoch 毫秒)
+     * @return 签名
+     */
+    public String sign(String username, String roles, long timestampMillis) {
+        String payload = username + "\n" + roles + "\n" + timestampMillis;
+        byte[] signature = mac.get().doFinal(payload.getBytes(StandardCharsets.UTF_8));
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(signature);
+    }
+
+    private Mac newMac() {
+        try {
+            Mac instance = Mac.getInstance(ALGORITHM);
+            instance.init(key);
+            return instance;
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("初始化 " + ALGORITHM + " 失败", e);
+        }
+    }
+}
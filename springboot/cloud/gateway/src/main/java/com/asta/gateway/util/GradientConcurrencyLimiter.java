@@ -0,0 +1,246 @@
+package com.asta.gateway.util;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.LongSupplier;
+
+/**
+ * 基于 RTT 梯度的自适应并发上限 (参考 Netflix concurrency-limits 的 Gradient2 与 TCP Vegas)
+ * <p>
+ * 请求结束时记录 RTT，每个窗口 (不短于 window，且至少 min-window-samples 个样本) 结束时更新一次上限：
+ * <pre>
+ * shortRtt = 窗口内 RTT 的平均值
+ * longRtt  = 后端未排队时的 RTT 基线 (类似 Vegas 的 no-load RTT)，上移时按约 long-window 个窗口平滑
+ * gradient = clamp(rtt-tolerance × longRtt / shortRtt, 0.5, 1)
+ * newLimit = limit × gradient + sqrt(limit)
+ * limit    = limit × (1 - smoothing) + newLimit × smoothing
+ * </pre>
+ * 后端排队导致 shortRtt 超出基线的 rtt-tolerance 倍后梯度小于 1，上限随之下降；RTT 平稳时每个窗口以 sqrt(limit)
+ * (即允许的排队长度) 探测更高的上限。两者平衡时 shortRtt 约为基线的 rtt-tolerance / (1 - 1 / sqrt(limit)) 倍。窗口内出现失败 (超时、连接错误、后端返回过载状态码) 时不经平滑，直接按 backoff-ratio 乘性下降。
+ * 窗口内的最大并发不足上限的一半时不更新上限，避免流量较低时上限无限增长。
+ * 基线在首个窗口取得，遇到更低的窗口 RTT 时快速下调，只在低流量或上限已降到 min-limit 时才跟随上移；
+ * 初始上限应低于后端容量，否则首个窗口的 RTT 包含排队时间。
+ * <p>
+ * 超出上限的请求由调用方立即拒绝，不排队。获取与释放为无锁操作，样本记录与上限更新的临界区只有常数次算术运算。
+ */
+public class GradientConcurrencyLimiter {
+
+    private final int minLimit;
+
+    private final int maxLimit;
+
+    private final double rttTolerance;
+
+    private final double smoothing;
+
+    private final double longRttFactor;
+
+    private final double backoffRatio;
+
+    private final long windowNanos;
+
+    private final int minWindowSamples;
+
+    /**
+     * 纳秒时钟，测试中替换为手动推进的时钟
+     */
+    private final LongSupplier nanoClock;
+
+    private final AtomicInteger inflight = new AtomicInteger();
+
+    private volatile double estimatedLimit;
+
+    /**
+     * 当前生效的整数上限，获取时只读这一个字段
+     */
+    private volatile int limit;
+
+    private volatile double shortRttNanos;
+
+    private volatile double longRttNanos;
+
+    // 以下字段只在 synchronized 中访问
+
+    private long windowStart;
+
+    private long windowRttSum;
+
+    private int windowSamples;
+
+    private int windowDrops;
+
+    private int windowMaxInflight;
+
+    /**
+     * @param initialLimit 初始上限
+     * @param minLimit 上限的下界
+     * @param maxLimit 上限的上界
+     * @param rttTolerance 短期 RTT 超过长期 RTT 的多少倍时开始降低上限，不小于 1
+     * @param smoothing 每个窗口向新上限靠拢的比例，范围 (0, 1]
+     * @param longWindow 长期 RTT 的平滑窗口数
+     * @param backoffRatio 窗口内出现失败时上限乘以的系数，范围 (0, 1)
+     * @param windowMillis 窗口的最短时长 (毫秒)
+     * @param minWindowSamples 窗口的最少样本数
+     */
+    public GradientConcurrencyLimiter(int initialLimit, int minLimit, int maxLimit, double rttTolerance,
+                                      double smoothing, int longWindow, double backoffRatio,
+                                      long windowMillis, int minWindowSamples) {
+        this(initialLimit, minLimit, maxLimit, rttTolerance, smoothing, longWindow, backoffRatio,
+                windowMillis, minWindowSamples, System::nanoTime);
+    }
+
+    GradientConcurrencyLimiter(int initialLimit, int minLimit, int maxLimit, double rttTolerance,
+                               double smoothing, int longWindow, double backoffRatio,
+                               long windowMillis, int minWindowSamples, LongSupplier nanoClock) {
+        if (minLimit < 1 || maxLimit < minLimit || initialLimit < minLimit || initialLimit > maxLimit) {
+            throw new IllegalArgumentException("并发上限需满足 1 <= min-limit <= initial-limit <= max-limit");
+        }
+        if (rttTolerance < 1 || smoothing <= 0 || smoothing > 1 || longWindow < 1
+                || backoffRatio <= 0 || backoffRatio >= 1 || windowMillis < 0 || minWindowSamples < 1) {
+            throw new IllegalArgumentException("rtt-tolerance 必须不小于 1，smoothing 必须位于 (0, 1]，backoff-ratio 必须位于 (0, 1)");
+        }
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.rttTolerance = rttTolerance;
+        this.smoothing = smoothing;
+        this.longRttFactor = 2.0 / (longWindow + 1);
+        this.backoffRatio = backoffRatio;
+        this.windowNanos = TimeUnit.MILLISECONDS.toNanos(windowMillis);
+        this.minWindowSamples = minWindowSamples;
+        this.estimatedLimit = initialLimit;
+        this.limit = initialLimit;
+        this.nanoClock = nanoClock;
+        this.windowStart = nanoClock.getAsLong();
+    }
+
+    /**
+     * 尝试占用一个并发名额
+     * @return 未超出上限时返回 true，调用方必须在请求结束后调用 {@link #release} 一次
+     */
+    public boolean tryAcquire() {
+        while (true) {
+            int current = inflight.get();
+            if (current >= limit) {
+                return false;
+            }
+            if (inflight.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * 释放并发名额并记录样本
+     * @param startNanos 请求开始时的 System.nanoTime()
+     * @param outcome 请求结果
+     */
+    public void release(long startNanos, Outcome outcome) {
+        // 释放前的并发数包含本请求，用于判断窗口内是否用满了上限
+        int current = inflight.getAndDecrement();
+        if (outcome == Outcome.IGNORED) {
+            return;
+        }
+        long now = nanoClock.getAsLong();
+        sample(now - startNanos, current, outcome == Outcome.DROPPED, now);
+    }
+
+    private synchronized void sample(long rttNanos, int currentInflight, boolean dropped, long now) {
+        if (dropped) {
+            windowDrops++;
+        } else {
+            windowRttSum += rttNanos;
+            windowSamples++;
+        }
+        windowMaxInflight = Math.max(windowMaxInflight, currentInflight);
+        if (now - windowStart < windowNanos || windowSamples + windowDrops < minWindowSamples) {
+            return;
+        }
+        update();
+        windowStart = now;
+        windowRttSum = 0;
+        windowSamples = 0;
+        windowDrops = 0;
+        windowMaxInflight = 0;
+    }
+
+    private void update() {
+        double current = estimatedLimit;
+        double newLimit;
+        if (windowDrops > 0) {
+            // 过载信号不经平滑，立即乘性下降
+            newLimit = current * backoffRatio;
+        } else {
+            double shortRtt = (double) windowRttSum / windowSamples;
+            // 流量不足以用满上限时 RTT 不含排队时间，但也无法反映容量
+            boolean appLimited = windowMaxInflight < current / 2;
+            double longRtt = longRttNanos;
+            if (longRtt == 0) {
+                longRtt = shortRtt;
+            } else if (shortRtt < longRtt) {
+                // 更低的 RTT 说明基线偏高 (如首个窗口包含预热开销)，快速下调
+                longRtt = (longRtt + shortRtt) / 2;
+            } else if (appLimited || current <= minLimit) {
+                // 用满上限时基线不上移，否则基线会跟随排队延迟一起上涨，上限随之失控；
+                // 上限已降到 min-limit 时 RTT 仍然偏高，说明后端本身变慢，基线跟随上移
+                longRtt = longRtt * (1 - longRttFactor) + shortRtt * longRttFactor;
+            }
+            shortRttNanos = shortRtt;
+            longRttNanos = longRtt;
+            if (appLimited) {
+                return;
+            }
+            double gradient = Math.max(0.5, Math.min(1.0, rttTolerance * longRtt / shortRtt));
+            newLimit = current * gradient + Math.sqrt(current);
+            newLimit = current * (1 - smoothing) + newLimit * smoothing;
+        }
+        newLimit = Math.max(minLimit, Math.min(maxLimit, newLimit));
+        estimatedLimit = newLimit;
+        limit = (int) newLimit;
+    }
+
+    /**
+     * @return 当前的并发上限
+     */
+    public int getLimit() {
+        return limit;
+    }
+
+    /**
+     * @return 当前进行中的请求数
+     */
+    public int getInflight() {
+        return inflight.get();
+    }
+
+    /**
+     * @return 最近一个窗口的平均 RTT (纳秒)，尚无样本时为 0
+     */
+    public double getShortRttNanos() {
+        return shortRttNanos;
+    }
+
+    /**
+     * @return 长期 RTT 基线 (纳秒)，尚无样本时为 0
+     */
+    public double getLongRttNanos() {
+        return longRttNanos;
+    }
+
+    /**
+     * 请求结果
+     */
+    public enum Outcome {
+        /**
+         * 正常完成，RTT 计入样本
+         */
+        SUCCESS,
+        /**
+         * 超时、连接失败或后端返回过载状态码，触发乘性下降
+         */
+        DROPPED,
+        /**
+         * 客户端取消等与后端容量无关的结束，只释放名额
+         */
+        IGNORED
+    }
+}
@@ -0,0 +1,42 @@
+package com.asta.gateway.util;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtParser;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.io.Decoders;
+import io.jsonwebtoken.security.Keys;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * 网关的 JWT 验签
+ * <p>
+ * 网关只校验 token，不签发。key 与解析器在启动时构建一次，JwtParser 不可变且线程安全，可在所有请求间共享。
+ */
+@Component
+public class JwtVerifier {
+
+    /**
+     * 预构建的解析器
+     */
+    private final JwtParser parser;
+
+    /**
+     * @param secret 从 nacos 读取 secret (Base64)
+     */
+    public JwtVerifier(@Value("${jwt.secret}") String secret) {
+        this.parser = Jwts.parserBuilder()
+                .setSigningKey(Keys.hmacShaKeyFor(Decoders.BASE64.decode(secret)))
+                .build();
+    }
+
+    /**
+     * 解析并验签 token
+     * @param token 用户token
+     * @return claims信息
+     * @throws io.jsonwebtoken.JwtException 签名无效、格式错误或已过期
+     */
+    public Claims verify(String token) {
+        return parser.parseClaimsJws(token).getBody();
+    }
+}
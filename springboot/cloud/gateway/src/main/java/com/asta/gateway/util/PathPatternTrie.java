@@ -0,0 +1,326 @@
+package com.asta.gateway.util;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 预编译的路径模式前缀树
+ * <p>
+ * 把一组 Ant 风格的路径模式按 "/" 分段合并为一棵前缀树，匹配时沿路径逐段下行，耗时取决于路径深度与各层的通配分支数，
+ * 与模式总数基本无关；匹配过程不分配对象。支持的语法为 AntPathMatcher 的常用子集：字面段、"*" 与 "{name}" (任意一段)、
+ * 段内通配 ("*.js"、"v?")、"**" (零或多段，可出现在任意位置)。"{name:regex}" 不支持，编译时拒绝，避免按更宽的规则放行。
+ * <p>
+ * 与 AntPathMatcher 相同，连续的 "/" 视为一个分隔符，以 "/" 结尾的路径只匹配同样以 "/" 结尾或以 "**" 结尾的模式。
+ * 构建后不可变，可在线程间共享。
+ */
+public final class PathPatternTrie {
+
+    private static final String DOUBLE_WILDCARD = "**";
+
+    private static final String WILDCARD = "*";
+
+    private final Node root;
+
+    private final int size;
+
+    private PathPatternTrie(Node root, int size) {
+        this.root = root;
+        this.size = size;
+    }
+
+    /**
+     * 编译一组模式
+     * @param patterns 以 "/" 开头的路径模式
+     * @return 前缀树
+     * @throws IllegalArgumentException 模式不以 "/" 开头或包含不支持的语法
+     */
+    public static PathPatternTrie compile(Collection<String> patterns) {
+        Builder root = new Builder();
+        for (String pattern : patterns) {
+            if (pattern == null || !pattern.startsWith("/")) {
+                throw new IllegalArgumentException("路径模式必须以 / 开头: " + pattern);
+            }
+            Builder node = root;
+            String last = null;
+            for (String segment : pattern.split("/+")) {
+                if (segment.isEmpty()) {
+                    continue;
+                }
+                node = node.child(normalize(pattern, segment));
+                last = segment;
+            }
+            if (DOUBLE_WILDCARD.equals(last)) {
+                node.terminal = true;
+                node.terminalSlash = true;
+            } else if (pattern.endsWith("/")) {
+                node.terminalSlash = true;
+            } else {
+                node.terminal = true;
+            }
+        }
+        return new PathPatternTrie(root.build(), patterns.size());
+    }
+
+    /**
+     * 把 "{name}" 视为 "*"，拒绝带正则的变量
+     */
+    private static String normalize(String pattern, String segment) {
+        if (segment.indexOf('{') < 0) {
+            return segment;
+        }
+        StringBuilder normalized = new StringBuilder(segment.length());
+        int i = 0;
+        while (i < segment.length()) {
+            char c = segment.charAt(i);
+            if (c != '{') {
+                normalized.append(c);
+                i++;
+                continue;
+            }
+            int close = segment.indexOf('}', i);
+            if (close < 0 || segment.indexOf(':', i) > i && segment.indexOf(':', i) < close) {
+                throw new IllegalArgumentException("不支持的路径变量: " + pattern);
+            }
+            normalized.append('*');
+            i = close + 1;
+        }
+        return normalized.toString();
+    }
+
+    /**
+     * @return 编译时的模式数量
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * 判断路径是否匹配任意一个模式
+     * @param path 请求路径 (不含查询参数)
+     * @return 是否匹配
+     */
+    public boolean matches(String path) {
+        if (path.isEmpty() || path.charAt(0) != '/') {
+            return false;
+        }
+        return match(root, path, 0, path.charAt(path.length() - 1) == '/');
+    }
+
+    private static boolean match(Node node, String path, int pos, boolean trailingSlash) {
+        int length = path.length();
+        int start = skipSeparators(path, pos);
+        if (start == length) {
+            if (trailingSlash ? node.terminalSlash : node.terminal) {
+                return true;
+            }
+            // 末尾的 ** 可以匹配零段
+            return node.doubleWildcard != null && match(node.doubleWildcard, path, length, trailingSlash);
+        }
+        int end = path.indexOf('/', start);
+        if (end < 0) {
+            end = length;
+        }
+        Node literal = node.literals.get(path, start, end);
+        if (literal != null && match(literal, path, end, trailingSlash)) {
+            return true;
+        }
+        if (node.wildcard != null && match(node.wildcard, path, end, trailingSlash)) {
+            return true;
+        }
+        for (Glob glob : node.globs) {
+            if (glob.matches(path, start, end) && match(glob.node, path, end, trailingSlash)) {
+                return true;
+            }
+        }
+        Node doubleWildcard = node.doubleWildcard;
+        if (doubleWildcard == null) {
+            return false;
+        }
+        if (doubleWildcard.isTail()) {
+            // 以 ** 结尾的模式 (如 /auth/**) 匹配之后的任意路径
+            return true;
+        }
+        // ** 依次吞掉零段、一段、两段……
+        int next = start;
+        while (true) {
+            if (match(doubleWildcard, path, next, trailingSlash)) {
+                return true;
+            }
+            if (next >= length) {
+                return false;
+            }
+            int separator = path.indexOf('/', skipSeparators(path, next));
+            next = separator < 0 ? length : separator;
+        }
+    }
+
+    private static int skipSeparators(String path, int pos) {
+        while (pos < path.length() && path.charAt(pos) == '/') {
+            pos++;
+        }
+        return pos;
+    }
+
+    /**
+     * 构建阶段的节点，子节点按插入顺序保存，构建完成后转换为不可变的 {@link Node}
+     */
+    private static final class Builder {
+
+        private final Map<String, Builder> children = new LinkedHashMap<>();
+
+        private boolean terminal;
+
+        private boolean terminalSlash;
+
+        Builder child(String segment) {
+            return children.computeIfAbsent(segment, s -> new Builder());
+        }
+
+        Node build() {
+            Map<String, Node> literals = new LinkedHashMap<>();
+            List<Glob> globs = new ArrayList<>();
+            Node wildcard = null;
+            Node doubleWildcard = null;
+            for (Map.Entry<String, Builder> entry : children.entrySet()) {
+                String segment = entry.getKey();
+                Node child = entry.getValue().build();
+                if (DOUBLE_WILDCARD.equals(segment)) {
+                    doubleWildcard = child;
+                } else if (WILDCARD.equals(segment)) {
+                    wildcard = child;
+                } else if (segment.indexOf('*') >= 0 || segment.indexOf('?') >= 0) {
+                    globs.add(new Glob(segment, child));
+                } else {
+                    literals.put(segment, child);
+                }
+            }
+            return new Node(SegmentTable.of(literals), wildcard, globs.toArray(new Glob[0]), doubleWildcard,
+                    terminal, terminalSlash);
+        }
+    }
+
+    /**
+     * @param literals 字面段子节点
+     * @param wildcard "*" 子节点
+     * @param globs 段内通配子节点
+     * @param doubleWildcard "**" 子节点
+     * @param terminal 有模式在此结束 (不以 "/" 结尾)
+     * @param terminalSlash 有模式在此结束且以 "/" 结尾
+     */
+    private record Node(SegmentTable literals, Node wildcard, Glob[] globs, Node doubleWildcard,
+                        boolean terminal, boolean terminalSlash) {
+
+        boolean isTail() {
+            return terminal && terminalSlash && literals.isEmpty() && wildcard == null && globs.length == 0
+                    && doubleWildcard == null;
+        }
+    }
+
+    /**
+     * 段内通配，"*" 匹配任意个字符，"?" 匹配一个字符
+     */
+    private record Glob(String pattern, Node node) {
+
+        boolean matches(String path, int start, int end) {
+            int p = 0;
+            int s = start;
+            int star = -1;
+            int resume = 0;
+            while (s < end) {
+                if (p < pattern.length() && (pattern.charAt(p) == '?' || pattern.charAt(p) == path.charAt(s))) {
+                    p++;
+                    s++;
+                } else if (p < pattern.length() && pattern.charAt(p) == '*') {
+                    star = p++;
+                    resume = s;
+                } else if (star >= 0) {
+                    p = star + 1;
+                    s = ++resume;
+                } else {
+                    return false;
+                }
+            }
+            while (p < pattern.length() && pattern.charAt(p) == '*') {
+                p++;
+            }
+            return p == pattern.length();
+        }
+    }
+
+    /**
+     * 字面段的开放寻址哈希表，直接按路径中的区间查找，不截取子串
+     */
+    private static final class SegmentTable {
+
+        private static final SegmentTable EMPTY = new SegmentTable(new String[1], new Node[1]);
+
+        private final String[] keys;
+
+        private final Node[] nodes;
+
+        private final int mask;
+
+        private final int shift;
+
+        private SegmentTable(String[] keys, Node[] nodes) {
+            this.keys = keys;
+            this.nodes = nodes;
+            this.mask = keys.length - 1;
+            this.shift = Integer.numberOfLeadingZeros(mask);
+        }
+
+        static SegmentTable of(Map<String, Node> entries) {
+            if (entries.isEmpty()) {
+                return EMPTY;
+            }
+            // 装载因子不超过 0.5，容量至少为 2
+            int capacity = Integer.highestOneBit(entries.size() * 2 - 1) << 1;
+            SegmentTable table = new SegmentTable(new String[capacity], new Node[capacity]);
+            for (Map.Entry<String, Node> entry : entries.entrySet()) {
+                String key = entry.getKey();
+                int slot = table.slot(key.hashCode());
+                while (table.keys[slot] != null) {
+                    slot = (slot + 1) & table.mask;
+                }
+                table.keys[slot] = key;
+                table.nodes[slot] = entry.getValue();
+            }
+            return table;
+        }
+
+        boolean isEmpty() {
+            return this == EMPTY;
+        }
+
+        Node get(String path, int start, int end) {
+            if (this == EMPTY) {
+                return null;
+            }
+            // 与 String.hashCode 相同的算法
+            int hash = 0;
+            for (int i = start; i < end; i++) {
+                hash = 31 * hash + path.charAt(i);
+            }
+            int length = end - start;
+            for (int slot = slot(hash); ; slot = (slot + 1) & mask) {
+                String key = keys[slot];
+                if (key == null) {
+                    return null;
+                }
+                if (key.length() == length && path.regionMatches(start, key, 0, length)) {
+                    return nodes[slot];
+                }
+            }
+        }
+
+        /**
+         * 斐波那契散列取高位：相邻的段名 (如 app1、app2) 的 String.hashCode 也相邻，直接取低位会在线性探测中连成长簇
+         */
+        private int slot(int hash) {
+            return (hash * 0x9E3779B9) >>> shift;
+        }
+    }
+}
@@ -0,0 +1,101 @@
+package com.asta.gateway.util;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 认证流程分阶段耗时统计
+ * <p>
+ * 指标：auth.stage{pipeline, stage, outcome}，pipeline 为流程 (网关为 gateway)，stage 为流程中的阶段，
+ * outcome 为该阶段的结果。每个 Timer 同时给出次数 (即按结果统计的计数器) 与 SLO 桶 (auth.metrics.slo)，
+ * 可直接计算 "某阶段在 N 毫秒内完成的比例"。
+ * <p>
+ * Timer 在首次记录时注册并缓存，之后每次记录只有两次 Map 查找、一次数组访问与 Timer 本身的开销，
+ * 调用方使用常量字符串作为 pipeline / stage (hash 已缓存)，记录过程不分配对象。
+ */
+@Component
+public class StageMetrics {
+
+    public static final String METRIC_NAME = "auth.stage";
+
+    private final MeterRegistry meterRegistry;
+
+    private final Duration[] slo;
+
+    /**
+     * pipeline -> stage -> 按 Outcome 序号存放的 Timer
+     */
+    private final Map<String, Map<String, Timer[]>> timers = new ConcurrentHashMap<>();
+
+    /**
+     * @param meterRegistry 指标注册表
+     * @param slo SLO 桶的边界，覆盖从验签 (微秒级) 到访问 Redis (毫秒级) 的范围
+     */
+    public StageMetrics(MeterRegistry meterRegistry,
+                        @Value("${auth.metrics.slo:100us,500us,1ms,5ms,10ms,50ms,100ms,250ms,500ms,1s}") Duration[] slo) {
+        this.meterRegistry = meterRegistry;
+        this.slo = slo.clone();
+    }
+
+    /**
+     * 记录一个阶段的耗时
+     * @param pipeline 流程名称，应为常量
+     * @param stage 阶段名称，应为常量
+     * @param startNanos 阶段开始时的 System.nanoTime()
+     * @param outcome 阶段结果
+     */
+    public void record(String pipeline, String stage, long startNanos, Outcome outcome) {
+        timer(pipeline, stage, outcome).record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+    }
+
+    private Timer timer(String pipeline, String stage, Outcome outcome) {
+        Timer[] byOutcome = timers.computeIfAbsent(pipeline, p -> new ConcurrentHashMap<>())
+                .computeIfAbsent(stage, s -> new Timer[Outcome.values().length]);
+        Timer timer = byOutcome[outcome.ordinal()];
+        if (timer == null) {
+            // 并发首次注册时 MeterRegistry 返回同一个 Timer，重复赋值无害
+            timer = Timer.builder(METRIC_NAME)
+                    .description("认证流程各阶段耗时")
+                    .tag("pipeline", pipeline)
+                    .tag("stage", stage)
+                    .tag("outcome", outcome.tag)
+                    .serviceLevelObjectives(slo)
+                    .register(meterRegistry);
+            byOutcome[outcome.ordinal()] = timer;
+        }
+        return timer;
+    }
+
+    /**
+     * 阶段结果
+     */
+    public enum Outcome {
+        SUCCESS,
+        /**
+         * token 无效、凭证错误或校验未通过
+         */
+        INVALID,
+        /**
+         * token 已被吊销
+         */
+        REVOKED,
+        /**
+         * 用户名或邮箱已存在
+         */
+        DUPLICATE,
+        /**
+         * 未预期的异常
+         */
+        ERROR;
+
+        private final String tag = name().toLowerCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,132 @@
+package com.asta.gateway.Filter;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import reactor.core.Disposable;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 过滤器通过 GatewayFilterFactory.apply 创建，转发由直接给出结果的 GatewayFilterChain 代替；
+ * 限制器本身的上限调整见 GradientConcurrencyLimiterTests。
+ */
+class AdaptiveConcurrencyGatewayFilterFactoryTests {
+
+    private static final String ROUTE_ID = "ai-service";
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private final AdaptiveConcurrencyGatewayFilterFactory factory = new AdaptiveConcurrencyGatewayFilterFactory(meterRegistry);
+
+    @Test
+    void rejectsWithRetryAfterWhenLimitReached() {
+        AdaptiveConcurrencyGatewayFilterFactory.Config config = config(1);
+        config.setRetryAfter(3);
+        GatewayFilter filter = factory.apply(config);
+        AtomicInteger forwarded = new AtomicInteger();
+
+        // 一直未完成的请求占用唯一的名额
+        Disposable pending = filter.filter(exchange(), e -> {
+            forwarded.incrementAndGet();
+            return Mono.never();
+        }).subscribe();
+
+        MockServerWebExchange rejected = exchange();
+        filter.filter(rejected, e -> {
+            forwarded.incrementAndGet();
+            return Mono.empty();
+        }).block();
+        assertEquals(1, forwarded.get());
+        assertEquals(HttpStatus.SERVICE_UNAVAILABLE, rejected.getResponse().getStatusCode());
+        assertEquals("3", rejected.getResponse().getHeaders().getFirst(HttpHeaders.RETRY_AFTER));
+        assertEquals(1, meterRegistry.get("gateway.concurrency.rejected").tag("route", ROUTE_ID).counter().count());
+        assertEquals(1, gauge("inflight"));
+
+        // 客户端取消后释放名额，不计入样本
+        pending.dispose();
+        assertEquals(0, gauge("inflight"));
+        assertEquals(0, meterRegistry.get("gateway.concurrency.rtt").tag("route", ROUTE_ID).tag("window", "short")
+                .timeGauge().value());
+        MockServerWebExchange accepted = exchange();
+        filter.filter(accepted, e -> {
+            forwarded.incrementAndGet();
+            return Mono.empty();
+        }).block();
+        assertEquals(2, forwarded.get());
+        assertNotEquals(HttpStatus.SERVICE_UNAVAILABLE, accepted.getResponse().getStatusCode());
+    }
+
+    @Test
+    void overloadResponsesAndErrorsCountAsDrops() {
+        GatewayFilter filter = factory.apply(config(10));
+
+        filter.filter(exchange(), respond(HttpStatus.SERVICE_UNAVAILABLE)).block();
+        assertEquals(9, gauge("limit"));
+
+        filter.filter(exchange(), respond(HttpStatus.TOO_MANY_REQUESTS)).block();
+        assertEquals(8, gauge("limit"));
+
+        StepVerifier.create(filter.filter(exchange(), e -> Mono.error(new IllegalStateException("connect timed out"))))
+                .expectError(IllegalStateException.class)
+                .verify();
+        assertEquals(7, gauge("limit"));
+
+        // 正常响应计入 RTT；并发远低于上限，不调整上限
+        filter.filter(exchange(), respond(HttpStatus.OK)).block();
+        assertEquals(7, gauge("limit"));
+        assertEquals(0, gauge("inflight"));
+    }
+
+    @Test
+    void reusesLimiterWhenRouteIsRefreshedWithSameConfig() {
+        GatewayFilter filter = factory.apply(config(1));
+        Disposable pending = filter.filter(exchange(), e -> Mono.never()).subscribe();
+
+        MockServerWebExchange exchange = exchange();
+        factory.apply(config(1)).filter(exchange, respond(HttpStatus.OK)).block();
+        assertEquals(HttpStatus.SERVICE_UNAVAILABLE, exchange.getResponse().getStatusCode());
+
+        // 参数变化时创建新的限制器
+        exchange = exchange();
+        factory.apply(config(2)).filter(exchange, respond(HttpStatus.OK)).block();
+        assertEquals(HttpStatus.OK, exchange.getResponse().getStatusCode());
+        pending.dispose();
+    }
+
+    /**
+     * 窗口为 0、最少 1 个样本：每个请求结束时都更新一次上限
+     */
+    private static AdaptiveConcurrencyGatewayFilterFactory.Config config(int initialLimit) {
+        AdaptiveConcurrencyGatewayFilterFactory.Config config = new AdaptiveConcurrencyGatewayFilterFactory.Config();
+        config.setRouteId(ROUTE_ID);
+        config.setInitialLimit(initialLimit);
+        config.setWindow(0);
+        config.setMinWindowSamples(1);
+        return config;
+    }
+
+    private static GatewayFilterChain respond(HttpStatus status) {
+        return exchange -> {
+            exchange.getResponse().setStatusCode(status);
+            return Mono.empty();
+        };
+    }
+
+    private static MockServerWebExchange exchange() {
+        return MockServerWebExchange.from(MockServerHttpRequest.get("/ai/chat"));
+    }
+
+    private double gauge(String name) {
+        return meterRegistry.get("gateway.concurrency." + name).tag("route", ROUTE_ID).gauge().value();
+    }
+}
@@ -0,0 +1,167 @@
+package com.asta.gateway.Filter;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.netty.DisposableServer;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.http.server.HttpServer;
+import reactor.netty.resources.ConnectionProvider;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * stub 后端按处理器共享模型响应：同时处理的请求超过容量后，每个请求的耗时按 并发数 / 容量 等比增加。
+ * 过滤器通过 GatewayFilterFactory.apply 创建，转发由调用 stub 后端的 GatewayFilterChain 代替。
+ * <p>
+ * 结果依赖真实的网络与调度，默认不运行：mvn -Pload -pl gateway test
+ */
+@Slf4j
+@Tag("load")
+class AdaptiveConcurrencyLoadTests {
+
+    private static final String ROUTE_ID = "ai-service";
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private final AdaptiveConcurrencyGatewayFilterFactory factory = new AdaptiveConcurrencyGatewayFilterFactory(meterRegistry);
+
+    // 默认连接池最多 16 个连接，会在客户端排队而掩盖后端的饱和
+    private final ConnectionProvider connectionProvider = ConnectionProvider.create("stub", 256);
+
+    private final HttpClient httpClient = HttpClient.create(connectionProvider);
+
+    private final List<DisposableServer> backends = new ArrayList<>();
+
+    @AfterEach
+    void tearDown() {
+        backends.forEach(DisposableServer::disposeNow);
+        connectionProvider.dispose();
+    }
+
+    @Test
+    void shedsExcessRequestsWhenBackendSaturates() {
+        // 容量 4、单次 50ms 的后端，24 个并发客户端：不限制时每个请求约 300ms
+        int port = backend(4, 50, HttpStatus.OK);
+
+        Result unlimited = run(null, port, 200, 24);
+
+        GatewayFilter filter = factory.apply(config());
+        Result limited = run(filter, port, 3000, 24);
+
+        double limit = meterRegistry.get("gateway.concurrency.limit").tag("route", ROUTE_ID).gauge().value();
+        double rejected = meterRegistry.get("gateway.concurrency.rejected").tag("route", ROUTE_ID).counter().count();
+        log.info("p50/p99 (ms) 不限制: {}/{}, 自适应限制: {}/{}; 上限 {}, 拒绝 {} 个",
+                unlimited.percentile(0.5), unlimited.percentile(0.99),
+                limited.percentile(0.5), limited.percentile(0.99), limit, rejected);
+
+        assertTrue(unlimited.percentile(0.5) >= 200, "不限制时应在后端排队");
+        assertTrue(limited.percentile(0.99) < unlimited.percentile(0.5), "p99 " + limited.percentile(0.99));
+        // rtt-tolerance 为 1.5 时稳定在约 2 倍基线 RTT，即约 2 倍容量
+        assertTrue(limit >= 4 && limit <= 12, "上限 " + limit);
+        assertEquals(limited.rejected(), rejected);
+        assertTrue(rejected > 0);
+    }
+
+    @Test
+    void backsOffOnOverloadResponses() {
+        int port = backend(100, 5, HttpStatus.SERVICE_UNAVAILABLE);
+        AdaptiveConcurrencyGatewayFilterFactory.Config config = config();
+        config.setInitialLimit(20);
+
+        run(factory.apply(config), port, 600, 20);
+
+        double limit = meterRegistry.get("gateway.concurrency.limit").tag("route", ROUTE_ID).gauge().value();
+        assertTrue(limit <= 5, "上限 " + limit);
+    }
+
+    private static AdaptiveConcurrencyGatewayFilterFactory.Config config() {
+        AdaptiveConcurrencyGatewayFilterFactory.Config config = new AdaptiveConcurrencyGatewayFilterFactory.Config();
+        config.setRouteId(ROUTE_ID);
+        config.setInitialLimit(4);
+        config.setWindow(100);
+        config.setMinWindowSamples(5);
+        return config;
+    }
+
+    /**
+     * @param capacity 后端同时处理的请求数，超出后按比例变慢
+     * @param serviceMillis 单个请求的处理时间 (毫秒)
+     * @param status 响应状态码
+     * @return 端口
+     */
+    private int backend(int capacity, long serviceMillis, HttpStatus status) {
+        AtomicInteger active = new AtomicInteger();
+        DisposableServer server = HttpServer.create()
+                .host("127.0.0.1")
+                .port(0)
+                .handle((request, response) -> {
+                    int concurrent = active.incrementAndGet();
+                    long delay = serviceMillis * Math.max(capacity, concurrent) / capacity;
+                    return Mono.delay(Duration.ofMillis(delay))
+                            .then(response.status(status.value()).sendString(Mono.just("ok")).then())
+                            .doFinally(signal -> active.decrementAndGet());
+                })
+                .bindNow();
+        backends.add(server);
+        return server.port();
+    }
+
+    /**
+     * 以固定并发发送请求，被拒绝的客户端等待 20ms 后发送下一个请求
+     * @param filter 为 null 时直接访问后端
+     * @return 后一半请求中被转发的请求耗时，以及全部请求中被拒绝的数量
+     */
+    private Result run(GatewayFilter filter, int port, int requests, int concurrency) {
+        GatewayFilterChain chain = exchange -> httpClient.get()
+                .uri("http://127.0.0.1:" + port + "/")
+                .responseSingle((response, body) -> {
+                    exchange.getResponse().setStatusCode(HttpStatusCode.valueOf(response.status().code()));
+                    return body.then();
+                });
+        ConcurrentLinkedQueue<Long> latencies = new ConcurrentLinkedQueue<>();
+        AtomicInteger rejected = new AtomicInteger();
+        Flux.range(0, requests)
+                .flatMap(i -> Mono.defer(() -> {
+                    MockServerWebExchange exchange = MockServerWebExchange.from(MockServerHttpRequest.get("/ai/chat"));
+                    long start = System.nanoTime();
+                    Mono<Void> handled = filter != null ? filter.filter(exchange, chain) : chain.filter(exchange);
+                    return handled.then(Mono.defer(() -> {
+                        if (exchange.getResponse().getStatusCode() == HttpStatus.SERVICE_UNAVAILABLE
+                                && exchange.getResponse().getHeaders().containsKey("Retry-After")) {
+                            rejected.incrementAndGet();
+                            return Mono.delay(Duration.ofMillis(20)).then();
+                        }
+                        if (i >= requests / 2) {
+                            latencies.add((System.nanoTime() - start) / 1_000_000);
+                        }
+                        return Mono.empty();
+                    }));
+                }), concurrency)
+                .blockLast(Duration.ofMinutes(2));
+        return new Result(latencies.stream().mapToLong(Long::longValue).sorted().toArray(), rejected.get());
+    }
+
+    private record Result(long[] sorted, int rejected) {
+
+        long percentile(double quantile) {
+            return sorted[Math.min(sorted.length - 1, (int) Math.ceil(quantile * sorted.length) - 1)];
+        }
+    }
+}
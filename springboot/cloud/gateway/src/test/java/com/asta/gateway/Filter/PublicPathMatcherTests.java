@@ -0,0 +1,31 @@
+package com.asta.gateway.Filter;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.cloud.context.environment.EnvironmentChangeEvent;
+import org.springframework.mock.env.MockEnvironment;
+
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PublicPathMatcherTests {
+
+    @Test
+    void reloadsOnEnvironmentChangeAndKeepsRulesWhenInvalid() {
+        MockEnvironment environment = new MockEnvironment();
+        PublicPathMatcher matcher = new PublicPathMatcher(environment);
+        assertTrue(matcher.isPublic("/auth/login"));
+        assertFalse(matcher.isPublic("/auth/users/alice/revoke-tokens"));
+        assertFalse(matcher.isPublic("/actuator/health"));
+
+        environment.setProperty("auth.public-paths[0]", "/actuator/health");
+        matcher.onEnvironmentChange(new EnvironmentChangeEvent(Set.of("auth.public-paths[0]")));
+        assertTrue(matcher.isPublic("/actuator/health"));
+        assertFalse(matcher.isPublic("/auth/login"));
+
+        environment.setProperty("auth.public-paths[0]", "/users/{id:\\d+}");
+        matcher.onEnvironmentChange(new EnvironmentChangeEvent(Set.of("auth.public-paths[0]")));
+        assertTrue(matcher.isPublic("/actuator/health"));
+        assertFalse(matcher.isPublic("/users/1"));
+    }
+}
@@ -0,0 +1,110 @@
+package com.asta.gateway.cache;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.data.redis.core.ReactiveStringRedisTemplate;
+import reactor.core.publisher.Flux;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+
+class UserRateLimiterTests {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+    private final ReactiveStringRedisTemplate redisTemplate = mock(ReactiveStringRedisTemplate.class);
+
+    private UserRateLimiter limiter(long capacity) {
+        return new UserRateLimiter(redisTemplate, registry, true, capacity, 60_000, 1000, 1000);
+    }
+
+    private static int acquire(UserRateLimiter limiter, String username, int attempts) {
+        int allowed = 0;
+        for (int i = 0; i < attempts; i++) {
+            if (limiter.tryAcquire(username) <= 0) {
+                allowed++;
+            }
+        }
+        return allowed;
+    }
+
+    @Test
+    void singleNodeLimitsEachUserWithoutRedis() throws Exception {
+        UserRateLimiter limiter = limiter(50);
+        assertEquals(50, acquire(limiter, "alice", 60));
+        long wait = limiter.tryAcquire("alice");
+        assertTrue(wait > 0 && wait <= TimeUnit.SECONDS.toNanos(2), "wait " + wait);
+        // 其他用户不受影响
+        assertEquals(50, acquire(limiter, "bob", 50));
+        assertEquals(11, registry.get("gateway.ratelimit.user.rejected").counter().count());
+
+        AtomicInteger allowed = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int i = 0; i < 400; i++) {
+                futures.add(executor.submit(() -> {
+                    if (limiter.tryAcquire("carol") <= 0) {
+                        allowed.incrementAndGet();
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get(10, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        // 测试期间最多再补充一个令牌
+        assertTrue(allowed.get() >= 50 && allowed.get() <= 51, "allowed " + allowed.get());
+        verifyNoInteractions(redisTemplate);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void reconcilesShareFromGlobalCounts() {
+        UserRateLimiter limiter = limiter(100);
+        assertEquals(10, acquire(limiter, "alice", 10));
+
+        // 周期 1 上报 10 次，上一周期没有本实例的数据，份额不变
+        doReturn(Flux.just(List.of(0L))).when(redisTemplate).execute(any(), anyList(), anyList());
+        limiter.sync(1).block();
+        ArgumentCaptor<List<String>> args = ArgumentCaptor.forClass(List.class);
+        verify(redisTemplate).execute(any(), anyList(), args.capture());
+        assertEquals(List.of("3000", "alice", "10"), args.getValue());
+
+        // 四个实例在周期 1 共收到 40 次，本实例的份额为 1/4
+        doReturn(Flux.just(List.of(40L))).when(redisTemplate).execute(any(), anyList(), anyList());
+        limiter.sync(2).block();
+
+        // 已用 10 个令牌，剩余 90 个按份额缩放为约 22 个
+        int allowed = acquire(limiter, "alice", 100);
+        assertTrue(allowed >= 21 && allowed <= 24, "allowed " + allowed);
+    }
+
+    @Test
+    void keepsShareWhenRedisIsUnavailable() {
+        UserRateLimiter limiter = limiter(100);
+        acquire(limiter, "alice", 10);
+        doReturn(Flux.error(new IllegalStateException("connection refused")))
+                .when(redisTemplate).execute(any(), anyList(), anyList());
+        limiter.sync(1).block();
+        limiter.sync(2).block();
+
+        assertEquals(90, acquire(limiter, "alice", 100));
+    }
+}
@@ -0,0 +1,183 @@
+package com.asta.gateway.cache;
+
+import com.asta.gateway.util.JwtVerifier;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.ExpiredJwtException;
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.io.Decoders;
+import io.jsonwebtoken.security.Keys;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import reactor.blockhound.BlockHound;
+import reactor.blockhound.BlockingOperationError;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.ReactorBlockHoundIntegration;
+import reactor.core.scheduler.Schedulers;
+import reactor.test.StepVerifier;
+
+import java.security.Key;
+import java.util.Date;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 验签缓存的调用都发生在 Schedulers.parallel() 线程上，它与 Netty 事件循环同为非阻塞线程，
+ * 安装 BlockHound 后其中的任何阻塞调用都会以 BlockingOperationError 失败。
+ */
+class VerifiedTokenCacheTests {
+
+    private static final String SECRET = "5468576D5A7134743777217A25432A462D4A614E645267556A586E3272357538";
+
+    private static final Key KEY = Keys.hmacShaKeyFor(Decoders.BASE64.decode(SECRET));
+
+    private final RecordingVerifier verifier = new RecordingVerifier();
+
+    private VerifiedTokenCache cache;
+
+    @BeforeAll
+    static void installBlockHound() {
+        // 不经 ServiceLoader 加载集成：nacos 内置的 shaded grpc 声明了一个不存在的 BlockHoundIntegration。
+        // BlockHound 对整个 JVM 生效，按 Netty 自带集成的做法放行其内存池的短暂加锁，同一 JVM 中的其他测试仍可使用 Netty
+        BlockHound.builder()
+                .with(new ReactorBlockHoundIntegration())
+                .allowBlockingCallsInside("io.netty.buffer.PoolArena", "lock")
+                .allowBlockingCallsInside("io.netty.buffer.PoolSubpage", "lock")
+                .install();
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (cache != null) {
+            cache.close();
+        }
+    }
+
+    @Test
+    void blockHoundIsActive() {
+        StepVerifier.create(Mono.fromCallable(() -> {
+                    Thread.sleep(1);
+                    return 1;
+                }).subscribeOn(Schedulers.parallel()))
+                .expectError(BlockingOperationError.class)
+                .verify();
+    }
+
+    @Test
+    void missVerifiesOffEventLoopAndHitSkipsVerification() {
+        cache = cache(1, 16);
+        String token = token("alice", System.currentTimeMillis() + 60_000);
+
+        for (int i = 0; i < 3; i++) {
+            StepVerifier.create(onEventLoop(token))
+                    .assertNext(verified -> {
+                        assertEquals("alice", verified.username());
+                        assertEquals("[ROLE_USER]", verified.roles());
+                    })
+                    .verifyComplete();
+        }
+        assertEquals(1, verifier.threads.size());
+        assertTrue(verifier.threads.peek().startsWith("jwt-verify"), verifier.threads.peek());
+    }
+
+    @Test
+    void invalidTokenIsNotCached() {
+        cache = cache(1, 16);
+        String signed = token("alice", System.currentTimeMillis() + 60_000);
+        // 篡改签名的第一个字符 (末尾字符的低位可能不参与解码)
+        int signature = signed.lastIndexOf('.') + 1;
+        String token = signed.substring(0, signature) + (signed.charAt(signature) == 'A' ? 'B' : 'A')
+                + signed.substring(signature + 1);
+
+        StepVerifier.create(onEventLoop(token)).expectError(JwtException.class).verify();
+        StepVerifier.create(onEventLoop(token)).expectError(JwtException.class).verify();
+        assertEquals(2, verifier.threads.size());
+    }
+
+    @Test
+    void entryDoesNotOutliveExp() throws InterruptedException {
+        cache = cache(1, 16);
+        // exp 精确到秒
+        long exp = (System.currentTimeMillis() / 1000 + 2) * 1000;
+        String token = token("alice", exp);
+
+        StepVerifier.create(onEventLoop(token)).expectNextCount(1).verifyComplete();
+        Thread.sleep(exp - System.currentTimeMillis() + 50);
+        StepVerifier.create(onEventLoop(token)).expectError(ExpiredJwtException.class).verify();
+    }
+
+    @Test
+    void rejectsWhenVerifyPoolIsFull() throws InterruptedException {
+        cache = cache(1, 1);
+        long exp = System.currentTimeMillis() + 60_000;
+        verifier.release = new CountDownLatch(1);
+        try {
+            // 第一个占用唯一的验签线程，第二个进入队列，第三个被拒绝
+            onEventLoop(token("a", exp)).subscribe(verified -> { }, e -> { });
+            assertTrue(verifier.started.await(5, TimeUnit.SECONDS));
+            onEventLoop(token("b", exp)).subscribe(verified -> { }, e -> { });
+            StepVerifier.create(onEventLoop(token("c", exp)))
+                    .expectError(RejectedExecutionException.class)
+                    .verify();
+        } finally {
+            verifier.release.countDown();
+        }
+    }
+
+    private Mono<VerifiedTokenCache.VerifiedToken> onEventLoop(String token) {
+        return Mono.defer(() -> cache.verify(token)).subscribeOn(Schedulers.parallel());
+    }
+
+    private VerifiedTokenCache cache(int threads, int queueCapacity) {
+        return new VerifiedTokenCache(verifier, true, 100, 300_000, threads, queueCapacity, new SimpleMeterRegistry());
+    }
+
+    private static String token(String username, long expMillis) {
+        return Jwts.builder()
+                .setSubject(username)
+                .claim("roles", List.of("ROLE_USER"))
+                .setIssuedAt(new Date())
+                .setExpiration(new Date(expMillis))
+                .signWith(KEY)
+                .compact();
+    }
+
+    /**
+     * 记录每次验签所在的线程，可选地阻塞验签以占满线程池
+     */
+    private static class RecordingVerifier extends JwtVerifier {
+
+        private final Queue<String> threads = new ConcurrentLinkedQueue<>();
+
+        private final CountDownLatch started = new CountDownLatch(1);
+
+        private volatile CountDownLatch release;
+
+        RecordingVerifier() {
+            super(SECRET);
+        }
+
+        @Override
+        public Claims verify(String token) {
+            threads.add(Thread.currentThread().getName());
+            started.countDown();
+            CountDownLatch latch = release;
+            if (latch != null) {
+                try {
+                    latch.await(5, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            return super.verify(token);
+        }
+    }
+}
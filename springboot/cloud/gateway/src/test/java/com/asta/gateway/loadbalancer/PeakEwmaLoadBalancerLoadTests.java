@@ -0,0 +1,192 @@
+package com.asta.gateway.loadbalancer;
+
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.cloud.client.DefaultServiceInstance;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.loadbalancer.CompletionContext;
+import org.springframework.cloud.client.loadbalancer.DefaultRequest;
+import org.springframework.cloud.client.loadbalancer.LoadBalancerLifecycle;
+import org.springframework.cloud.client.loadbalancer.Request;
+import org.springframework.cloud.client.loadbalancer.Response;
+import org.springframework.cloud.loadbalancer.core.ReactorServiceInstanceLoadBalancer;
+import org.springframework.cloud.loadbalancer.core.RoundRobinLoadBalancer;
+import org.springframework.cloud.loadbalancer.core.ServiceInstanceListSupplier;
+import org.springframework.cloud.loadbalancer.support.SimpleObjectProvider;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.netty.DisposableServer;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.http.server.HttpServer;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 本地压测：stub 后端按固定延迟响应，负载均衡的选择与生命周期回调按网关 ReactiveLoadBalancerClientFilter 的顺序调用。
+ * 测量前先预热各后端的连接与 JIT，避免冷启动的毛刺被 peak EWMA 记为峰值。
+ * <p>
+ * 结果依赖真实的网络与调度，默认不运行：mvn -Pload -pl gateway test
+ */
+@Slf4j
+@Tag("load")
+class PeakEwmaLoadBalancerLoadTests {
+
+    private static final Request<Object> REQUEST = new DefaultRequest<>();
+
+    private final List<DisposableServer> backends = new ArrayList<>();
+
+    private final HttpClient httpClient = HttpClient.create();
+
+    private volatile List<ServiceInstance> instances = List.of();
+
+    private final ServiceInstanceListSupplier supplier = new ServiceInstanceListSupplier() {
+        @Override
+        public String getServiceId() {
+            return "STUB";
+        }
+
+        @Override
+        public Flux<List<ServiceInstance>> get() {
+            return Flux.just(instances);
+        }
+    };
+
+    @AfterEach
+    void tearDown() {
+        backends.forEach(DisposableServer::disposeNow);
+    }
+
+    @Test
+    void slowInstanceDoesNotDominateTailLatency() {
+        // 四个实例中一个持续变慢 (如 GC 频繁)，轮询时 1/4 的请求落在它上面
+        instances = List.of(backend(5), backend(5), backend(5), backend(150));
+        warmUp();
+
+        ServiceInstance slow = instances.get(3);
+        Map<String, AtomicInteger> roundRobinCounts = new ConcurrentHashMap<>();
+        Map<String, AtomicInteger> peakEwmaCounts = new ConcurrentHashMap<>();
+        long[] roundRobin = run(new RoundRobinLoadBalancer(new SimpleObjectProvider<>(supplier), "STUB"), 2000, 16,
+                roundRobinCounts);
+        long[] peakEwma = run(peakEwma(0), 2000, 16, peakEwmaCounts);
+
+        log.info("p50/p95/p99 (ms) 轮询: {}/{}/{}, P2C peak EWMA: {}/{}/{}; 慢实例占比 轮询: {}%, P2C peak EWMA: {}%",
+                percentile(roundRobin, 0.5), percentile(roundRobin, 0.95), percentile(roundRobin, 0.99),
+                percentile(peakEwma, 0.5), percentile(peakEwma, 0.95), percentile(peakEwma, 0.99),
+                share(roundRobinCounts, slow), share(peakEwmaCounts, slow));
+        assertTrue(percentile(roundRobin, 0.99) >= 150);
+        // 冷启动时并发的首批请求在拿到任何样本前已分散到各实例，慢实例的占比不会是 0
+        assertTrue(share(peakEwmaCounts, slow) < 3, "慢实例占比 " + share(peakEwmaCounts, slow) + "%");
+        assertTrue(percentile(peakEwma, 0.95) * 2 < percentile(roundRobin, 0.95), "p95 " + percentile(peakEwma, 0.95));
+    }
+
+    @Test
+    void newInstanceWarmsUpGradually() throws InterruptedException {
+        ServiceInstance first = backend(5);
+        ServiceInstance second = backend(5);
+        ServiceInstance added = backend(5);
+        instances = List.of(first, second, added);
+        warmUp();
+        PeakEwmaLoadBalancer balancer = peakEwma(3000);
+        instances = List.of(first, second);
+        run(balancer, 200, 4, null);
+
+        instances = List.of(first, second, added);
+        Map<String, AtomicInteger> warming = new ConcurrentHashMap<>();
+        run(balancer, 150, 4, warming);
+        Thread.sleep(3000);
+        Map<String, AtomicInteger> warmed = new ConcurrentHashMap<>();
+        run(balancer, 300, 4, warmed);
+
+        int warmingShare = share(warming, added);
+        int warmedShare = share(warmed, added);
+        log.info("新实例的流量占比 预热中: {}%, 预热后: {}%", warmingShare, warmedShare);
+        assertTrue(warmingShare < warmedShare, "预热中 " + warmingShare + "%, 预热后 " + warmedShare + "%");
+        assertTrue(warmedShare >= 15, "预热后 " + warmedShare + "%");
+    }
+
+    private PeakEwmaLoadBalancer peakEwma(long slowStartMillis) {
+        return new PeakEwmaLoadBalancer(new SimpleObjectProvider<>(supplier), "STUB",
+                10000, slowStartMillis, 0.1, 1000, 10);
+    }
+
+    /**
+     * 直接访问每个后端，建立连接并触发 JIT 编译
+     */
+    private void warmUp() {
+        Flux.fromIterable(instances)
+                .flatMap(instance -> Flux.range(0, 50).concatMap(i -> httpClient.get()
+                        .uri("http://127.0.0.1:" + instance.getPort() + "/")
+                        .responseContent().aggregate().asString()))
+                .blockLast(Duration.ofMinutes(1));
+    }
+
+    private ServiceInstance backend(long delayMillis) {
+        DisposableServer server = HttpServer.create()
+                .host("127.0.0.1")
+                .port(0)
+                .handle((request, response) -> Mono.delay(Duration.ofMillis(delayMillis))
+                        .then(response.sendString(Mono.just("ok")).then()))
+                .bindNow();
+        backends.add(server);
+        return new DefaultServiceInstance("stub-" + server.port(), "STUB", "127.0.0.1", server.port(), false);
+    }
+
+    /**
+     * 以固定并发发送请求
+     * @return 每个请求的耗时 (毫秒)，已排序
+     */
+    @SuppressWarnings("unchecked")
+    private long[] run(ReactorServiceInstanceLoadBalancer balancer, int requests, int concurrency,
+                       Map<String, AtomicInteger> counts) {
+        LoadBalancerLifecycle<Object, Object, ServiceInstance> lifecycle =
+                balancer instanceof LoadBalancerLifecycle<?, ?, ?> l ? (LoadBalancerLifecycle<Object, Object, ServiceInstance>) l : null;
+        List<Long> latencies = Flux.range(0, requests)
+                .flatMap(i -> Mono.defer(() -> {
+                    long start = System.nanoTime();
+                    return Mono.from(balancer.choose(REQUEST)).flatMap(response -> {
+                        ServiceInstance instance = response.getServer();
+                        if (counts != null) {
+                            counts.computeIfAbsent(instance.getInstanceId(), id -> new AtomicInteger()).incrementAndGet();
+                        }
+                        if (lifecycle != null) {
+                            lifecycle.onStartRequest(REQUEST, response);
+                        }
+                        return httpClient.get()
+                                .uri("http://127.0.0.1:" + instance.getPort() + "/")
+                                .responseContent().aggregate().asString()
+                                .doOnSuccess(body -> complete(lifecycle, response))
+                                .map(body -> (System.nanoTime() - start) / 1_000_000);
+                    });
+                }), concurrency)
+                .collectList()
+                .block(Duration.ofMinutes(2));
+        return latencies.stream().mapToLong(Long::longValue).sorted().toArray();
+    }
+
+    private static void complete(LoadBalancerLifecycle<Object, Object, ServiceInstance> lifecycle,
+                                 Response<ServiceInstance> response) {
+        if (lifecycle != null) {
+            lifecycle.onComplete(new CompletionContext<>(CompletionContext.Status.SUCCESS, REQUEST, response));
+        }
+    }
+
+    private static long percentile(long[] sorted, double quantile) {
+        return sorted[Math.min(sorted.length - 1, (int) Math.ceil(quantile * sorted.length) - 1)];
+    }
+
+    private static int share(Map<String, AtomicInteger> counts, ServiceInstance instance) {
+        int total = counts.values().stream().mapToInt(AtomicInteger::get).sum();
+        AtomicInteger count = counts.get(instance.getInstanceId());
+        return count == null ? 0 : count.get() * 100 / total;
+    }
+}
@@ -0,0 +1,148 @@
+package com.asta.gateway.loadbalancer;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.cloud.client.DefaultServiceInstance;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.loadbalancer.CompletionContext;
+import org.springframework.cloud.client.loadbalancer.DefaultRequest;
+import org.springframework.cloud.client.loadbalancer.Request;
+import org.springframework.cloud.client.loadbalancer.Response;
+import org.springframework.cloud.loadbalancer.core.NoopServiceInstanceListSupplier;
+import org.springframework.cloud.loadbalancer.support.SimpleObjectProvider;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 按网关 ReactiveLoadBalancerClientFilter 的顺序调用选择与生命周期回调，时钟手动推进。
+ * 只有两个实例时 P2C 总是比较这两个，选择结果是确定的。
+ */
+class PeakEwmaLoadBalancerTests {
+
+    private static final Request<Object> REQUEST = new DefaultRequest<>();
+
+    private final AtomicLong clock = new AtomicLong();
+
+    private final ServiceInstance fast = instance("fast");
+
+    private final ServiceInstance slow = instance("slow");
+
+    @Test
+    void avoidsSlowInstanceUntilItsPeakDecays() {
+        PeakEwmaLoadBalancer balancer = balancer(0);
+        List<ServiceInstance> instances = List.of(fast, slow);
+
+        int slowPicks = 0;
+        for (int i = 0; i < 100; i++) {
+            if (request(balancer, instances, 5, 150) == slow) {
+                slowPicks++;
+            }
+        }
+        // 没有样本时慢实例只被选中一次，之后它的峰值使其代价远高于快实例
+        assertEquals(1, slowPicks);
+
+        // 慢实例不再有样本，峰值按 decay (10s) 衰减，约 34s 后低于快实例的 5ms
+        long since = clock.get();
+        for (int i = 0; i < 1000 && balancer.choose(instances).getServer() == fast; i++) {
+            request(balancer, instances, 5, 150);
+            advance(45);
+        }
+        assertSame(slow, balancer.choose(instances).getServer());
+        long elapsed = TimeUnit.NANOSECONDS.toSeconds(clock.get() - since);
+        assertTrue(elapsed >= 30 && elapsed <= 40, "恢复用时 " + elapsed + "s");
+    }
+
+    @Test
+    void outstandingRequestsRaiseCost() {
+        PeakEwmaLoadBalancer balancer = balancer(0);
+        List<ServiceInstance> instances = List.of(fast, slow);
+        // 两者延迟相同，都有样本
+        request(balancer, instances, 10, 10);
+        request(balancer, instances, 10, 10);
+
+        Response<ServiceInstance> stuck = balancer.choose(instances);
+        balancer.onStartRequest(REQUEST, stuck);
+        ServiceInstance other = stuck.getServer() == fast ? slow : fast;
+        // 卡住的实例在出结果之前就因进行中的请求被避开
+        for (int i = 0; i < 10; i++) {
+            Response<ServiceInstance> response = balancer.choose(instances);
+            assertSame(other, response.getServer());
+        }
+
+        advance(10);
+        balancer.onComplete(new CompletionContext<>(CompletionContext.Status.SUCCESS, REQUEST, stuck));
+    }
+
+    @Test
+    void newInstanceWarmsUpLinearly() {
+        PeakEwmaLoadBalancer balancer = balancer(3000);
+        request(balancer, List.of(fast), 10, 10);
+        advance(3000);
+
+        // fast 上有两个进行中的请求，代价为延迟的 3 倍；新实例以 fast 的延迟为初值，权重从 0.1 开始
+        Response<ServiceInstance> first = start(balancer, List.of(fast));
+        Response<ServiceInstance> second = start(balancer, List.of(fast));
+        List<ServiceInstance> instances = List.of(fast, slow);
+        assertSame(fast, balancer.choose(instances).getServer());
+        advance(900);
+        // 权重 0.3，代价为延迟的 3.3 倍
+        assertSame(fast, balancer.choose(instances).getServer());
+        advance(600);
+        // 权重 0.5，代价为延迟的 2 倍
+        assertSame(slow, balancer.choose(instances).getServer());
+
+        balancer.onComplete(new CompletionContext<>(CompletionContext.Status.SUCCESS, REQUEST, first));
+        balancer.onComplete(new CompletionContext<>(CompletionContext.Status.SUCCESS, REQUEST, second));
+    }
+
+    @Test
+    void failureCountsAsPenalty() {
+        PeakEwmaLoadBalancer balancer = balancer(0);
+        List<ServiceInstance> instances = List.of(fast, slow);
+        request(balancer, instances, 10, 10);
+        request(balancer, instances, 10, 10);
+
+        // 立即失败 (如连接被拒绝) 的实例按 failure-penalty (1s) 计入，而不是按很短的耗时被优先选择
+        Response<ServiceInstance> failed = start(balancer, instances);
+        advance(1);
+        balancer.onComplete(new CompletionContext<>(CompletionContext.Status.FAILED, REQUEST, failed));
+        ServiceInstance healthy = failed.getServer() == fast ? slow : fast;
+        for (int i = 0; i < 10; i++) {
+            assertSame(healthy, request(balancer, instances, 10, 10));
+        }
+    }
+
+    private PeakEwmaLoadBalancer balancer(long slowStartMillis) {
+        return new PeakEwmaLoadBalancer(new SimpleObjectProvider<>(new NoopServiceInstanceListSupplier()), "STUB",
+                10000, slowStartMillis, 0.1, 1000, 10, clock::get);
+    }
+
+    private static Response<ServiceInstance> start(PeakEwmaLoadBalancer balancer, List<ServiceInstance> instances) {
+        Response<ServiceInstance> response = balancer.choose(instances);
+        balancer.onStartRequest(REQUEST, response);
+        return response;
+    }
+
+    /**
+     * 选择实例并按其延迟完成一次请求
+     * @return 被选中的实例
+     */
+    private ServiceInstance request(PeakEwmaLoadBalancer balancer, List<ServiceInstance> instances,
+                                    long fastMillis, long slowMillis) {
+        Response<ServiceInstance> response = start(balancer, instances);
+        advance(response.getServer() == slow ? slowMillis : fastMillis);
+        balancer.onComplete(new CompletionContext<>(CompletionContext.Status.SUCCESS, REQUEST, response));
+        return response.getServer();
+    }
+
+    private void advance(long millis) {
+        clock.addAndGet(TimeUnit.MILLISECONDS.toNanos(millis));
+    }
+
+    private static ServiceInstance instance(String id) {
+        return new DefaultServiceInstance(id, "STUB", "127.0.0.1", 8080, false);
+    }
+}
@@ -0,0 +1,36 @@
+package com.asta.gateway.util;
+
+import org.junit.jupiter.api.Test;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class GatewayIdentitySignerTests {
+
+    private static final byte[] SECRET = "0123456789abcdef0123456789abcdef".getBytes(StandardCharsets.UTF_8);
+
+    @Test
+    void signsUserRolesAndTimestamp() throws Exception {
+        GatewayIdentitySigner signer = new GatewayIdentitySigner(Base64.getEncoder().encodeToString(SECRET));
+
+        // 格式需与 service-auth 的 GatewayIdentityVerifier 一致
+        Mac mac = Mac.getInstance("HmacSHA256");
+        mac.init(new SecretKeySpec(SECRET, "HmacSHA256"));
+        String expected = Base64.getUrlEncoder().withoutPadding().encodeToString(
+                mac.doFinal("alice\n[ROLE_USER]\n1700000000000".getBytes(StandardCharsets.UTF_8)));
+        assertEquals(expected, signer.sign("alice", "[ROLE_USER]", 1700000000000L));
+
+        assertNotEquals(expected, signer.sign("alice", "[ROLE_ADMIN]", 1700000000000L));
+        assertNotEquals(expected, signer.sign("alice", "[ROLE_USER]", 1700000000001L));
+    }
+
+    @Test
+    void rejectsShortSecret() {
+        String shortSecret = Base64.getEncoder().encodeToString(new byte[16]);
+        assertThrows(IllegalArgumentException.class, () -> new GatewayIdentitySigner(shortSecret));
+    }
+}
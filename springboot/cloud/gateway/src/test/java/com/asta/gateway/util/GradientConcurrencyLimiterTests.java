@@ -0,0 +1,106 @@
+package com.asta.gateway.util;
+
+import com.asta.gateway.util.GradientConcurrencyLimiter.Outcome;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 时钟手动推进。每一轮占满 (或按指定数量占用) 名额，推进 RTT 后全部释放；窗口为 100ms、最少 1 个样本，
+ * 因此每轮的第一次释放结束一个窗口，窗口内的最大并发即该轮占用的名额数。
+ */
+class GradientConcurrencyLimiterTests {
+
+    private final AtomicLong clock = new AtomicLong();
+
+    private final GradientConcurrencyLimiter limiter = new GradientConcurrencyLimiter(10, 1, 200, 1.5, 0.2, 60, 0.9,
+            100, 1, clock::get);
+
+    @Test
+    void rejectsBeyondLimitAndIgnoredReleaseOnlyFreesSlot() {
+        for (int i = 0; i < 10; i++) {
+            assertTrue(limiter.tryAcquire());
+        }
+        assertFalse(limiter.tryAcquire());
+        assertEquals(10, limiter.getInflight());
+
+        advance(100);
+        limiter.release(0, Outcome.IGNORED);
+        assertEquals(9, limiter.getInflight());
+        assertTrue(limiter.tryAcquire());
+        // 取消的请求不计入样本
+        assertEquals(0, limiter.getShortRttNanos());
+    }
+
+    @Test
+    void growsWhileRttIsFlat() {
+        for (int i = 0; i < 20; i++) {
+            round(100, Outcome.SUCCESS, Integer.MAX_VALUE);
+        }
+        assertTrue(limiter.getLimit() > 15, "上限 " + limiter.getLimit());
+        assertEquals(TimeUnit.MILLISECONDS.toNanos(100), limiter.getLongRttNanos(), 1);
+    }
+
+    @Test
+    void shrinksWhenRttExceedsTolerance() {
+        for (int i = 0; i < 20; i++) {
+            round(100, Outcome.SUCCESS, Integer.MAX_VALUE);
+        }
+        int grown = limiter.getLimit();
+
+        // 后端排队，RTT 升到基线的 3 倍，梯度为 0.5
+        for (int i = 0; i < 20; i++) {
+            round(300, Outcome.SUCCESS, Integer.MAX_VALUE);
+        }
+        // 平衡点 limit × 0.1 = 0.2 × sqrt(limit)，即 4 左右
+        assertTrue(limiter.getLimit() < grown / 2 && limiter.getLimit() >= 4, "上限 " + limiter.getLimit());
+        // 用满上限时基线不跟随排队延迟上移
+        assertEquals(TimeUnit.MILLISECONDS.toNanos(100), limiter.getLongRttNanos(), 1);
+    }
+
+    @Test
+    void dropsBackOffMultiplicatively() {
+        // 10 × 0.9^n：9, 8.1, 7.29, 6.56, 5.9
+        int[] expected = {9, 8, 7, 6, 5};
+        for (int limit : expected) {
+            round(100, Outcome.DROPPED, Integer.MAX_VALUE);
+            assertEquals(limit, limiter.getLimit());
+        }
+        for (int i = 0; i < 50; i++) {
+            round(100, Outcome.DROPPED, Integer.MAX_VALUE);
+        }
+        assertEquals(1, limiter.getLimit());
+    }
+
+    @Test
+    void appLimitedWindowsDoNotGrowLimit() {
+        for (int i = 0; i < 20; i++) {
+            round(100, Outcome.SUCCESS, 4);
+        }
+        assertEquals(10, limiter.getLimit());
+        // 基线仍然取得
+        assertEquals(TimeUnit.MILLISECONDS.toNanos(100), limiter.getLongRttNanos(), 1);
+    }
+
+    /**
+     * @param max 最多占用的名额数
+     */
+    private void round(long rttMillis, Outcome outcome, int max) {
+        int acquired = 0;
+        while (acquired < max && limiter.tryAcquire()) {
+            acquired++;
+        }
+        long start = clock.get();
+        advance(rttMillis);
+        for (int i = 0; i < acquired; i++) {
+            limiter.release(start, outcome);
+        }
+    }
+
+    private void advance(long millis) {
+        clock.addAndGet(TimeUnit.MILLISECONDS.toNanos(millis));
+    }
+}
@@ -0,0 +1,55 @@
+package com.asta.gateway.util;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.util.AntPathMatcher;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PathPatternTrieTests {
+
+    private static final List<String> PATTERNS = List.of(
+            "/auth/**",
+            "/actuator/health",
+            "/docs/*/index.html",
+            "/static/**/*.js",
+            "/webhooks/{provider}/events",
+            "/files/v?/report-*.csv",
+            "/**/favicon.ico",
+            "/trailing/",
+            "/");
+
+    private static final List<String> PATHS = List.of(
+            "/", "/auth", "/auth/", "/auth/login", "/auth/a/b/c", "/authx", "/api/users/me",
+            "/actuator/health", "/actuator/health/", "/actuator/health/liveness", "/actuator",
+            "/docs/v1/index.html", "/docs/index.html", "/docs/v1/v2/index.html",
+            "/static/app.js", "/static/a/b/app.js", "/static/app.css", "/static/a/app.js/x",
+            "/webhooks/github/events", "/webhooks/events", "/webhooks/github/x/events",
+            "/files/v1/report-2024.csv", "/files/v10/report-2024.csv", "/files/v1/report.csv",
+            "/favicon.ico", "/a/b/favicon.ico", "/favicon.icox",
+            "/trailing", "/trailing/", "//auth//login", "/static//a//app.js");
+
+    private final AntPathMatcher antPathMatcher = new AntPathMatcher();
+
+    @Test
+    void matchesLikeAntPathMatcher() {
+        for (String pattern : PATTERNS) {
+            PathPatternTrie single = PathPatternTrie.compile(List.of(pattern));
+            for (String path : PATHS) {
+                assertEquals(antPathMatcher.match(pattern, path), single.matches(path), pattern + " vs " + path);
+            }
+        }
+        PathPatternTrie all = PathPatternTrie.compile(PATTERNS);
+        for (String path : PATHS) {
+            boolean expected = PATTERNS.stream().anyMatch(pattern -> antPathMatcher.match(pattern, path));
+            assertEquals(expected, all.matches(path), path);
+        }
+    }
+
+    @Test
+    void rejectsUnsupportedPatterns() {
+        assertThrows(IllegalArgumentException.class, () -> PathPatternTrie.compile(List.of("auth/**")));
+        assertThrows(IllegalArgumentException.class, () -> PathPatternTrie.compile(List.of("/users/{id:\\d+}")));
+    }
+}
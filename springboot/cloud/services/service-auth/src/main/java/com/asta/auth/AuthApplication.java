@@ -7,7 +7,8 @@ import org.springframework.cloud.client.discovery.EnableDiscoveryClient;
 
 @SpringBootApplication
 @EnableDiscoveryClient
-@MapperScan("com.asta.auth.mapper")
+// 显式引用 SqlSessionTemplate：Spring AOT 生成的 Mapper 定义不保留按类型自动装配
+@MapperScan(basePackages = "com.asta.auth.mapper", sqlSessionTemplateRef = "sqlSessionTemplate")
 public class AuthApplication {
     public static void main(String[] args) {
         SpringApplication.run(AuthApplication.class, args);
@@ -0,0 +1,31 @@
+package com.asta.auth.config;
+
+import com.asta.auth.exception.ServerBusyException;
+import com.asta.auth.exception.TooManyRequestsException;
+import com.asta.domain.vo.JsonVO;
+import com.asta.domain.vo.ResultStatus;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+
+@RestControllerAdvice
+public class GlobalExceptionHandler {
+
+    // 服务器繁忙，返回 503 并提示客户端稍后重试
+    @ExceptionHandler(ServerBusyException.class)
+    public ResponseEntity<JsonVO<String>> handleServerBusyException(ServerBusyException e) {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(e.getRetryAfterSeconds()))
+                .body(JsonVO.create(e.getMessage(), ResultStatus.SERVER_BUSY));
+    }
+
+    // 请求过于频繁 (如登录限流)，返回 429 并提示客户端等待后重试
+    @ExceptionHandler(TooManyRequestsException.class)
+    public ResponseEntity<JsonVO<String>> handleTooManyRequestsException(TooManyRequestsException e) {
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(e.getRetryAfterSeconds()))
+                .body(JsonVO.create(e.getMessage(), ResultStatus.TOO_MANY_REQUESTS));
+    }
+}
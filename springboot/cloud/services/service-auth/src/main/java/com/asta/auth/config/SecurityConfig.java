@@ -1,5 +1,10 @@
 package com.asta.auth.config;
 
+import com.asta.auth.filter.GatewayUserFilter;
+import com.asta.auth.security.AdaptiveBCryptPasswordEncoder;
+import com.asta.auth.security.BoundedPasswordEncoder;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.authentication.AuthenticationManager;
@@ -8,37 +13,60 @@ import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
 import org.springframework.security.config.annotation.web.configurers.AbstractHttpConfigurer;
 import org.springframework.security.config.http.SessionCreationPolicy;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
+import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
 
 @Configuration
 @EnableWebSecurity
 public class SecurityConfig {
 
     @Bean
-    public SecurityFilterChain securityFilterChain(HttpSecurity http) throws Exception {
+    public SecurityFilterChain securityFilterChain(HttpSecurity http, GatewayUserFilter gatewayUserFilter) throws Exception {
         http
                 // 禁用 csrf
                 .csrf(AbstractHttpConfigurer::disable)
                 // 授权规则配置
                 .authorizeHttpRequests(auth -> auth
                         // 放行认证端点
-                        .requestMatchers("/auth/login").permitAll()
+                        .requestMatchers("/auth/login", "/auth/logout").permitAll()
+                        // 管理端点，由网关认证后转发用户信息 (GatewayUserFilter)
+                        .requestMatchers("/auth/users/*/revoke-tokens", "/auth/users/import").hasRole("ADMIN")
                         // 其他所有请求都需要认证
                         .anyRequest().authenticated()
                 )
                 // 配置session管理
                 .sessionManagement(session -> session
                         .sessionCreationPolicy(SessionCreationPolicy.STATELESS)
-                );
+                )
+                // 由网关转发的用户信息构建认证
+                .addFilterBefore(gatewayUserFilter, UsernamePasswordAuthenticationFilter.class);
 
         return http.build();
     }
 
+    /**
+     * BCrypt 在独立的有界线程池中执行，线程池繁忙时快速拒绝 (503)；cost 未显式配置时启动时自动校准，
+     * 多实例部署应在 Nacos 中统一配置 password.hash.cost
+     */
     @Bean
-    public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+    public PasswordEncoder passwordEncoder(@Value("${password.hash.cost:0}") int cost,
+                                           @Value("${password.hash.target-latency:250}") long targetLatencyMillis,
+                                           @Value("${password.hash.min-cost:10}") int minCost,
+                                           @Value("${password.hash.max-cost:16}") int maxCost,
+                                           @Value("${password.hash.threads:0}") int threads,
+                                           @Value("${password.hash.queue-capacity:0}") int queueCapacity,
+                                           @Value("${password.hash.timeout:5000}") long timeoutMillis,
+                                           @Value("${password.hash.retry-after:1}") long retryAfterSeconds,
+                                           MeterRegistry meterRegistry) {
+        int poolSize = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        AdaptiveBCryptPasswordEncoder bcrypt = cost > 0
+                ? new AdaptiveBCryptPasswordEncoder(cost, meterRegistry)
+                : AdaptiveBCryptPasswordEncoder.calibrate(targetLatencyMillis, minCost, maxCost, meterRegistry);
+        int capacity = queueCapacity > 0 ? queueCapacity
+                : BoundedPasswordEncoder.queueCapacityFor(poolSize, timeoutMillis, targetLatencyMillis);
+        return new BoundedPasswordEncoder(bcrypt, poolSize, capacity,
+                timeoutMillis, retryAfterSeconds, meterRegistry);
     }
 
     @Bean
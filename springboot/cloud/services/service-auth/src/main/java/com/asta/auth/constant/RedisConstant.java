@@ -0,0 +1,23 @@
+package com.asta.auth.constant;
+
+/**
+ * Redis key 与频道，与 gateway 中的定义保持一致
+ */
+public class RedisConstant {
+
+    /**
+     * 已注销 token key 前缀，完整 key 为 前缀 + jti，值为 token 的过期时刻 (毫秒)，过期时间与 token 的 exp 一致
+     */
+    public static final String REVOKED_TOKEN_KEY_PREFIX = "token:revoked:jti:";
+
+    /**
+     * 用户强制下线 key 前缀，完整 key 为 前缀 + 用户名，值为下线时刻 (毫秒)，该时刻之前签发的 token 全部失效
+     */
+    public static final String REVOKED_USER_KEY_PREFIX = "token:revoked:user:";
+
+    /**
+     * token 注销广播频道，消息体为 t:过期时刻:jti 或 u:失效时刻:用户名，网关收到后写入本地过滤器
+     */
+    public static final String TOKEN_REVOCATION_CHANNEL = "token:revoked";
+
+}
@@ -1,15 +1,28 @@
 package com.asta.auth.controller;
 
+import com.asta.auth.security.LoginThrottle;
 import com.asta.auth.service.IUserService;
+import com.asta.auth.util.UserImportReader;
 import com.asta.domain.query.auth.LoginQuery;
 import com.asta.domain.query.auth.RegisterQuery;
 import com.asta.domain.vo.JsonVO;
+import com.asta.domain.vo.ResultStatus;
+import com.asta.domain.vo.auth.ImportResultVO;
 import com.asta.domain.vo.auth.LoginVO;
+import jakarta.servlet.http.HttpServletRequest;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.io.InputStream;
 
 /**
  * 认证
@@ -21,8 +34,13 @@ public class UserController {
 
     private final IUserService userService;
 
+    private final LoginThrottle loginThrottle;
+
     @PostMapping("/login")
-    JsonVO<LoginVO> login(@RequestBody LoginQuery query){
+    JsonVO<LoginVO> login(@RequestBody LoginQuery query, HttpServletRequest request){
+
+        // 在 BCrypt 校验与数据库查询之前按用户名与客户端 IP 限流，超出限额时返回 429
+        loginThrottle.acquire(query.getUsername(), request.getRemoteAddr());
 
         LoginVO vo = userService.login(query);
 
@@ -37,4 +55,40 @@ public class UserController {
         if (!res) return JsonVO.fail("注册失败!");
         return JsonVO.success("注册成功!");
     }
+
+    /**
+     * 注销，当前 token 立即失效 (网关不校验 /auth/logout，由本服务验签)
+     */
+    @PostMapping("/logout")
+    JsonVO<String> logout(@RequestHeader(value = HttpHeaders.AUTHORIZATION, required = false) String authorization){
+
+        String token = authorization != null && authorization.startsWith("Bearer ") ? authorization.substring(7) : null;
+        if (token == null || !userService.logout(token)) return JsonVO.create(null, ResultStatus.UNAUTHORIZED);
+
+        return JsonVO.success("注销成功!");
+    }
+
+    /**
+     * 强制用户下线，该用户此前签发的所有 token 立即失效，需要 ADMIN 角色 (由网关认证)
+     */
+    @PostMapping("/users/{username}/revoke-tokens")
+    JsonVO<String> revokeTokens(@PathVariable String username){
+
+        userService.revokeTokens(username);
+        return JsonVO.success("已强制下线!");
+    }
+
+    /**
+     * 批量导入用户，文件为 CSV (首行为表头) 或 NDJSON，返回逐行导入结果；文件中可指定角色，需要 ADMIN 角色 (由网关认证)
+     */
+    @PostMapping("/users/import")
+    JsonVO<ImportResultVO> importUsers(@RequestParam("file") MultipartFile file) throws IOException {
+
+        UserImportReader.Format format = UserImportReader.Format.of(file.getOriginalFilename(), file.getContentType());
+        if (format == null) return JsonVO.create(null, ResultStatus.PARAMS_INVALID);
+
+        try (InputStream input = file.getInputStream()) {
+            return JsonVO.success(userService.importUsers(input, format));
+        }
+    }
 }
@@ -0,0 +1,86 @@
+package com.asta.auth.filter;
+
+import com.asta.auth.util.AuthorityRegistry;
+import com.asta.auth.util.GatewayIdentityVerifier;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 由网关转发的用户信息构建认证
+ * <p>
+ * 网关对 auth.public-paths 以外的路径验证 JWT 并检查吊销后，把用户名与权限写入 X-User-Name / X-User-Roles 请求头，
+ * 并用与本服务共享的密钥对其签名 (X-User-Timestamp / X-User-Signature)。签名缺失、无效或过期的请求直接返回 401，
+ * 直接访问服务端口或集群内其他服务伪造的用户信息不会被当作已认证用户。不带 X-User-Name 的请求按匿名处理。
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class GatewayUserFilter extends OncePerRequestFilter {
+
+    public static final String USERNAME_HEADER = "X-User-Name";
+
+    public static final String ROLES_HEADER = "X-User-Roles";
+
+    public static final String TIMESTAMP_HEADER = "X-User-Timestamp";
+
+    public static final String SIGNATURE_HEADER = "X-User-Signature";
+
+    private final GatewayIdentityVerifier identityVerifier;
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+
+        String username = request.getHeader(USERNAME_HEADER);
+        if (username != null && !username.isEmpty()
+                && SecurityContextHolder.getContext().getAuthentication() == null) {
+            String roles = request.getHeader(ROLES_HEADER);
+            if (!identityVerifier.verify(username, roles, request.getHeader(TIMESTAMP_HEADER),
+                    request.getHeader(SIGNATURE_HEADER))) {
+                log.warn("网关用户信息签名无效, username={}, remote={}", username, request.getRemoteAddr());
+                response.setStatus(HttpServletResponse.SC_UNAUTHORIZED);
+                return;
+            }
+            UsernamePasswordAuthenticationToken authentication = new UsernamePasswordAuthenticationToken(
+                    username, null, authorities(roles));
+            authentication.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
+            SecurityContextHolder.getContext().setAuthentication(authentication);
+        }
+
+        chain.doFilter(request, response);
+    }
+
+    /**
+     * @param roles 网关转发的权限列表，格式为 [ROLE_A, ROLE_B]
+     */
+    private static List<GrantedAuthority> authorities(String roles) {
+        if (roles == null) {
+            return List.of();
+        }
+        String trimmed = roles.trim();
+        if (trimmed.startsWith("[") && trimmed.endsWith("]")) {
+            trimmed = trimmed.substring(1, trimmed.length() - 1);
+        }
+        List<String> authorities = new ArrayList<>();
+        for (String role : trimmed.split(",")) {
+            if (!role.isBlank()) {
+                authorities.add(role.trim());
+            }
+        }
+        return authorities.isEmpty() ? List.of() : AuthorityRegistry.authorities(authorities);
+    }
+}
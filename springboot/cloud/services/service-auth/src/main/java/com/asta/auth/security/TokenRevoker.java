@@ -0,0 +1,74 @@
+package com.asta.auth.security;
+
+import com.asta.auth.constant.RedisConstant;
+import io.jsonwebtoken.Claims;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 写入 token 吊销记录
+ * <p>
+ * 吊销记录保存在 Redis 中并广播给网关，网关在本地过滤器判定可能吊销时才访问 Redis 确认。
+ * key 的过期时间与受影响 token 的最晚过期时刻一致，吊销记录不会无限增长。
+ */
+@Slf4j
+@Component
+public class TokenRevoker {
+
+    private static final String TOKEN_PREFIX = "t:";
+
+    private static final String USER_PREFIX = "u:";
+
+    private final StringRedisTemplate redisTemplate;
+
+    private final long maxTokenLifetime;
+
+    public TokenRevoker(StringRedisTemplate redisTemplate,
+                        @Value("${jwt.expiration}") long maxTokenLifetime) {
+        this.redisTemplate = redisTemplate;
+        this.maxTokenLifetime = maxTokenLifetime;
+    }
+
+    /**
+     * 吊销单个 token (注销)，不含 jti 的旧 token 改为使该用户此前签发的所有 token 失效
+     * @param claims 已验签的claims
+     */
+    public void revoke(Claims claims) {
+        if (claims.getId() == null) {
+            revokeUser(claims.getSubject());
+            return;
+        }
+        long now = System.currentTimeMillis();
+        long exp = claims.getExpiration().getTime();
+        if (exp <= now) {
+            return;
+        }
+        redisTemplate.opsForValue().set(RedisConstant.REVOKED_TOKEN_KEY_PREFIX + claims.getId(),
+                String.valueOf(exp), exp - now, TimeUnit.MILLISECONDS);
+        publish(TOKEN_PREFIX + exp + ":" + claims.getId());
+    }
+
+    /**
+     * 强制用户下线，使该用户在此之前签发的所有 token 失效
+     * @param username 用户名
+     */
+    public void revokeUser(String username) {
+        long now = System.currentTimeMillis();
+        redisTemplate.opsForValue().set(RedisConstant.REVOKED_USER_KEY_PREFIX + username,
+                String.valueOf(now), maxTokenLifetime, TimeUnit.MILLISECONDS);
+        publish(USER_PREFIX + (now + maxTokenLifetime) + ":" + username);
+    }
+
+    private void publish(String entry) {
+        try {
+            redisTemplate.convertAndSend(RedisConstant.TOKEN_REVOCATION_CHANNEL, entry);
+        } catch (RuntimeException e) {
+            // 记录已写入 Redis，网关在下次全量加载时获取
+            log.warn("广播 token 吊销记录失败: {}", e.getMessage());
+        }
+    }
+}
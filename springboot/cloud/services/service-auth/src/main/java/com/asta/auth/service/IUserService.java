@@ -1,11 +1,16 @@
 package com.asta.auth.service;
 
+import com.asta.auth.util.UserImportReader;
 import com.asta.domain.po.User;
 import com.asta.domain.query.auth.LoginQuery;
 import com.asta.domain.query.auth.RegisterQuery;
+import com.asta.domain.vo.auth.ImportResultVO;
 import com.asta.domain.vo.auth.LoginVO;
 import com.baomidou.mybatisplus.extension.service.IService;
 
+import java.io.IOException;
+import java.io.InputStream;
+
 /**
  * <p>
  *  服务类
@@ -23,10 +28,31 @@ public interface IUserService extends IService<User> {
      */
     LoginVO login(LoginQuery query);
 
+    /**
+     * 注销，吊销当前 token
+     * @param token 用户token
+     * @return token 无效或已过期时返回 false
+     */
+    boolean logout(String token);
+
+    /**
+     * 强制用户下线，此前签发的所有 token 立即失效
+     * @param username 用户名
+     */
+    void revokeTokens(String username);
+
     /**
      * 用户注册
      * @param query 注册参数
      * @return 如果用户已存在，则注册失败，返回false
      */
     boolean register(RegisterQuery query);
+
+    /**
+     * 批量导入用户，按批读取、去重、并行哈希并批量插入
+     * @param input 导入文件 (CSV 或 NDJSON)
+     * @param format 文件格式
+     * @return 逐行导入结果
+     */
+    ImportResultVO importUsers(InputStream input, UserImportReader.Format format) throws IOException;
 }
@@ -1,16 +1,18 @@
 package com.asta.auth.service.Impl;
 
 import com.asta.auth.mapper.UserMapper;
+import com.baomidou.mybatisplus.core.conditions.update.LambdaUpdateWrapper;
 import lombok.RequiredArgsConstructor;
 import org.springframework.security.core.userdetails.User;
 import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Component;
 
 @RequiredArgsConstructor
 @Component
-public class UserDetailsServiceImpl implements UserDetailsService {
+public class UserDetailsServiceImpl implements UserDetailsService, UserDetailsPasswordService {
 
     private final UserMapper userMapper;
 
@@ -18,13 +20,20 @@ public class UserDetailsServiceImpl implements UserDetailsService {
     @Override
     public UserDetails loadUserByUsername(String username) throws UsernameNotFoundException {
         // 从数据库中查找用户 TODO
-        User user = userMapper.findByUsername(username)
+        // 每次查询都返回新的实例，无需复制 (认证成功后 Spring Security 会擦除其中的密码)
+        return userMapper.findByUsername(username)
                 .orElseThrow(() -> new UsernameNotFoundException("User not exists by Username or Email"));
+    }
+
+    // 登录成功且存储的哈希需要升级 (如 BCrypt cost 变化) 时，由 Spring Security 写回新哈希
+    @Override
+    public UserDetails updatePassword(UserDetails user, String newPassword) {
+        userMapper.update(null, new LambdaUpdateWrapper<com.asta.domain.po.User>()
+                .eq(com.asta.domain.po.User::getUsername, user.getUsername())
+                .set(com.asta.domain.po.User::getPassword, newPassword));
 
-        return new User(
-                user.getUsername(),       // 用户名
-                user.getPassword(),       // 密码
-                user.getAuthorities()     // 权限集合
-        );
+        return User.withUserDetails(user)
+                .password(newPassword)
+                .build();
     }
 }
@@ -1,21 +1,40 @@
 package com.asta.auth.service.Impl;
 
 import com.asta.auth.mapper.UserMapper;
+import com.asta.auth.security.ParallelPasswordHasher;
+import com.asta.auth.security.TokenRevoker;
 import com.asta.auth.service.IUserService;
 import com.asta.auth.util.JwtUtil;
+import com.asta.auth.util.StageMetrics;
+import com.asta.auth.util.StageMetrics.Outcome;
+import com.asta.auth.util.UserImportReader;
 import com.asta.domain.po.User;
 import com.asta.domain.query.auth.LoginQuery;
 import com.asta.domain.query.auth.RegisterQuery;
+import com.asta.domain.vo.auth.ImportResultVO;
 import com.asta.domain.vo.auth.LoginVO;
 import com.baomidou.mybatisplus.core.conditions.query.QueryWrapper;
 import com.baomidou.mybatisplus.extension.service.impl.ServiceImpl;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DuplicateKeyException;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
+import org.springframework.security.core.AuthenticationException;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.StringUtils;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.*;
 
 /**
  * <p>
@@ -25,31 +44,65 @@ import org.springframework.stereotype.Service;
  * @author asta
  * @since 2025-06-29
  */
+@Slf4j
 @Service
 @RequiredArgsConstructor
 public class UserServiceImpl extends ServiceImpl<UserMapper, User> implements IUserService {
 
+    private static final String USERNAME_KEY_PREFIX = "u:";
+    private static final String EMAIL_KEY_PREFIX = "e:";
+
+    /**
+     * 分阶段耗时指标 auth.stage{pipeline=login|register}
+     */
+    private static final String LOGIN = "login";
+    private static final String REGISTER = "register";
+
     private final AuthenticationManager authenticationManager;
     private final JwtUtil jwtUtil;
     private final UserMapper mapper;
     private final PasswordEncoder passwordEncoder;
+    private final ParallelPasswordHasher passwordHasher;
+    private final ObjectMapper objectMapper;
+    private final TokenRevoker tokenRevoker;
+    private final StageMetrics stageMetrics;
+    private final TransactionTemplate transactionTemplate;
+
+    /**
+     * 批量导入时每批处理的行数，同时作为 JDBC 批量插入的批大小
+     */
+    @Value("${user.import.batch-size:1000}")
+    private int importBatchSize;
 
     @Override
     public LoginVO login(LoginQuery query) {
 
-        // 1. 调用 AuthenticationManager 进行认证，认证失败会抛出异常
-        Authentication authentication = authenticationManager.authenticate(
-                new UsernamePasswordAuthenticationToken(
-                        query.getUsername(),
-                        query.getPassword()
-                )
-        );
+        // 1. 调用 AuthenticationManager 进行认证 (查询用户与 BCrypt 校验)，认证失败会抛出异常
+        long start = System.nanoTime();
+        Authentication authentication;
+        try {
+            authentication = authenticationManager.authenticate(
+                    new UsernamePasswordAuthenticationToken(
+                            query.getUsername(),
+                            query.getPassword()
+                    )
+            );
+        } catch (AuthenticationException e) {
+            stageMetrics.record(LOGIN, "authenticate", start, Outcome.INVALID);
+            throw e;
+        } catch (RuntimeException e) {
+            stageMetrics.record(LOGIN, "authenticate", start, Outcome.ERROR);
+            throw e;
+        }
+        stageMetrics.record(LOGIN, "authenticate", start, Outcome.SUCCESS);
 
         // 2. 认证成功，从 Authentication 对象中获取 UserDetails
         final UserDetails userDetails = (UserDetails) authentication.getPrincipal();
 
         // 3. 生成JWT
+        start = System.nanoTime();
         final String token = jwtUtil.generateToken(userDetails);
+        stageMetrics.record(LOGIN, "sign", start, Outcome.SUCCESS);
 
         // 4. 封装返回结果
         LoginVO loginVO = new LoginVO();
@@ -59,18 +112,33 @@ public class UserServiceImpl extends ServiceImpl<UserMapper, User> implements IU
         return loginVO;
     }
 
+    @Override
+    public boolean logout(String token) {
+        Claims claims;
+        try {
+            claims = jwtUtil.parseToken(token);
+        } catch (JwtException | IllegalArgumentException e) {
+            return false;
+        }
+        tokenRevoker.revoke(claims);
+        return true;
+    }
+
+    @Override
+    public void revokeTokens(String username) {
+        tokenRevoker.revokeUser(username);
+    }
+
     @Override
     public boolean register(RegisterQuery query) {
 
         // 1. 检查用户是否已经存在
-        QueryWrapper<User> queryWrapper = new QueryWrapper<>();
-        queryWrapper.eq("username", query.getUsername())
-                    .or()
-                    .eq("email", query.getEmail());
-        User existingUser = mapper.selectOne(queryWrapper);
+        long start = System.nanoTime();
+        boolean exists = mapper.existsByUsernameOrEmail(query.getUsername(), query.getEmail());
+        stageMetrics.record(REGISTER, "check", start, exists ? Outcome.DUPLICATE : Outcome.SUCCESS);
 
         // 2. 如果用户已存在，返回false
-        if (existingUser != null) {
+        if (exists) {
             return false;
         }
 
@@ -80,12 +148,179 @@ public class UserServiceImpl extends ServiceImpl<UserMapper, User> implements IU
         newUser.setEmail(query.getEmail());
         newUser.setRole(query.getRole());
         // 使用BCrypt加密密码
-        String encodedPassword = passwordEncoder.encode(query.getPassword());
+        start = System.nanoTime();
+        String encodedPassword;
+        try {
+            encodedPassword = passwordEncoder.encode(query.getPassword());
+        } catch (RuntimeException e) {
+            stageMetrics.record(REGISTER, "hash", start, Outcome.ERROR);
+            throw e;
+        }
+        stageMetrics.record(REGISTER, "hash", start, Outcome.SUCCESS);
         newUser.setPassword(encodedPassword);
 
         // 4. 保存用户到数据库
-        int result = mapper.insert(newUser);
+        start = System.nanoTime();
+        int result;
+        try {
+            result = mapper.insert(newUser);
+        } catch (DuplicateKeyException e) {
+            stageMetrics.record(REGISTER, "insert", start, Outcome.DUPLICATE);
+            throw e;
+        } catch (RuntimeException e) {
+            stageMetrics.record(REGISTER, "insert", start, Outcome.ERROR);
+            throw e;
+        }
+        stageMetrics.record(REGISTER, "insert", start, Outcome.SUCCESS);
 
         return result > 0;
     }
+
+    @Override
+    public ImportResultVO importUsers(InputStream input, UserImportReader.Format format) throws IOException {
+        long start = System.nanoTime();
+        ImportResultVO result = new ImportResultVO();
+        // 文件中已出现的用户名与邮箱 (小写)，用于文件内去重
+        Set<String> seen = new HashSet<>();
+
+        try (UserImportReader reader = new UserImportReader(input, format, objectMapper)) {
+            List<UserImportReader.Row> rows;
+            while (!(rows = reader.next(importBatchSize)).isEmpty()) {
+                importBatch(rows, seen, result);
+            }
+        }
+
+        long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+        result.getRows().sort(Comparator.comparingInt(ImportResultVO.RowResult::getLine));
+        result.setElapsedMillis(elapsedMillis);
+        result.setRowsPerSecond(result.getTotal() * 1000.0 / Math.max(1, elapsedMillis));
+        log.info("批量导入完成: 共 {} 行, 导入 {}, 重复 {}, 失败 {}, 耗时 {}ms, {} 行/秒", result.getTotal(),
+                result.getImported(), result.getDuplicated(), result.getFailed(), elapsedMillis,
+                Math.round(result.getRowsPerSecond()));
+        return result;
+    }
+
+    /**
+     * 处理一批导入行
+     */
+    private void importBatch(List<UserImportReader.Row> rows, Set<String> seen, ImportResultVO result) {
+
+        // 1. 校验参数并在文件内去重
+        List<UserImportReader.Row> candidates = new ArrayList<>(rows.size());
+        for (UserImportReader.Row row : rows) {
+            RegisterQuery query = row.query();
+            if (row.error() != null) {
+                addRow(result, row, ImportResultVO.Status.INVALID, row.error());
+            } else if (!StringUtils.hasText(query.getUsername()) || !StringUtils.hasText(query.getPassword())) {
+                addRow(result, row, ImportResultVO.Status.INVALID, "用户名和密码不能为空");
+            } else if (seen.contains(usernameKey(query)) || (query.getEmail() != null && seen.contains(emailKey(query)))) {
+                addRow(result, row, ImportResultVO.Status.DUPLICATED, "文件中存在相同的用户名或邮箱");
+            } else {
+                seen.add(usernameKey(query));
+                if (query.getEmail() != null) {
+                    seen.add(emailKey(query));
+                }
+                candidates.add(row);
+            }
+        }
+        if (candidates.isEmpty()) {
+            return;
+        }
+
+        // 2. 一次查询整批的用户名与邮箱，排除数据库中已存在的用户
+        Set<String> existing = findExisting(candidates);
+        List<UserImportReader.Row> accepted = new ArrayList<>(candidates.size());
+        for (UserImportReader.Row row : candidates) {
+            RegisterQuery query = row.query();
+            if (existing.contains(usernameKey(query)) || (query.getEmail() != null && existing.contains(emailKey(query)))) {
+                addRow(result, row, ImportResultVO.Status.DUPLICATED, "用户名或邮箱已存在");
+            } else {
+                accepted.add(row);
+            }
+        }
+        if (accepted.isEmpty()) {
+            return;
+        }
+
+        // 3. 并行哈希密码
+        List<String> hashes = passwordHasher.encodeAll(accepted.stream().map(row -> row.query().getPassword()).toList());
+        List<User> users = new ArrayList<>(accepted.size());
+        for (int i = 0; i < accepted.size(); i++) {
+            RegisterQuery query = accepted.get(i).query();
+            users.add(new User()
+                    .setUsername(query.getUsername())
+                    .setEmail(query.getEmail())
+                    .setRole(query.getRole())
+                    .setPassword(hashes.get(i)));
+        }
+
+        // 4. JDBC 批量插入，每批在独立事务中执行 (saveBatch 为自调用，其上的 @Transactional 不生效)；
+        //    整批失败 (通常是并发注册导致的唯一索引冲突) 时整批回滚，再逐行插入定位失败的行
+        try {
+            transactionTemplate.executeWithoutResult(status -> saveBatch(users, importBatchSize));
+            for (int i = 0; i < users.size(); i++) {
+                imported(result, accepted.get(i), users.get(i));
+            }
+        } catch (RuntimeException e) {
+            log.warn("批量插入失败，已回滚该批，改为逐行插入: {}", e.getMessage());
+            for (int i = 0; i < users.size(); i++) {
+                try {
+                    mapper.insert(users.get(i));
+                    imported(result, accepted.get(i), users.get(i));
+                } catch (DuplicateKeyException ex) {
+                    addRow(result, accepted.get(i), ImportResultVO.Status.DUPLICATED, "用户名或邮箱已存在");
+                } catch (RuntimeException ex) {
+                    addRow(result, accepted.get(i), ImportResultVO.Status.FAILED, ex.getMessage());
+                }
+            }
+        }
+    }
+
+    /**
+     * 查询一批用户名与邮箱中已存在于数据库的部分
+     * @return 已存在的用户名与邮箱 (带前缀、小写)
+     */
+    private Set<String> findExisting(List<UserImportReader.Row> rows) {
+        List<String> usernames = rows.stream().map(row -> row.query().getUsername()).toList();
+        List<String> emails = rows.stream().map(row -> row.query().getEmail()).filter(Objects::nonNull).toList();
+        QueryWrapper<User> queryWrapper = new QueryWrapper<User>()
+                .select("username", "email")
+                .in("username", usernames)
+                .or(!emails.isEmpty(), wrapper -> wrapper.in("email", emails));
+
+        Set<String> existing = new HashSet<>();
+        for (User user : mapper.selectList(queryWrapper)) {
+            existing.add(USERNAME_KEY_PREFIX + user.getUsername().toLowerCase(Locale.ROOT));
+            if (user.getEmail() != null) {
+                existing.add(EMAIL_KEY_PREFIX + user.getEmail().toLowerCase(Locale.ROOT));
+            }
+        }
+        return existing;
+    }
+
+    private void imported(ImportResultVO result, UserImportReader.Row row, User user) {
+        addRow(result, row, ImportResultVO.Status.IMPORTED, null);
+    }
+
+    private static void addRow(ImportResultVO result, UserImportReader.Row row, ImportResultVO.Status status, String message) {
+        String username = row.query() == null ? null : row.query().getUsername();
+        result.getRows().add(new ImportResultVO.RowResult(row.line(), username, status, message));
+        result.setTotal(result.getTotal() + 1);
+        switch (status) {
+            case IMPORTED -> result.setImported(result.getImported() + 1);
+            case DUPLICATED -> result.setDuplicated(result.getDuplicated() + 1);
+            default -> result.setFailed(result.getFailed() + 1);
+        }
+    }
+
+    /**
+     * 用户名与邮箱使用不同前缀后放在同一个集合中比较，统一小写以匹配大小写不敏感的排序规则
+     */
+    private static String usernameKey(RegisterQuery query) {
+        return USERNAME_KEY_PREFIX + query.getUsername().toLowerCase(Locale.ROOT);
+    }
+
+    private static String emailKey(RegisterQuery query) {
+        return EMAIL_KEY_PREFIX + query.getEmail().toLowerCase(Locale.ROOT);
+    }
 }
@@ -0,0 +1,85 @@
+package com.asta.auth.util;
+
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 权限对象的共享实例 (享元)
+ * <p>
+ * 角色只有少数几种，每次加载用户或解析 token 时都创建 SimpleGrantedAuthority 与权限列表没有意义。
+ * 本类按权限字符串与角色名缓存不可变的单元素权限列表，重复取得时不分配对象。权限字符串来自数据库或已验签的 token，
+ * 缓存条目数超过上限时不再缓存新值 (仍返回正确的权限)，防止异常数据撑大缓存。
+ */
+public final class AuthorityRegistry {
+
+    private static final String ROLE_PREFIX = "ROLE_";
+
+    private static final int MAX_SIZE = 1024;
+
+    /**
+     * 权限字符串 (如 ROLE_USER) -> 只含该权限的列表
+     */
+    private static final Map<String, List<GrantedAuthority>> AUTHORITIES = new ConcurrentHashMap<>();
+
+    /**
+     * 角色名 (如 USER) -> 只含 ROLE_ 前缀权限的列表，避免每次拼接前缀
+     */
+    private static final Map<String, List<GrantedAuthority>> ROLES = new ConcurrentHashMap<>();
+
+    private AuthorityRegistry() {
+    }
+
+    /**
+     * @param role 数据库中的角色名，不含 ROLE_ 前缀
+     * @return 只含该角色权限的不可变列表
+     */
+    public static List<GrantedAuthority> role(String role) {
+        List<GrantedAuthority> authorities = ROLES.get(role);
+        if (authorities == null) {
+            authorities = authorities(ROLE_PREFIX + role);
+            if (ROLES.size() < MAX_SIZE) {
+                ROLES.putIfAbsent(role, authorities);
+            }
+        }
+        return authorities;
+    }
+
+    /**
+     * @param authority 权限字符串
+     * @return 只含该权限的不可变列表
+     */
+    public static List<GrantedAuthority> authorities(String authority) {
+        List<GrantedAuthority> authorities = AUTHORITIES.get(authority);
+        if (authorities == null) {
+            authorities = List.of(new SimpleGrantedAuthority(authority));
+            if (AUTHORITIES.size() < MAX_SIZE) {
+                List<GrantedAuthority> existing = AUTHORITIES.putIfAbsent(authority, authorities);
+                if (existing != null) {
+                    authorities = existing;
+                }
+            }
+        }
+        return authorities;
+    }
+
+    /**
+     * @param authorities 权限字符串
+     * @return 由共享实例组成的不可变列表，只有一个权限时 (最常见的情况) 不分配对象
+     */
+    public static List<GrantedAuthority> authorities(Collection<String> authorities) {
+        if (authorities.size() == 1) {
+            return authorities(authorities.iterator().next());
+        }
+        List<GrantedAuthority> result = new ArrayList<>(authorities.size());
+        for (String authority : authorities) {
+            result.add(authorities(authority).get(0));
+        }
+        return List.copyOf(result);
+    }
+}
@@ -0,0 +1,91 @@
+package com.asta.auth.util;
+
+import io.jsonwebtoken.io.Decoders;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.util.Base64;
+
+/**
+ * 校验网关转发的用户信息签名
+ * <p>
+ * 与网关的 GatewayIdentitySigner 使用相同的格式：HMAC-SHA256(用户名 + "\n" + 权限 + "\n" + 时间戳)，
+ * Base64URL (无填充) 编码。密钥 auth.gateway.signing-secret (Base64，至少 32 字节) 保存在 Nacos system.yml 中，
+ * 时间戳与本机时间相差超过 auth.gateway.signature-ttl 的签名视为无效，限制截获的请求头被重放的时间。
+ */
+@Component
+public class GatewayIdentityVerifier {
+
+    private static final String ALGORITHM = "HmacSHA256";
+
+    private final SecretKeySpec key;
+
+    private final long ttlMillis;
+
+    /**
+     * Mac 不是线程安全的，每个线程复用一个实例
+     */
+    private final ThreadLocal<Mac> mac;
+
+    /**
+     * @param secret 从 nacos 读取 secret (Base64)
+     * @param ttlMillis 签名的有效期 (毫秒)，同时容忍网关与本机的时钟偏差
+     */
+    public GatewayIdentityVerifier(@Value("${auth.gateway.signing-secret}") String secret,
+                                   @Value("${auth.gateway.signature-ttl:30000}") long ttlMillis) {
+        byte[] bytes = Decoders.BASE64.decode(secret);
+        if (bytes.length < 32) {
+            throw new IllegalArgumentException("auth.gateway.signing-secret 至少需要 32 字节");
+        }
+        this.key = new SecretKeySpec(bytes, ALGORITHM);
+        this.ttlMillis = ttlMillis;
+        this.mac = ThreadLocal.withInitial(this::newMac);
+    }
+
+    /**
+     * @param username 用户名
+     * @param roles 权限列表，格式为 [ROLE_A, ROLE_B]
+     * @param timestamp 签名时间 (epoch 毫秒)
+     * @param signature 签名
+     * @return 签名与时间戳都有效时返回 true，任一参数为 null 时返回 false
+     */
+    public boolean verify(String username, String roles, String timestamp, String signature) {
+        if (username == null || roles == null || timestamp == null || signature == null) {
+            return false;
+        }
+        long timestampMillis;
+        try {
+            timestampMillis = Long.parseLong(timestamp);
+        } catch (NumberFormatException e) {
+            return false;
+        }
+        if (Math.abs(System.currentTimeMillis() - timestampMillis) > ttlMillis) {
+            return false;
+        }
+        String payload = username + "\n" + roles + "\n" + timestampMillis;
+        byte[] expected = mac.get().doFinal(payload.getBytes(StandardCharsets.UTF_8));
+        byte[] actual;
+        try {
+            actual = Base64.getUrlDecoder().decode(signature);
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+        // 常量时间比较，不泄露匹配的前缀长度
+        return MessageDigest.isEqual(expected, actual);
+    }
+
+    private Mac newMac() {
+        try {
+            Mac instance = Mac.getInstance(ALGORITHM);
+            instance.init(key);
+            return instance;
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("初始化 " + ALGORITHM + " 失败", e);
+        }
+    }
+}
@@ -0,0 +1,110 @@
+package com.asta.auth.filter;
+
+import com.asta.auth.util.GatewayIdentityVerifier;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class GatewayUserFilterTests {
+
+    private static final byte[] SECRET = "0123456789abcdef0123456789abcdef".getBytes(StandardCharsets.UTF_8);
+
+    private static final String ROLES = "[ROLE_ADMIN, ROLE_USER]";
+
+    private final GatewayUserFilter filter = new GatewayUserFilter(
+            new GatewayIdentityVerifier(Base64.getEncoder().encodeToString(SECRET), 30_000));
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void authenticatesSignedIdentity() throws Exception {
+        MockHttpServletResponse response = run(request("alice", ROLES, System.currentTimeMillis(), null));
+
+        assertEquals(200, response.getStatus());
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        assertEquals("alice", authentication.getName());
+        assertEquals(List.of("ROLE_ADMIN", "ROLE_USER"),
+                authentication.getAuthorities().stream().map(GrantedAuthority::getAuthority).toList());
+    }
+
+    @Test
+    void rejectsUnsignedOrTamperedIdentity() throws Exception {
+        long now = System.currentTimeMillis();
+
+        // 直接访问服务端口，没有签名
+        MockHttpServletRequest unsigned = new MockHttpServletRequest("POST", "/auth/users/bob/revoke-tokens");
+        unsigned.addHeader(GatewayUserFilter.USERNAME_HEADER, "mallory");
+        unsigned.addHeader(GatewayUserFilter.ROLES_HEADER, "[ROLE_ADMIN]");
+        assertRejected(unsigned);
+
+        // 用普通用户的签名冒充管理员
+        MockHttpServletRequest escalated = request("mallory", "[ROLE_USER]", now, null);
+        escalated.removeHeader(GatewayUserFilter.ROLES_HEADER);
+        escalated.addHeader(GatewayUserFilter.ROLES_HEADER, "[ROLE_ADMIN]");
+        assertRejected(escalated);
+
+        assertRejected(request("alice", ROLES, now, "AAAA"));
+        assertRejected(request("alice", ROLES, now, "not base64!"));
+        // 超过有效期的签名 (重放)
+        assertRejected(request("alice", ROLES, now - 60_000, null));
+    }
+
+    @Test
+    void requestsWithoutIdentityStayAnonymous() throws Exception {
+        MockHttpServletResponse response = run(new MockHttpServletRequest("POST", "/auth/login"));
+
+        assertEquals(200, response.getStatus());
+        assertNull(SecurityContextHolder.getContext().getAuthentication());
+    }
+
+    private void assertRejected(MockHttpServletRequest request) throws Exception {
+        MockFilterChain chain = new MockFilterChain();
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request, response, chain);
+
+        assertEquals(401, response.getStatus());
+        assertNull(chain.getRequest(), "请求不应继续转发");
+        assertNull(SecurityContextHolder.getContext().getAuthentication());
+    }
+
+    private MockHttpServletResponse run(MockHttpServletRequest request) throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request, response, new MockFilterChain());
+        return response;
+    }
+
+    /**
+     * @param signature 为 null 时按网关的格式计算签名
+     */
+    private static MockHttpServletRequest request(String username, String roles, long timestamp, String signature)
+            throws Exception {
+        if (signature == null) {
+            Mac mac = Mac.getInstance("HmacSHA256");
+            mac.init(new SecretKeySpec(SECRET, "HmacSHA256"));
+            byte[] bytes = mac.doFinal((username + "\n" + roles + "\n" + timestamp).getBytes(StandardCharsets.UTF_8));
+            signature = Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+        }
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/auth/users/bob/revoke-tokens");
+        request.addHeader(GatewayUserFilter.USERNAME_HEADER, username);
+        request.addHeader(GatewayUserFilter.ROLES_HEADER, roles);
+        request.addHeader(GatewayUserFilter.TIMESTAMP_HEADER, String.valueOf(timestamp));
+        request.addHeader(GatewayUserFilter.SIGNATURE_HEADER, signature);
+        return request;
+    }
+}
@@ -0,0 +1,41 @@
+#!/usr/bin/env bash
+# 测量 time-to-first-request：从启动 JVM 到第一个 HTTP 请求得到响应 (任意状态码) 的耗时，重复多次取中位数
+#
+# 用法: scripts/startup-time.sh <url> <java 参数...>
+# 例:   scripts/startup-time.sh http://localhost:4444/authenticate/login -jar target/monolithic-0.0.1-SNAPSHOT.jar
+#
+# 环境变量: RUNS 重复次数 (默认 5)；LOG 应用输出写入的文件 (默认丢弃)
+set -euo pipefail
+
+if [ $# -lt 2 ]; then
+  sed -n '4,5p' "$0"
+  exit 1
+fi
+
+url=$1
+shift
+runs=${RUNS:-5}
+log=${LOG:-/dev/null}
+results=()
+
+for ((i = 1; i <= runs; i++)); do
+  start=$(date +%s%N)
+  java "$@" >"$log" 2>&1 &
+  pid=$!
+  code=000
+  while [ "$code" = 000 ]; do
+    if ! kill -0 "$pid" 2>/dev/null; then
+      echo "应用在响应第一个请求之前退出，日志见 LOG=$log" >&2
+      exit 1
+    fi
+    code=$(curl -s -o /dev/null -w '%{http_code}' "$url" || true)
+  done
+  elapsed=$((($(date +%s%N) - start) / 1000000))
+  kill "$pid"
+  wait "$pid" 2>/dev/null || true
+  echo "run $i: HTTP $code ${elapsed}ms"
+  results+=("$elapsed")
+done
+
+median=$(printf '%s\n' "${results[@]}" | sort -n | sed -n "$(((runs + 1) / 2))p")
+echo "median time-to-first-request: ${median}ms"
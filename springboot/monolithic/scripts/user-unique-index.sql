@@ -0,0 +1,13 @@
+-- user 表的用户名与邮箱唯一索引 (MySQL 8.0)
+-- 注册与批量导入依赖这两个索引拦截并发的重复插入 (DuplicateKeyException)，部署前必须执行；
+-- 开启 user.filter.skip-db-check 跳过注册预检查时，它们是重复注册的唯一保障。
+-- service-auth 使用相同的 user 表结构，在其数据库中同样执行。
+
+-- 1. 执行前先确认没有重复数据，有结果时需先人工合并或删除
+SELECT username, COUNT(*) FROM `user` GROUP BY username HAVING COUNT(*) > 1;
+SELECT email, COUNT(*) FROM `user` WHERE email IS NOT NULL GROUP BY email HAVING COUNT(*) > 1;
+
+-- 2. 创建唯一索引 (email 可为 NULL，多个 NULL 不冲突)
+ALTER TABLE `user`
+    ADD UNIQUE INDEX uk_user_username (username),
+    ADD UNIQUE INDEX uk_user_email (email);
@@ -3,9 +3,12 @@ package com.asta.backend;
 import org.mybatis.spring.annotation.MapperScan;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 @SpringBootApplication
-@MapperScan("com.asta.backend.mapper")
+// 显式引用 SqlSessionTemplate：Spring AOT 生成的 Mapper 定义不保留按类型自动装配
+@MapperScan(basePackages = "com.asta.backend.mapper", sqlSessionTemplateRef = "sqlSessionTemplate")
+@EnableScheduling
 public class BackendApplication {
 
     public static void main(String[] args) {
@@ -0,0 +1,142 @@
+package com.asta.backend.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import io.jsonwebtoken.Claims;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Date;
+import java.util.HexFormat;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 已认证 token 缓存
+ * <p>
+ * 以 token 的 SHA-256 摘要为 key，缓存验签后的 claims 与加载出的 UserDetails。
+ * 命中时过滤器无需再次验签和查询数据库；条目最迟在 token 的 exp 时刻失效，且不超过配置的最大存活时间。
+ */
+@Component
+public class TokenAuthenticationCache {
+
+    private static final String CACHE_NAME = "jwt.token.cache";
+
+    private final boolean enabled;
+
+    private final long maxTtlNanos;
+
+    private final Cache<String, CachedAuthentication> cache;
+
+    public TokenAuthenticationCache(@Value("${jwt.cache.enabled:true}") boolean enabled,
+                                    @Value("${jwt.cache.maximum-size:10000}") long maximumSize,
+                                    @Value("${jwt.cache.ttl:300000}") long maxTtlMillis,
+                                    MeterRegistry meterRegistry) {
+        this.enabled = enabled;
+        this.maxTtlNanos = TimeUnit.MILLISECONDS.toNanos(maxTtlMillis);
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfter(new TokenExpiry())
+                .recordStats()
+                .build();
+        // 暴露命中、未命中、驱逐等指标
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, CACHE_NAME);
+    }
+
+    /**
+     * 查找已认证的 token
+     * @param token 原始token
+     * @return 缓存的认证信息，未命中或已过期返回 null
+     */
+    public CachedAuthentication get(String token) {
+        if (!enabled) {
+            return null;
+        }
+        CachedAuthentication cached = cache.getIfPresent(digest(token));
+        // 双重保险：即使条目尚未被清理，也不返回已过 exp 的认证信息
+        if (cached != null && cached.isExpired(System.currentTimeMillis())) {
+            return null;
+        }
+        return cached;
+    }
+
+    /**
+     * 缓存验签通过的 token
+     * @param token 原始token
+     * @param claims 已解析的claims
+     * @param userDetails 加载出的用户信息
+     */
+    public void put(String token, Claims claims, UserDetails userDetails) {
+        if (!enabled || claims.getExpiration() == null) {
+            return;
+        }
+        cache.put(digest(token), new CachedAuthentication(claims, userDetails));
+    }
+
+    /**
+     * 清除某个用户的全部缓存条目，用户信息变更时调用
+     * @param username 用户名
+     */
+    public void invalidateUser(String username) {
+        // 变更属于低频操作，按值遍历即可，无需维护用户名到 token 的反向索引
+        cache.asMap().values().removeIf(cached -> username.equals(cached.userDetails().getUsername()));
+    }
+
+    /**
+     * 清空缓存
+     */
+    public void invalidateAll() {
+        cache.invalidateAll();
+    }
+
+    private static String digest(String token) {
+        try {
+            MessageDigest sha256 = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(sha256.digest(token.getBytes(StandardCharsets.US_ASCII)));
+        } catch (NoSuchAlgorithmException e) {
+            // 所有 JRE 均必须支持 SHA-256
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * 缓存条目
+     * @param claims 已解析的claims
+     * @param userDetails 用户信息
+     */
+    public record CachedAuthentication(Claims claims, UserDetails userDetails) {
+
+        boolean isExpired(long nowMillis) {
+            Date expiration = claims.getExpiration();
+            return expiration == null || expiration.getTime() <= nowMillis;
+        }
+    }
+
+    /**
+     * 条目过期策略：取 token 剩余有效期与最大存活时间中的较小值
+     */
+    private class TokenExpiry implements Expiry<String, CachedAuthentication> {
+
+        @Override
+        public long expireAfterCreate(String key, CachedAuthentication value, long currentTime) {
+            long remainingMillis = value.claims().getExpiration().getTime() - System.currentTimeMillis();
+            return Math.max(0, Math.min(TimeUnit.MILLISECONDS.toNanos(remainingMillis), maxTtlNanos));
+        }
+
+        @Override
+        public long expireAfterUpdate(String key, CachedAuthentication value, long currentTime, long currentDuration) {
+            return expireAfterCreate(key, value, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(String key, CachedAuthentication value, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+}
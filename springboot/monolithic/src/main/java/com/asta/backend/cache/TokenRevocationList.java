@@ -0,0 +1,373 @@
+package com.asta.backend.cache;
+
+import com.asta.backend.constant.RedisConstant;
+import com.asta.backend.utils.ExpiringBloomFilter;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.jsonwebtoken.Claims;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.redis.core.Cursor;
+import org.springframework.data.redis.core.ScanOptions;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * token 吊销列表
+ * <p>
+ * 吊销记录以 Redis 为准：注销单个 token 写入 {@link RedisConstant#REVOKED_TOKEN_KEY_PREFIX} + jti，强制用户下线写入
+ * {@link RedisConstant#REVOKED_USER_KEY_PREFIX} + 用户名，key 在对应 token 全部过期后自动删除。
+ * <p>
+ * 每个实例在本地维护按 exp 分桶的布隆过滤器 ({@link ExpiringBloomFilter})，请求路径上只查询本地过滤器，
+ * 判定可能已吊销时才访问 Redis 确认，未吊销的 token 不产生任何网络请求。新的吊销记录通过 pub/sub 广播给所有实例，
+ * 同时定期从 Redis 全量重新加载，弥补订阅中断期间丢失的消息；过滤器加载完成前直接查询 Redis。
+ * <p>
+ * 指标：jwt.revocation.check{result=clean|revoked|false_positive|unavailable}，clean 为本地过滤器直接放行的次数，
+ * false_positive 为过滤器误判后经 Redis 确认未吊销的次数，unavailable 为过滤器未就绪或 Redis 不可用的次数。
+ */
+@Slf4j
+@Component
+public class TokenRevocationList {
+
+    private static final String METRIC_PREFIX = "jwt.revocation";
+
+    private static final String TOKEN_PREFIX = "t:";
+
+    private static final String USER_PREFIX = "u:";
+
+    private final StringRedisTemplate redisTemplate;
+
+    private final long maxTokenLifetime;
+
+    private final long bucketMillis;
+
+    private final long expectedPerBucket;
+
+    private final double fpp;
+
+    private final int batchSize;
+
+    /**
+     * 当前生效的过滤器，首次加载完成前为 null
+     */
+    private final AtomicReference<ExpiringBloomFilter> current = new AtomicReference<>();
+
+    /**
+     * 重新加载过程中收到的吊销记录同时写入正在构建的过滤器，避免在扫描与切换之间丢失
+     */
+    private final AtomicReference<ExpiringBloomFilter> building = new AtomicReference<>();
+
+    private final ReentrantLock reloadLock = new ReentrantLock();
+
+    /**
+     * 过滤器判定可能吊销后从 Redis 确认的结果，避免误判的 token 每次请求都访问 Redis；收到新的吊销记录时清空
+     */
+    private final Cache<String, Long> confirmed;
+
+    private final Counter clean;
+
+    private final Counter revoked;
+
+    private final Counter falsePositives;
+
+    private final Counter unavailable;
+
+    public TokenRevocationList(StringRedisTemplate redisTemplate,
+                               MeterRegistry meterRegistry,
+                               @Value("${jwt.expiration}") long maxTokenLifetime,
+                               @Value("${jwt.revocation.bucket-size:3600000}") long bucketMillis,
+                               @Value("${jwt.revocation.expected-per-bucket:10000}") long expectedPerBucket,
+                               @Value("${jwt.revocation.fpp:0.001}") double fpp,
+                               @Value("${jwt.revocation.batch-size:1000}") int batchSize,
+                               @Value("${jwt.revocation.confirm-cache.maximum-size:10000}") long confirmCacheSize,
+                               @Value("${jwt.revocation.confirm-cache.ttl:60000}") long confirmCacheTtlMillis) {
+        this.redisTemplate = redisTemplate;
+        this.maxTokenLifetime = maxTokenLifetime;
+        this.bucketMillis = bucketMillis;
+        this.expectedPerBucket = expectedPerBucket;
+        this.fpp = fpp;
+        this.batchSize = batchSize;
+        this.confirmed = Caffeine.newBuilder()
+                .maximumSize(confirmCacheSize)
+                .expireAfterWrite(confirmCacheTtlMillis, TimeUnit.MILLISECONDS)
+                .build();
+        this.clean = checkCounter(meterRegistry, "clean");
+        this.revoked = checkCounter(meterRegistry, "revoked");
+        this.falsePositives = checkCounter(meterRegistry, "false_positive");
+        this.unavailable = checkCounter(meterRegistry, "unavailable");
+        Gauge.builder(METRIC_PREFIX + ".buckets", current, ref -> ref.get() == null ? 0 : ref.get().bucketCount())
+                .description("本地过滤器当前的桶数")
+                .register(meterRegistry);
+        Gauge.builder(METRIC_PREFIX + ".entries", current, ref -> ref.get() == null ? 0 : ref.get().approximateElementCount())
+                .description("本地过滤器估算的条目数")
+                .register(meterRegistry);
+    }
+
+    private static Counter checkCounter(MeterRegistry meterRegistry, String result) {
+        return Counter.builder(METRIC_PREFIX + ".check")
+                .description("token 吊销检查次数")
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+
+    /**
+     * 应用启动完成后在后台加载，不阻塞启动
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void initialize() {
+        Thread thread = new Thread(this::reload, "token-revocation-init");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * 判断 token 是否已被吊销
+     * @param claims 已验签的claims
+     * @return 是否已吊销
+     */
+    public boolean isRevoked(Claims claims) {
+        Date expiration = claims.getExpiration();
+        if (expiration == null) {
+            return false;
+        }
+        String jti = claims.getId();
+        String username = claims.getSubject();
+        ExpiringBloomFilter filter = current.get();
+        if (filter == null) {
+            // 过滤器尚未加载，直接查询 Redis；Redis 也不可用时无从判断，放行
+            unavailable.increment();
+            try {
+                return count(confirm(jti, username, claims.getIssuedAt()));
+            } catch (RuntimeException e) {
+                return false;
+            }
+        }
+
+        long now = System.currentTimeMillis();
+        long exp = expiration.getTime();
+        if ((jti == null || !filter.mightContain(TOKEN_PREFIX + jti, exp, now))
+                && !filter.mightContain(USER_PREFIX + username, exp, now)) {
+            clean.increment();
+            return false;
+        }
+        try {
+            boolean result = count(confirm(jti, username, claims.getIssuedAt()));
+            if (!result) {
+                falsePositives.increment();
+            }
+            return result;
+        } catch (RuntimeException e) {
+            // 本地过滤器已给出可能吊销的信号，无法确认时按已吊销处理
+            unavailable.increment();
+            log.warn("确认 token 吊销状态失败: {}", e.getMessage());
+            return true;
+        }
+    }
+
+    private boolean count(boolean result) {
+        if (result) {
+            revoked.increment();
+        }
+        return result;
+    }
+
+    /**
+     * 吊销单个 token (注销)，不含 jti 的旧 token 改为使该用户此前签发的所有 token 失效
+     * @param claims 已验签的claims
+     */
+    public void revoke(Claims claims) {
+        if (claims.getId() == null) {
+            revokeUser(claims.getSubject());
+            return;
+        }
+        long now = System.currentTimeMillis();
+        long exp = claims.getExpiration().getTime();
+        if (exp <= now) {
+            return;
+        }
+        redisTemplate.opsForValue().set(RedisConstant.REVOKED_TOKEN_KEY_PREFIX + claims.getId(),
+                String.valueOf(exp), exp - now, TimeUnit.MILLISECONDS);
+        String entry = TOKEN_PREFIX + exp + ":" + claims.getId();
+        addLocal(entry);
+        publish(entry);
+    }
+
+    /**
+     * 强制用户下线，使该用户在此之前签发的所有 token 失效
+     * @param username 用户名
+     */
+    public void revokeUser(String username) {
+        long now = System.currentTimeMillis();
+        redisTemplate.opsForValue().set(RedisConstant.REVOKED_USER_KEY_PREFIX + username,
+                String.valueOf(now), maxTokenLifetime, TimeUnit.MILLISECONDS);
+        String entry = USER_PREFIX + (now + maxTokenLifetime) + ":" + username;
+        addLocal(entry);
+        publish(entry);
+    }
+
+    /**
+     * 写入本实例的过滤器，由其他实例的广播消息调用
+     * @param entry 吊销记录，格式为 t:过期时刻:jti 或 u:失效时刻:用户名
+     */
+    public void addLocal(String entry) {
+        String[] parts = entry.split(":", 3);
+        if (parts.length != 3) {
+            log.warn("忽略无法识别的吊销记录: {}", entry);
+            return;
+        }
+        boolean token = entry.startsWith(TOKEN_PREFIX);
+        String value = (token ? TOKEN_PREFIX : USER_PREFIX) + parts[2];
+        long until = Long.parseLong(parts[1]);
+        long now = System.currentTimeMillis();
+        addTo(current.get(), token, value, until, now);
+        addTo(building.get(), token, value, until, now);
+        // 确认缓存中可能有该 token / 用户 "未吊销" 的结果
+        confirmed.invalidateAll();
+    }
+
+    private static void addTo(ExpiringBloomFilter filter, boolean token, String value, long until, long now) {
+        if (filter == null) {
+            return;
+        }
+        if (token) {
+            filter.put(value, until, now);
+        } else {
+            filter.putUntil(value, until, now);
+        }
+    }
+
+    /**
+     * 定期全量加载，弥补订阅中断期间丢失的广播，同时丢弃已过期的桶
+     */
+    @Scheduled(initialDelayString = "${jwt.revocation.reload-interval:300000}",
+            fixedDelayString = "${jwt.revocation.reload-interval:300000}")
+    public void scheduledReload() {
+        reload();
+    }
+
+    /**
+     * 从 Redis 全量加载吊销记录，完成后原子替换当前过滤器；同一时刻只执行一次加载，
+     * 使用 ReentrantLock 而非 synchronized，虚拟线程在 Redis I/O 期间不会钉住载体线程
+     * @return 是否加载成功
+     */
+    public boolean reload() {
+        reloadLock.lock();
+        try {
+            return doReload();
+        } finally {
+            reloadLock.unlock();
+        }
+    }
+
+    private boolean doReload() {
+        ExpiringBloomFilter next = new ExpiringBloomFilter(bucketMillis, maxTokenLifetime, expectedPerBucket, fpp);
+        building.set(next);
+        try {
+            long start = System.currentTimeMillis();
+            int tokens = scan(RedisConstant.REVOKED_TOKEN_KEY_PREFIX, (value, exp) -> next.put(TOKEN_PREFIX + value, exp, start));
+            int users = scan(RedisConstant.REVOKED_USER_KEY_PREFIX,
+                    (value, revokedAt) -> next.putUntil(USER_PREFIX + value, revokedAt + maxTokenLifetime, start));
+            current.set(next);
+            confirmed.invalidateAll();
+            log.debug("token 吊销列表加载完成: {} 个 token, {} 个用户, 耗时 {}ms",
+                    tokens, users, System.currentTimeMillis() - start);
+            return true;
+        } catch (RuntimeException e) {
+            // 保留当前过滤器，仅过期桶照常清理
+            ExpiringBloomFilter filter = current.get();
+            if (filter != null) {
+                filter.expire(System.currentTimeMillis());
+            }
+            log.warn("加载 token 吊销列表失败: {}", e.getMessage());
+            return false;
+        } finally {
+            building.set(null);
+        }
+    }
+
+    /**
+     * 按前缀分批扫描吊销记录，值均为时间戳 (毫秒)
+     * @return 记录数
+     */
+    private int scan(String prefix, EntryConsumer consumer) {
+        int count = 0;
+        ScanOptions options = ScanOptions.scanOptions().match(prefix + "*").count(batchSize).build();
+        try (Cursor<String> cursor = redisTemplate.scan(options)) {
+            List<String> keys = new ArrayList<>(batchSize);
+            while (cursor.hasNext()) {
+                keys.add(cursor.next());
+                if (keys.size() >= batchSize || !cursor.hasNext()) {
+                    count += consume(prefix, keys, consumer);
+                    keys.clear();
+                }
+            }
+        }
+        return count;
+    }
+
+    private int consume(String prefix, List<String> keys, EntryConsumer consumer) {
+        List<String> values = redisTemplate.opsForValue().multiGet(keys);
+        int count = 0;
+        for (int i = 0; values != null && i < keys.size(); i++) {
+            // 扫描与读取之间 key 可能已过期
+            if (values.get(i) != null) {
+                consumer.accept(keys.get(i).substring(prefix.length()), Long.parseLong(values.get(i)));
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * 从 Redis 确认吊销状态，结果短暂缓存
+     * @return 是否已吊销
+     */
+    private boolean confirm(String jti, String username, Date issuedAt) {
+        if (jti != null) {
+            Long exp = confirmed.getIfPresent(TOKEN_PREFIX + jti);
+            if (exp == null) {
+                String value = redisTemplate.opsForValue().get(RedisConstant.REVOKED_TOKEN_KEY_PREFIX + jti);
+                exp = value == null ? 0L : Long.parseLong(value);
+                confirmed.put(TOKEN_PREFIX + jti, exp);
+            }
+            if (exp != 0) {
+                return true;
+            }
+        }
+        Long revokedAt = confirmed.getIfPresent(USER_PREFIX + username);
+        if (revokedAt == null) {
+            String value = redisTemplate.opsForValue().get(RedisConstant.REVOKED_USER_KEY_PREFIX + username);
+            revokedAt = value == null ? 0L : Long.parseLong(value);
+            confirmed.put(USER_PREFIX + username, revokedAt);
+        }
+        // iat 精确到秒，同一秒内签发的 token 视为下线前签发
+        return revokedAt != 0 && (issuedAt == null || issuedAt.getTime() <= revokedAt);
+    }
+
+    private void publish(String entry) {
+        try {
+            redisTemplate.convertAndSend(RedisConstant.TOKEN_REVOCATION_CHANNEL, entry);
+        } catch (RuntimeException e) {
+            // 记录已写入 Redis，其他实例在下次全量加载时获取
+            log.warn("广播 token 吊销记录失败: {}", e.getMessage());
+        }
+    }
+
+    @FunctionalInterface
+    private interface EntryConsumer {
+        void accept(String value, long timestamp);
+    }
+}
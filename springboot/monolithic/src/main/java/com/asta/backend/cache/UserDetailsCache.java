@@ -0,0 +1,217 @@
+package com.asta.backend.cache;
+
+import com.asta.backend.constant.RedisConstant;
+import com.asta.backend.datasource.DataSourceRouting;
+import com.asta.backend.mapper.UserMapper;
+import com.asta.backend.utils.AuthorityRegistry;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 用户认证信息两级缓存 (本地 Caffeine + Redis)
+ * <p>
+ * 读取顺序为 本地 -> Redis -> 数据库。本地未命中时同一用户名只有一个线程回源 (single-flight)，其余线程等待同一个 future，
+ * 避免冷 key 击穿数据库。回源在 map 锁之外执行 (不使用 Cache.get(key, loader)，其加载函数运行在 ConcurrentHashMap
+ * 的 synchronized 桶锁内)，虚拟线程执行 Redis / 数据库 I/O 时不会钉住载体线程。
+ * 用户信息变更时调用 {@link #evict(String)}，把 Redis 条目替换为短时的失效标记并通过 pub/sub 通知所有实例清除本地缓存。
+ * 回填 Redis 使用 SET NX：失效前已读到旧数据的回源在失效后才回填时，会因失效标记存在而放弃回填，不会把旧快照写回 TTL 时长。
+ * 失效标记存在期间的回源都直接查询数据库且不回填；回源本身 (读数据库到回填之间) 耗时超过 tombstone-ttl 时仍可能写回旧快照，
+ * 此时旧数据最多保留 Redis TTL。
+ * <p>
+ * 缓存中只保存不可变快照，每次读取都构建新的 UserDetails：认证成功后 Spring Security 会擦除 principal 的密码，
+ * 直接缓存 UserDetails 实例会导致后续登录失败。
+ * <p>
+ * 回源始终查询主库 (即使开启了读写分离)：回源结果会回填 Redis 并被所有实例使用 TTL 时长，从库的延迟会把
+ * 修改密码或角色之前的旧数据写回缓存。
+ */
+@Slf4j
+@Component
+public class UserDetailsCache {
+
+    private static final String CACHE_NAME = "user.details.cache";
+
+    /**
+     * 失效标记，不是合法的快照 JSON
+     */
+    private static final String TOMBSTONE = "";
+
+    private final UserMapper userMapper;
+
+    private final StringRedisTemplate redisTemplate;
+
+    private final ObjectMapper objectMapper;
+
+    private final TokenAuthenticationCache tokenCache;
+
+    private final Duration redisTtl;
+
+    private final Duration tombstoneTtl;
+
+    private final AsyncCache<String, UserSnapshot> localCache;
+
+    private final Counter redisHits;
+
+    private final Counter redisMisses;
+
+    private final Counter redisErrors;
+
+    public UserDetailsCache(UserMapper userMapper,
+                            StringRedisTemplate redisTemplate,
+                            ObjectMapper objectMapper,
+                            TokenAuthenticationCache tokenCache,
+                            MeterRegistry meterRegistry,
+                            @Value("${user.cache.local.maximum-size:10000}") long localMaximumSize,
+                            @Value("${user.cache.local.ttl:60000}") long localTtlMillis,
+                            @Value("${user.cache.redis.ttl:600000}") long redisTtlMillis,
+                            @Value("${user.cache.redis.tombstone-ttl:10000}") long tombstoneTtlMillis) {
+        this.userMapper = userMapper;
+        this.redisTemplate = redisTemplate;
+        this.objectMapper = objectMapper;
+        this.tokenCache = tokenCache;
+        this.redisTtl = Duration.ofMillis(redisTtlMillis);
+        this.tombstoneTtl = Duration.ofMillis(tombstoneTtlMillis);
+        this.localCache = Caffeine.newBuilder()
+                .maximumSize(localMaximumSize)
+                .expireAfterWrite(localTtlMillis, TimeUnit.MILLISECONDS)
+                .recordStats()
+                .buildAsync();
+        CaffeineCacheMetrics.monitor(meterRegistry, localCache, CACHE_NAME);
+        this.redisHits = redisCounter(meterRegistry, "hit");
+        this.redisMisses = redisCounter(meterRegistry, "miss");
+        this.redisErrors = redisCounter(meterRegistry, "error");
+    }
+
+    private static Counter redisCounter(MeterRegistry meterRegistry, String result) {
+        return Counter.builder(CACHE_NAME + ".redis")
+                .description("Redis 层用户缓存访问次数")
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+
+    /**
+     * 根据用户名加载用户
+     * @param username 用户名
+     * @return 用户信息，用户不存在时返回空 Optional (不存在的结果不缓存)
+     */
+    public Optional<UserDetails> get(String username) {
+        CompletableFuture<UserSnapshot> future = localCache.getIfPresent(username);
+        if (future == null) {
+            // 同一 key 并发未命中时只有抢到占位的线程执行 load，其余线程等待其结果
+            CompletableFuture<UserSnapshot> created = new CompletableFuture<>();
+            future = localCache.asMap().putIfAbsent(username, created);
+            if (future == null) {
+                future = created;
+                try {
+                    // 结果为 null (用户不存在) 时 Caffeine 会自动移除该条目，不缓存不存在的结果
+                    created.complete(load(username));
+                } catch (RuntimeException e) {
+                    created.completeExceptionally(e);
+                    localCache.asMap().remove(username, created);
+                }
+            }
+        }
+        try {
+            return Optional.ofNullable(future.join()).map(UserSnapshot::toUserDetails);
+        } catch (CompletionException e) {
+            // 还原回源时抛出的原始异常 (如数据库异常)
+            throw e.getCause() instanceof RuntimeException cause ? cause : e;
+        }
+    }
+
+    /**
+     * 用户信息变更后调用：用失效标记覆盖 Redis 条目并广播失效消息，所有实例 (包括本实例) 收到后清除本地缓存
+     * @param username 用户名
+     */
+    public void evict(String username) {
+        invalidateLocal(username);
+        try {
+            redisTemplate.opsForValue().set(RedisConstant.USER_DETAILS_KEY_PREFIX + username, TOMBSTONE, tombstoneTtl);
+            redisTemplate.convertAndSend(RedisConstant.USER_INVALIDATION_CHANNEL, username);
+        } catch (RuntimeException e) {
+            // Redis 不可用时其他实例的本地缓存会在 TTL 后自然过期
+            log.warn("广播用户缓存失效失败, username={}: {}", username, e.getMessage());
+        }
+    }
+
+    /**
+     * 清除本实例的本地缓存，由失效广播监听器调用
+     * @param username 用户名
+     */
+    public void invalidateLocal(String username) {
+        localCache.synchronous().invalidate(username);
+        tokenCache.invalidateUser(username);
+    }
+
+    private UserSnapshot load(String username) {
+        String key = RedisConstant.USER_DETAILS_KEY_PREFIX + username;
+
+        // 1. 查询 Redis
+        try {
+            String json = redisTemplate.opsForValue().get(key);
+            if (json != null && !json.equals(TOMBSTONE)) {
+                redisHits.increment();
+                return objectMapper.readValue(json, UserSnapshot.class);
+            }
+            redisMisses.increment();
+        } catch (RuntimeException | JsonProcessingException e) {
+            // Redis 故障时降级为直接查询数据库
+            redisErrors.increment();
+            log.warn("读取 Redis 用户缓存失败, username={}: {}", username, e.getMessage());
+        }
+
+        // 2. 回源主库，从库可能尚未同步刚注册的用户或刚修改的密码
+        Optional<User> user = DataSourceRouting.onPrimary(() -> userMapper.findByUsername(username));
+        UserSnapshot snapshot = user.map(UserSnapshot::of).orElse(null);
+        if (snapshot == null) {
+            return null;
+        }
+
+        // 3. 回填 Redis，存在失效标记 (刚被 evict) 时放弃，避免把 evict 之前读到的数据写回
+        try {
+            redisTemplate.opsForValue().setIfAbsent(key, objectMapper.writeValueAsString(snapshot), redisTtl);
+        } catch (RuntimeException | JsonProcessingException e) {
+            redisErrors.increment();
+            log.warn("写入 Redis 用户缓存失败, username={}: {}", username, e.getMessage());
+        }
+        return snapshot;
+    }
+
+    /**
+     * 缓存的用户快照
+     * @param username 用户名
+     * @param password 密码哈希
+     * @param authorities 权限字符串
+     */
+    public record UserSnapshot(String username, String password, List<String> authorities) {
+
+        static UserSnapshot of(UserDetails userDetails) {
+            return new UserSnapshot(
+                    userDetails.getUsername(),
+                    userDetails.getPassword(),
+                    userDetails.getAuthorities().stream().map(GrantedAuthority::getAuthority).toList());
+        }
+
+        UserDetails toUserDetails() {
+            return new User(username, password, AuthorityRegistry.authorities(authorities));
+        }
+    }
+}
@@ -0,0 +1,364 @@
+package com.asta.backend.cache;
+
+import com.asta.backend.constant.RedisConstant;
+import com.asta.backend.entity.po.User;
+import com.asta.backend.mapper.UserMapper;
+import com.asta.backend.utils.BloomFilter;
+import com.baomidou.mybatisplus.core.conditions.query.QueryWrapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * 用户名 / 邮箱存在性布隆过滤器
+ * <p>
+ * 注册时先查询过滤器：判定一定不存在时跳过 username = ? OR email = ? 的预检查直接插入，
+ * 只有可能存在时才查询数据库。跳过预检查后重复注册只能由数据库唯一索引拦截，因此默认关闭，需同时满足：
+ * <ul>
+ *     <li>已执行 scripts/user-unique-index.sql，user 表的 username 与 email 上有唯一索引</li>
+ *     <li>开启 Redis 共享 (user.filter.redis.enabled)，各实例都能看到其他实例注册的用户</li>
+ * </ul>
+ * 并设置 user.filter.skip-db-check=true；未开启共享时该配置被忽略，始终查询数据库。
+ * <p>
+ * 启动后在后台从数据库全量构建，构建完成前所有判断都回落到数据库查询。开启 Redis 共享时，
+ * 过滤器以位图形式保存在 Redis 中，新实例直接加载位图而不必扫描用户表，新增条目同时写入位图并通过 pub/sub 通知其他实例。
+ * <p>
+ * 指标：user.filter.check{result=absent|maybe|unavailable} 为判断次数，user.filter.false.positive 为过滤器判定可能存在
+ * (check{maybe}) 但数据库中不存在的次数，两者之比 (false.positive / check{maybe}) 即实际误判率；未开启 skip-db-check 时
+ * 不查询过滤器，两者都不计数；user.filter.expected.fpp 为按置位比例估算的误判率。
+ */
+@Slf4j
+@Component
+public class UserExistenceFilter {
+
+    private static final String METRIC_PREFIX = "user.filter";
+
+    private static final String USERNAME_PREFIX = "u:";
+
+    private static final String EMAIL_PREFIX = "e:";
+
+    private final UserMapper userMapper;
+
+    private final StringRedisTemplate redisTemplate;
+
+    private final long expectedInsertions;
+
+    private final double fpp;
+
+    private final boolean shared;
+
+    /**
+     * 是否允许在过滤器判定一定不存在时跳过数据库预检查
+     */
+    private final boolean skipDbCheck;
+
+    private final int batchSize;
+
+    /**
+     * 当前生效的过滤器，构建完成前为 null
+     */
+    private final AtomicReference<BloomFilter> current = new AtomicReference<>();
+
+    /**
+     * 重建过程中新增的条目会同时写入正在构建的过滤器，避免在扫描与切换之间丢失
+     */
+    private final AtomicReference<BloomFilter> building = new AtomicReference<>();
+
+    private final Queue<String> pendingEntries = new ConcurrentLinkedQueue<>();
+
+    private final AtomicBoolean rebuilding = new AtomicBoolean();
+
+    private final Counter absent;
+
+    private final Counter maybe;
+
+    private final Counter unavailable;
+
+    private final Counter falsePositives;
+
+    public UserExistenceFilter(UserMapper userMapper,
+                               StringRedisTemplate redisTemplate,
+                               MeterRegistry meterRegistry,
+                               @Value("${user.filter.expected-insertions:1000000}") long expectedInsertions,
+                               @Value("${user.filter.fpp:0.01}") double fpp,
+                               @Value("${user.filter.redis.enabled:false}") boolean shared,
+                               @Value("${user.filter.skip-db-check:false}") boolean skipDbCheck,
+                               @Value("${user.filter.batch-size:5000}") int batchSize) {
+        this.userMapper = userMapper;
+        this.redisTemplate = redisTemplate;
+        this.expectedInsertions = expectedInsertions;
+        this.fpp = fpp;
+        this.shared = shared;
+        if (skipDbCheck && !shared) {
+            log.warn("user.filter.skip-db-check 需要开启 user.filter.redis.enabled，否则其他实例注册的用户不在本实例的过滤器中，已忽略");
+        }
+        this.skipDbCheck = skipDbCheck && shared;
+        this.batchSize = batchSize;
+        this.absent = checkCounter(meterRegistry, "absent");
+        this.maybe = checkCounter(meterRegistry, "maybe");
+        this.unavailable = checkCounter(meterRegistry, "unavailable");
+        this.falsePositives = Counter.builder(METRIC_PREFIX + ".false.positive")
+                .description("过滤器判定可能存在但数据库中不存在的次数")
+                .register(meterRegistry);
+        Gauge.builder(METRIC_PREFIX + ".expected.fpp", current, ref -> ref.get() == null ? Double.NaN : ref.get().expectedFpp())
+                .description("按置位比例估算的误判率")
+                .register(meterRegistry);
+        Gauge.builder(METRIC_PREFIX + ".entries", current, ref -> ref.get() == null ? 0 : ref.get().approximateElementCount())
+                .description("估算的过滤器条目数 (用户名与邮箱各计一条)")
+                .register(meterRegistry);
+    }
+
+    private static Counter checkCounter(MeterRegistry meterRegistry, String result) {
+        return Counter.builder(METRIC_PREFIX + ".check")
+                .description("注册预检查的过滤器判断次数")
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+
+    /**
+     * 应用启动完成后在后台构建，不阻塞启动
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void initialize() {
+        Thread thread = new Thread(() -> {
+            if (!shared || !loadFromRedis()) {
+                rebuild();
+            }
+        }, "user-filter-init");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * 判断用户名或邮箱是否可能已被使用
+     * @param username 用户名
+     * @param email 邮箱，可为 null
+     * @return ABSENT 表示两者一定都未被使用，可以跳过数据库预检查；MAYBE 表示过滤器判定可能存在；
+     * 不允许跳过预检查或过滤器尚未构建完成时返回 UNCHECKED
+     */
+    public Check check(String username, String email) {
+        if (!skipDbCheck) {
+            return Check.UNCHECKED;
+        }
+        BloomFilter filter = current.get();
+        if (filter == null) {
+            unavailable.increment();
+            return Check.UNCHECKED;
+        }
+        for (String entry : entries(username, email)) {
+            if (filter.mightContain(entry)) {
+                maybe.increment();
+                return Check.MAYBE;
+            }
+        }
+        absent.increment();
+        return Check.ABSENT;
+    }
+
+    /**
+     * 记录一次误判：过滤器判定可能存在 ({@link Check#MAYBE})，但数据库查询结果为不存在
+     */
+    public void recordFalsePositive() {
+        falsePositives.increment();
+    }
+
+    /**
+     * 注册成功后写入过滤器，开启共享时同步写入 Redis 位图并广播给其他实例
+     * @param username 用户名
+     * @param email 邮箱，可为 null
+     */
+    public void add(String username, String email) {
+        List<String> entries = entries(username, email);
+        entries.forEach(this::addLocal);
+        if (!shared) {
+            return;
+        }
+        BloomFilter filter = current.get();
+        try {
+            if (filter != null) {
+                byte[] key = redisKey(filter);
+                redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+                    for (String entry : entries) {
+                        for (long offset : filter.offsets(entry)) {
+                            connection.stringCommands().setBit(key, offset, true);
+                        }
+                    }
+                    return null;
+                });
+            }
+            entries.forEach(entry -> redisTemplate.convertAndSend(RedisConstant.USER_FILTER_ADD_CHANNEL, entry));
+        } catch (RuntimeException e) {
+            // 其他实例缺少该条目时只会跳过预检查，由唯一索引拦截重复注册 (skip-db-check 要求已建立唯一索引)
+            log.warn("同步用户过滤器条目失败: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * 写入本实例的过滤器，由其他实例的广播消息调用
+     * @param entry 带前缀的条目
+     */
+    public void addLocal(String entry) {
+        BloomFilter filter = current.get();
+        if (filter != null) {
+            filter.put(entry);
+        }
+        BloomFilter next = building.get();
+        if (next != null) {
+            next.put(entry);
+            pendingEntries.add(entry);
+        }
+    }
+
+    /**
+     * 从数据库全量重建过滤器，完成后原子替换当前过滤器；开启共享时覆盖 Redis 位图并通知其他实例重新加载
+     * @return 是否重建成功，已有重建任务在执行或扫描数据库失败时返回 false
+     */
+    public boolean rebuild() {
+        if (!rebuilding.compareAndSet(false, true)) {
+            return false;
+        }
+        BloomFilter next = BloomFilter.create(expectedInsertions, fpp);
+        pendingEntries.clear();
+        building.set(next);
+        try {
+            long start = System.currentTimeMillis();
+            long rows = scan(next);
+            current.set(next);
+            log.info("用户过滤器重建完成: {} 个用户, 耗时 {}ms, 估算误判率 {}",
+                    rows, System.currentTimeMillis() - start, next.expectedFpp());
+            if (shared) {
+                publish(next);
+            }
+            return true;
+        } catch (RuntimeException e) {
+            log.warn("用户过滤器重建失败，注册预检查将回落到数据库: {}", e.getMessage());
+            return false;
+        } finally {
+            building.set(null);
+            rebuilding.set(false);
+        }
+    }
+
+    /**
+     * 从 Redis 位图加载过滤器，由其他实例的重建通知调用
+     * @return 是否加载成功
+     */
+    public boolean loadFromRedis() {
+        BloomFilter empty = BloomFilter.create(expectedInsertions, fpp);
+        try {
+            byte[] key = redisKey(empty);
+            byte[] bytes = redisTemplate.execute((RedisCallback<byte[]>) connection -> connection.stringCommands().get(key));
+            if (bytes == null) {
+                return false;
+            }
+            BloomFilter loaded = BloomFilter.fromRedisBytes(empty.bitSize(), empty.hashFunctions(), bytes);
+            current.set(loaded);
+            log.info("已从 Redis 加载用户过滤器, 估算误判率 {}", loaded.expectedFpp());
+            return true;
+        } catch (RuntimeException e) {
+            log.warn("从 Redis 加载用户过滤器失败: {}", e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * 按主键分批扫描用户名与邮箱，避免一次性加载整张表
+     */
+    private long scan(BloomFilter filter) {
+        long rows = 0;
+        Integer lastId = null;
+        while (true) {
+            QueryWrapper<User> wrapper = new QueryWrapper<User>()
+                    .select("user_id", "username", "email")
+                    .gt(lastId != null, "user_id", lastId)
+                    .orderByAsc("user_id")
+                    .last("LIMIT " + batchSize);
+            List<User> users = userMapper.selectList(wrapper);
+            for (User user : users) {
+                entries(user.getUsername(), user.getEmail()).forEach(filter::put);
+            }
+            rows += users.size();
+            if (users.size() < batchSize) {
+                return rows;
+            }
+            lastId = users.get(users.size() - 1).getUserId();
+        }
+    }
+
+    private void publish(BloomFilter filter) {
+        try {
+            byte[] key = redisKey(filter);
+            byte[] bytes = filter.toRedisBytes();
+            redisTemplate.execute((RedisCallback<Boolean>) connection -> connection.stringCommands().set(key, bytes));
+            // 覆盖位图期间其他请求通过 SETBIT 写入的条目可能丢失，重新写入重建过程中新增的条目
+            redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+                for (String entry : pendingEntries) {
+                    for (long offset : filter.offsets(entry)) {
+                        connection.stringCommands().setBit(key, offset, true);
+                    }
+                }
+                return null;
+            });
+            redisTemplate.convertAndSend(RedisConstant.USER_FILTER_RELOAD_CHANNEL, "");
+        } catch (RuntimeException e) {
+            log.warn("写入 Redis 用户过滤器失败: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * 位图 key 包含位数组大小与哈希函数个数，参数不同的实例不会读取到不兼容的位图
+     */
+    private static byte[] redisKey(BloomFilter filter) {
+        String key = RedisConstant.USER_FILTER_KEY_PREFIX + filter.bitSize() + ":" + filter.hashFunctions();
+        return key.getBytes(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * 过滤器的判断结果
+     */
+    public enum Check {
+        /**
+         * 一定不存在，可以跳过数据库预检查
+         */
+        ABSENT,
+        /**
+         * 可能存在，需要查询数据库
+         */
+        MAYBE,
+        /**
+         * 未查询过滤器 (不允许跳过预检查或尚未构建完成)，需要查询数据库
+         */
+        UNCHECKED
+    }
+
+    /**
+     * 用户名与邮箱使用不同前缀，避免某个用户名与他人的邮箱相同时产生冲突；统一转为小写，
+     * 大小写不敏感的排序规则下只会增加 "可能存在" 的判断，不会产生漏判
+     */
+    private static List<String> entries(String username, String email) {
+        List<String> entries = new ArrayList<>(2);
+        if (username != null && !username.isEmpty()) {
+            entries.add(USERNAME_PREFIX + username.toLowerCase(Locale.ROOT));
+        }
+        if (email != null && !email.isEmpty()) {
+            entries.add(EMAIL_PREFIX + email.toLowerCase(Locale.ROOT));
+        }
+        return entries;
+    }
+}
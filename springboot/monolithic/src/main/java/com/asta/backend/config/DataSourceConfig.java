@@ -0,0 +1,89 @@
+package com.asta.backend.config;
+
+import com.alibaba.druid.pool.DruidDataSource;
+import com.asta.backend.datasource.ReplicaRead;
+import com.asta.backend.datasource.ReplicaReadInterceptor;
+import com.asta.backend.datasource.RoutingDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.aop.Advisor;
+import org.springframework.aop.support.ComposablePointcut;
+import org.springframework.aop.support.DefaultPointcutAdvisor;
+import org.springframework.aop.support.annotation.AnnotationMatchingPointcut;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.context.annotation.Role;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 读写分离数据源配置，datasource.routing.enabled=true 时生效 (替代默认的单数据源)
+ * <p>
+ * 主库使用 spring.datasource 的连接信息，每个从库一个 Druid 连接池，连接池参数均取自 spring.datasource.druid。
+ * 路由规则见 {@link RoutingDataSource}。
+ */
+@Configuration
+@ConditionalOnProperty(name = "datasource.routing.enabled", havingValue = "true")
+public class DataSourceConfig {
+
+    @Bean
+    public RoutingDataSource routingDataSource(DataSourceProperties properties,
+                                               Environment environment,
+                                               MeterRegistry meterRegistry,
+                                               @Value("${datasource.routing.replica-urls:}") String[] replicaUrls,
+                                               @Value("${datasource.routing.replica-username:${spring.datasource.username:}}") String replicaUsername,
+                                               @Value("${datasource.routing.replica-password:${spring.datasource.password:}}") String replicaPassword) {
+        DruidDataSource primary = pool(environment, RoutingDataSource.PRIMARY, properties.determineDriverClassName(),
+                properties.determineUrl(), properties.determineUsername(), properties.determinePassword());
+        List<DruidDataSource> replicas = new ArrayList<>(replicaUrls.length);
+        for (String url : replicaUrls) {
+            if (!url.isBlank()) {
+                replicas.add(pool(environment, RoutingDataSource.REPLICA_PREFIX + (replicas.size() + 1),
+                        properties.determineDriverClassName(), url.trim(), replicaUsername, replicaPassword));
+            }
+        }
+        return new RoutingDataSource(primary, replicas, meterRegistry);
+    }
+
+    /**
+     * 事务开始时不立即获取连接，等到第一条 SQL 时再按只读标记选择数据源
+     */
+    @Bean
+    @Primary
+    public DataSource dataSource(RoutingDataSource routingDataSource) {
+        return new LazyConnectionDataSourceProxy(routingDataSource);
+    }
+
+    /**
+     * 为 {@link ReplicaRead} 标注的类与方法织入路由拦截器，由事务注解使用的自动代理处理，不依赖 AspectJ
+     */
+    @Bean
+    @Role(BeanDefinition.ROLE_INFRASTRUCTURE)
+    public static Advisor replicaReadAdvisor() {
+        ComposablePointcut pointcut = new ComposablePointcut(new AnnotationMatchingPointcut(ReplicaRead.class, true))
+                .union(new AnnotationMatchingPointcut(null, ReplicaRead.class, true));
+        return new DefaultPointcutAdvisor(pointcut, new ReplicaReadInterceptor());
+    }
+
+    private static DruidDataSource pool(Environment environment, String name, String driverClassName,
+                                        String url, String username, String password) {
+        DruidDataSource dataSource = new DruidDataSource();
+        Binder.get(environment).bind("spring.datasource.druid", Bindable.ofInstance(dataSource));
+        dataSource.setName(name);
+        dataSource.setDriverClassName(driverClassName);
+        dataSource.setUrl(url);
+        dataSource.setUsername(username);
+        dataSource.setPassword(password);
+        return dataSource;
+    }
+}
@@ -0,0 +1,327 @@
+package com.asta.backend.config;
+
+import com.alibaba.druid.pool.DruidDataSource;
+import com.alibaba.druid.stat.JdbcDataSourceStat;
+import com.alibaba.druid.stat.JdbcSqlStat;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.*;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 将 Druid StatFilter 的 SQL 统计导出为 Micrometer 指标
+ * <p>
+ * StatFilter 开启 mergeSql 后按参数化的 SQL 合并统计，这些数据原本只能在 Druid 控制台查看。本类定期扫描各连接池的
+ * SQL 统计，为新出现的 SQL 注册以 sql (合并后的 SQL，压缩空白并截断) 为标签的函数型指标，指标在抓取时直接读取 Druid
+ * 的计数，导出本身不在 SQL 执行路径上；Druid 淘汰的 SQL 统计同时移除对应指标。指标：
+ * <ul>
+ *     <li>druid.sql.latency：执行次数与总耗时 (FunctionTimer)</li>
+ *     <li>druid.sql.latency.max：最大耗时</li>
+ *     <li>druid.sql.latency.histogram{le}：耗时不超过 le 毫秒的执行次数 (累积)，由 Druid 的耗时分布换算</li>
+ *     <li>druid.sql.errors：执行出错次数</li>
+ *     <li>druid.sql.rows.fetched：读取的行数</li>
+ *     <li>druid.sql.slow.samples{shape}：慢 SQL 采样次数，shape 为绑定参数的类型</li>
+ *     <li>druid.connection.wait：获取连接时等待的次数与总时长 (按连接池)</li>
+ *     <li>druid.connection.active / druid.connection.idle：使用中与空闲的连接数 (按连接池)</li>
+ * </ul>
+ * 连接池从所有 DataSource bean 中查找，读写分离时展开路由数据源，主库与各从库分别以 pool 标签区分。
+ * 慢 SQL 采样：每个导出周期检查每条 SQL 最近一次慢执行 (超过 slowSqlMillis) 的绑定参数，有变化时记录一次采样，
+ * 日志中输出参数的形态 (类型与长度) 而不输出参数值。
+ */
+@Slf4j
+@Component
+public class DruidMetricsExporter {
+
+    private static final String METRIC_PREFIX = "druid.sql";
+
+    /**
+     * Druid JdbcSqlStat 耗时分布的区间边界 (毫秒)，共 8 个区间，最后一个区间没有上界
+     */
+    private static final long[] HISTOGRAM_BOUNDS = {1, 10, 100, 1000, 10_000, 100_000, 1_000_000};
+
+    private final ObjectProvider<DataSource> dataSources;
+
+    private final MeterRegistry meterRegistry;
+
+    private final ObjectMapper objectMapper;
+
+    private final boolean enabled;
+
+    private final int maxSql;
+
+    private final int maxSqlLength;
+
+    /**
+     * 已注册指标的 SQL 统计，JdbcSqlStat 未重写 equals，按对象标识区分
+     */
+    private final Map<JdbcSqlStat, SqlMeters> exported = new IdentityHashMap<>();
+
+    /**
+     * 已注册等待指标的连接池
+     */
+    private final Set<DruidDataSource> exportedPools = Collections.newSetFromMap(new IdentityHashMap<>());
+
+    private boolean limitReported;
+
+    public DruidMetricsExporter(ObjectProvider<DataSource> dataSources,
+                                MeterRegistry meterRegistry,
+                                ObjectMapper objectMapper,
+                                @Value("${druid.metrics.enabled:true}") boolean enabled,
+                                @Value("${druid.metrics.max-sql:200}") int maxSql,
+                                @Value("${druid.metrics.max-sql-length:300}") int maxSqlLength) {
+        this.dataSources = dataSources;
+        this.meterRegistry = meterRegistry;
+        this.objectMapper = objectMapper;
+        this.enabled = enabled;
+        this.maxSql = maxSql;
+        this.maxSqlLength = maxSqlLength;
+    }
+
+    /**
+     * 扫描 SQL 统计：注册新 SQL 的指标、移除已被 Druid 淘汰的指标并采样慢 SQL
+     */
+    @Scheduled(initialDelay = 0, fixedDelayString = "${druid.metrics.export-interval:60000}")
+    public synchronized void export() {
+        if (!enabled) {
+            return;
+        }
+        // 开启 useGlobalDataSourceStat 时所有连接池共享同一个统计对象
+        Set<JdbcDataSourceStat> stats = Collections.newSetFromMap(new IdentityHashMap<>());
+        for (DruidDataSource dataSource : pools()) {
+            exportPool(dataSource);
+            // 连接池初始化前统计对象为 null
+            if (dataSource.getDataSourceStat() != null) {
+                stats.add(dataSource.getDataSourceStat());
+            }
+        }
+
+        Set<JdbcSqlStat> present = Collections.newSetFromMap(new IdentityHashMap<>());
+        for (JdbcDataSourceStat stat : stats) {
+            for (JdbcSqlStat sqlStat : stat.getSqlStatMap().values()) {
+                present.add(sqlStat);
+                SqlMeters meters = exported.get(sqlStat);
+                if (meters == null) {
+                    meters = register(stat.getName(), sqlStat);
+                    if (meters == null) {
+                        continue;
+                    }
+                }
+                sampleSlow(meters);
+            }
+        }
+
+        Iterator<Map.Entry<JdbcSqlStat, SqlMeters>> iterator = exported.entrySet().iterator();
+        while (iterator.hasNext()) {
+            Map.Entry<JdbcSqlStat, SqlMeters> entry = iterator.next();
+            if (!present.contains(entry.getKey())) {
+                entry.getValue().remove(meterRegistry);
+                iterator.remove();
+            }
+        }
+    }
+
+    /**
+     * 所有 Druid 连接池，同一个连接池可能同时是路由数据源的目标与单独的 bean，按对象标识去重
+     */
+    private Set<DruidDataSource> pools() {
+        Set<DruidDataSource> pools = Collections.newSetFromMap(new IdentityHashMap<>());
+        dataSources.orderedStream().forEach(dataSource -> collect(dataSource, pools));
+        return pools;
+    }
+
+    private static void collect(DataSource dataSource, Set<DruidDataSource> pools) {
+        if (dataSource instanceof DruidDataSource druid) {
+            pools.add(druid);
+        } else if (dataSource instanceof DelegatingDataSource delegating && delegating.getTargetDataSource() != null) {
+            collect(delegating.getTargetDataSource(), pools);
+        } else if (dataSource instanceof AbstractRoutingDataSource routing) {
+            routing.getResolvedDataSources().values().forEach(target -> collect(target, pools));
+        }
+    }
+
+    private void exportPool(DruidDataSource dataSource) {
+        if (!exportedPools.add(dataSource)) {
+            return;
+        }
+        FunctionTimer.builder("druid.connection.wait", dataSource,
+                        DruidDataSource::getNotEmptyWaitCount, DruidDataSource::getNotEmptyWaitNanos, TimeUnit.NANOSECONDS)
+                .description("连接池为空时获取连接的等待次数与总时长")
+                .tag("pool", poolName(dataSource))
+                .register(meterRegistry);
+        Gauge.builder("druid.connection.wait.threads", dataSource, DruidDataSource::getWaitThreadCount)
+                .description("正在等待连接的线程数")
+                .tag("pool", poolName(dataSource))
+                .register(meterRegistry);
+        Gauge.builder("druid.connection.active", dataSource, DruidDataSource::getActiveCount)
+                .description("使用中的连接数")
+                .tag("pool", poolName(dataSource))
+                .register(meterRegistry);
+        Gauge.builder("druid.connection.idle", dataSource, DruidDataSource::getPoolingCount)
+                .description("连接池中的空闲连接数")
+                .tag("pool", poolName(dataSource))
+                .register(meterRegistry);
+    }
+
+    private static String poolName(DruidDataSource dataSource) {
+        return dataSource.getName() == null ? "default" : dataSource.getName();
+    }
+
+    /**
+     * 注册一条 SQL 的指标
+     * @return 已注册的指标，超出 max-sql 时返回 null
+     */
+    private SqlMeters register(String dataSource, JdbcSqlStat sqlStat) {
+        if (exported.size() >= maxSql) {
+            if (!limitReported) {
+                limitReported = true;
+                log.warn("Druid SQL 统计数超过 druid.metrics.max-sql ({})，其余 SQL 不再导出", maxSql);
+            }
+            return null;
+        }
+        String sql = normalize(sqlStat.getSql());
+        Tags tags = Tags.of("datasource", dataSource == null ? "default" : dataSource, "sql", sql);
+        List<Meter> meters = new ArrayList<>();
+        meters.add(FunctionTimer.builder(METRIC_PREFIX + ".latency", sqlStat,
+                        JdbcSqlStat::getExecuteCount, JdbcSqlStat::getExecuteMillisTotal, TimeUnit.MILLISECONDS)
+                .description("SQL 执行次数与总耗时")
+                .tags(tags)
+                .register(meterRegistry));
+        meters.add(TimeGauge.builder(METRIC_PREFIX + ".latency.max", sqlStat, TimeUnit.MILLISECONDS,
+                        JdbcSqlStat::getExecuteMillisMax)
+                .description("SQL 最大执行耗时")
+                .tags(tags)
+                .register(meterRegistry));
+        for (int i = 0; i <= HISTOGRAM_BOUNDS.length; i++) {
+            int bucket = i;
+            meters.add(FunctionCounter.builder(METRIC_PREFIX + ".latency.histogram", sqlStat,
+                            stat -> cumulativeCount(stat.getHistogramValues(), bucket))
+                    .description("执行耗时不超过 le 毫秒的 SQL 执行次数")
+                    .tags(tags)
+                    .tag("le", i < HISTOGRAM_BOUNDS.length ? String.valueOf(HISTOGRAM_BOUNDS[i]) : "+Inf")
+                    .register(meterRegistry));
+        }
+        meters.add(FunctionCounter.builder(METRIC_PREFIX + ".errors", sqlStat, JdbcSqlStat::getErrorCount)
+                .description("SQL 执行出错次数")
+                .tags(tags)
+                .register(meterRegistry));
+        meters.add(FunctionCounter.builder(METRIC_PREFIX + ".rows.fetched", sqlStat, JdbcSqlStat::getFetchRowCount)
+                .description("SQL 读取的行数")
+                .tags(tags)
+                .register(meterRegistry));
+        SqlMeters sqlMeters = new SqlMeters(sqlStat, sql, tags, meters);
+        exported.put(sqlStat, sqlMeters);
+        return sqlMeters;
+    }
+
+    /**
+     * Druid 的分布为各区间内的次数，Prometheus 直方图要求累积次数
+     */
+    private static double cumulativeCount(long[] histogram, int bucket) {
+        long count = 0;
+        for (int i = 0; i <= bucket && i < histogram.length; i++) {
+            count += histogram[i];
+        }
+        return count;
+    }
+
+    /**
+     * 合并后的 SQL 为多行格式化文本，压缩空白后作为标签，过长时截断以限制标签大小
+     */
+    String normalize(String sql) {
+        String normalized = sql.replaceAll("\\s+", " ").trim();
+        return normalized.length() > maxSqlLength ? normalized.substring(0, maxSqlLength) + "..." : normalized;
+    }
+
+    private void sampleSlow(SqlMeters meters) {
+        String parameters = meters.sqlStat.getLastSlowParameters();
+        if (parameters == null || parameters.equals(meters.lastSlowParameters)) {
+            return;
+        }
+        meters.lastSlowParameters = parameters;
+        Shape shape = shapeOf(parameters);
+        Counter counter = Counter.builder(METRIC_PREFIX + ".slow.samples")
+                .description("慢 SQL 采样次数，shape 为绑定参数的类型")
+                .tags(meters.tags)
+                .tag("shape", shape.types())
+                .register(meterRegistry);
+        if (!meters.meters.contains(counter)) {
+            meters.meters.add(counter);
+        }
+        counter.increment();
+        log.warn("慢 SQL: {}, 执行 {} 次, 最大耗时 {}ms, 参数形态 {}",
+                meters.sql, meters.sqlStat.getExecuteCount(), meters.sqlStat.getExecuteMillisMax(), shape.detail());
+    }
+
+    /**
+     * 由 Druid 记录的慢 SQL 参数 (JSON 数组) 得到参数形态，不保留参数值
+     */
+    Shape shapeOf(String parameters) {
+        JsonNode node;
+        try {
+            node = objectMapper.readTree(parameters);
+        } catch (JsonProcessingException e) {
+            return new Shape("unknown", "unknown");
+        }
+        if (node == null || !node.isArray()) {
+            return new Shape("unknown", "unknown");
+        }
+        StringJoiner types = new StringJoiner(",");
+        StringJoiner detail = new StringJoiner(", ", "[", "]");
+        for (JsonNode value : node) {
+            String type = value.isNull() ? "null"
+                    : value.isTextual() ? "string"
+                    : value.isNumber() ? "number"
+                    : value.isBoolean() ? "boolean"
+                    : "other";
+            types.add(type);
+            detail.add(value.isTextual() ? type + "(" + value.textValue().length() + ")" : type);
+        }
+        return new Shape(types.length() == 0 ? "none" : types.toString(), detail.toString());
+    }
+
+    /**
+     * 绑定参数的形态
+     * @param types 参数类型列表，作为指标标签
+     * @param detail 参数类型与字符串长度，用于日志
+     */
+    record Shape(String types, String detail) {
+    }
+
+    /**
+     * 一条 SQL 已注册的指标
+     */
+    private static class SqlMeters {
+
+        private final JdbcSqlStat sqlStat;
+
+        private final String sql;
+
+        private final Tags tags;
+
+        private final List<Meter> meters;
+
+        private String lastSlowParameters;
+
+        SqlMeters(JdbcSqlStat sqlStat, String sql, Tags tags, List<Meter> meters) {
+            this.sqlStat = sqlStat;
+            this.sql = sql;
+            this.tags = tags;
+            this.meters = meters;
+        }
+
+        void remove(MeterRegistry meterRegistry) {
+            meters.forEach(meterRegistry::remove);
+        }
+    }
+}
@@ -2,8 +2,13 @@ package com.asta.backend.config;
 
 import com.asta.backend.entity.vo.JsonVO;
 import com.asta.backend.entity.vo.ResultStatus;
+import com.asta.backend.exception.ServerBusyException;
+import com.asta.backend.exception.TooManyRequestsException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
 import org.springframework.security.authentication.BadCredentialsException;
 import org.springframework.validation.BindException;
 import org.springframework.validation.BindingResult;
@@ -44,10 +49,32 @@ public class GlobalExceptionHandler {
         return JsonVO.create(data, ResultStatus.PARAMS_INVALID);
     }
 
+    // 非法参数 (如无效的分页游标、导入文件格式错误)
+    @ExceptionHandler(IllegalArgumentException.class)
+    public JsonVO<String> handleIllegalArgumentException(IllegalArgumentException e) {
+        return JsonVO.create(e.getMessage(), ResultStatus.PARAMS_INVALID);
+    }
+
     // 登录认证异常
     @ExceptionHandler(BadCredentialsException.class)
     public JsonVO<String> handleBadCredentialsException(BadCredentialsException e) {
         return JsonVO.create(e.getMessage(), ResultStatus.UNAUTHORIZED);
     }
 
+    // 服务器繁忙，返回 503 并提示客户端稍后重试
+    @ExceptionHandler(ServerBusyException.class)
+    public ResponseEntity<JsonVO<String>> handleServerBusyException(ServerBusyException e) {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(e.getRetryAfterSeconds()))
+                .body(JsonVO.create(e.getMessage(), ResultStatus.SERVER_BUSY));
+    }
+
+    // 请求过于频繁 (如登录限流)，返回 429 并提示客户端等待后重试
+    @ExceptionHandler(TooManyRequestsException.class)
+    public ResponseEntity<JsonVO<String>> handleTooManyRequestsException(TooManyRequestsException e) {
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(e.getRetryAfterSeconds()))
+                .body(JsonVO.create(e.getMessage(), ResultStatus.TOO_MANY_REQUESTS));
+    }
+
 }
@@ -0,0 +1,130 @@
+package com.asta.backend.config;
+
+import com.asta.backend.entity.vo.JsonVO;
+import com.asta.backend.entity.vo.ResultStatus;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.exc.InvalidDefinitionException;
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.AbstractHttpMessageConverter;
+import org.springframework.http.converter.HttpMessageConversionException;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+import org.springframework.http.converter.HttpMessageNotWritableException;
+import org.springframework.util.StreamUtils;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * JsonVO 响应的专用写出器 (只写不读)
+ * <p>
+ * 每个 ResultStatus 对应的信封前缀 {"code":...,"message":"...","data": 在启动时编码为字节，写响应时直接写入输出流，
+ * 只有 data 经过 ObjectMapper 序列化，且直接写入响应的输出缓冲区，不经过中间的 byte[] / String。
+ * Jackson 的生成器缓冲区由其 BufferRecycler 按线程复用。
+ * <p>
+ * code 与 message 不是某个 ResultStatus 的组合 (JsonVO.create(data, code, message)) 时整体交给 ObjectMapper；
+ * ObjectMapper 的配置改变了信封格式 (如属性命名策略、忽略 null) 时不使用预编码的前缀。
+ * 两种情况下输出都与默认的 MappingJackson2HttpMessageConverter 逐字节一致。
+ */
+public class JsonVOHttpMessageConverter extends AbstractHttpMessageConverter<JsonVO<?>> {
+
+    private static final ResultStatus[] STATUSES = ResultStatus.values();
+
+    private static final byte[] NULL = "null".getBytes(StandardCharsets.UTF_8);
+
+    private static final byte END = '}';
+
+    private final ObjectWriter writer;
+
+    /**
+     * 按 STATUSES 的顺序存放信封前缀，ObjectMapper 的输出与预编码格式不一致时为 null
+     */
+    private final byte[][] prefixes;
+
+    public JsonVOHttpMessageConverter(ObjectMapper objectMapper) {
+        super(MediaType.APPLICATION_JSON, new MediaType("application", "*+json"));
+        this.writer = objectMapper.writer();
+        this.prefixes = encodePrefixes(objectMapper);
+    }
+
+    private static byte[][] encodePrefixes(ObjectMapper objectMapper) {
+        byte[][] prefixes = new byte[STATUSES.length][];
+        try {
+            for (int i = 0; i < STATUSES.length; i++) {
+                ResultStatus status = STATUSES[i];
+                prefixes[i] = ("{\"code\":" + status.getCode() + ",\"message\":"
+                        + objectMapper.writeValueAsString(status.getMessage()) + ",\"data\":")
+                        .getBytes(StandardCharsets.UTF_8);
+                // 与 ObjectMapper 对同一个对象的输出比较，确认预编码的格式与默认写出的一致
+                byte[] expected = objectMapper.writeValueAsBytes(JsonVO.create(null, status));
+                byte[] actual = Arrays.copyOf(prefixes[i], prefixes[i].length + NULL.length + 1);
+                System.arraycopy(NULL, 0, actual, prefixes[i].length, NULL.length);
+                actual[actual.length - 1] = END;
+                if (!Arrays.equals(expected, actual)) {
+                    return null;
+                }
+            }
+        } catch (JsonProcessingException e) {
+            return null;
+        }
+        return prefixes;
+    }
+
+    @Override
+    protected boolean supports(Class<?> clazz) {
+        return JsonVO.class.isAssignableFrom(clazz);
+    }
+
+    @Override
+    public boolean canRead(Class<?> clazz, MediaType mediaType) {
+        return false;
+    }
+
+    @Override
+    protected JsonVO<?> readInternal(Class<? extends JsonVO<?>> clazz, HttpInputMessage inputMessage) {
+        throw new HttpMessageNotReadableException("JsonVO 只用于响应", inputMessage);
+    }
+
+    @Override
+    protected void writeInternal(JsonVO<?> jsonVO, HttpOutputMessage outputMessage) throws IOException {
+        // Jackson 写完后会关闭目标流，由容器负责关闭响应流
+        OutputStream body = StreamUtils.nonClosing(outputMessage.getBody());
+        byte[] prefix = prefix(jsonVO);
+        try {
+            if (prefix == null) {
+                writer.writeValue(body, jsonVO);
+                return;
+            }
+            body.write(prefix);
+            if (jsonVO.getData() == null) {
+                body.write(NULL);
+            } else {
+                writer.writeValue(body, jsonVO.getData());
+            }
+            body.write(END);
+        } catch (InvalidDefinitionException e) {
+            throw new HttpMessageConversionException("Type definition error: " + e.getType(), e);
+        } catch (JsonProcessingException e) {
+            throw new HttpMessageNotWritableException("Could not write JSON: " + e.getOriginalMessage(), e);
+        }
+    }
+
+    private byte[] prefix(JsonVO<?> jsonVO) {
+        Integer code = jsonVO.getCode();
+        if (prefixes == null || code == null) {
+            return null;
+        }
+        for (int i = 0; i < STATUSES.length; i++) {
+            // message 通常就是枚举中的同一个字符串实例，equals 在引用相同时直接返回
+            if (STATUSES[i].getCode() == code && STATUSES[i].getMessage().equals(jsonVO.getMessage())) {
+                return prefixes[i];
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,28 @@
+package com.asta.backend.config;
+
+import org.springframework.boot.LazyInitializationExcludeFilter;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.MethodIntrospector;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.annotation.Schedules;
+
+/**
+ * 延迟初始化 (spring.main.lazy-initialization=true，见 application-lazy.yaml) 下仍需立即创建的 bean
+ * <p>
+ * 定时任务只有在 bean 创建时才会注册，延迟初始化会让 DruidMetricsExporter、RedisListenerStarter、
+ * TokenRevocationList 等的定时任务永远不会执行。@EventListener 不受影响：事件发布时才按名称获取 bean。
+ */
+@Configuration
+public class LazyInitializationConfig {
+
+    @Bean
+    public static LazyInitializationExcludeFilter scheduledBeansExcludeFilter() {
+        return (beanName, beanDefinition, beanType) -> beanType != null && !MethodIntrospector.selectMethods(beanType,
+                (MethodIntrospector.MetadataLookup<Boolean>) method ->
+                        AnnotatedElementUtils.hasAnnotation(method, Scheduled.class)
+                                || AnnotatedElementUtils.hasAnnotation(method, Schedules.class) ? Boolean.TRUE : null)
+                .isEmpty();
+    }
+}
@@ -0,0 +1,51 @@
+package com.asta.backend.config;
+
+import org.mybatis.spring.mapper.MapperFactoryBean;
+import org.mybatis.spring.mapper.MapperScannerConfigurer;
+import org.springframework.beans.factory.aot.BeanFactoryInitializationAotContribution;
+import org.springframework.beans.factory.aot.BeanFactoryInitializationAotProcessor;
+import org.springframework.beans.factory.aot.BeanRegistrationExcludeFilter;
+import org.springframework.beans.factory.config.ConfigurableListableBeanFactory;
+import org.springframework.beans.factory.config.ConstructorArgumentValues;
+import org.springframework.beans.factory.support.MergedBeanDefinitionPostProcessor;
+import org.springframework.beans.factory.support.RegisteredBean;
+import org.springframework.beans.factory.support.RootBeanDefinition;
+import org.springframework.core.ResolvableType;
+
+/**
+ * Spring AOT 处理 MyBatis Mapper 的补充 (mybatis-spring-boot-starter 自带同样的处理，MyBatis-Plus 的 starter 没有)
+ * <p>
+ * 1. 排除 @MapperScan 注册的 MapperScannerConfigurer：构建时已经把扫描到的 Mapper 生成为 MapperFactoryBean 的定义，
+ * 扫描器若在运行时再执行一次，会以同名重新注册 Mapper 而与之冲突；<br>
+ * 2. 把 MapperFactoryBean 的构造参数由接口名解析为 Class 并补全泛型，否则生成的代码会按类型注入 Class 参数而启动失败，
+ * 按类型注入 Mapper 时也无需先实例化 FactoryBean 推断类型。
+ * <p>
+ * 作为 AOT 处理器，本身不会出现在生成的代码中，只在构建时生效。
+ */
+public class MapperAotProcessor implements BeanFactoryInitializationAotProcessor, BeanRegistrationExcludeFilter,
+        MergedBeanDefinitionPostProcessor {
+
+    @Override
+    public BeanFactoryInitializationAotContribution processAheadOfTime(ConfigurableListableBeanFactory beanFactory) {
+        return null;
+    }
+
+    @Override
+    public boolean isExcludedFromAotProcessing(RegisteredBean registeredBean) {
+        return MapperScannerConfigurer.class == registeredBean.getBeanClass();
+    }
+
+    @Override
+    public void postProcessMergedBeanDefinition(RootBeanDefinition beanDefinition, Class<?> beanType, String beanName) {
+        if (!beanDefinition.hasBeanClass() || !MapperFactoryBean.class.isAssignableFrom(beanDefinition.getBeanClass())
+                || !beanDefinition.getResolvableType().hasUnresolvableGenerics()) {
+            return;
+        }
+        if (beanDefinition.getPropertyValues().get("mapperInterface") instanceof Class<?> mapperInterface) {
+            ConstructorArgumentValues arguments = new ConstructorArgumentValues();
+            arguments.addGenericArgumentValue(mapperInterface);
+            beanDefinition.setConstructorArgumentValues(arguments);
+            beanDefinition.setTargetType(ResolvableType.forClassWithGenerics(beanDefinition.getBeanClass(), mapperInterface));
+        }
+    }
+}
@@ -5,14 +5,25 @@ import com.baomidou.mybatisplus.core.handlers.MetaObjectHandler;
 import com.baomidou.mybatisplus.extension.plugins.MybatisPlusInterceptor;
 import com.baomidou.mybatisplus.extension.plugins.inner.PaginationInnerInterceptor;
 import org.apache.ibatis.reflection.MetaObject;
+import org.springframework.beans.factory.config.BeanDefinition;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Role;
 
 import java.time.LocalDateTime;
 
 @Configuration
 public class MyBatisConfig {
 
+    /**
+     * Spring AOT 处理 Mapper 定义的补充 (见 MapperAotProcessor)
+     */
+    @Bean
+    @Role(BeanDefinition.ROLE_INFRASTRUCTURE)
+    public static MapperAotProcessor mapperAotProcessor() {
+        return new MapperAotProcessor();
+    }
+
     /**
      * 自动插入配置
      */
@@ -1,9 +1,18 @@
 package com.asta.backend.config;
 
+import com.asta.backend.cache.TokenRevocationList;
+import com.asta.backend.cache.UserDetailsCache;
+import com.asta.backend.cache.UserExistenceFilter;
+import com.asta.backend.constant.RedisConstant;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+
+import java.nio.charset.StandardCharsets;
 
 @Configuration
 public class RedisConfig {
@@ -13,4 +22,37 @@ public class RedisConfig {
     public ObjectMapper objectMapper() {
         return new ObjectMapper().registerModule(new JavaTimeModule());
     }
+
+    // 订阅 Redis 广播消息，用于多实例间同步本地缓存
+    // 不随容器自动启动，由 RedisListenerStarter 在后台启动，Redis 不可用时不影响应用启动
+    @Bean
+    public RedisMessageListenerContainer redisMessageListenerContainer(RedisConnectionFactory connectionFactory,
+                                                                       UserDetailsCache userDetailsCache,
+                                                                       UserExistenceFilter userExistenceFilter,
+                                                                       TokenRevocationList tokenRevocationList) {
+        RedisMessageListenerContainer container = new RedisMessageListenerContainer() {
+            @Override
+            public boolean isAutoStartup() {
+                return false;
+            }
+        };
+        container.setConnectionFactory(connectionFactory);
+        // 用户信息变更：清除本地用户缓存
+        container.addMessageListener(
+                (message, pattern) -> userDetailsCache.invalidateLocal(new String(message.getBody(), StandardCharsets.UTF_8)),
+                new ChannelTopic(RedisConstant.USER_INVALIDATION_CHANNEL));
+        // 其他实例注册了新用户：写入本地布隆过滤器
+        container.addMessageListener(
+                (message, pattern) -> userExistenceFilter.addLocal(new String(message.getBody(), StandardCharsets.UTF_8)),
+                new ChannelTopic(RedisConstant.USER_FILTER_ADD_CHANNEL));
+        // 其他实例重建了布隆过滤器：从 Redis 重新加载位图
+        container.addMessageListener(
+                (message, pattern) -> userExistenceFilter.loadFromRedis(),
+                new ChannelTopic(RedisConstant.USER_FILTER_RELOAD_CHANNEL));
+        // 其他实例吊销了 token：写入本地吊销过滤器
+        container.addMessageListener(
+                (message, pattern) -> tokenRevocationList.addLocal(new String(message.getBody(), StandardCharsets.UTF_8)),
+                new ChannelTopic(RedisConstant.TOKEN_REVOCATION_CHANNEL));
+        return container;
+    }
 }
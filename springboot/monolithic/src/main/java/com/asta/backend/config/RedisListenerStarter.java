@@ -0,0 +1,33 @@
+package com.asta.backend.config;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * 在后台启动 Redis 订阅容器
+ * <p>
+ * 订阅失败不会阻止应用启动，而是定期重试；订阅建立前各实例依靠本地缓存的 TTL 保证最终一致。
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class RedisListenerStarter {
+
+    private final RedisMessageListenerContainer container;
+
+    @Scheduled(initialDelay = 0, fixedDelayString = "${redis.listener.retry-interval:30000}")
+    public void ensureStarted() {
+        if (container.isRunning()) {
+            return;
+        }
+        try {
+            container.start();
+            log.info("Redis 订阅容器已启动");
+        } catch (RuntimeException e) {
+            log.warn("Redis 订阅容器启动失败，稍后重试: {}", e.getMessage());
+        }
+    }
+}
@@ -1,7 +1,11 @@
 package com.asta.backend.config;
 
 import com.asta.backend.filter.JwtRequestFilter;
+import com.asta.backend.security.AdaptiveBCryptPasswordEncoder;
+import com.asta.backend.security.BoundedPasswordEncoder;
+import io.micrometer.core.instrument.MeterRegistry;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.authentication.AuthenticationManager;
@@ -11,7 +15,6 @@ import org.springframework.security.config.annotation.web.configuration.EnableWe
 import org.springframework.security.config.annotation.web.configurers.AbstractHttpConfigurer;
 import org.springframework.security.config.http.SessionCreationPolicy;
 import org.springframework.security.core.userdetails.UserDetailsService;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
@@ -45,6 +48,8 @@ public class SecurityConfig {
                     .requestMatchers("/authenticate/**").permitAll()
                     // 允许所有用户访问 /public/** 下的所有端点，通常用于公开资源
                     .requestMatchers("/public/**").permitAll()
+                    // 运维管理端点仅允许管理员访问
+                    .requestMatchers("/admin/**").hasRole("ADMIN")
                     // 除以上permitAll配置的端点外，所有其他请求都需要认证
                     .anyRequest().authenticated()
             )
@@ -61,12 +66,38 @@ public class SecurityConfig {
 
     /**
      * 配置密码编码器Bean。
+     * BCrypt 在独立的有界线程池中执行，不占用请求线程的 CPU 时间，线程池繁忙时快速拒绝 (503)。
+     * cost 未显式配置时，启动时按目标耗时在当前主机上校准；多实例部署时各实例结果可能不同，应显式配置统一的 cost。
      *
-     * @return PasswordEncoder 返回BCryptPasswordEncoder实例，用于密码加密和验证。
+     * @param cost BCrypt cost，0 表示启动时自动校准
+     * @param targetLatencyMillis 自动校准的单次哈希目标耗时 (毫秒)
+     * @param minCost 自动校准的最小 cost
+     * @param maxCost 自动校准的最大 cost
+     * @param threads 哈希线程数，默认为 CPU 核数
+     * @param queueCapacity 等待队列容量，0 表示按线程数、超时与目标耗时估算
+     * @param timeoutMillis 等待哈希结果的最长时间 (毫秒)
+     * @param retryAfterSeconds 拒绝时建议客户端重试的等待时间 (秒)
+     * @param meterRegistry 指标注册表
+     * @return PasswordEncoder 返回包装了BCryptPasswordEncoder的有界编码器，用于密码加密和验证。
      */
     @Bean
-    public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+    public PasswordEncoder passwordEncoder(@Value("${password.hash.cost:0}") int cost,
+                                           @Value("${password.hash.target-latency:250}") long targetLatencyMillis,
+                                           @Value("${password.hash.min-cost:10}") int minCost,
+                                           @Value("${password.hash.max-cost:16}") int maxCost,
+                                           @Value("${password.hash.threads:0}") int threads,
+                                           @Value("${password.hash.queue-capacity:0}") int queueCapacity,
+                                           @Value("${password.hash.timeout:5000}") long timeoutMillis,
+                                           @Value("${password.hash.retry-after:1}") long retryAfterSeconds,
+                                           MeterRegistry meterRegistry) {
+        int poolSize = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        AdaptiveBCryptPasswordEncoder bcrypt = cost > 0
+                ? new AdaptiveBCryptPasswordEncoder(cost, meterRegistry)
+                : AdaptiveBCryptPasswordEncoder.calibrate(targetLatencyMillis, minCost, maxCost, meterRegistry);
+        int capacity = queueCapacity > 0 ? queueCapacity
+                : BoundedPasswordEncoder.queueCapacityFor(poolSize, timeoutMillis, targetLatencyMillis);
+        return new BoundedPasswordEncoder(bcrypt, poolSize, capacity,
+                timeoutMillis, retryAfterSeconds, meterRegistry);
     }
 
     /**
@@ -1,12 +1,20 @@
 package com.asta.backend.config;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.HttpMessageConverter;
 import org.springframework.web.servlet.config.annotation.CorsRegistry;
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
 
+import java.util.List;
+
 @Configuration
+@RequiredArgsConstructor
 public class WebConfig implements WebMvcConfigurer {
 
+    private final ObjectMapper objectMapper;
+
     @Override
     public void addCorsMappings(CorsRegistry registry) {
         registry.addMapping("/**") // 对所有路径生效
@@ -16,4 +24,10 @@ public class WebConfig implements WebMvcConfigurer {
                 .allowCredentials(true) // 允许携带Cookie
                 .maxAge(3600); // 预检请求的有效期
     }
+
+    // JsonVO 响应使用预编码信封的专用写出器，排在默认的 Jackson 转换器之前
+    @Override
+    public void extendMessageConverters(List<HttpMessageConverter<?>> converters) {
+        converters.add(0, new JsonVOHttpMessageConverter(objectMapper));
+    }
 }
@@ -2,4 +2,53 @@ package com.asta.backend.constant;
 
 public class RedisConstant {
 
+    /**
+     * 用户认证信息缓存 key 前缀，完整 key 为 前缀 + 用户名
+     */
+    public static final String USER_DETAILS_KEY_PREFIX = "user:details:";
+
+    /**
+     * 用户信息变更广播频道，消息体为用户名，各实例收到后清除本地缓存
+     */
+    public static final String USER_INVALIDATION_CHANNEL = "user:invalidation";
+
+    /**
+     * 用户名 / 邮箱布隆过滤器位图 key 前缀，完整 key 为 前缀 + 位数组大小 + ":" + 哈希函数个数
+     */
+    public static final String USER_FILTER_KEY_PREFIX = "user:filter:";
+
+    /**
+     * 布隆过滤器新增条目广播频道，消息体为带前缀的条目
+     */
+    public static final String USER_FILTER_ADD_CHANNEL = "user:filter:add";
+
+    /**
+     * 布隆过滤器重建完成广播频道，各实例收到后从 Redis 重新加载位图
+     */
+    public static final String USER_FILTER_RELOAD_CHANNEL = "user:filter:reload";
+
+    /**
+     * 已注销 token key 前缀，完整 key 为 前缀 + jti，过期时间与 token 的 exp 一致
+     */
+    public static final String REVOKED_TOKEN_KEY_PREFIX = "token:revoked:jti:";
+
+    /**
+     * 用户强制下线 key 前缀，完整 key 为 前缀 + 用户名，值为下线时刻 (毫秒)，该时刻之前签发的 token 全部失效
+     */
+    public static final String REVOKED_USER_KEY_PREFIX = "token:revoked:user:";
+
+    /**
+     * token 注销广播频道，消息体为 t:过期时刻:jti 或 u:失效时刻:用户名，各实例收到后写入本地过滤器
+     */
+    public static final String TOKEN_REVOCATION_CHANNEL = "token:revoked";
+
+    /**
+     * refresh token 的 key 前缀，之后为 {Base64url 编码的用户名}，{} 内为 hash tag，集群模式下同一用户的 key 位于同一 slot：
+     * <ul>
+     *     <li>前缀 + {user}:family: + family，值为 当前 secret 的哈希 + ":" + 用户名，过期时间为登录时的 refresh token 有效期，轮换不延长</li>
+     *     <li>前缀 + {user}:families，用户的 family 集合，成员为 family key，强制下线时逐个删除</li>
+     * </ul>
+     */
+    public static final String REFRESH_KEY_PREFIX = "token:refresh:";
+
 }
@@ -0,0 +1,81 @@
+package com.asta.backend.controller;
+
+import com.asta.backend.cache.UserExistenceFilter;
+import com.asta.backend.entity.po.User;
+import com.asta.backend.entity.query.KeysetPageQuery;
+import com.asta.backend.entity.vo.ImportResultVO;
+import com.asta.backend.entity.vo.JsonVO;
+import com.asta.backend.entity.vo.KeysetPageVO;
+import com.asta.backend.entity.vo.ResultStatus;
+import com.asta.backend.service.IUserService;
+import com.asta.backend.utils.UserImportReader;
+import lombok.RequiredArgsConstructor;
+import org.springframework.validation.annotation.Validated;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * 运维管理，仅管理员可访问
+ */
+@RestController
+@RequestMapping("/admin")
+@RequiredArgsConstructor
+public class AdminController {
+
+    private final UserExistenceFilter userExistenceFilter;
+
+    private final IUserService userService;
+
+    /**
+     * 从数据库重建注册预检查使用的布隆过滤器，用于扩容或清理已删除用户的残留位
+     */
+    @PostMapping("/user-filter/rebuild")
+    JsonVO<String> rebuildUserFilter(){
+
+        boolean res = userExistenceFilter.rebuild();
+
+        if (!res) return JsonVO.fail("重建失败或已有重建任务在执行!");
+        return JsonVO.success("重建完成!");
+    }
+
+    /**
+     * 按用户 id 游标分页查询用户，翻页时传入上一页返回的 nextCursor
+     */
+    @GetMapping("/users")
+    JsonVO<KeysetPageVO<User>> listUsers(@Validated KeysetPageQuery query){
+
+        return JsonVO.success(userService.listUsers(query));
+    }
+
+    /**
+     * 批量导入用户，文件为 CSV (首行为表头) 或 NDJSON，返回逐行导入结果
+     */
+    @PostMapping("/users/import")
+    JsonVO<ImportResultVO> importUsers(@RequestParam("file") MultipartFile file) throws IOException {
+
+        UserImportReader.Format format = UserImportReader.Format.of(file.getOriginalFilename(), file.getContentType());
+        if (format == null) return JsonVO.create(null, ResultStatus.PARAMS_INVALID);
+
+        try (InputStream input = file.getInputStream()) {
+            return JsonVO.success(userService.importUsers(input, format));
+        }
+    }
+
+    /**
+     * 强制用户下线，该用户此前签发的所有 token 立即失效
+     */
+    @PostMapping("/users/{username}/revoke-tokens")
+    JsonVO<String> revokeTokens(@PathVariable String username){
+
+        userService.revokeTokens(username);
+        return JsonVO.success("已强制下线!");
+    }
+}
@@ -2,10 +2,16 @@ package com.asta.backend.controller;
 
 
 import com.asta.backend.entity.query.LoginQuery;
+import com.asta.backend.entity.query.RefreshQuery;
 import com.asta.backend.entity.query.RegisterQuery;
 import com.asta.backend.entity.vo.JsonVO;
 import com.asta.backend.entity.vo.LoginVO;
+import com.asta.backend.entity.vo.ResultStatus;
+import com.asta.backend.filter.JwtRequestFilter;
+import com.asta.backend.security.LoginThrottle;
 import com.asta.backend.service.IUserService;
+import io.jsonwebtoken.Claims;
+import jakarta.servlet.http.HttpServletRequest;
 import lombok.RequiredArgsConstructor;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
@@ -23,14 +29,30 @@ public class UserController {
 
     private final IUserService userService;
 
+    private final LoginThrottle loginThrottle;
+
     @PostMapping("/login")
-    JsonVO<LoginVO> login(@RequestBody LoginQuery query){
+    JsonVO<LoginVO> login(@RequestBody LoginQuery query, HttpServletRequest request){
+
+        // 在 BCrypt 校验与数据库查询之前按用户名与客户端 IP 限流，超出限额时返回 429
+        loginThrottle.acquire(query.getUsername(), request.getRemoteAddr());
 
         LoginVO vo = userService.login(query);
 
         return JsonVO.success(vo);
     }
 
+    /**
+     * 用 refresh token 换取新的 token 对，不校验密码；提交的 refresh token 随即失效
+     */
+    @PostMapping("/refresh")
+    JsonVO<LoginVO> refresh(@RequestBody RefreshQuery query){
+
+        LoginVO vo = userService.refresh(query);
+
+        return JsonVO.success(vo);
+    }
+
     @PostMapping("/register")
     JsonVO<String> register(@RequestBody RegisterQuery register){
 
@@ -39,4 +61,17 @@ public class UserController {
         if (!res) return JsonVO.fail("注册失败!");
         return JsonVO.success("注册成功!");
     }
+
+    /**
+     * 注销，当前 token 立即失效；token 无效或已吊销时返回未登录
+     */
+    @PostMapping("/logout")
+    JsonVO<String> logout(HttpServletRequest request){
+
+        // 由 JwtRequestFilter 在认证成功后写入
+        if (!(request.getAttribute(JwtRequestFilter.CLAIMS_ATTRIBUTE) instanceof Claims claims)) return JsonVO.create(null, ResultStatus.UNAUTHORIZED);
+
+        userService.logout(claims);
+        return JsonVO.success("注销成功!");
+    }
 }
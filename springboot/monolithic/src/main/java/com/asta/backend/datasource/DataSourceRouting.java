@@ -0,0 +1,74 @@
+package com.asta.backend.datasource;
+
+import java.util.function.Supplier;
+
+/**
+ * 当前线程的数据源路由意图
+ * <p>
+ * 路由在获取连接时由 {@link RoutingDataSource} 决定，本类只记录调用方的意图：
+ * {@link Route#REPLICA} 来自 {@link ReplicaRead} 或 {@link #onReplica}，{@link Route#PRIMARY} 来自 {@link #onPrimary}。
+ * 嵌套调用时显式固定到主库优先，外层固定到主库后内层的 {@link ReplicaRead} 不会改回从库；每层退出时恢复外层的值。
+ */
+public final class DataSourceRouting {
+
+    private static final ThreadLocal<Route> ROUTE = new ThreadLocal<>();
+
+    private DataSourceRouting() {
+    }
+
+    /**
+     * 在从库上执行 (已固定到主库时仍使用主库)
+     */
+    public static <T> T onReplica(Supplier<T> action) {
+        Route previous = enter(Route.REPLICA);
+        try {
+            return action.get();
+        } finally {
+            restore(previous);
+        }
+    }
+
+    /**
+     * 在主库上执行，用于需要读到刚写入数据的查询 (read-your-writes)
+     */
+    public static <T> T onPrimary(Supplier<T> action) {
+        Route previous = enter(Route.PRIMARY);
+        try {
+            return action.get();
+        } finally {
+            restore(previous);
+        }
+    }
+
+    /**
+     * @return 当前线程的路由意图，未指定时为 null
+     */
+    public static Route current() {
+        return ROUTE.get();
+    }
+
+    /**
+     * 进入一层路由
+     * @return 外层的路由意图，退出时传给 {@link #restore}
+     */
+    static Route enter(Route route) {
+        Route previous = ROUTE.get();
+        if (previous != Route.PRIMARY) {
+            ROUTE.set(route);
+        }
+        return previous;
+    }
+
+    static void restore(Route previous) {
+        if (previous == null) {
+            ROUTE.remove();
+        } else {
+            ROUTE.set(previous);
+        }
+    }
+
+    public enum Route {
+        PRIMARY,
+        REPLICA
+    }
+}
@@ -0,0 +1,16 @@
+package com.asta.backend.datasource;
+
+import java.lang.annotation.*;
+
+/**
+ * 标记只读方法，开启读写分离 (datasource.routing.enabled) 时其中的查询路由到从库
+ * <p>
+ * 标注在类或接口上时对其所有方法生效。只应标注可以容忍复制延迟的查询；需要读到刚写入数据的调用
+ * 使用 {@link DataSourceRouting#onPrimary} 固定到主库，事务中的读写与显式固定到主库的调用不受本注解影响。
+ */
+@Target({ElementType.METHOD, ElementType.TYPE})
+@Retention(RetentionPolicy.RUNTIME)
+@Inherited
+@Documented
+public @interface ReplicaRead {
+}
@@ -0,0 +1,20 @@
+package com.asta.backend.datasource;
+
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+
+/**
+ * 在 {@link ReplicaRead} 方法执行期间将路由意图设为从库
+ */
+public class ReplicaReadInterceptor implements MethodInterceptor {
+
+    @Override
+    public Object invoke(MethodInvocation invocation) throws Throwable {
+        DataSourceRouting.Route previous = DataSourceRouting.enter(DataSourceRouting.Route.REPLICA);
+        try {
+            return invocation.proceed();
+        } finally {
+            DataSourceRouting.restore(previous);
+        }
+    }
+}
@@ -0,0 +1,130 @@
+package com.asta.backend.datasource;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 读写分离数据源，在获取连接时选择主库或从库
+ * <p>
+ * 选择顺序：
+ * <ol>
+ *     <li>显式固定到主库 ({@link DataSourceRouting#onPrimary}) -> 主库</li>
+ *     <li>只读事务 (@Transactional(readOnly = true)) -> 从库</li>
+ *     <li>读写事务 -> 主库，事务中的读取能看到本事务的写入</li>
+ *     <li>{@link ReplicaRead} / {@link DataSourceRouting#onReplica} -> 从库</li>
+ *     <li>其余 -> 主库</li>
+ * </ol>
+ * 多个从库之间轮询；从库获取连接失败时回落到主库。事务在开始时就获取连接，需要包装为
+ * LazyConnectionDataSourceProxy，使只读标记在选择数据源之前已经设置。
+ * <p>
+ * 指标：datasource.routing{target} 为各数据源被选中的次数，datasource.routing.fallback 为从库失败后改用主库的次数。
+ */
+@Slf4j
+public class RoutingDataSource extends AbstractRoutingDataSource implements AutoCloseable {
+
+    public static final String PRIMARY = "primary";
+
+    public static final String REPLICA_PREFIX = "replica-";
+
+    private final DataSource primary;
+
+    private final String[] replicaKeys;
+
+    private final AtomicInteger next = new AtomicInteger();
+
+    private final Map<String, Counter> routed = new HashMap<>();
+
+    private final Counter fallbacks;
+
+    /**
+     * @param primary 主库
+     * @param replicas 从库，为空时所有连接都来自主库
+     */
+    public RoutingDataSource(DataSource primary, List<? extends DataSource> replicas, MeterRegistry meterRegistry) {
+        this.primary = primary;
+        this.replicaKeys = new String[replicas.size()];
+        Map<Object, Object> targets = new LinkedHashMap<>();
+        targets.put(PRIMARY, primary);
+        for (int i = 0; i < replicas.size(); i++) {
+            replicaKeys[i] = REPLICA_PREFIX + (i + 1);
+            targets.put(replicaKeys[i], replicas.get(i));
+        }
+        setTargetDataSources(targets);
+        setDefaultTargetDataSource(primary);
+        setLenientFallback(false);
+        for (Object key : targets.keySet()) {
+            routed.put((String) key, Counter.builder("datasource.routing")
+                    .description("读写分离时各数据源被选中的次数")
+                    .tag("target", (String) key)
+                    .register(meterRegistry));
+        }
+        this.fallbacks = Counter.builder("datasource.routing.fallback")
+                .description("从库获取连接失败后改用主库的次数")
+                .register(meterRegistry);
+    }
+
+    @Override
+    protected String determineCurrentLookupKey() {
+        String key = replicaKeys.length > 0 && readOnly() ? nextReplica() : PRIMARY;
+        routed.get(key).increment();
+        return key;
+    }
+
+    private static boolean readOnly() {
+        DataSourceRouting.Route route = DataSourceRouting.current();
+        if (route == DataSourceRouting.Route.PRIMARY) {
+            return false;
+        }
+        if (TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            return true;
+        }
+        if (TransactionSynchronizationManager.isActualTransactionActive()) {
+            return false;
+        }
+        return route == DataSourceRouting.Route.REPLICA;
+    }
+
+    private String nextReplica() {
+        return replicaKeys.length == 1 ? replicaKeys[0]
+                : replicaKeys[Math.floorMod(next.getAndIncrement(), replicaKeys.length)];
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        String key = determineCurrentLookupKey();
+        if (PRIMARY.equals(key)) {
+            return primary.getConnection();
+        }
+        try {
+            return getResolvedDataSources().get(key).getConnection();
+        } catch (SQLException e) {
+            fallbacks.increment();
+            log.warn("从库 {} 获取连接失败，改用主库: {}", key, e.getMessage());
+            return primary.getConnection();
+        }
+    }
+
+    /**
+     * 关闭所有数据源 (主库与从库)
+     */
+    @Override
+    public void close() throws Exception {
+        for (DataSource dataSource : getResolvedDataSources().values()) {
+            if (dataSource instanceof AutoCloseable closeable) {
+                closeable.close();
+            }
+        }
+    }
+}
@@ -0,0 +1,33 @@
+package com.asta.backend.entity.query;
+
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import lombok.Getter;
+import lombok.Setter;
+import lombok.ToString;
+
+/**
+ * 游标分页参数
+ * <p>
+ * 与 {@link PageQuery} 的偏移分页不同，每页从上一页最后一条记录之后继续查询 (WHERE key > ? ORDER BY key LIMIT n)，
+ * 查询耗时与页码无关，适用于大表；小表或需要跳页时仍使用 PageQuery。
+ */
+@Getter
+@Setter
+@ToString
+public class KeysetPageQuery {
+
+    /**
+     * 上一页返回的 nextCursor，为空时查询第一页
+     */
+    private String cursor;
+
+    @Min(value = 1, message = "条数最小值为1")
+    @Max(value = 1000, message = "条数最大值为1000")
+    private long pageSize = 20;
+
+    /**
+     * 是否返回总条数，总条数按查询条件缓存，不保证实时
+     */
+    private boolean withTotal;
+}
@@ -0,0 +1,13 @@
+package com.asta.backend.entity.query;
+
+import lombok.Getter;
+import lombok.Setter;
+import lombok.ToString;
+
+@Getter
+@Setter
+@ToString(exclude = "refreshToken")
+public class RefreshQuery {
+
+    private String refreshToken;
+}
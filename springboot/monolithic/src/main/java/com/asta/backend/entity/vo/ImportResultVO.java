@@ -0,0 +1,86 @@
+package com.asta.backend.entity.vo;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import lombok.ToString;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 批量导入结果
+ */
+@Getter
+@Setter
+@ToString
+public class ImportResultVO {
+
+    /**
+     * 读取的总行数
+     */
+    private int total;
+
+    /**
+     * 成功导入的行数
+     */
+    private int imported;
+
+    /**
+     * 用户名或邮箱重复而跳过的行数
+     */
+    private int duplicated;
+
+    /**
+     * 参数不合法或写入失败的行数
+     */
+    private int failed;
+
+    /**
+     * 耗时 (毫秒)
+     */
+    private long elapsedMillis;
+
+    /**
+     * 吞吐量 (行/秒)
+     */
+    private double rowsPerSecond;
+
+    /**
+     * 逐行结果
+     */
+    private List<RowResult> rows = new ArrayList<>();
+
+    /**
+     * 单行导入状态
+     */
+    public enum Status {
+        IMPORTED, DUPLICATED, INVALID, FAILED
+    }
+
+    /**
+     * 单行导入结果
+     */
+    @Getter
+    @Setter
+    @ToString
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class RowResult {
+
+        /**
+         * 文件中的行号
+         */
+        private int line;
+
+        private String username;
+
+        private Status status;
+
+        /**
+         * 失败原因，成功时为 null
+         */
+        private String message;
+    }
+}
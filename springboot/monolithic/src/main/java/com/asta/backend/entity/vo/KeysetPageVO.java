@@ -0,0 +1,37 @@
+package com.asta.backend.entity.vo;
+
+import lombok.Getter;
+import lombok.Setter;
+import lombok.ToString;
+
+import java.util.List;
+
+/**
+ * 游标分页结果
+ * @param <T> 记录类型
+ */
+@Getter
+@Setter
+@ToString
+public class KeysetPageVO<T> {
+
+    /**
+     * 本页记录
+     */
+    private List<T> records;
+
+    /**
+     * 下一页游标，没有更多数据时为 null
+     */
+    private String nextCursor;
+
+    /**
+     * 是否还有下一页
+     */
+    private boolean hasMore;
+
+    /**
+     * 总条数，未请求时为 null
+     */
+    private Long total;
+}
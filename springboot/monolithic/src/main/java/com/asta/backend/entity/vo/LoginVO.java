@@ -12,4 +12,9 @@ public class LoginVO {
     private String username;
 
     private String token;
+
+    /**
+     * 用于在 token 过期后换取新的 token，每个只能使用一次；Redis 不可用时登录仍然成功，但不返回 refresh token
+     */
+    private String refreshToken;
 }
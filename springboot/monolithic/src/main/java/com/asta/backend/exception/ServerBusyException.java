@@ -0,0 +1,20 @@
+package com.asta.backend.exception;
+
+import lombok.Getter;
+
+/**
+ * 服务器繁忙，请求被快速拒绝，由 GlobalExceptionHandler 转换为 503 响应
+ */
+@Getter
+public class ServerBusyException extends RuntimeException {
+
+    /**
+     * 建议客户端重试的等待时间 (秒)，写入 Retry-After 响应头
+     */
+    private final long retryAfterSeconds;
+
+    public ServerBusyException(String message, long retryAfterSeconds) {
+        super(message);
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+}
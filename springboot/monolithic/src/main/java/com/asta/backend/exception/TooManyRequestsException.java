@@ -0,0 +1,20 @@
+package com.asta.backend.exception;
+
+import lombok.Getter;
+
+/**
+ * 请求过于频繁，被限流拒绝，由 GlobalExceptionHandler 转换为 429 响应
+ */
+@Getter
+public class TooManyRequestsException extends RuntimeException {
+
+    /**
+     * 建议客户端重试的等待时间 (秒)，写入 Retry-After 响应头
+     */
+    private final long retryAfterSeconds;
+
+    public TooManyRequestsException(String message, long retryAfterSeconds) {
+        super(message);
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+}
@@ -1,13 +1,23 @@
 package com.asta.backend.filter;
 
+import com.asta.backend.cache.TokenAuthenticationCache;
+import com.asta.backend.cache.TokenAuthenticationCache.CachedAuthentication;
+import com.asta.backend.cache.TokenRevocationList;
+import com.asta.backend.utils.AuthorityRegistry;
 import com.asta.backend.utils.JwtUtil;
+import com.asta.backend.utils.StageMetrics;
+import com.asta.backend.utils.StageMetrics.Outcome;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.User;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
@@ -15,15 +25,39 @@ import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
+import java.util.List;
 
 @RequiredArgsConstructor
 @Component
 public class JwtRequestFilter extends OncePerRequestFilter {
 
+    /**
+     * 解析后的 Claims 在 request 中的属性名，供后续 controller / service 复用，无需再次解析 token
+     */
+    public static final String CLAIMS_ATTRIBUTE = JwtRequestFilter.class.getName() + ".CLAIMS";
+
+    /**
+     * 分阶段耗时指标 auth.stage{pipeline=filter}：parse 为解析与验签，verify 为吊销检查，
+     * load 为加载用户 (或由 claims 构建) 并校验用户名与过期时间
+     */
+    private static final String PIPELINE = "filter";
+
     private final UserDetailsService userDetailsService;
 
     private final JwtUtil jwtUtil;
 
+    private final TokenAuthenticationCache tokenCache;
+
+    private final TokenRevocationList revocationList;
+
+    private final StageMetrics stageMetrics;
+
+    /**
+     * 认证模式，strict: 每次从数据库 (缓存) 加载用户；claims: 直接使用 token 中的用户名与权限构建 principal
+     */
+    @Value("${jwt.auth-mode:strict}")
+    private AuthMode authMode;
+
     @Override
     protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
             throws ServletException, IOException {
@@ -31,36 +65,121 @@ public class JwtRequestFilter extends OncePerRequestFilter {
         // 从请求 Header 中提取 Authorization 信息
         final String authorizationHeader = request.getHeader("Authorization");
 
-        String username = null;
-        String jwtToken = null;
-
-        if (authorizationHeader != null && authorizationHeader.startsWith("Bearer ")) {
+        if (authorizationHeader != null && authorizationHeader.startsWith("Bearer ")
+                && SecurityContextHolder.getContext().getAuthentication() == null) { // 确保当前请求没有被其他过滤器认证过
             // 从请求 Authorization 中提取 Token 信息
-            jwtToken = authorizationHeader.substring(7); // 去除 "Bearer " 前缀
-            try {
-                // 从 token 获取 username
-                username = jwtUtil.getUsernameFromToken(jwtToken);
-            } catch (Exception e) {
-                // Token 解析失败或过期等情况
-                logger.warn("JWT 解析失败或过期: " + e.getMessage());
+            String jwtToken = authorizationHeader.substring(7); // 去除 "Bearer " 前缀
+
+            // 命中缓存时直接复用已验签的 claims 与用户信息，跳过验签和数据库查询；已吊销的 token 同样拒绝
+            CachedAuthentication cached = tokenCache.get(jwtToken);
+            if (cached == null) {
+                authenticateToken(request, jwtToken);
+            } else if (!isRevoked(cached.claims())) {
+                request.setAttribute(CLAIMS_ATTRIBUTE, cached.claims());
+                authenticate(request, cached.userDetails());
             }
         }
 
-        if (username != null && SecurityContextHolder.getContext().getAuthentication() == null) { // 确保当前请求没有被其他过滤器认证过
-            // 加载与令 token 关联的用户
-            UserDetails userDetails = userDetailsService.loadUserByUsername(username);
-
-            // 校验 Token（用户名匹配且未过期）
-            if (jwtUtil.validateToken(jwtToken, userDetails)) {
-                UsernamePasswordAuthenticationToken usernamePasswordAuthenticationToken = new UsernamePasswordAuthenticationToken(
-                        userDetails, null, userDetails.getAuthorities());
-                usernamePasswordAuthenticationToken
-                        .setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
-                // 存储当前 request 的 Authentication 信息，将 UsernamePasswordAuthenticationToken 与该 Token 关联的 UserDetails 和 authorities 设置在一起
-                SecurityContextHolder.getContext().setAuthentication(usernamePasswordAuthenticationToken);
+        chain.doFilter(request, response);
+    }
+
+    /**
+     * 缓存未命中：验签、加载用户并写入缓存
+     */
+    private void authenticateToken(HttpServletRequest request, String jwtToken) {
+        long start = System.nanoTime();
+        Claims claims;
+        try {
+            // 解析并验签 token，整个请求只解析这一次
+            claims = jwtUtil.parseToken(jwtToken);
+        } catch (JwtException | IllegalArgumentException e) {
+            // Token 解析失败或过期等情况
+            stageMetrics.record(PIPELINE, "parse", start, Outcome.INVALID);
+            logger.warn("JWT 解析失败或过期: " + e.getMessage());
+            return;
+        }
+        if (claims.getSubject() == null) {
+            stageMetrics.record(PIPELINE, "parse", start, Outcome.INVALID);
+            return;
+        }
+        stageMetrics.record(PIPELINE, "parse", start, Outcome.SUCCESS);
+
+        // 已注销或被强制下线的 token，本地过滤器判定未吊销时不访问 Redis
+        if (isRevoked(claims)) {
+            logger.debug("JWT 已被吊销: " + claims.getId());
+            return;
+        }
+        request.setAttribute(CLAIMS_ATTRIBUTE, claims);
+
+        start = System.nanoTime();
+        UserDetails userDetails;
+        try {
+            // 无状态模式直接由 claims 构建用户，严格模式 (或旧 token 不含权限信息) 加载与 token 关联的用户
+            userDetails = authMode == AuthMode.CLAIMS ? userFromClaims(claims) : null;
+            if (userDetails == null) {
+                userDetails = userDetailsService.loadUserByUsername(claims.getSubject());
             }
+        } catch (RuntimeException e) {
+            stageMetrics.record(PIPELINE, "load", start, Outcome.ERROR);
+            throw e;
         }
 
-        chain.doFilter(request, response);
+        // 校验 Token（用户名匹配且未过期），复用已解析的 claims
+        if (jwtUtil.validateToken(claims, userDetails)) {
+            stageMetrics.record(PIPELINE, "load", start, Outcome.SUCCESS);
+            tokenCache.put(jwtToken, claims, userDetails);
+            authenticate(request, userDetails);
+        } else {
+            stageMetrics.record(PIPELINE, "load", start, Outcome.INVALID);
+        }
+    }
+
+    /**
+     * 吊销检查，缓存命中与未命中的请求都经过此处
+     */
+    private boolean isRevoked(Claims claims) {
+        long start = System.nanoTime();
+        boolean revoked = revocationList.isRevoked(claims);
+        stageMetrics.record(PIPELINE, "verify", start, revoked ? Outcome.REVOKED : Outcome.SUCCESS);
+        return revoked;
+    }
+
+    /**
+     * 由已验签的 claims 构建用户，不访问数据库
+     * @return 用户信息，token 中没有权限信息时返回 null
+     */
+    private UserDetails userFromClaims(Claims claims) {
+        List<String> roles = jwtUtil.getRoles(claims);
+        if (roles == null) {
+            return null;
+        }
+        // token 中不携带密码，principal 的密码置空
+        return new User(claims.getSubject(), "", AuthorityRegistry.authorities(roles));
+    }
+
+    /**
+     * 将认证信息写入当前请求的 SecurityContext
+     */
+    private void authenticate(HttpServletRequest request, UserDetails userDetails) {
+        UsernamePasswordAuthenticationToken usernamePasswordAuthenticationToken = new UsernamePasswordAuthenticationToken(
+                userDetails, null, userDetails.getAuthorities());
+        usernamePasswordAuthenticationToken
+                .setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
+        // 存储当前 request 的 Authentication 信息，将 UsernamePasswordAuthenticationToken 与该 Token 关联的 UserDetails 和 authorities 设置在一起
+        SecurityContextHolder.getContext().setAuthentication(usernamePasswordAuthenticationToken);
+    }
+
+    /**
+     * 认证模式
+     */
+    public enum AuthMode {
+        /**
+         * 严格模式：每个请求都通过 UserDetailsService 加载用户，用户被删除或权限变更后立即生效
+         */
+        STRICT,
+        /**
+         * 无状态模式：仅依赖 token 中的用户名与权限，请求路径上不访问数据库，权限变更在 token 过期后生效
+         */
+        CLAIMS
     }
 }
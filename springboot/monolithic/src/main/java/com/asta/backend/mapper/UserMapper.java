@@ -1,55 +1,78 @@
 package com.asta.backend.mapper;
 
 import com.asta.backend.entity.po.User;
-import com.baomidou.mybatisplus.core.conditions.query.QueryWrapper;
+import com.asta.backend.utils.AuthorityRegistry;
 import com.baomidou.mybatisplus.core.mapper.BaseMapper;
-import org.mapstruct.Mapper;
-import org.springframework.security.core.GrantedAuthority;
-import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.annotations.Select;
 
-import java.util.HashSet;
-import java.util.List;
 import java.util.Optional;
-import java.util.Set;
 
 /**
  * <p>
  *  Mapper 接口
  * </p>
+ * 用户查询使用静态 SQL (@Select)，MyBatis 在启动时解析为固定的 SQL，调用时不再构建 QueryWrapper、
+ * 拼接 SQL 片段与求值动态 SQL；只查询调用方需要的列。
  *
  * @author asta
  * @since 2025-06-29
  */
 public interface UserMapper extends BaseMapper<User> {
 
+    /**
+     * 查询登录所需的列 (用户名、密码哈希、角色)
+     * @param username 用户名
+     * @return 只填充 username / password / role 的用户，不存在时为 null
+     */
+    @Select("SELECT username, password, role FROM user WHERE username = #{username} LIMIT 1")
+    User selectCredentialsByUsername(@Param("username") String username);
+
+    /**
+     * 按主键查询用户资料 (不含密码)
+     * @param userId 用户 ID
+     * @return 用户，不存在时为 null
+     */
+    @Select("SELECT user_id, username, email, role, create_date FROM user WHERE user_id = #{userId}")
+    User selectProfileById(@Param("userId") Integer userId);
+
+    /**
+     * 按邮箱查询用户资料 (不含密码)
+     * @param email 邮箱
+     * @return 用户，不存在时为 null
+     */
+    @Select("SELECT user_id, username, email, role, create_date FROM user WHERE email = #{email} LIMIT 1")
+    User selectProfileByEmail(@Param("email") String email);
+
+    /**
+     * 用户名或邮箱是否已被使用
+     * @param username 用户名
+     * @param email 邮箱
+     * @return 是否存在
+     */
+    @Select("SELECT EXISTS (SELECT 1 FROM user WHERE username = #{username} OR email = #{email})")
+    boolean existsByUsernameOrEmail(@Param("username") String username, @Param("email") String email);
+
     /**
      * 通过用户名查找用户
      * @param username 用户名
      * @return 包含Spring Security User对象的Optional(处理用户不存在的场景)
      */
     default Optional<org.springframework.security.core.userdetails.User> findByUsername(String username) {
-        // 构建查询条件
-        QueryWrapper<User> wrapper = new QueryWrapper<>();
-        wrapper.eq("username", username);
-
         // 执行查询
-        User user = selectOne(wrapper);
+        User user = selectCredentialsByUsername(username);
 
         // 如果用户不存在，返回空Optional
         if (user == null) {
             return Optional.empty();
         }
 
-        // 创建权限集合
-        Set<GrantedAuthority> authorities = new HashSet<>();
-        authorities.add(new SimpleGrantedAuthority("ROLE_" + user.getRole()));
-
-        // 创建并返回Spring Security User对象
+        // 创建并返回Spring Security User对象，权限使用共享实例
         return Optional.of(
                 new org.springframework.security.core.userdetails.User(
                         user.getUsername(),
                         user.getPassword(),
-                        authorities
+                        AuthorityRegistry.role(user.getRole())
                 )
         );
     }
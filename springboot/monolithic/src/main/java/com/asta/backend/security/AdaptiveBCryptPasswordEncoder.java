@@ -0,0 +1,131 @@
+package com.asta.backend.security;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.TimeGauge;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 按当前主机性能校准 cost 的 BCrypt 编码器
+ * <p>
+ * 启动时从最小 cost 开始逐级测量哈希耗时，选择不超过目标延迟的最大 cost。
+ * 存储的哈希 cost 低于当前 cost 时 {@link #upgradeEncoding(String)} 返回 true，
+ * 由 Spring Security 在登录成功后通过 UserDetailsPasswordService 透明地重新哈希。
+ * <p>
+ * 只升级不降级：各实例的校准结果可能不同，双向升级会使哈希在实例间反复改写。自动校准只适合单实例部署，
+ * 多实例部署应通过 password.hash.cost 统一配置 cost。
+ */
+@Slf4j
+public class AdaptiveBCryptPasswordEncoder extends BCryptPasswordEncoder {
+
+    private static final String METRIC_PREFIX = "password.hash";
+
+    /**
+     * 每个 cost 的采样次数，取最小值以排除 JIT 预热与调度抖动
+     */
+    private static final int SAMPLES = 3;
+
+    private final int strength;
+
+    private final MeterRegistry meterRegistry;
+
+    private final Map<Integer, Timer> verifyTimers = new ConcurrentHashMap<>();
+
+    public AdaptiveBCryptPasswordEncoder(int strength, MeterRegistry meterRegistry) {
+        super(strength);
+        this.strength = strength;
+        this.meterRegistry = meterRegistry;
+        Gauge.builder(METRIC_PREFIX + ".cost", () -> this.strength)
+                .description("当前使用的 BCrypt cost")
+                .register(meterRegistry);
+    }
+
+    /**
+     * 校准 cost 并创建编码器
+     * @param targetMillis 单次哈希的目标耗时 (毫秒)
+     * @param minCost 最小 cost，即使超过目标耗时也不会低于该值
+     * @param maxCost 最大 cost
+     * @param meterRegistry 指标注册表，记录每个 cost 的实测耗时
+     * @return 校准后的编码器
+     */
+    public static AdaptiveBCryptPasswordEncoder calibrate(long targetMillis, int minCost, int maxCost,
+                                                          MeterRegistry meterRegistry) {
+        int selected = minCost;
+        for (int cost = minCost; cost <= maxCost; cost++) {
+            double millis = measure(cost);
+            TimeGauge.builder(METRIC_PREFIX + ".calibration.latency", () -> millis, TimeUnit.MILLISECONDS)
+                    .description("启动校准时各 cost 的单次哈希耗时")
+                    .tag("cost", String.valueOf(cost))
+                    .register(meterRegistry);
+            if (millis > targetMillis) {
+                break;
+            }
+            selected = cost;
+            // cost 每加一耗时翻倍，下一级必然超出目标时提前结束，避免启动时执行过慢的哈希
+            if (millis * 2 > targetMillis) {
+                break;
+            }
+        }
+        log.info("BCrypt cost 校准完成: 目标耗时 {}ms, 选择 cost {}", targetMillis, selected);
+        return new AdaptiveBCryptPasswordEncoder(selected, meterRegistry);
+    }
+
+    private static double measure(int cost) {
+        BCryptPasswordEncoder encoder = new BCryptPasswordEncoder(cost);
+        long best = Long.MAX_VALUE;
+        for (int i = 0; i < SAMPLES; i++) {
+            long start = System.nanoTime();
+            encoder.encode("calibration");
+            best = Math.min(best, System.nanoTime() - start);
+        }
+        return best / 1_000_000.0;
+    }
+
+    public int getStrength() {
+        return strength;
+    }
+
+    @Override
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        int cost = costOf(encodedPassword);
+        if (cost < 0) {
+            return super.matches(rawPassword, encodedPassword);
+        }
+        // 校验耗时由存储哈希的 cost 决定，按 cost 分别统计
+        Timer timer = verifyTimers.computeIfAbsent(cost, c -> Timer.builder(METRIC_PREFIX + ".verify")
+                .description("按存储哈希 cost 统计的密码校验耗时")
+                .tag("cost", String.valueOf(c))
+                .register(meterRegistry));
+        return timer.record(() -> super.matches(rawPassword, encodedPassword));
+    }
+
+    @Override
+    public boolean upgradeEncoding(String encodedPassword) {
+        int cost = costOf(encodedPassword);
+        // 无法识别的格式交给父类判断；只在低于当前 cost 时重新哈希，cost 更高的哈希保留
+        return cost < 0 ? super.upgradeEncoding(encodedPassword) : cost < strength;
+    }
+
+    /**
+     * 解析 BCrypt 哈希中的 cost，格式为 $2a$10$...
+     * @return cost，格式不合法时返回 -1
+     */
+    static int costOf(String encodedPassword) {
+        if (encodedPassword == null || encodedPassword.length() < 7 || encodedPassword.charAt(0) != '$'
+                || encodedPassword.charAt(3) != '$' || encodedPassword.charAt(6) != '$') {
+            return -1;
+        }
+        char tens = encodedPassword.charAt(4);
+        char ones = encodedPassword.charAt(5);
+        if (!Character.isDigit(tens) || !Character.isDigit(ones)) {
+            return -1;
+        }
+        return (tens - '0') * 10 + (ones - '0');
+    }
+}
@@ -0,0 +1,181 @@
+package com.asta.backend.security;
+
+import com.asta.backend.exception.ServerBusyException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.Collections;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 在独立的有界线程池中执行密码哈希与校验
+ * <p>
+ * BCrypt 是 CPU 密集型操作，直接在 Tomcat 请求线程上执行时，登录洪峰会占满所有工作线程，
+ * 普通的已认证请求只能排队等待。本类将哈希操作限制在固定大小的线程池和有界队列中，
+ * 队列已满或等待超时时立即抛出 {@link ServerBusyException}，由全局异常处理转换为 503 + Retry-After。
+ * <p>
+ * 超时只限制调用方的等待时间，不限制 CPU：BCrypt 不响应中断，已开始执行的哈希在 503 返回后仍会算完并占用线程。
+ * 因此超时后还在队列中的任务直接移出队列，排队超过等待时间才轮到执行的任务也不再计算，避免调用方早已离开的请求
+ * 占满线程池、使新请求被拒绝。队列容量应按 线程数 × 超时 / 单次哈希耗时 设置，更靠后的任务在超时前无法开始，
+ * 排进队列只会白白占位，见 {@link #queueCapacityFor}。
+ */
+public class BoundedPasswordEncoder implements PasswordEncoder, AutoCloseable {
+
+    private static final String METRIC_PREFIX = "password.hash";
+
+    private final PasswordEncoder delegate;
+
+    private final ThreadPoolExecutor executor;
+
+    private final ExecutorService monitoredExecutor;
+
+    private final long timeoutMillis;
+
+    private final long retryAfterSeconds;
+
+    private final Timer encodeTimer;
+
+    private final Timer matchesTimer;
+
+    private final Counter rejected;
+
+    private final Counter expired;
+
+    /**
+     * @param delegate 实际执行哈希的编码器
+     * @param threads 线程数，通常不超过 CPU 核数
+     * @param queueCapacity 等待队列容量，超出后立即拒绝
+     * @param timeoutMillis 调用方等待结果的最长时间 (毫秒)，同时是任务在队列中的最长等待时间
+     * @param retryAfterSeconds 拒绝时建议客户端重试的等待时间 (秒)
+     * @param meterRegistry 指标注册表
+     */
+    public BoundedPasswordEncoder(PasswordEncoder delegate, int threads, int queueCapacity,
+                                  long timeoutMillis, long retryAfterSeconds, MeterRegistry meterRegistry) {
+        this.delegate = delegate;
+        this.timeoutMillis = timeoutMillis;
+        this.retryAfterSeconds = retryAfterSeconds;
+        this.executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), new HashThreadFactory(), new ThreadPoolExecutor.AbortPolicy());
+        // 暴露队列深度、活跃线程数、已完成任务数等指标
+        this.monitoredExecutor = ExecutorServiceMetrics.monitor(meterRegistry, executor, METRIC_PREFIX, Collections.emptyList());
+        this.encodeTimer = hashTimer(meterRegistry, "encode");
+        this.matchesTimer = hashTimer(meterRegistry, "matches");
+        this.rejected = Counter.builder(METRIC_PREFIX + ".rejected")
+                .description("因线程池繁忙被拒绝的哈希请求数")
+                .register(meterRegistry);
+        this.expired = Counter.builder(METRIC_PREFIX + ".expired")
+                .description("调用方已超时、未开始执行即被丢弃的哈希请求数")
+                .register(meterRegistry);
+    }
+
+    /**
+     * 按超时前能开始执行的任务数估算队列容量
+     * @param threads 线程数
+     * @param timeoutMillis 调用方等待结果的最长时间 (毫秒)
+     * @param hashMillis 单次哈希的预计耗时 (毫秒)
+     * @return 队列容量，至少为 1
+     */
+    public static int queueCapacityFor(int threads, long timeoutMillis, long hashMillis) {
+        long capacity = threads * timeoutMillis / Math.max(hashMillis, 1);
+        return (int) Math.max(1, Math.min(capacity, Integer.MAX_VALUE));
+    }
+
+    private static Timer hashTimer(MeterRegistry meterRegistry, String operation) {
+        return Timer.builder(METRIC_PREFIX + ".latency")
+                .description("密码哈希执行耗时 (不含排队时间)")
+                .tag("operation", operation)
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
+
+    /**
+     * @return 实际执行哈希的编码器
+     */
+    public PasswordEncoder getDelegate() {
+        return delegate;
+    }
+
+    @Override
+    public String encode(CharSequence rawPassword) {
+        return execute(() -> encodeTimer.record(() -> delegate.encode(rawPassword)));
+    }
+
+    @Override
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        return execute(() -> matchesTimer.record(() -> delegate.matches(rawPassword, encodedPassword)));
+    }
+
+    @Override
+    public boolean upgradeEncoding(String encodedPassword) {
+        return delegate.upgradeEncoding(encodedPassword);
+    }
+
+    private <T> T execute(Callable<T> task) {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMillis);
+        Future<T> future;
+        try {
+            future = monitoredExecutor.submit(() -> {
+                // 移出队列与取出执行之间存在竞争，开始执行时再检查一次
+                if (System.nanoTime() - deadline >= 0) {
+                    expired.increment();
+                    throw new ServerBusyException("密码校验超时，请稍后重试", retryAfterSeconds);
+                }
+                return task.call();
+            });
+        } catch (RejectedExecutionException e) {
+            rejected.increment();
+            throw new ServerBusyException("密码校验繁忙，请稍后重试", retryAfterSeconds);
+        }
+        try {
+            return future.get(timeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            abandon(future);
+            rejected.increment();
+            throw new ServerBusyException("密码校验超时，请稍后重试", retryAfterSeconds);
+        } catch (InterruptedException e) {
+            abandon(future);
+            Thread.currentThread().interrupt();
+            throw new ServerBusyException("密码校验被中断", retryAfterSeconds);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new IllegalStateException(cause);
+        }
+    }
+
+    /**
+     * 调用方放弃等待：尚未开始的任务移出队列，为新请求腾出位置；已开始的哈希无法中断，只能等它算完
+     */
+    private void abandon(Future<?> future) {
+        future.cancel(true);
+        if (future instanceof Runnable queued && executor.remove(queued)) {
+            expired.increment();
+        }
+    }
+
+    @Override
+    public void close() {
+        executor.shutdown();
+    }
+
+    /**
+     * 哈希线程命名为 password-hash-N，便于在线程转储中定位
+     */
+    private static class HashThreadFactory implements ThreadFactory {
+
+        private final AtomicInteger sequence = new AtomicInteger();
+
+        @Override
+        public Thread newThread(Runnable runnable) {
+            Thread thread = new Thread(runnable, "password-hash-" + sequence.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+}
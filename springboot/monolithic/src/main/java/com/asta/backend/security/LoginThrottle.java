@@ -0,0 +1,254 @@
+package com.asta.backend.security;
+
+import com.asta.backend.exception.TooManyRequestsException;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 登录限流，在 BCrypt 校验与数据库查询之前按用户名和客户端 IP 两个维度拒绝过于频繁的登录请求
+ * <p>
+ * 每个 key 对应一个令牌桶，使用 GCRA (Generic Cell Rate Algorithm) 实现：桶的状态只有一个 "理论到达时间" (TAT)，
+ * 保存在 AtomicLong 中并通过 CAS 更新，无锁且每个 key 只占用一个 long。容量为 capacity，每 refill-period 补充
+ * capacity 个令牌 (即每 refill-period / capacity 补充一个)。桶按 key 保存在有容量上限的 Caffeine 缓存中，
+ * 令牌补满后状态与新建的桶相同，因此桶在补满所需的时间内未被访问即可淘汰。
+ * <p>
+ * 开启 Redis 模式时由 Lua 脚本在 Redis 中执行相同的算法，限额在所有实例间共享；Redis 不可用时回落到本地桶。
+ * 用户名与 IP 的 key 不在同一个 Redis Cluster 槽中，脚本每次只访问一个 key，按 检查用户名 -> 扣减 IP -> 扣减用户名
+ * 的顺序分三次调用：用户名的令牌只在 IP 维度通过后才扣减，攻击者无法在自己的 IP 被限流后继续耗尽他人用户名的限额；
+ * 两次调用之间用户名的令牌被其他请求耗尽时，本次已扣减的 IP 令牌不退还。
+ * <p>
+ * 指标：login.throttle.rejected{dimension=username|ip} 为被拒绝的登录次数，即避免的 BCrypt 计算次数；
+ * login.throttle.fallback 为 Redis 不可用时回落到本地桶的次数 (对应的警告日志每分钟最多一条)。
+ */
+@Slf4j
+@Component
+public class LoginThrottle {
+
+    private static final String METRIC_PREFIX = "login.throttle";
+
+    private static final String REDIS_KEY_PREFIX = "login:throttle:";
+
+    private static final String PEEK = "1";
+
+    private static final String TAKE = "0";
+
+    /**
+     * 每分钟最多记录一次回落到本地限流的警告
+     */
+    private static final long FALLBACK_WARN_INTERVAL_NANOS = TimeUnit.MINUTES.toNanos(1);
+
+    /**
+     * KEYS[1] 为限流 key，ARGV 依次为 令牌间隔、突发容量对应的时长 (微秒) 与是否只检查不扣减 (1 / 0)。
+     * 返回需等待的微秒数，不大于 0 表示有余量 (非只检查时已扣减)。使用 Redis 服务器时间，不受各实例时钟偏差影响。
+     */
+    private static final RedisScript<Long> SCRIPT = new DefaultRedisScript<>("""
+            local time = redis.call('TIME')
+            local now = tonumber(time[1]) * 1000000 + tonumber(time[2])
+            local interval = tonumber(ARGV[1])
+            local burst = tonumber(ARGV[2])
+            local tat = tonumber(redis.call('GET', KEYS[1]) or now)
+            if tat < now then tat = now end
+            local next = tat + interval
+            local wait = next - now - burst
+            if wait > 0 or ARGV[3] == '1' then return wait end
+            redis.call('SET', KEYS[1], string.format('%d', next), 'PX', math.ceil((next - now) / 1000))
+            return 0
+            """, Long.class);
+
+    private final boolean enabled;
+
+    private final boolean shared;
+
+    private final StringRedisTemplate redisTemplate;
+
+    private final Dimension username;
+
+    private final Dimension ip;
+
+    private final Counter fallbacks;
+
+    private final AtomicLong nextFallbackWarn = new AtomicLong(System.nanoTime());
+
+    public LoginThrottle(StringRedisTemplate redisTemplate,
+                         MeterRegistry meterRegistry,
+                         @Value("${login.throttle.enabled:true}") boolean enabled,
+                         @Value("${login.throttle.redis.enabled:false}") boolean shared,
+                         @Value("${login.throttle.maximum-keys:100000}") long maximumKeys,
+                         @Value("${login.throttle.username.capacity:5}") long usernameCapacity,
+                         @Value("${login.throttle.username.refill-period:60000}") long usernameRefillMillis,
+                         @Value("${login.throttle.ip.capacity:20}") long ipCapacity,
+                         @Value("${login.throttle.ip.refill-period:60000}") long ipRefillMillis) {
+        this.redisTemplate = redisTemplate;
+        this.enabled = enabled;
+        this.shared = shared;
+        this.username = new Dimension("username", usernameCapacity, usernameRefillMillis, maximumKeys, meterRegistry);
+        this.ip = new Dimension("ip", ipCapacity, ipRefillMillis, maximumKeys, meterRegistry);
+        this.fallbacks = Counter.builder(METRIC_PREFIX + ".fallback")
+                .description("Redis 不可用时回落到本地限流的次数")
+                .register(meterRegistry);
+    }
+
+    /**
+     * 消耗一次登录尝试的令牌，任一维度没有余量时拒绝
+     * @param username 登录用户名
+     * @param clientIp 客户端 IP
+     * @throws TooManyRequestsException 登录尝试过于频繁
+     */
+    public void acquire(String username, String clientIp) {
+        if (!enabled) {
+            return;
+        }
+        // 用户名不区分大小写，避免通过变换大小写绕过限流
+        String usernameKey = username == null ? "" : username.trim().toLowerCase(Locale.ROOT);
+        String ipKey = clientIp == null ? "" : clientIp;
+        if (shared) {
+            try {
+                acquireShared(usernameKey, ipKey);
+                return;
+            } catch (DataAccessException e) {
+                fallbacks.increment();
+                warnFallback(e);
+            }
+        }
+        acquireLocal(usernameKey, ipKey);
+    }
+
+    private void acquireLocal(String usernameKey, String ipKey) {
+        long now = System.nanoTime();
+        AtomicLong usernameBucket = username.bucket(usernameKey);
+        AtomicLong ipBucket = ip.bucket(ipKey);
+        // 先检查两个维度，都有余量时再扣减，避免一个维度拒绝时白白消耗另一个维度的令牌
+        username.reject(username.waitNanos(usernameBucket.get(), now));
+        ip.reject(ip.waitNanos(ipBucket.get(), now));
+        username.reject(username.take(usernameBucket, now));
+        ip.reject(ip.take(ipBucket, now));
+    }
+
+    private void acquireShared(String usernameKey, String ipKey) {
+        String usernameRedisKey = usernameKey(usernameKey);
+        String ipRedisKey = ipKey(ipKey);
+        username.reject(callScript(username, usernameRedisKey, PEEK));
+        ip.reject(callScript(ip, ipRedisKey, TAKE));
+        username.reject(callScript(username, usernameRedisKey, TAKE));
+    }
+
+    /**
+     * @return 需等待的纳秒数，不大于 0 表示有余量
+     */
+    private long callScript(Dimension dimension, String key, String mode) {
+        Long waitMicros = redisTemplate.execute(SCRIPT, List.of(key),
+                String.valueOf(dimension.intervalMicros()), String.valueOf(dimension.burstMicros()), mode);
+        return waitMicros == null ? 0 : TimeUnit.MICROSECONDS.toNanos(waitMicros);
+    }
+
+    static String usernameKey(String username) {
+        return REDIS_KEY_PREFIX + "username:" + username;
+    }
+
+    static String ipKey(String ip) {
+        return REDIS_KEY_PREFIX + "ip:" + ip;
+    }
+
+    private void warnFallback(DataAccessException e) {
+        long now = System.nanoTime();
+        long next = nextFallbackWarn.get();
+        if (now - next >= 0 && nextFallbackWarn.compareAndSet(next, now + FALLBACK_WARN_INTERVAL_NANOS)) {
+            log.warn("Redis 登录限流不可用，使用本地限流 (一分钟内不再重复记录): {}", e.getMessage());
+        } else {
+            log.debug("Redis 登录限流不可用，使用本地限流: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * 一个限流维度
+     */
+    private static class Dimension {
+
+        /**
+         * 每补充一个令牌的间隔
+         */
+        private final long intervalNanos;
+
+        /**
+         * 桶满时可连续通过的请求数对应的时长，即 capacity * intervalNanos
+         */
+        private final long burstNanos;
+
+        private final Cache<String, AtomicLong> buckets;
+
+        private final Counter rejected;
+
+        Dimension(String name, long capacity, long refillMillis, long maximumKeys, MeterRegistry meterRegistry) {
+            if (capacity <= 0 || refillMillis <= 0) {
+                throw new IllegalArgumentException("登录限流的 capacity 与 refill-period 必须大于 0");
+            }
+            this.intervalNanos = TimeUnit.MILLISECONDS.toNanos(refillMillis) / capacity;
+            this.burstNanos = intervalNanos * capacity;
+            this.buckets = Caffeine.newBuilder()
+                    .maximumSize(maximumKeys)
+                    .expireAfterAccess(burstNanos, TimeUnit.NANOSECONDS)
+                    .build();
+            this.rejected = Counter.builder(METRIC_PREFIX + ".rejected")
+                    .description("被限流拒绝的登录次数，即避免的 BCrypt 计算次数")
+                    .tag("dimension", name)
+                    .register(meterRegistry);
+        }
+
+        AtomicLong bucket(String key) {
+            // 新桶的 TAT 取最小值，首次计算时按当前时间处理 (System.nanoTime 可能为负数)
+            return buckets.get(key, k -> new AtomicLong(Long.MIN_VALUE));
+        }
+
+        /**
+         * 按当前 TAT 计算还需等待的时间，不修改状态
+         * @return 需等待的纳秒数，不大于 0 表示有余量
+         */
+        long waitNanos(long tat, long now) {
+            return Math.max(tat, now) + intervalNanos - now - burstNanos;
+        }
+
+        /**
+         * 扣减一个令牌
+         * @return 需等待的纳秒数，不大于 0 表示已扣减
+         */
+        long take(AtomicLong bucket, long now) {
+            while (true) {
+                long tat = bucket.get();
+                long wait = waitNanos(tat, now);
+                if (wait > 0 || bucket.compareAndSet(tat, Math.max(tat, now) + intervalNanos)) {
+                    return wait;
+                }
+            }
+        }
+
+        void reject(long waitNanos) {
+            if (waitNanos > 0) {
+                rejected.increment();
+                long retryAfterSeconds = Math.max(1, TimeUnit.NANOSECONDS.toSeconds(waitNanos + 999_999_999L));
+                throw new TooManyRequestsException("登录尝试过于频繁，请稍后重试", retryAfterSeconds);
+            }
+        }
+
+        long intervalMicros() {
+            return TimeUnit.NANOSECONDS.toMicros(intervalNanos);
+        }
+
+        long burstMicros() {
+            return TimeUnit.NANOSECONDS.toMicros(burstNanos);
+        }
+    }
+}
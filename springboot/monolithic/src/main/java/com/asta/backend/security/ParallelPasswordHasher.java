@@ -0,0 +1,60 @@
+package com.asta.backend.security;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Component;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 批量导入使用的并行密码哈希
+ * <p>
+ * 与登录共用同一个 BCrypt 编码器 (相同的 cost)，但运行在独立的线程池中：批量任务不会占满登录的有界队列而被拒绝，
+ * 线程数默认为 CPU 核数的一半，为登录保留计算资源。
+ */
+@Component
+public class ParallelPasswordHasher implements AutoCloseable {
+
+    private final PasswordEncoder encoder;
+
+    private final ExecutorService executor;
+
+    public ParallelPasswordHasher(PasswordEncoder passwordEncoder,
+                                  MeterRegistry meterRegistry,
+                                  @Value("${user.import.threads:0}") int threads) {
+        // 直接使用底层编码器，绕过登录线程池的排队与超时
+        this.encoder = passwordEncoder instanceof BoundedPasswordEncoder bounded ? bounded.getDelegate() : passwordEncoder;
+        int poolSize = threads > 0 ? threads : Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+        AtomicInteger sequence = new AtomicInteger();
+        ExecutorService pool = Executors.newFixedThreadPool(poolSize, runnable -> {
+            Thread thread = new Thread(runnable, "password-import-" + sequence.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.executor = ExecutorServiceMetrics.monitor(meterRegistry, pool, "password.import", Collections.emptyList());
+    }
+
+    /**
+     * 并行哈希一批密码
+     * @param rawPasswords 明文密码
+     * @return 与输入顺序一致的哈希结果
+     */
+    public List<String> encodeAll(List<String> rawPasswords) {
+        List<CompletableFuture<String>> futures = rawPasswords.stream()
+                .map(raw -> CompletableFuture.supplyAsync(() -> encoder.encode(raw), executor))
+                .toList();
+        return futures.stream().map(CompletableFuture::join).toList();
+    }
+
+    @Override
+    public void close() {
+        executor.shutdown();
+    }
+}
@@ -0,0 +1,257 @@
+package com.asta.backend.security;
+
+import com.asta.backend.constant.RedisConstant;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.util.Base64;
+import java.util.List;
+
+/**
+ * refresh token 的签发、轮换与吊销
+ * <p>
+ * access token 有效期较短，过期后客户端用 refresh token 换取新的 token 对而不再提交密码，省去 AuthenticationManager
+ * 的 BCrypt 校验：一次刷新只有一次按 key 查找的 Redis 脚本调用与一次 JWT 签名。
+ * <p>
+ * refresh token 为不透明的串 user.family.secret：user 为 Base64url 编码的用户名，family 标识一次登录产生的 token 链，
+ * secret 每次刷新都会更换；user.family 合起来作为 family 标识写入 access token。
+ * Redis 中每个 family 只有一个 key，保存当前 secret 的 SHA-256 与用户名，不保存 token 原文。
+ * 同一用户的 family key 与 family 集合 key 以编码后的用户名为 hash tag ({@link RedisConstant#REFRESH_KEY_PREFIX})，
+ * 集群模式下位于同一 slot，脚本中访问的所有 key 都在该 slot 内。轮换由 Lua 脚本原子完成，每个 refresh token 只能使用一次：提交的 secret 与当前的不一致，
+ * 即已轮换过的旧 token 被再次使用，说明 token 可能已泄露，整个 family 立即作废，双方都需要重新登录 (重用检测)。
+ * <p>
+ * 有效期从登录时开始计算，轮换不延长 (SET ... KEEPTTL，需要 Redis 6.0+)；强制下线时删除该用户的所有 family。
+ * family 被删除 (注销、重用检测、用户已删除) 时同时移出集合，自然过期的 family 在该用户下次登录时清理。
+ */
+@Slf4j
+@Component
+public class RefreshTokenStore {
+
+    private static final int FAMILY_BYTES = 16;
+
+    private static final int SECRET_BYTES = 32;
+
+    private static final char SEPARATOR = '.';
+
+    private static final Base64.Encoder ENCODER = Base64.getUrlEncoder().withoutPadding();
+
+    /**
+     * family 随机部分与 secret 编码后的长度，格式不符的 token 不访问 Redis
+     */
+    private static final int FAMILY_LENGTH = ENCODER.encodeToString(new byte[FAMILY_BYTES]).length();
+
+    private static final int SECRET_LENGTH = ENCODER.encodeToString(new byte[SECRET_BYTES]).length();
+
+    /**
+     * KEYS 为 family key 与用户的 family 集合 key，ARGV 为 family 的值与有效期 (毫秒)。
+     * 先从集合中移除已过期的 family；集合的有效期随最近一次登录延长，不短于其中任何一个 family。
+     */
+    private static final RedisScript<Long> ISSUE = new DefaultRedisScript<>("""
+            for _, family in ipairs(redis.call('SMEMBERS', KEYS[2])) do
+                if redis.call('EXISTS', family) == 0 then
+                    redis.call('SREM', KEYS[2], family)
+                end
+            end
+            redis.call('SET', KEYS[1], ARGV[1], 'PX', ARGV[2])
+            redis.call('SADD', KEYS[2], KEYS[1])
+            redis.call('PEXPIRE', KEYS[2], ARGV[2])
+            return 1
+            """, Long.class);
+
+    /**
+     * KEYS 为 family key 与用户的 family 集合 key，ARGV 为提交的 secret 的哈希与新 secret 的哈希。
+     * 返回 {1, 用户名} 表示已轮换；{-1, 用户名} 表示 secret 不一致 (重复使用)，family 已删除；{0, ''} 表示 family 不存在。
+     */
+    private static final RedisScript<List> ROTATE = new DefaultRedisScript<>("""
+            local value = redis.call('GET', KEYS[1])
+            if not value then return {0, ''} end
+            local sep = string.find(value, ':', 1, true)
+            local username = string.sub(value, sep + 1)
+            if string.sub(value, 1, sep - 1) ~= ARGV[1] then
+                redis.call('DEL', KEYS[1])
+                redis.call('SREM', KEYS[2], KEYS[1])
+                return {-1, username}
+            end
+            redis.call('SET', KEYS[1], ARGV[2] .. ':' .. username, 'KEEPTTL')
+            return {1, username}
+            """, List.class);
+
+    /**
+     * KEYS 为 family key 与用户的 family 集合 key，删除 family 并移出集合
+     */
+    private static final RedisScript<Long> REVOKE_FAMILY = new DefaultRedisScript<>("""
+            redis.call('SREM', KEYS[2], KEYS[1])
+            return redis.call('DEL', KEYS[1])
+            """, Long.class);
+
+    /**
+     * KEYS 为用户的 family 集合 key，删除其中所有 family (与集合同一 slot) 与集合本身，返回删除的 family 数
+     */
+    private static final RedisScript<Long> REVOKE_USER = new DefaultRedisScript<>("""
+            local families = redis.call('SMEMBERS', KEYS[1])
+            for _, family in ipairs(families) do
+                redis.call('DEL', family)
+            end
+            redis.call('DEL', KEYS[1])
+            return #families
+            """, Long.class);
+
+    private final SecureRandom random = new SecureRandom();
+
+    private final StringRedisTemplate redisTemplate;
+
+    private final long expirationMillis;
+
+    public RefreshTokenStore(StringRedisTemplate redisTemplate,
+                             @Value("${jwt.refresh.expiration:2592000000}") long expirationMillis) {
+        this.redisTemplate = redisTemplate;
+        this.expirationMillis = expirationMillis;
+    }
+
+    /**
+     * 登录成功后签发新的 refresh token，开始一个新的 family
+     * @param username 用户名
+     * @return family 与 refresh token
+     */
+    public Issued issue(String username) {
+        String user = encodeUser(username);
+        String family = user + SEPARATOR + randomString(FAMILY_BYTES);
+        String secret = randomString(SECRET_BYTES);
+        redisTemplate.execute(ISSUE, List.of(familyKey(user, family), familiesKey(user)),
+                hash(secret) + ":" + username, String.valueOf(expirationMillis));
+        return new Issued(family, family + SEPARATOR + secret);
+    }
+
+    /**
+     * 用 refresh token 换取同一 family 中的下一个 refresh token，提交的 token 随即失效
+     * @param refreshToken 客户端提交的 refresh token
+     * @return 轮换结果，status 为 ROTATED 时包含用户名与新的 refresh token
+     */
+    public Rotation rotate(String refreshToken) {
+        int secretStart = refreshToken == null ? -1 : refreshToken.length() - SECRET_LENGTH;
+        if (secretStart < 1 || refreshToken.charAt(secretStart - 1) != SEPARATOR) {
+            return Rotation.INVALID;
+        }
+        String family = refreshToken.substring(0, secretStart - 1);
+        String user = userOf(family);
+        if (user == null) {
+            return Rotation.INVALID;
+        }
+        String secret = randomString(SECRET_BYTES);
+        List<?> result = redisTemplate.execute(ROTATE, List.of(familyKey(user, family), familiesKey(user)),
+                hash(refreshToken.substring(secretStart)), hash(secret));
+        long status = result == null || result.size() != 2 ? 0 : ((Number) result.get(0)).longValue();
+        if (status > 0) {
+            return new Rotation(Status.ROTATED, family, (String) result.get(1), family + SEPARATOR + secret);
+        }
+        if (status < 0) {
+            log.warn("refresh token 被重复使用，用户 {} 的该次登录已作废", result.get(1));
+            return new Rotation(Status.REUSED, family, (String) result.get(1), null);
+        }
+        return Rotation.INVALID;
+    }
+
+    /**
+     * 作废一个 family (注销)
+     * @param family access token 中记录的 family，为 null 或格式不符时忽略
+     */
+    public void revokeFamily(String family) {
+        String user = family == null ? null : userOf(family);
+        if (user != null) {
+            redisTemplate.execute(REVOKE_FAMILY, List.of(familyKey(user, family), familiesKey(user)));
+        }
+    }
+
+    /**
+     * 作废用户的所有 family (强制下线)
+     * @param username 用户名
+     */
+    public void revokeUser(String username) {
+        redisTemplate.execute(REVOKE_USER, List.of(familiesKey(encodeUser(username))));
+    }
+
+    private static String encodeUser(String username) {
+        return ENCODER.encodeToString(username.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * @param family user.family 形式的 family 标识
+     * @return 编码后的用户名，格式不符时返回 null
+     */
+    private static String userOf(String family) {
+        int separator = family.length() - FAMILY_LENGTH - 1;
+        if (separator < 1 || family.charAt(separator) != SEPARATOR) {
+            return null;
+        }
+        String user = family.substring(0, separator);
+        return user.indexOf(SEPARATOR) < 0 ? user : null;
+    }
+
+    /**
+     * @param user 编码后的用户名，作为 hash tag
+     * @param family user.family 形式的 family 标识
+     */
+    static String familyKey(String user, String family) {
+        return RedisConstant.REFRESH_KEY_PREFIX + "{" + user + "}:family:" + family.substring(user.length() + 1);
+    }
+
+    static String familiesKey(String user) {
+        return RedisConstant.REFRESH_KEY_PREFIX + "{" + user + "}:families";
+    }
+
+    private String randomString(int bytes) {
+        byte[] value = new byte[bytes];
+        random.nextBytes(value);
+        return ENCODER.encodeToString(value);
+    }
+
+    /**
+     * Redis 中只保存 secret 的 SHA-256，泄露 Redis 数据不会泄露可用的 refresh token
+     */
+    static String hash(String secret) {
+        try {
+            return ENCODER.encodeToString(MessageDigest.getInstance("SHA-256")
+                    .digest(secret.getBytes(StandardCharsets.US_ASCII)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * @param family 新 family 的标识 (user.family)，写入 access token
+     * @param token 返回给客户端的 refresh token
+     */
+    public record Issued(String family, String token) {
+    }
+
+    /**
+     * @param status 轮换结果
+     * @param family 提交的 token 所属的 family
+     * @param username family 所属的用户，status 为 INVALID 时为 null
+     * @param token 新的 refresh token，status 为 ROTATED 时有值
+     */
+    public record Rotation(Status status, String family, String username, String token) {
+
+        static final Rotation INVALID = new Rotation(Status.INVALID, null, null, null);
+    }
+
+    public enum Status {
+        ROTATED,
+        /**
+         * 格式错误、已过期或已作废
+         */
+        INVALID,
+        /**
+         * 已轮换过的 token 被再次使用，family 已作废
+         */
+        REUSED
+    }
+}
@@ -1,10 +1,19 @@
 package com.asta.backend.service;
 
 import com.asta.backend.entity.po.User;
+import com.asta.backend.entity.query.KeysetPageQuery;
 import com.asta.backend.entity.query.LoginQuery;
+import com.asta.backend.entity.query.RefreshQuery;
 import com.asta.backend.entity.query.RegisterQuery;
+import com.asta.backend.entity.vo.ImportResultVO;
+import com.asta.backend.entity.vo.KeysetPageVO;
 import com.asta.backend.entity.vo.LoginVO;
+import com.asta.backend.utils.UserImportReader;
 import com.baomidou.mybatisplus.extension.service.IService;
+import io.jsonwebtoken.Claims;
+
+import java.io.IOException;
+import java.io.InputStream;
 
 /**
  * <p>
@@ -23,10 +32,45 @@ public interface IUserService extends IService<User> {
      */
     LoginVO login(LoginQuery query);
 
+    /**
+     * 用 refresh token 换取新的 token 与 refresh token，不校验密码
+     * @param query 刷新参数
+     * @return 新的 token 对
+     * @throws org.springframework.security.authentication.BadCredentialsException refresh token 无效、已过期或被重复使用
+     */
+    LoginVO refresh(RefreshQuery query);
+
+    /**
+     * 注销，吊销当前 token 及同一次登录的 refresh token
+     * @param claims 当前请求 token 的 claims
+     */
+    void logout(Claims claims);
+
+    /**
+     * 强制用户下线，此前签发的所有 token 立即失效
+     * @param username 用户名
+     */
+    void revokeTokens(String username);
+
     /**
      * 用户注册
      * @param query 注册参数
      * @return 如果用户已存在，则注册失败，返回false
      */
     boolean register(RegisterQuery query);
+
+    /**
+     * 批量导入用户，按批读取、去重、并行哈希并批量插入
+     * @param input 导入文件 (CSV 或 NDJSON)
+     * @param format 文件格式
+     * @return 逐行导入结果
+     */
+    ImportResultVO importUsers(InputStream input, UserImportReader.Format format) throws IOException;
+
+    /**
+     * 按用户 id 游标分页查询用户 (不含密码)
+     * @param query 分页参数
+     * @return 分页结果
+     */
+    KeysetPageVO<User> listUsers(KeysetPageQuery query);
 }
@@ -1,21 +1,27 @@
 package com.asta.backend.service.impl;
 
+import com.asta.backend.cache.UserDetailsCache;
+import com.asta.backend.entity.po.User;
 import com.asta.backend.mapper.UserMapper;
+import com.baomidou.mybatisplus.core.conditions.update.LambdaUpdateWrapper;
 import lombok.RequiredArgsConstructor;
-import org.springframework.security.core.userdetails.User;
 import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
 
 @RequiredArgsConstructor
 @Service
-public class UserDetailsServiceImpl implements UserDetailsService {
+public class UserDetailsServiceImpl implements UserDetailsService, UserDetailsPasswordService {
+
+    private final UserDetailsCache userDetailsCache;
 
     private final UserMapper userMapper;
     /**
      *  根据用户名加载用户详细信息。
      *  此方法是 UserDetailsService 接口的实现，Spring Security 在身份验证过程中会调用此方法。
+     *  查询经过 本地缓存 -> Redis -> 数据库 两级缓存，每次返回新的 UserDetails 实例。
      *
      * @param username 用户名
      * @return UserDetails 用户详细信息，包含用户名、密码和权限等
@@ -23,20 +29,31 @@ public class UserDetailsServiceImpl implements UserDetailsService {
      */
     @Override
     public UserDetails loadUserByUsername(String username) throws UsernameNotFoundException {
-        try {
-            // 调用 userMapper 的 findByUsername 方法根据用户名从数据库中查找用户 TODO
-            User user = userMapper.findByUsername(username)
-                    .orElseThrow(() -> new UsernameNotFoundException("User not exists by Username or Email"));
+        // 通过两级缓存查找用户，未命中时回源数据库
+        // UserDetails 是 Spring Security 定义的用户信息接口，包含了进行身份验证和授权所需的用户信息
+        return userDetailsCache.get(username)
+                .orElseThrow(() -> new UsernameNotFoundException("User not exists by Username or Email"));
+    }
+
+    /**
+     *  更新用户密码哈希。
+     *  登录成功且存储的哈希需要升级 (如 BCrypt cost 变化) 时，Spring Security 用新哈希调用此方法。
+     *
+     * @param user 已认证的用户
+     * @param newPassword 使用当前编码器生成的新哈希
+     * @return UserDetails 包含新哈希的用户信息
+     */
+    @Override
+    public UserDetails updatePassword(UserDetails user, String newPassword) {
+        userMapper.update(null, new LambdaUpdateWrapper<User>()
+                .eq(User::getUsername, user.getUsername())
+                .set(User::getPassword, newPassword));
+
+        // 广播用户变更，避免各实例缓存中的旧哈希再次触发升级
+        userDetailsCache.evict(user.getUsername());
 
-            // 创建 Spring Security 的 UserDetails 对象并返回
-            // UserDetails 是 Spring Security 定义的用户信息接口，包含了进行身份验证和授权所需的用户信息
-            return new User(
-                    user.getUsername(),       // 用户名
-                    user.getPassword(),       // 密码
-                    user.getAuthorities()     // 权限集合
-            );
-        } catch (Exception e) {
-            throw e;
-        }
+        return org.springframework.security.core.userdetails.User.withUserDetails(user)
+                .password(newPassword)
+                .build();
     }
 }
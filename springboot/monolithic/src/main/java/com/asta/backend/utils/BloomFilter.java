@@ -0,0 +1,236 @@
+package com.asta.backend.utils;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * 线程安全的布隆过滤器
+ * <p>
+ * 位数组基于 AtomicLongArray，写入使用 CAS，读写均无锁。使用 MurmurHash3 (x64, 128 位) 的两个 64 位结果
+ * 做双重哈希生成 k 个位置。{@link #mightContain(String)} 返回 false 时元素一定不存在，返回 true 时可能存在。
+ * <p>
+ * 位序与 Redis 位图 (SETBIT / GETBIT) 一致，可通过 {@link #toRedisBytes()} / {@link #fromRedisBytes} 在实例间共享。
+ */
+public class BloomFilter {
+
+    private final AtomicLongArray bits;
+
+    private final long bitSize;
+
+    private final int hashFunctions;
+
+    private BloomFilter(long bitSize, int hashFunctions) {
+        this.bitSize = bitSize;
+        this.hashFunctions = hashFunctions;
+        this.bits = new AtomicLongArray(Math.toIntExact((bitSize + 63) / 64));
+    }
+
+    /**
+     * 按预期元素数量和目标误判率计算位数组大小与哈希函数个数
+     * @param expectedInsertions 预期元素数量
+     * @param fpp 目标误判率，范围 (0, 1)
+     * @return 空过滤器
+     */
+    public static BloomFilter create(long expectedInsertions, double fpp) {
+        if (expectedInsertions <= 0 || fpp <= 0 || fpp >= 1) {
+            throw new IllegalArgumentException("expectedInsertions 必须大于 0，fpp 必须位于 (0, 1)");
+        }
+        // m = -n ln(p) / (ln2)^2，k = m / n * ln2；按 64 位对齐，便于与 Redis 位图字节互转
+        long bitSize = (long) Math.ceil(-expectedInsertions * Math.log(fpp) / (Math.log(2) * Math.log(2)));
+        bitSize = (bitSize + 63) / 64 * 64;
+        int hashFunctions = Math.max(1, (int) Math.round((double) bitSize / expectedInsertions * Math.log(2)));
+        return new BloomFilter(bitSize, hashFunctions);
+    }
+
+    /**
+     * 从 Redis 位图恢复过滤器，位图长度不足时其余位视为 0
+     * @param bitSize 位数组大小
+     * @param hashFunctions 哈希函数个数
+     * @param bytes Redis GET 返回的字节
+     * @return 过滤器
+     */
+    public static BloomFilter fromRedisBytes(long bitSize, int hashFunctions, byte[] bytes) {
+        BloomFilter filter = new BloomFilter(bitSize, hashFunctions);
+        int length = (int) Math.min(bytes.length, bitSize / 8);
+        for (int i = 0; i < length; i++) {
+            // Redis 位图中偏移 0 为首字节的最高位，而 long 中下标 0 为最低位
+            long reversed = Integer.reverse(bytes[i] & 0xFF) >>> 24;
+            if (reversed != 0) {
+                int word = i / 8;
+                filter.bits.set(word, filter.bits.get(word) | reversed << (i % 8) * 8);
+            }
+        }
+        return filter;
+    }
+
+    /**
+     * 序列化为 Redis 位图字节，可直接 SET 到 Redis 中
+     * @return 位图字节
+     */
+    public byte[] toRedisBytes() {
+        byte[] bytes = new byte[(int) (bitSize / 8)];
+        for (int i = 0; i < bytes.length; i++) {
+            int value = (int) (bits.get(i / 8) >>> (i % 8) * 8) & 0xFF;
+            bytes[i] = (byte) (Integer.reverse(value) >>> 24);
+        }
+        return bytes;
+    }
+
+    /**
+     * 添加元素
+     * @param value 元素
+     */
+    public void put(String value) {
+        for (long offset : offsets(value)) {
+            setBit(offset);
+        }
+    }
+
+    /**
+     * 按 Redis 位图偏移量设置单个位，用于应用其他实例广播的写入
+     * @param offset 位偏移量
+     */
+    public void setBit(long offset) {
+        int word = (int) (offset >>> 6);
+        long mask = 1L << (offset & 63);
+        long current;
+        do {
+            current = bits.get(word);
+            if ((current & mask) != 0) {
+                return;
+            }
+        } while (!bits.compareAndSet(word, current, current | mask));
+    }
+
+    /**
+     * 判断元素是否可能存在
+     * @param value 元素
+     * @return false 表示一定不存在，true 表示可能存在
+     */
+    public boolean mightContain(String value) {
+        // 与 offsets 的计算方式相同，但逐个检查且不分配数组，遇到未置位即可返回 (请求路径上的热点方法)
+        byte[] data = value.getBytes(StandardCharsets.UTF_8);
+        long h1 = murmur3(data, 0);
+        long h2 = murmur3(data, h1);
+        long combined = h1;
+        for (int i = 0; i < hashFunctions; i++) {
+            long offset = (combined & Long.MAX_VALUE) % bitSize;
+            if ((bits.get((int) (offset >>> 6)) & 1L << (offset & 63)) == 0) {
+                return false;
+            }
+            combined += h2;
+        }
+        return true;
+    }
+
+    /**
+     * 计算元素对应的所有位偏移量
+     * @param value 元素
+     * @return 位偏移量，与 Redis 位图偏移量一致
+     */
+    public long[] offsets(String value) {
+        byte[] data = value.getBytes(StandardCharsets.UTF_8);
+        long h1 = murmur3(data, 0);
+        long h2 = murmur3(data, h1);
+        long[] offsets = new long[hashFunctions];
+        long combined = h1;
+        for (int i = 0; i < hashFunctions; i++) {
+            offsets[i] = (combined & Long.MAX_VALUE) % bitSize;
+            combined += h2;
+        }
+        return offsets;
+    }
+
+    /**
+     * 按当前置位比例估算的误判率，即 (置位数 / 总位数)^k
+     * @return 估算误判率
+     */
+    public double expectedFpp() {
+        return Math.pow((double) bitCount() / bitSize, hashFunctions);
+    }
+
+    /**
+     * 按置位数估算已插入的元素数量
+     * @return 估算元素数量
+     */
+    public long approximateElementCount() {
+        double fraction = (double) bitCount() / bitSize;
+        return Math.round(-Math.log1p(-fraction) * bitSize / hashFunctions);
+    }
+
+    public long bitSize() {
+        return bitSize;
+    }
+
+    public int hashFunctions() {
+        return hashFunctions;
+    }
+
+    private long bitCount() {
+        long count = 0;
+        for (int i = 0; i < bits.length(); i++) {
+            count += Long.bitCount(bits.get(i));
+        }
+        return count;
+    }
+
+    /**
+     * MurmurHash3 x64_128 的简化实现，返回 128 位结果的前 64 位
+     */
+    private static long murmur3(byte[] data, long seed) {
+        final long c1 = 0x87c37b91114253d5L;
+        final long c2 = 0x4cf5ad432745937fL;
+        long h1 = seed;
+        long h2 = seed;
+        int blocks = data.length / 16;
+        for (int i = 0; i < blocks; i++) {
+            long k1 = getLong(data, i * 16);
+            long k2 = getLong(data, i * 16 + 8);
+            h1 ^= Long.rotateLeft(k1 * c1, 31) * c2;
+            h1 = (Long.rotateLeft(h1, 27) + h2) * 5 + 0x52dce729;
+            h2 ^= Long.rotateLeft(k2 * c2, 33) * c1;
+            h2 = (Long.rotateLeft(h2, 31) + h1) * 5 + 0x38495ab5;
+        }
+        long k1 = 0;
+        long k2 = 0;
+        int tail = blocks * 16;
+        for (int i = data.length - 1; i >= tail; i--) {
+            int shift = (i - tail) % 8 * 8;
+            if (i - tail >= 8) {
+                k2 |= (data[i] & 0xFFL) << shift;
+            } else {
+                k1 |= (data[i] & 0xFFL) << shift;
+            }
+        }
+        if (k2 != 0) {
+            h2 ^= Long.rotateLeft(k2 * c2, 33) * c1;
+        }
+        if (k1 != 0) {
+            h1 ^= Long.rotateLeft(k1 * c1, 31) * c2;
+        }
+        h1 ^= data.length;
+        h2 ^= data.length;
+        h1 += h2;
+        h2 += h1;
+        h1 = fmix64(h1);
+        h2 = fmix64(h2);
+        return h1 + h2;
+    }
+
+    private static long getLong(byte[] data, int offset) {
+        long value = 0;
+        for (int i = 7; i >= 0; i--) {
+            value = value << 8 | (data[offset + i] & 0xFFL);
+        }
+        return value;
+    }
+
+    private static long fmix64(long k) {
+        k ^= k >>> 33;
+        k *= 0xff51afd7ed558ccdL;
+        k ^= k >>> 33;
+        k *= 0xc4ceb93e53a5b9e3L;
+        k ^= k >>> 33;
+        return k;
+    }
+}
@@ -1,27 +1,67 @@
 package com.asta.backend.utils;
 
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.io.Decoders;
 import io.jsonwebtoken.security.Keys;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Component;
 
 import java.security.Key;
-import java.util.Date;
-import java.util.HashMap;
-import java.util.Map;
+import java.util.*;
 import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Component
 public class JwtUtil {
 
-    @Value("${jwt.secret}") // 从 application.yml 读取 secret
-    private String secret;
+    /**
+     * 权限集合在 token 中的 claim 名称，与 cloud 版本保持一致
+     */
+    public static final String ROLES_CLAIM = "roles";
+
+    /**
+     * 签发该 token 的登录对应的 refresh token family，注销时据此作废 refresh token
+     */
+    public static final String REFRESH_FAMILY_CLAIM = "fid";
+
+    private final long expirationTime;
+
+    /**
+     * 签名与验签使用的 key，启动时解码一次后复用
+     */
+    private final Key key;
+
+    /**
+     * 预构建的解析器，JwtParser 不可变且线程安全，可在所有请求间共享
+     */
+    private final JwtParser parser;
 
-    @Value("${jwt.expiration}") // 从 application.yml 读取过期时间 (毫秒)
-    private long expirationTime;
+    /**
+     * @param secret 从 application.yml 读取 secret (Base64)
+     * @param expirationTime 从 application.yml 读取过期时间 (毫秒)
+     */
+    public JwtUtil(@Value("${jwt.secret}") String secret,
+                   @Value("${jwt.expiration}") long expirationTime) {
+        this.expirationTime = expirationTime;
+        this.key = Keys.hmacShaKeyFor(Decoders.BASE64.decode(secret));
+        this.parser = Jwts.parserBuilder()
+                .setSigningKey(key)
+                .build();
+    }
+
+    /**
+     * 解析并验签 token，每个 token 只需解析一次，返回的 claims 可供后续环节复用
+     * @param token 用户token
+     * @return claims信息
+     * @throws io.jsonwebtoken.JwtException 签名无效、格式错误或已过期
+     */
+    public Claims parseToken(String token) {
+        return parser.parseClaimsJws(token).getBody();
+    }
 
     /**
      * 从 token 中提取用户名
@@ -49,31 +89,40 @@ public class JwtUtil {
      * @param <T> 需要提取信息的类型
      */
     public <T> T getClaimFromToken(String token, Function<Claims, T> claimsResolver) {
-        final Claims claims = getAllClaimsFromToken(token);
+        final Claims claims = parseToken(token);
         return claimsResolver.apply(claims);
     }
 
     /**
-     * 从 token 中提取所有 claims
-     * @param token 用户token
-     * @return claims信息
+     * 从已解析的 claims 中提取权限集合
+     * @param claims 已解析的claims
+     * @return 权限字符串列表，token 中没有权限信息时返回 null
      */
-    private Claims getAllClaimsFromToken(String token) {
-        return Jwts.parserBuilder()
-                .setSigningKey(key())
-                .build()
-                .parseClaimsJws(token)
-                .getBody();
+    public List<String> getRoles(Claims claims) {
+        List<?> roles = claims.get(ROLES_CLAIM, List.class);
+        if (roles == null) {
+            return null;
+        }
+        return roles.stream().map(String::valueOf).collect(Collectors.toList());
     }
 
     /**
-     * 检查 token 是否过期
-     * @param token 用户token
+     * 从已解析的 claims 中提取 refresh token family
+     * @param claims 已解析的claims
+     * @return family，登录时未签发 refresh token 时返回 null
+     */
+    public String getRefreshFamily(Claims claims) {
+        return claims.get(REFRESH_FAMILY_CLAIM, String.class);
+    }
+
+    /**
+     * 检查 claims 是否过期
+     * @param claims 已解析的claims
      * @return 是否过期
      */
-    private Boolean isTokenExpired(String token) {
-        final Date expiration = getExpirationDateFromToken(token);
-        return expiration.before(new Date());
+    private boolean isTokenExpired(Claims claims) {
+        final Date expiration = claims.getExpiration();
+        return expiration != null && expiration.before(new Date());
     }
 
     /**
@@ -82,7 +131,29 @@ public class JwtUtil {
      * @return 生成的token
      */
     public String generateToken(UserDetails userDetails) {
+        return generateToken(userDetails, null);
+    }
+
+    /**
+     * 生成 token (使用用户名)，并记录对应的 refresh token family
+     * @param userDetails 用户信息
+     * @param refreshFamily refresh token family，为 null 时不写入
+     * @return 生成的token
+     */
+    public String generateToken(UserDetails userDetails, String refreshFamily) {
         Map<String, Object> claims = new HashMap<>();
+        if (refreshFamily != null) {
+            claims.put(REFRESH_FAMILY_CLAIM, refreshFamily);
+        }
+
+        // 将权限集合写入 token，无状态认证模式下直接据此构建 principal
+        Collection<? extends GrantedAuthority> authorities = userDetails.getAuthorities();
+        if (authorities != null && !authorities.isEmpty()) {
+            List<String> roles = authorities.stream()
+                    .map(GrantedAuthority::getAuthority)
+                    .collect(Collectors.toList());
+            claims.put(ROLES_CLAIM, roles);
+        }
         return createToken(claims, userDetails.getUsername());
     }
 
@@ -93,31 +164,35 @@ public class JwtUtil {
      * @return 生成的token
      */
     private String createToken(Map<String, Object> claims, String subject) {
+        long now = System.currentTimeMillis();
         return Jwts.builder()
                 .setClaims(claims) //设置 JWT 的 payload (claims)
                 .setSubject(subject) //设置 JWT 的 subject (通常是用户名)
-                .setIssuedAt(new Date(System.currentTimeMillis())) //设置 JWT 的签发时间
-                .setExpiration(new Date(System.currentTimeMillis() + expirationTime)) //设置 JWT 的过期时间
-                .signWith(key()) //使用 key 签名方法对 JWT 进行签名
+                .setId(UUID.randomUUID().toString()) //设置 JWT 的唯一标识 (jti)，注销时按 jti 吊销单个 token
+                .setIssuedAt(new Date(now)) //设置 JWT 的签发时间
+                .setExpiration(new Date(now + expirationTime)) //设置 JWT 的过期时间
+                .signWith(key) //使用预构建的 key 对 JWT 进行签名
                 .compact(); //将 JWT 构建成紧凑的字符串形式
     }
 
     /**
-     * 签名方法
-     * @return 用于 JWT 的签名和验证的 key
+     * 验证 token
+     * @param token 用户token
+     * @param userDetails 用户信息
+     * @return token是否有效
      */
-    private Key key(){
-        return Keys.hmacShaKeyFor(Decoders.BASE64.decode(secret));
+    public Boolean validateToken(String token, UserDetails userDetails) {
+        return validateToken(parseToken(token), userDetails);
     }
 
     /**
-     * 验证 token
-     * @param token 用户token
+     * 使用已解析的 claims 验证 token，避免重复解析和验签
+     * @param claims 已解析的claims
      * @param userDetails 用户信息
      * @return token是否有效
      */
-    public Boolean validateToken(String token, UserDetails userDetails) {
-        final String username = getUsernameFromToken(token);
-        return (username.equals(userDetails.getUsername()) && !isTokenExpired(token));
+    public boolean validateToken(Claims claims, UserDetails userDetails) {
+        final String username = claims.getSubject();
+        return username != null && username.equals(userDetails.getUsername()) && !isTokenExpired(claims);
     }
 }
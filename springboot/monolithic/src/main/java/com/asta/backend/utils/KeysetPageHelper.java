@@ -0,0 +1,224 @@
+package com.asta.backend.utils;
+
+import com.asta.backend.entity.query.KeysetPageQuery;
+import com.asta.backend.entity.vo.KeysetPageVO;
+import com.baomidou.mybatisplus.core.conditions.query.QueryWrapper;
+import com.baomidou.mybatisplus.core.mapper.BaseMapper;
+import com.baomidou.mybatisplus.core.metadata.TableFieldInfo;
+import com.baomidou.mybatisplus.core.metadata.TableInfo;
+import com.baomidou.mybatisplus.core.metadata.TableInfoHelper;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Base64;
+import java.util.List;
+import java.util.Objects;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+
+/**
+ * 通用游标 (keyset) 分页，适用于任意 BaseMapper 实体
+ * <p>
+ * 按排序列 + 主键作为唯一排序键，每页查询 pageSize + 1 条以判断是否还有下一页，游标中保存本页最后一条记录的排序键，
+ * 下一页使用 WHERE sort >= ? AND (sort > ? OR (sort = ? AND id > ?)) 继续查询，配合 (sort, id) 索引时每页都是一次索引范围扫描。
+ * 游标为 Base64 编码的 JSON，对客户端不透明；排序列与方向写入游标，参数不匹配的游标会被拒绝。
+ * <p>
+ * 总条数为可选项，按表名 + 查询条件缓存，避免每页都执行 COUNT(*)。
+ */
+@Component
+public class KeysetPageHelper {
+
+    private final ObjectMapper objectMapper;
+
+    private final Cache<String, Long> countCache;
+
+    public KeysetPageHelper(ObjectMapper objectMapper,
+                            MeterRegistry meterRegistry,
+                            @Value("${page.count-cache.maximum-size:1000}") long maximumSize,
+                            @Value("${page.count-cache.ttl:60000}") long ttlMillis) {
+        this.objectMapper = objectMapper;
+        this.countCache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(ttlMillis, TimeUnit.MILLISECONDS)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, countCache, "page.count.cache");
+    }
+
+    /**
+     * 按主键升序分页
+     * @param mapper 实体 mapper
+     * @param entityClass 实体类型
+     * @param query 分页参数
+     * @param filter 查询条件，可为 null；只应添加 WHERE 条件，不应设置排序或 LIMIT
+     * @return 分页结果
+     */
+    public <T> KeysetPageVO<T> page(BaseMapper<T> mapper, Class<T> entityClass, KeysetPageQuery query,
+                                    Consumer<QueryWrapper<T>> filter) {
+        return page(mapper, entityClass, query, null, false, null, filter);
+    }
+
+    /**
+     * 按指定列分页，主键作为次级排序键保证顺序唯一
+     * @param mapper 实体 mapper
+     * @param entityClass 实体类型
+     * @param query 分页参数
+     * @param sortColumn 排序列 (数据库列名)，为 null 时按主键排序；必须由服务端指定，不能直接使用客户端参数，且列值不能为 NULL
+     * @param descending 是否降序
+     * @param columns 查询的列，为 null 时查询全部列
+     * @param filter 查询条件，可为 null；只应添加 WHERE 条件，不应设置排序或 LIMIT
+     * @return 分页结果
+     */
+    public <T> KeysetPageVO<T> page(BaseMapper<T> mapper, Class<T> entityClass, KeysetPageQuery query,
+                                    String sortColumn, boolean descending, Predicate<TableFieldInfo> columns,
+                                    Consumer<QueryWrapper<T>> filter) {
+        TableInfo table = TableInfoHelper.getTableInfo(entityClass);
+        if (table == null || table.getKeyColumn() == null) {
+            throw new IllegalStateException(entityClass.getName() + " 没有主键，无法使用游标分页");
+        }
+        String keyColumn = table.getKeyColumn();
+        String column = sortColumn == null ? keyColumn : sortColumn;
+        TableFieldInfo sortField = column.equals(keyColumn) ? null : table.getFieldList().stream()
+                .filter(field -> field.getColumn().equals(column))
+                .findFirst()
+                .orElseThrow(() -> new IllegalArgumentException("未知的排序列: " + column));
+        String property = sortField == null ? table.getKeyProperty() : sortField.getProperty();
+
+        QueryWrapper<T> wrapper = conditions(filter);
+        if (columns != null) {
+            wrapper.select(entityClass, columns);
+        }
+
+        // 1. 从游标位置继续
+        Cursor cursor = decode(query.getCursor());
+        if (cursor != null) {
+            if (!column.equals(cursor.column()) || descending != cursor.descending()) {
+                throw new IllegalArgumentException("游标与排序参数不匹配");
+            }
+            String op = descending ? " < " : " > ";
+            Object id = convert(cursor.id(), table.getKeyType());
+            if (sortField == null) {
+                wrapper.apply(keyColumn + op + "{0}", id);
+            } else {
+                Object value = convert(cursor.value(), sortField.getPropertyType());
+                // 冗余的 sort >= ? 为索引首列提供范围边界，否则部分优化器无法将 OR 条件转换为索引范围扫描
+                wrapper.apply(column + (descending ? " <= " : " >= ") + "{0}", value)
+                        .and(w -> w.apply(column + op + "{0}", value)
+                                .or(o -> o.eq(column, value).apply(keyColumn + op + "{0}", id)));
+            }
+        }
+
+        // 2. 按 (排序列, 主键) 排序，多取一条判断是否还有下一页
+        wrapper.orderBy(true, !descending, column);
+        if (!column.equals(keyColumn)) {
+            wrapper.orderBy(true, !descending, keyColumn);
+        }
+        wrapper.last("LIMIT " + (query.getPageSize() + 1));
+        List<T> rows = mapper.selectList(wrapper);
+
+        KeysetPageVO<T> page = new KeysetPageVO<>();
+        page.setHasMore(rows.size() > query.getPageSize());
+        page.setRecords(page.isHasMore() ? rows.subList(0, (int) query.getPageSize()) : rows);
+        if (page.isHasMore()) {
+            T last = page.getRecords().get(page.getRecords().size() - 1);
+            Object value = table.getPropertyValue(last, property);
+            Object id = table.getPropertyValue(last, table.getKeyProperty());
+            page.setNextCursor(encode(new Cursor(column, descending, Objects.toString(value, null), String.valueOf(id))));
+        }
+
+        // 3. 按需返回总条数
+        if (query.isWithTotal()) {
+            page.setTotal(count(mapper, table, filter));
+        }
+        return page;
+    }
+
+    private <T> Long count(BaseMapper<T> mapper, TableInfo table, Consumer<QueryWrapper<T>> filter) {
+        QueryWrapper<T> wrapper = conditions(filter);
+        // 参数按名称排序后参与 key 计算，保证相同条件得到相同的 key
+        String key = table.getTableName() + ":" + wrapper.getSqlSegment() + ":" + new TreeMap<>(wrapper.getParamNameValuePairs());
+        Long total = countCache.getIfPresent(key);
+        if (total == null) {
+            // 并发未命中时可能重复统计，但不会在缓存锁内执行查询
+            total = mapper.selectCount(wrapper);
+            countCache.put(key, total);
+        }
+        return total;
+    }
+
+    /**
+     * 将游标中的字符串还原为列对应的 Java 类型，使参数类型与列类型一致，不影响索引使用
+     */
+    private static Object convert(String value, Class<?> type) {
+        if (value == null) {
+            return null;
+        }
+        try {
+            if (type == Integer.class || type == int.class) {
+                return Integer.valueOf(value);
+            }
+            if (type == Long.class || type == long.class) {
+                return Long.valueOf(value);
+            }
+            if (type == LocalDateTime.class) {
+                return LocalDateTime.parse(value);
+            }
+            if (type == LocalDate.class) {
+                return LocalDate.parse(value);
+            }
+            return value;
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("无效的分页游标");
+        }
+    }
+
+    private static <T> QueryWrapper<T> conditions(Consumer<QueryWrapper<T>> filter) {
+        QueryWrapper<T> wrapper = new QueryWrapper<>();
+        if (filter != null) {
+            // 包裹在括号中，避免调用方的 OR 条件与游标条件的优先级混淆
+            wrapper.and(filter);
+        }
+        return wrapper;
+    }
+
+    private String encode(Cursor cursor) {
+        try {
+            byte[] json = objectMapper.writeValueAsBytes(cursor);
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(json);
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private Cursor decode(String cursor) {
+        if (cursor == null || cursor.isEmpty()) {
+            return null;
+        }
+        try {
+            return objectMapper.readValue(Base64.getUrlDecoder().decode(cursor.getBytes(StandardCharsets.US_ASCII)), Cursor.class);
+        } catch (IOException | IllegalArgumentException e) {
+            throw new IllegalArgumentException("无效的分页游标");
+        }
+    }
+
+    /**
+     * 游标内容
+     * @param column 排序列
+     * @param descending 是否降序
+     * @param value 最后一条记录的排序列值
+     * @param id 最后一条记录的主键
+     */
+    record Cursor(String column, boolean descending, String value, String id) {
+    }
+}
@@ -0,0 +1,179 @@
+package com.asta.backend.utils;
+
+import com.asta.backend.entity.query.RegisterQuery;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * 流式读取批量导入文件，每次读取一批，不会将整个文件加载到内存
+ * <p>
+ * CSV 首行为表头，列名为 username, email, password, role (不区分大小写、顺序任意)，字段可用双引号包裹；
+ * NDJSON 每行一个 JSON 对象，字段与注册参数相同。空行会被跳过。
+ */
+public class UserImportReader implements AutoCloseable {
+
+    /**
+     * 导入文件格式
+     */
+    public enum Format {
+        CSV, NDJSON;
+
+        /**
+         * 根据文件名后缀或 Content-Type 判断格式
+         * @return 无法识别时返回 null
+         */
+        public static Format of(String filename, String contentType) {
+            String name = filename == null ? "" : filename.toLowerCase(Locale.ROOT);
+            if (name.endsWith(".csv") || "text/csv".equalsIgnoreCase(contentType)) {
+                return CSV;
+            }
+            if (name.endsWith(".ndjson") || name.endsWith(".jsonl") || "application/x-ndjson".equalsIgnoreCase(contentType)) {
+                return NDJSON;
+            }
+            return null;
+        }
+    }
+
+    /**
+     * 读取出的一行
+     * @param line 文件中的行号 (从 1 开始)
+     * @param query 解析出的注册参数，解析失败时为 null
+     * @param error 解析失败原因
+     */
+    public record Row(int line, RegisterQuery query, String error) {
+    }
+
+    private final BufferedReader reader;
+
+    private final Format format;
+
+    private final ObjectReader jsonReader;
+
+    private Map<String, Integer> columns;
+
+    private int line;
+
+    public UserImportReader(InputStream input, Format format, ObjectMapper objectMapper) {
+        this.reader = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8));
+        this.format = format;
+        this.jsonReader = objectMapper.readerFor(RegisterQuery.class)
+                .without(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES);
+    }
+
+    /**
+     * 读取下一批
+     * @param max 最多读取的行数
+     * @return 读取到的行，文件结束时返回空列表
+     */
+    public List<Row> next(int max) throws IOException {
+        if (format == Format.CSV && columns == null) {
+            readHeader();
+        }
+        List<Row> rows = new ArrayList<>(max);
+        String text;
+        while (rows.size() < max && (text = reader.readLine()) != null) {
+            line++;
+            if (text.isBlank()) {
+                continue;
+            }
+            rows.add(format == Format.CSV ? parseCsv(text) : parseJson(text));
+        }
+        return rows;
+    }
+
+    private void readHeader() throws IOException {
+        String header = reader.readLine();
+        line++;
+        // 去除可能存在的 UTF-8 BOM
+        if (header != null && header.startsWith("\uFEFF")) {
+            header = header.substring(1);
+        }
+        columns = new HashMap<>();
+        if (header == null) {
+            return;
+        }
+        List<String> names = splitCsv(header);
+        for (int i = 0; i < names.size(); i++) {
+            columns.put(names.get(i).trim().toLowerCase(Locale.ROOT), i);
+        }
+        if (!columns.containsKey("username") || !columns.containsKey("password")) {
+            throw new IllegalArgumentException("CSV 表头必须包含 username 与 password 列");
+        }
+    }
+
+    private Row parseCsv(String text) {
+        List<String> fields = splitCsv(text);
+        RegisterQuery query = new RegisterQuery();
+        query.setUsername(field(fields, "username"));
+        query.setEmail(field(fields, "email"));
+        query.setPassword(field(fields, "password"));
+        query.setRole(field(fields, "role"));
+        return new Row(line, query, null);
+    }
+
+    private String field(List<String> fields, String column) {
+        Integer index = columns.get(column);
+        if (index == null || index >= fields.size()) {
+            return null;
+        }
+        String value = fields.get(index).trim();
+        return value.isEmpty() ? null : value;
+    }
+
+    private Row parseJson(String text) {
+        try {
+            return new Row(line, jsonReader.readValue(text), null);
+        } catch (JsonProcessingException e) {
+            return new Row(line, null, "JSON 格式错误: " + e.getOriginalMessage());
+        }
+    }
+
+    /**
+     * 按 RFC 4180 拆分一行 CSV，支持双引号包裹与 "" 转义，不支持字段内换行
+     */
+    static List<String> splitCsv(String text) {
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < text.length() && text.charAt(i + 1) == '"') {
+                    field.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    field.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else {
+                field.append(c);
+            }
+        }
+        fields.add(field.toString());
+        return fields;
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+}
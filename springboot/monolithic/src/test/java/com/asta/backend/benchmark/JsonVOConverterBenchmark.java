@@ -0,0 +1,121 @@
+package com.asta.backend.benchmark;
+
+import com.asta.backend.config.JsonVOHttpMessageConverter;
+import com.asta.backend.entity.po.User;
+import com.asta.backend.entity.vo.JsonVO;
+import com.asta.backend.entity.vo.LoginVO;
+import com.asta.backend.entity.vo.ResultStatus;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JsonVO 响应写出：默认的 MappingJackson2HttpMessageConverter 与 JsonVOHttpMessageConverter 对比
+ * <p>
+ * ObjectMapper 与 RedisConfig 中的 bean 配置相同。响应体写入一个复用的缓冲区 (相当于容器的响应输出缓冲区)，
+ * 两者的响应头处理相同，差值来自信封的编码与生成器。login 为登录响应；users 为一页 20 个用户的列表响应；
+ * error 为 data 为字符串的错误响应。
+ * <p>
+ * 运行方式: mvn -Pbenchmark test -Djmh.include=JsonVOConverter
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JsonVOConverterBenchmark {
+
+    @Param({"default", "jsonvo"})
+    private String converter;
+
+    @Param({"login", "users", "error"})
+    private String payload;
+
+    private HttpMessageConverter<Object> messageConverter;
+
+    private JsonVO<?> response;
+
+    private final ByteArrayOutputStream buffer = new ByteArrayOutputStream(8192);
+
+    private final HttpOutputMessage outputMessage = new HttpOutputMessage() {
+
+        private final HttpHeaders headers = new HttpHeaders();
+
+        @Override
+        public OutputStream getBody() {
+            return buffer;
+        }
+
+        @Override
+        public HttpHeaders getHeaders() {
+            return headers;
+        }
+    };
+
+    @Setup
+    @SuppressWarnings("unchecked")
+    public void setup() {
+        ObjectMapper objectMapper = new ObjectMapper().registerModule(new JavaTimeModule());
+        messageConverter = (HttpMessageConverter<Object>) ("default".equals(converter)
+                ? new MappingJackson2HttpMessageConverter(objectMapper)
+                : new JsonVOHttpMessageConverter(objectMapper));
+
+        response = switch (payload) {
+            case "login" -> {
+                LoginVO loginVO = new LoginVO();
+                loginVO.setUsername("benchmark");
+                loginVO.setToken("eyJhbGciOiJIUzI1NiJ9.eyJzdWIiOiJiZW5jaG1hcmsiLCJpYXQiOjE3MDAwMDAwMDAsImV4cCI6MTcwMDA4NjQwMH0."
+                        + "3xG7yVq0H4rS0X2m7nZpQ6wJk1cB5dE8fL9gT0hU2iA");
+                yield JsonVO.success(loginVO);
+            }
+            case "users" -> {
+                List<User> page = new ArrayList<>();
+                for (int i = 0; i < 20; i++) {
+                    page.add(new User()
+                            .setUserId(i)
+                            .setUsername("user" + i)
+                            .setEmail("user" + i + "@example.com")
+                            .setRole("USER")
+                            .setCreateDate(LocalDateTime.of(2025, 6, 29, 12, 0).plusMinutes(i)));
+                }
+                yield JsonVO.success(page);
+            }
+            default -> JsonVO.create("登录尝试过于频繁，请稍后重试", ResultStatus.TOO_MANY_REQUESTS);
+        };
+    }
+
+    @Benchmark
+    public int write() throws IOException {
+        buffer.reset();
+        outputMessage.getHeaders().clear();
+        messageConverter.write(response, MediaType.APPLICATION_JSON, outputMessage);
+        return buffer.size();
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options options = new OptionsBuilder()
+                .include(JsonVOConverterBenchmark.class.getSimpleName())
+                .addProfiler(GCProfiler.class)
+                .build();
+        new Runner(options).run();
+    }
+}
@@ -0,0 +1,114 @@
+package com.asta.backend.benchmark;
+
+import com.asta.backend.cache.TokenAuthenticationCache;
+import com.asta.backend.cache.TokenRevocationList;
+import com.asta.backend.filter.JwtRequestFilter;
+import com.asta.backend.utils.JwtUtil;
+import com.asta.backend.utils.StageMetrics;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.data.redis.core.Cursor;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * JwtRequestFilter 基准测试
+ * <p>
+ * 每次操作对携带有效 token 的请求执行一次完整的过滤 (doFilterInternal)，下游 chain 为空操作。
+ * cache = true 时 token 认证缓存命中，跳过验签与用户加载；cache = false 时每次都验签，
+ * 并按 authMode 由 claims 构建用户或通过 UserDetailsService 加载 (此处直接返回内存中的用户，不含数据库开销)。
+ * 吊销列表已加载且 token 未吊销，Redis 使用 mock。
+ * <p>
+ * 运行方式: mvn -Pbenchmark test -Djmh.include=JwtRequestFilter，或在 IDE 中执行 main 方法
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JwtRequestFilterBenchmark {
+
+    private static final String SECRET = "5468576D5A7134743777217A25432A462D4A614E645267556A586E3272357538";
+
+    private static final long EXPIRATION = 86400000L;
+
+    private static final FilterChain CHAIN = (request, response) -> { };
+
+    @Param({"true", "false"})
+    private boolean cache;
+
+    @Param({"STRICT", "CLAIMS"})
+    private JwtRequestFilter.AuthMode authMode;
+
+    private JwtRequestFilter filter;
+
+    private MockHttpServletRequest request;
+
+    private MockHttpServletResponse response;
+
+    @Setup
+    @SuppressWarnings("unchecked")
+    public void setup() {
+        StringRedisTemplate redisTemplate = mock(StringRedisTemplate.class);
+        when(redisTemplate.opsForValue()).thenReturn(mock(ValueOperations.class));
+        when(redisTemplate.scan(any())).thenAnswer(invocation -> mock(Cursor.class));
+        TokenRevocationList revocationList = new TokenRevocationList(redisTemplate, new SimpleMeterRegistry(),
+                EXPIRATION, 3600000L, 10000, 0.001, 1000, 10000, 60000);
+        revocationList.reload();
+
+        User user = new User("benchmark", "{bcrypt}hash", List.of(new SimpleGrantedAuthority("ROLE_USER")));
+        UserDetailsService userDetailsService = username ->
+                new User(user.getUsername(), user.getPassword(), user.getAuthorities());
+        JwtUtil jwtUtil = new JwtUtil(SECRET, EXPIRATION);
+        filter = new JwtRequestFilter(userDetailsService, jwtUtil,
+                new TokenAuthenticationCache(cache, 10000, 300000, new SimpleMeterRegistry()), revocationList,
+                new StageMetrics(new SimpleMeterRegistry(), StageMetricsBenchmark.SLO));
+        ReflectionTestUtils.setField(filter, "authMode", authMode);
+
+        // OncePerRequestFilter 的 "已过滤" 标记在过滤结束后移除，同一个请求对象可重复使用
+        request = new MockHttpServletRequest("GET", "/api/users/me");
+        request.addHeader("Authorization", "Bearer " + jwtUtil.generateToken(user));
+        response = new MockHttpServletResponse();
+    }
+
+    @Benchmark
+    public Object doFilter() throws ServletException, IOException {
+        try {
+            filter.doFilter(request, response, CHAIN);
+            return SecurityContextHolder.getContext().getAuthentication();
+        } finally {
+            SecurityContextHolder.clearContext();
+        }
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options options = new OptionsBuilder()
+                .include(JwtRequestFilterBenchmark.class.getSimpleName())
+                .addProfiler(GCProfiler.class)
+                .build();
+        new Runner(options).run();
+    }
+}
@@ -0,0 +1,115 @@
+package com.asta.backend.benchmark;
+
+import org.h2.jdbcx.JdbcDataSource;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * 偏移分页与游标分页对比
+ * <p>
+ * 在 H2 (MySQL 模式) 中生成百万级 user 表，分别测量不同页深度下：
+ * offset 模式 (LIMIT n OFFSET m + 每页 COUNT(*)，即 PaginationInnerInterceptor 生成的查询) 与
+ * keyset 模式 (WHERE user_id > ? ORDER BY user_id LIMIT n，以及按 (create_date, user_id) 排序的复合游标) 的单页耗时。
+ * 关闭 H2 的结果复用 (OPTIMIZE_REUSE_RESULTS)，避免相同查询直接返回缓存结果。
+ * <p>
+ * 运行方式: mvn test-compile 后以测试 classpath 运行本类，可通过参数指定行数 (默认 2000000)
+ */
+public class PaginationBenchmark {
+
+    private static final int PAGE_SIZE = 20;
+
+    private static final int[] PAGES = {1, 100, 1_000, 10_000, 50_000, 99_000};
+
+    private static final int ITERATIONS = 20;
+
+    /**
+     * 列表查询通常带有过滤条件，H2 对无条件的 COUNT(*) 直接返回表的行数统计，不能代表实际开销
+     */
+    private static final String ROLE = "USER";
+
+    public static void main(String[] args) throws Exception {
+        int rows = args.length > 0 ? Integer.parseInt(args[0]) : 2_000_000;
+        JdbcDataSource dataSource = new JdbcDataSource();
+        dataSource.setURL("jdbc:h2:mem:pagination;MODE=MySQL;DATABASE_TO_LOWER=TRUE;NON_KEYWORDS=USER;DB_CLOSE_DELAY=-1;OPTIMIZE_REUSE_RESULTS=FALSE");
+        try (Connection connection = dataSource.getConnection()) {
+            prepare(connection, rows);
+            System.out.printf("%-8s %14s %14s %14s %14s%n", "page", "offset(ms)", "count(ms)", "keyset(ms)", "keyset-sort(ms)");
+            for (int page : PAGES) {
+                if ((long) page * PAGE_SIZE > rows) {
+                    break;
+                }
+                long offset = (long) (page - 1) * PAGE_SIZE;
+                // 上一页最后一条记录的排序键，即客户端游标中携带的值
+                long lastId = offset;
+                long[] lastSortKey = lastSortKey(connection, offset);
+                System.out.printf("%-8d %14.3f %14.3f %14.3f %14.3f%n", page,
+                        measure(connection, "SELECT * FROM user WHERE role = ? ORDER BY user_id LIMIT ? OFFSET ?",
+                                ROLE, PAGE_SIZE, offset),
+                        measure(connection, "SELECT COUNT(*) FROM user WHERE role = ?", ROLE),
+                        measure(connection, "SELECT * FROM user WHERE role = ? AND user_id > ? ORDER BY user_id LIMIT ?",
+                                ROLE, lastId, PAGE_SIZE),
+                        measure(connection, "SELECT * FROM user WHERE role = ? AND create_date >= ? "
+                                + "AND (create_date > ? OR (create_date = ? AND user_id > ?)) ORDER BY create_date, user_id LIMIT ?",
+                                ROLE, lastSortKey[0], lastSortKey[0], lastSortKey[0], lastSortKey[1], PAGE_SIZE));
+            }
+        }
+    }
+
+    private static void prepare(Connection connection, int rows) throws SQLException {
+        long start = System.currentTimeMillis();
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("CREATE TABLE user (user_id INT PRIMARY KEY, username VARCHAR(64), email VARCHAR(128), "
+                    + "password VARCHAR(128), create_date BIGINT, role VARCHAR(16))");
+            // 每秒约 10 个用户注册，create_date 存在重复值
+            statement.execute("INSERT INTO user SELECT n, 'user' || n, 'user' || n || '@example.com', "
+                    + "'$2a$10$abcdefghijklmnopqrstuv', 1700000000 + n / 10, 'USER' FROM SYSTEM_RANGE(1, " + rows + ") r(n)");
+            statement.execute("CREATE INDEX idx_user_create_date ON user (create_date, user_id)");
+        }
+        System.out.printf("已生成 %d 行, 耗时 %dms%n", rows, System.currentTimeMillis() - start);
+    }
+
+    private static long[] lastSortKey(Connection connection, long offset) throws SQLException {
+        if (offset == 0) {
+            return new long[]{Long.MIN_VALUE, 0};
+        }
+        try (PreparedStatement statement = connection.prepareStatement(
+                "SELECT create_date, user_id FROM user ORDER BY create_date, user_id LIMIT 1 OFFSET ?")) {
+            statement.setLong(1, offset - 1);
+            try (ResultSet resultSet = statement.executeQuery()) {
+                resultSet.next();
+                return new long[]{resultSet.getLong(1), resultSet.getLong(2)};
+            }
+        }
+    }
+
+    /**
+     * 预热后多次执行同一查询，返回单次平均耗时 (毫秒)
+     */
+    private static double measure(Connection connection, String sql, Object... params) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement(sql)) {
+            for (int i = 0; i < params.length; i++) {
+                statement.setObject(i + 1, params[i]);
+            }
+            for (int i = 0; i < 3; i++) {
+                consume(statement);
+            }
+            long start = System.nanoTime();
+            for (int i = 0; i < ITERATIONS; i++) {
+                consume(statement);
+            }
+            return (System.nanoTime() - start) / 1_000_000.0 / ITERATIONS;
+        }
+    }
+
+    private static void consume(PreparedStatement statement) throws SQLException {
+        try (ResultSet resultSet = statement.executeQuery()) {
+            while (resultSet.next()) {
+                resultSet.getObject(1);
+            }
+        }
+    }
+}
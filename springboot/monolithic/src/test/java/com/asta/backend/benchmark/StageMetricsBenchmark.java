@@ -0,0 +1,70 @@
+package com.asta.backend.benchmark;
+
+import com.asta.backend.utils.StageMetrics;
+import com.asta.backend.utils.StageMetrics.Outcome;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.config.MeterFilter;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 分阶段耗时统计的开销
+ * <p>
+ * record 为一次完整的记录 (nanoTime + 查找 Timer + 写入带 SLO 桶的 Timer)，enabled = false 时 Timer 被 MeterFilter
+ * 拒绝 (noop)，即只剩查找开销；nanoTime 为基线。与 JwtRequestFilterBenchmark 对比：一次未命中缓存的过滤记录 3 个阶段。
+ * <p>
+ * 运行方式: mvn -Pbenchmark test -Djmh.include=StageMetrics，或在 IDE 中执行 main 方法
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class StageMetricsBenchmark {
+
+    static final Duration[] SLO = {
+            Duration.ofNanos(100_000), Duration.ofNanos(500_000), Duration.ofMillis(1), Duration.ofMillis(5),
+            Duration.ofMillis(10), Duration.ofMillis(50), Duration.ofMillis(100), Duration.ofMillis(250),
+            Duration.ofMillis(500), Duration.ofSeconds(1)};
+
+    @Param({"true", "false"})
+    private boolean enabled;
+
+    private StageMetrics stageMetrics;
+
+    @Setup
+    public void setup() {
+        MeterRegistry registry = new SimpleMeterRegistry();
+        if (!enabled) {
+            registry.config().meterFilter(MeterFilter.deny());
+        }
+        stageMetrics = new StageMetrics(registry, SLO);
+    }
+
+    @Benchmark
+    public long nanoTime() {
+        return System.nanoTime();
+    }
+
+    @Benchmark
+    public void record() {
+        stageMetrics.record("filter", "parse", System.nanoTime(), Outcome.SUCCESS);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options options = new OptionsBuilder()
+                .include(StageMetricsBenchmark.class.getSimpleName())
+                .addProfiler(GCProfiler.class)
+                .build();
+        new Runner(options).run();
+    }
+}
@@ -0,0 +1,86 @@
+package com.asta.backend.benchmark;
+
+import com.asta.backend.security.RefreshTokenStore;
+import com.asta.backend.utils.AuthorityRegistry;
+import com.asta.backend.utils.JwtUtil;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * access token 过期后的两种续期方式：重新登录与 refresh token 轮换
+ * <p>
+ * login 为重新登录在本机上的开销 (BCrypt 校验 + 签发 refresh token + 签名)；refresh 为轮换 refresh token 的开销
+ * (生成新 secret、两次 SHA-256 + 签名)。两者都省略了数据库 / Redis 的往返 (Redis 脚本调用替换为直接返回结果)，
+ * 差值即为每次续期节省的 CPU。BCrypt 使用默认的 cost 10。
+ * <p>
+ * 运行方式: mvn -Pbenchmark test -Djmh.include=TokenRefresh
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TokenRefreshBenchmark {
+
+    private static final String SECRET = "5468576D5A7134743777217A25432A462D4A614E645267556A586E3272357538";
+
+    private final BCryptPasswordEncoder passwordEncoder = new BCryptPasswordEncoder();
+
+    private JwtUtil jwtUtil;
+
+    private RefreshTokenStore refreshTokenStore;
+
+    private UserDetails userDetails;
+
+    private String refreshToken;
+
+    @Setup
+    public void setup() {
+        jwtUtil = new JwtUtil(SECRET, 900000L);
+        userDetails = new User("benchmark", passwordEncoder.encode("password"), AuthorityRegistry.role("USER"));
+        refreshTokenStore = new RefreshTokenStore(new StringRedisTemplate() {
+            @Override
+            @SuppressWarnings("unchecked")
+            public <T> T execute(RedisScript<T> script, List<String> keys, Object... args) {
+                return script.getResultType() == List.class ? (T) List.of(1L, "benchmark") : null;
+            }
+        }, 2592000000L);
+        refreshToken = refreshTokenStore.issue("benchmark").token();
+    }
+
+    @Benchmark
+    public String login() {
+        if (!passwordEncoder.matches("password", userDetails.getPassword())) {
+            throw new IllegalStateException();
+        }
+        RefreshTokenStore.Issued issued = refreshTokenStore.issue(userDetails.getUsername());
+        return jwtUtil.generateToken(userDetails, issued.family());
+    }
+
+    @Benchmark
+    public String refresh() {
+        RefreshTokenStore.Rotation rotation = refreshTokenStore.rotate(refreshToken);
+        return jwtUtil.generateToken(userDetails, rotation.family());
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options options = new OptionsBuilder()
+                .include(TokenRefreshBenchmark.class.getSimpleName())
+                .addProfiler(GCProfiler.class)
+                .build();
+        new Runner(options).run();
+    }
+}
@@ -0,0 +1,115 @@
+package com.asta.backend.benchmark;
+
+import com.asta.backend.entity.po.User;
+import com.asta.backend.mapper.UserMapper;
+import com.baomidou.mybatisplus.core.MybatisConfiguration;
+import com.baomidou.mybatisplus.core.MybatisSqlSessionFactoryBuilder;
+import com.baomidou.mybatisplus.core.conditions.query.QueryWrapper;
+import org.apache.ibatis.mapping.Environment;
+import org.apache.ibatis.session.LocalCacheScope;
+import org.apache.ibatis.session.SqlSession;
+import org.apache.ibatis.transaction.jdbc.JdbcTransactionFactory;
+import org.h2.jdbcx.JdbcDataSource;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.HashSet;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 用户查询：QueryWrapper 与静态 SQL 对比
+ * <p>
+ * 经过完整的 MyBatis-Plus 调用链 (H2 内存库，MySQL 模式)，对比每次查询的耗时与分配量：
+ * queryWrapper* 为原实现 (每次构建 QueryWrapper、求值动态 SQL、查询整行并新建权限对象)，
+ * 其余为 UserMapper 中的静态 SQL 与共享的权限实例。两者访问数据库的开销相同，差值即为节省的部分。
+ * 关闭 H2 的结果复用 (OPTIMIZE_REUSE_RESULTS)，避免相同查询直接返回缓存结果。
+ * <p>
+ * 运行方式: mvn -Pbenchmark test -Djmh.include=UserLookup
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class UserLookupBenchmark {
+
+    private SqlSession session;
+
+    private UserMapper mapper;
+
+    @Setup
+    public void setup() throws SQLException {
+        JdbcDataSource dataSource = new JdbcDataSource();
+        dataSource.setURL("jdbc:h2:mem:user_lookup;MODE=MySQL;DATABASE_TO_LOWER=TRUE;NON_KEYWORDS=USER;DB_CLOSE_DELAY=-1;OPTIMIZE_REUSE_RESULTS=FALSE");
+        try (Connection connection = dataSource.getConnection(); Statement statement = connection.createStatement()) {
+            statement.execute("CREATE TABLE user (user_id INT PRIMARY KEY, username VARCHAR(64) UNIQUE, "
+                    + "email VARCHAR(128) UNIQUE, password VARCHAR(128), create_date TIMESTAMP, role VARCHAR(16))");
+            statement.execute("INSERT INTO user SELECT n, 'user' || n, 'user' || n || '@example.com', "
+                    + "'$2a$10$7EqJtq98hPqEX7fNZaFWoO5T9Z2nY1K3E8j8n9iXq8B6lq8P0cG1W', CURRENT_TIMESTAMP, 'USER' "
+                    + "FROM SYSTEM_RANGE(1, 1000) r(n)");
+        }
+        MybatisConfiguration configuration = new MybatisConfiguration();
+        configuration.setEnvironment(new Environment("benchmark", new JdbcTransactionFactory(), dataSource));
+        // 生产环境中事务之外的每次调用使用新的 SqlSession，一级缓存不会命中
+        configuration.setLocalCacheScope(LocalCacheScope.STATEMENT);
+        configuration.addMapper(UserMapper.class);
+        session = new MybatisSqlSessionFactoryBuilder().build(configuration).openSession(true);
+        mapper = session.getMapper(UserMapper.class);
+    }
+
+    @TearDown
+    public void tearDown() {
+        session.close();
+    }
+
+    @Benchmark
+    public Optional<org.springframework.security.core.userdetails.User> queryWrapperFindByUsername() {
+        QueryWrapper<User> wrapper = new QueryWrapper<>();
+        wrapper.eq("username", "user500");
+        User user = mapper.selectOne(wrapper);
+        if (user == null) {
+            return Optional.empty();
+        }
+        Set<GrantedAuthority> authorities = new HashSet<>();
+        authorities.add(new SimpleGrantedAuthority("ROLE_" + user.getRole()));
+        return Optional.of(new org.springframework.security.core.userdetails.User(
+                user.getUsername(), user.getPassword(), authorities));
+    }
+
+    @Benchmark
+    public Optional<org.springframework.security.core.userdetails.User> findByUsername() {
+        return mapper.findByUsername("user500");
+    }
+
+    @Benchmark
+    public boolean queryWrapperExists() {
+        QueryWrapper<User> wrapper = new QueryWrapper<>();
+        wrapper.eq("username", "user500").or().eq("email", "new@example.com");
+        return mapper.exists(wrapper);
+    }
+
+    @Benchmark
+    public boolean existsByUsernameOrEmail() {
+        return mapper.existsByUsernameOrEmail("user500", "new@example.com");
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options options = new OptionsBuilder()
+                .include(UserLookupBenchmark.class.getSimpleName())
+                .addProfiler(GCProfiler.class)
+                .build();
+        new Runner(options).run();
+    }
+}
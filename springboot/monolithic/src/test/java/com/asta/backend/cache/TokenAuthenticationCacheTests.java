@@ -0,0 +1,57 @@
+package com.asta.backend.cache;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserDetails;
+
+import java.util.Collections;
+import java.util.Date;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TokenAuthenticationCacheTests {
+
+    private final UserDetails user = new User("tester", "", Collections.emptyList());
+
+    private static Claims claimsExpiringIn(long millis) {
+        return Jwts.claims()
+                .setSubject("tester")
+                .setExpiration(new Date(System.currentTimeMillis() + millis));
+    }
+
+    @Test
+    void returnsCachedPrincipalForSameToken() {
+        MeterRegistry registry = new SimpleMeterRegistry();
+        TokenAuthenticationCache cache = new TokenAuthenticationCache(true, 100, 60000, registry);
+
+        cache.put("token-a", claimsExpiringIn(60000), user);
+
+        assertNotNull(cache.get("token-a"));
+        assertNull(cache.get("token-b"));
+        assertEquals(1.0, registry.get("cache.gets").tag("result", "hit").functionCounter().count());
+        assertEquals(1.0, registry.get("cache.gets").tag("result", "miss").functionCounter().count());
+    }
+
+    @Test
+    void entryNeverOutlivesTokenExpiration() throws InterruptedException {
+        TokenAuthenticationCache cache = new TokenAuthenticationCache(true, 100, 60000, new SimpleMeterRegistry());
+
+        cache.put("token-a", claimsExpiringIn(50), user);
+        Thread.sleep(100);
+
+        assertNull(cache.get("token-a"));
+    }
+
+    @Test
+    void disabledCacheNeverHits() {
+        TokenAuthenticationCache cache = new TokenAuthenticationCache(false, 100, 60000, new SimpleMeterRegistry());
+
+        cache.put("token-a", claimsExpiringIn(60000), user);
+
+        assertNull(cache.get("token-a"));
+    }
+}
@@ -0,0 +1,88 @@
+package com.asta.backend.cache;
+
+import com.asta.backend.constant.RedisConstant;
+import com.asta.backend.utils.JwtUtil;
+import io.jsonwebtoken.Claims;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.data.redis.core.Cursor;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+import org.springframework.security.core.userdetails.User;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class TokenRevocationListTests {
+
+    private static final String SECRET = "5468576D5A7134743777217A25432A462D4A614E645267556A586E3272357538";
+
+    private final JwtUtil jwtUtil = new JwtUtil(SECRET, 3_600_000);
+
+    private StringRedisTemplate redisTemplate;
+
+    private ValueOperations<String, String> valueOperations;
+
+    private TokenRevocationList revocationList;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        redisTemplate = mock(StringRedisTemplate.class);
+        valueOperations = mock(ValueOperations.class);
+        when(redisTemplate.opsForValue()).thenReturn(valueOperations);
+        when(redisTemplate.scan(any())).thenAnswer(invocation -> mock(Cursor.class));
+        revocationList = new TokenRevocationList(redisTemplate, new SimpleMeterRegistry(),
+                3_600_000, 600_000, 1_000, 0.001, 100, 100, 60_000);
+        assertTrue(revocationList.reload());
+    }
+
+    private Claims issue(String username) {
+        return jwtUtil.parseToken(jwtUtil.generateToken(new User(username, "", List.of())));
+    }
+
+    @Test
+    void nonRevokedTokenDoesNotTouchRedis() {
+        Claims claims = issue("alice");
+        clearInvocations(redisTemplate, valueOperations);
+
+        assertFalse(revocationList.isRevoked(claims));
+        verifyNoInteractions(valueOperations);
+    }
+
+    @Test
+    void revokedTokenIsConfirmedAgainstRedis() {
+        Claims revoked = issue("alice");
+        Claims other = issue("alice");
+        revocationList.revoke(revoked);
+        verify(valueOperations).set(eq(RedisConstant.REVOKED_TOKEN_KEY_PREFIX + revoked.getId()),
+                eq(String.valueOf(revoked.getExpiration().getTime())), longThat(ttl -> ttl > 0), eq(TimeUnit.MILLISECONDS));
+        when(valueOperations.get(RedisConstant.REVOKED_TOKEN_KEY_PREFIX + revoked.getId()))
+                .thenReturn(String.valueOf(revoked.getExpiration().getTime()));
+
+        assertTrue(revocationList.isRevoked(revoked));
+        assertFalse(revocationList.isRevoked(other));
+    }
+
+    @Test
+    void revokeUserInvalidatesEarlierTokensOnly() throws Exception {
+        Claims before = issue("bob");
+        revocationList.revokeUser("bob");
+        ArgumentCaptor<String> revokedAt = ArgumentCaptor.forClass(String.class);
+        verify(valueOperations).set(eq(RedisConstant.REVOKED_USER_KEY_PREFIX + "bob"), revokedAt.capture(),
+                eq(3_600_000L), eq(TimeUnit.MILLISECONDS));
+        when(valueOperations.get(RedisConstant.REVOKED_USER_KEY_PREFIX + "bob")).thenReturn(revokedAt.getValue());
+        // iat 精确到秒，下一秒签发的 token 不受影响
+        Thread.sleep(1_010 - System.currentTimeMillis() % 1_000);
+        Claims after = issue("bob");
+
+        assertTrue(revocationList.isRevoked(before));
+        assertFalse(revocationList.isRevoked(after));
+    }
+}
@@ -0,0 +1,152 @@
+package com.asta.backend.cache;
+
+import com.asta.backend.datasource.DataSourceRouting;
+import com.asta.backend.mapper.UserMapper;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.RedisConnectionFailureException;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserDetails;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+class UserDetailsCacheTests {
+
+    private UserMapper userMapper;
+
+    private ValueOperations<String, String> valueOperations;
+
+    private UserDetailsCache cache;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        userMapper = mock(UserMapper.class);
+        StringRedisTemplate redisTemplate = mock(StringRedisTemplate.class);
+        valueOperations = mock(ValueOperations.class);
+        when(redisTemplate.opsForValue()).thenReturn(valueOperations);
+        when(valueOperations.get(anyString())).thenThrow(new RedisConnectionFailureException("down"));
+
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        cache = new UserDetailsCache(userMapper, redisTemplate, new ObjectMapper(),
+                new TokenAuthenticationCache(true, 100, 60000, registry), registry, 100, 60000, 600000, 10000);
+    }
+
+    private void givenUser(String username) {
+        when(userMapper.findByUsername(username)).thenAnswer(invocation -> Optional.of(
+                new User(username, "{bcrypt}hash", List.of(new SimpleGrantedAuthority("ROLE_USER")))));
+    }
+
+    @Test
+    void fallsBackToDatabaseWhenRedisIsDown() {
+        givenUser("alice");
+
+        Optional<UserDetails> user = cache.get("alice");
+
+        assertTrue(user.isPresent());
+        assertEquals("{bcrypt}hash", user.get().getPassword());
+    }
+
+    @Test
+    void erasedCredentialsDoNotLeakIntoCache() {
+        givenUser("alice");
+
+        // 模拟 ProviderManager 在认证成功后擦除 principal 的密码
+        ((User) cache.get("alice").orElseThrow()).eraseCredentials();
+
+        assertEquals("{bcrypt}hash", cache.get("alice").orElseThrow().getPassword());
+        verify(userMapper, times(1)).findByUsername("alice");
+    }
+
+    @Test
+    void concurrentMissesLoadOnce() throws InterruptedException {
+        givenUser("alice");
+        int threads = 16;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        for (int i = 0; i < threads; i++) {
+            executor.execute(() -> {
+                try {
+                    start.await();
+                    cache.get("alice");
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            });
+        }
+        start.countDown();
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+
+        verify(userMapper, times(1)).findByUsername("alice");
+    }
+
+    @Test
+    void loadsFromPrimaryEvenWhenRoutingToReplicas() {
+        List<DataSourceRouting.Route> routes = new ArrayList<>();
+        when(userMapper.findByUsername("alice")).thenAnswer(invocation -> {
+            routes.add(DataSourceRouting.current());
+            return Optional.of(new User("alice", "{bcrypt}hash", List.of(new SimpleGrantedAuthority("ROLE_USER"))));
+        });
+
+        // 回源结果会回填 Redis，调用方处于 @ReplicaRead 中时也不能读取可能落后的从库
+        DataSourceRouting.onReplica(() -> cache.get("alice"));
+
+        assertEquals(List.of(DataSourceRouting.Route.PRIMARY), routes);
+    }
+
+    @Test
+    void evictForcesReload() {
+        givenUser("alice");
+        cache.get("alice");
+
+        cache.evict("alice");
+        cache.get("alice");
+
+        verify(userMapper, times(2)).findByUsername("alice");
+    }
+
+    @Test
+    void evictDuringLoadPreventsStaleWriteBack() {
+        Map<String, String> redis = new ConcurrentHashMap<>();
+        doAnswer(invocation -> redis.get(invocation.<String>getArgument(0))).when(valueOperations).get(anyString());
+        doAnswer(invocation -> redis.put(invocation.getArgument(0), invocation.getArgument(1)))
+                .when(valueOperations).set(anyString(), anyString(), any(Duration.class));
+        doAnswer(invocation -> redis.putIfAbsent(invocation.getArgument(0), invocation.getArgument(1)) == null)
+                .when(valueOperations).setIfAbsent(anyString(), anyString(), any(Duration.class));
+        AtomicInteger loads = new AtomicInteger();
+        when(userMapper.findByUsername("alice")).thenAnswer(invocation -> {
+            String password = loads.getAndIncrement() == 0 ? "{bcrypt}old" : "{bcrypt}new";
+            if (password.equals("{bcrypt}old")) {
+                // 读到旧数据之后、回填之前，其他请求修改了密码并调用 evict
+                cache.evict("alice");
+            }
+            return Optional.of(new User("alice", password, List.of(new SimpleGrantedAuthority("ROLE_USER"))));
+        });
+
+        assertEquals("{bcrypt}old", cache.get("alice").orElseThrow().getPassword());
+        // 旧快照没有写回 Redis，下一次回源读到新数据
+        assertFalse(redis.values().stream().anyMatch(json -> json.contains("old")));
+        assertEquals("{bcrypt}new", cache.get("alice").orElseThrow().getPassword());
+    }
+}
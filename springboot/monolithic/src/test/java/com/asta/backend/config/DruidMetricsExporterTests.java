@@ -0,0 +1,106 @@
+package com.asta.backend.config;
+
+import com.alibaba.druid.pool.DruidDataSource;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.FunctionTimer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DruidMetricsExporterTests {
+
+    private static final String CHECK_SQL = "SELECT user_id FROM users WHERE username = ? OR email = ?";
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+    private DruidDataSource dataSource;
+
+    private DruidMetricsExporter exporter;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        dataSource = new DruidDataSource();
+        dataSource.setName("test");
+        // 按 MySQL 方言合并 SQL，与生产环境一致
+        dataSource.setUrl("jdbc:h2:mem:druid_metrics_" + System.nanoTime() + ";MODE=MySQL");
+        dataSource.setDbType("mysql");
+        dataSource.setFilters("stat");
+        // 每条 SQL 都视为慢 SQL，以便采样
+        dataSource.setConnectionProperties("druid.stat.mergeSql=true;druid.stat.slowSqlMillis=0");
+        dataSource.init();
+        try (Connection connection = dataSource.getConnection(); Statement statement = connection.createStatement()) {
+            statement.execute("CREATE TABLE users (user_id INT PRIMARY KEY, username VARCHAR(32), email VARCHAR(64))");
+            statement.execute("INSERT INTO users VALUES (1, 'alice', 'alice@example.com')");
+        }
+        exporter = new DruidMetricsExporter(
+                new StaticListableBeanFactory(Map.of("dataSource", dataSource)).getBeanProvider(DataSource.class),
+                registry, new ObjectMapper(), true, 200, 300);
+    }
+
+    @AfterEach
+    void tearDown() {
+        dataSource.close();
+    }
+
+    private void check(String username, String email) throws Exception {
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement statement = connection.prepareStatement(CHECK_SQL)) {
+            statement.setString(1, username);
+            statement.setString(2, email);
+            try (ResultSet resultSet = statement.executeQuery()) {
+                while (resultSet.next()) {
+                    resultSet.getInt(1);
+                }
+            }
+        }
+    }
+
+    @Test
+    void exportsMergedSqlStatistics() throws Exception {
+        check("alice", "alice@example.com");
+        check("bob", "bob@example.com");
+        exporter.export();
+
+        FunctionTimer latency = registry.get("druid.sql.latency").tag("sql", CHECK_SQL).functionTimer();
+        assertEquals(2, latency.count());
+        assertEquals(1, registry.get("druid.sql.rows.fetched").tag("sql", CHECK_SQL).functionCounter().count());
+        assertEquals(2, registry.get("druid.sql.latency.histogram").tag("sql", CHECK_SQL).tag("le", "+Inf")
+                .functionCounter().count());
+        assertNotNull(registry.find("druid.connection.wait").tag("pool", "test").functionTimer());
+
+        // 新的执行在抓取时直接读取，无需再次导出
+        check("carol", "carol@example.com");
+        assertEquals(3, latency.count());
+    }
+
+    @Test
+    void samplesSlowStatementsByParameterShape() throws Exception {
+        check("alice", "alice@example.com");
+        exporter.export();
+        // 慢 SQL 参数未变化时不重复采样
+        exporter.export();
+
+        assertEquals(1, registry.get("druid.sql.slow.samples").tag("sql", CHECK_SQL).tag("shape", "string,string")
+                .counter().count());
+    }
+
+    @Test
+    void shapeHidesParameterValues() {
+        DruidMetricsExporter.Shape shape = exporter.shapeOf("[\"alice\",42,null]");
+
+        assertEquals("string,number,null", shape.types());
+        assertEquals("[string(5), number, null]", shape.detail());
+        assertEquals("unknown", exporter.shapeOf("not json").types());
+    }
+}
@@ -0,0 +1,70 @@
+package com.asta.backend.config;
+
+import com.asta.backend.entity.po.User;
+import com.asta.backend.entity.vo.JsonVO;
+import com.asta.backend.entity.vo.LoginVO;
+import com.asta.backend.entity.vo.ResultStatus;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+import org.springframework.mock.http.MockHttpOutputMessage;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class JsonVOHttpMessageConverterTests {
+
+    private static String write(ObjectMapper objectMapper, JsonVO<?> jsonVO, boolean fast) throws Exception {
+        MockHttpOutputMessage message = new MockHttpOutputMessage();
+        if (fast) {
+            new JsonVOHttpMessageConverter(objectMapper).write(jsonVO, MediaType.APPLICATION_JSON, message);
+        } else {
+            new MappingJackson2HttpMessageConverter(objectMapper).write(jsonVO, MediaType.APPLICATION_JSON, message);
+        }
+        assertEquals(MediaType.APPLICATION_JSON, message.getHeaders().getContentType());
+        return message.getBodyAsString();
+    }
+
+    private static void assertSameAsDefault(ObjectMapper objectMapper, JsonVO<?> jsonVO) throws Exception {
+        assertEquals(write(objectMapper, jsonVO, false), write(objectMapper, jsonVO, true));
+    }
+
+    @Test
+    void writesSameBytesAsDefaultConverter() throws Exception {
+        ObjectMapper objectMapper = new ObjectMapper().registerModule(new JavaTimeModule());
+        LoginVO login = new LoginVO();
+        login.setUsername("alice");
+        login.setToken("a.b.c");
+        User user = new User().setUserId(1).setUsername("alice").setCreateDate(LocalDateTime.of(2025, 6, 29, 12, 0));
+
+        assertSameAsDefault(objectMapper, JsonVO.success(login));
+        assertSameAsDefault(objectMapper, JsonVO.success(List.of(user, user)));
+        assertSameAsDefault(objectMapper, JsonVO.create("请稍后重试", ResultStatus.SERVER_BUSY));
+        assertSameAsDefault(objectMapper, JsonVO.success(null));
+        // 不对应任何 ResultStatus 的组合
+        assertSameAsDefault(objectMapper, JsonVO.create("x", ResultStatus.FAIL.getCode(), "自定义消息"));
+        assertSameAsDefault(objectMapper, new JsonVO<>());
+    }
+
+    @Test
+    void fallsBackWhenMapperChangesEnvelope() throws Exception {
+        ObjectMapper objectMapper = new ObjectMapper().setSerializationInclusion(JsonInclude.Include.NON_NULL);
+
+        assertEquals("{\"code\":10000,\"message\":\"操作成功\"}", write(objectMapper, JsonVO.success(null), true));
+        assertSameAsDefault(objectMapper, JsonVO.success("ok"));
+    }
+
+    @Test
+    void doesNotReadRequests() {
+        JsonVOHttpMessageConverter converter = new JsonVOHttpMessageConverter(new ObjectMapper());
+
+        assertFalse(converter.canRead(JsonVO.class, MediaType.APPLICATION_JSON));
+        assertTrue(converter.canWrite(JsonVO.class, MediaType.APPLICATION_JSON));
+        assertFalse(converter.canWrite(LoginVO.class, MediaType.APPLICATION_JSON));
+    }
+}
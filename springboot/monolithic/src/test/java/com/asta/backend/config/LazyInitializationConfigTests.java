@@ -0,0 +1,33 @@
+package com.asta.backend.config;
+
+import com.asta.backend.cache.TokenRevocationList;
+import com.asta.backend.cache.UserExistenceFilter;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.support.RootBeanDefinition;
+import org.springframework.boot.LazyInitializationExcludeFilter;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LazyInitializationConfigTests {
+
+    private final LazyInitializationExcludeFilter filter = LazyInitializationConfig.scheduledBeansExcludeFilter();
+
+    private boolean excluded(Class<?> type) {
+        return filter.isExcluded("bean", new RootBeanDefinition(type), type);
+    }
+
+    @Test
+    void keepsScheduledBeansEager() {
+        assertTrue(excluded(DruidMetricsExporter.class));
+        assertTrue(excluded(RedisListenerStarter.class));
+        assertTrue(excluded(TokenRevocationList.class));
+    }
+
+    @Test
+    void leavesOtherBeansLazy() {
+        // 只有 @EventListener 的 bean 在事件发布时创建，不需要排除
+        assertFalse(excluded(UserExistenceFilter.class));
+        assertFalse(excluded(WebConfig.class));
+        assertFalse(filter.isExcluded("bean", new RootBeanDefinition(), null));
+    }
+}
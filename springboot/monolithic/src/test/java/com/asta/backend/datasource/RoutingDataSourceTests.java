@@ -0,0 +1,148 @@
+package com.asta.backend.datasource;
+
+import com.alibaba.druid.pool.DruidDataSource;
+import com.asta.backend.config.DataSourceConfig;
+import com.asta.backend.config.DruidMetricsExporter;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.aop.framework.ProxyFactory;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 两个 H2 内存库分别作为主库与从库，各写入一行不同的 node 以区分查询落在哪个库
+ */
+class RoutingDataSourceTests {
+
+    private static final String NODE_SQL = "SELECT node FROM node";
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+    private DruidDataSource primary;
+
+    private DruidDataSource replica;
+
+    private RoutingDataSource routing;
+
+    private JdbcTemplate jdbcTemplate;
+
+    private TransactionTemplate transactionTemplate;
+
+    @BeforeEach
+    void setUp() {
+        primary = pool(RoutingDataSource.PRIMARY);
+        replica = pool(RoutingDataSource.REPLICA_PREFIX + "1");
+        routing = new RoutingDataSource(primary, List.of(replica), registry);
+        routing.afterPropertiesSet();
+        DataSource dataSource = new LazyConnectionDataSourceProxy(routing);
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        transactionTemplate = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+        // LazyConnectionDataSourceProxy 首次使用时额外获取一次连接读取默认的 autoCommit 与隔离级别
+        node();
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        routing.close();
+    }
+
+    private static DruidDataSource pool(String node) {
+        DruidDataSource dataSource = new DruidDataSource();
+        dataSource.setName(node);
+        dataSource.setUrl("jdbc:h2:mem:routing_" + node + "_" + System.nanoTime() + ";MODE=MySQL;DB_CLOSE_DELAY=-1");
+        JdbcTemplate template = new JdbcTemplate(dataSource);
+        template.execute("CREATE TABLE node (node VARCHAR(16))");
+        template.update("INSERT INTO node VALUES (?)", node);
+        return dataSource;
+    }
+
+    private String node() {
+        return jdbcTemplate.queryForObject(NODE_SQL, String.class);
+    }
+
+    @Test
+    void routesToPrimaryByDefault() {
+        assertEquals("primary", node());
+    }
+
+    @Test
+    void routesReplicaReadsToReplica() {
+        assertEquals("replica-1", DataSourceRouting.onReplica(this::node));
+        assertEquals(1, registry.get("datasource.routing").tag("target", "replica-1").counter().count());
+        assertNull(DataSourceRouting.current());
+    }
+
+    @Test
+    void routesByTransactionReadOnlyFlag() {
+        transactionTemplate.setReadOnly(true);
+        assertEquals("replica-1", transactionTemplate.execute(status -> node()));
+
+        // 读写事务中即使标注了从库也使用主库，读到本事务的写入
+        transactionTemplate.setReadOnly(false);
+        assertEquals("primary", transactionTemplate.execute(status -> DataSourceRouting.onReplica(this::node)));
+    }
+
+    @Test
+    void primaryPinWinsOverNestedReplicaRead() {
+        assertEquals("primary", DataSourceRouting.onPrimary(() -> DataSourceRouting.onReplica(this::node)));
+        assertEquals("replica-1", DataSourceRouting.onReplica(() -> {
+            assertEquals("primary", DataSourceRouting.onPrimary(this::node));
+            return node();
+        }));
+    }
+
+    @Test
+    void advisorRoutesAnnotatedMethods() {
+        ProxyFactory factory = new ProxyFactory(new NodeReader());
+        factory.addAdvisor(DataSourceConfig.replicaReadAdvisor());
+        NodeReader reader = (NodeReader) factory.getProxy();
+
+        assertEquals("replica-1", reader.replicaNode(jdbcTemplate));
+        assertEquals("primary", reader.node(jdbcTemplate));
+    }
+
+    @Test
+    void fallsBackToPrimaryWhenReplicaIsDown() {
+        replica.close();
+
+        assertEquals("primary", DataSourceRouting.onReplica(this::node));
+        assertEquals(1, registry.get("datasource.routing.fallback").counter().count());
+    }
+
+    @Test
+    void exportsPoolMetricsPerTarget() {
+        DataSourceRouting.onReplica(this::node);
+        DruidMetricsExporter exporter = new DruidMetricsExporter(
+                new StaticListableBeanFactory(Map.of("dataSource", new LazyConnectionDataSourceProxy(routing)))
+                        .getBeanProvider(DataSource.class),
+                registry, new ObjectMapper(), true, 200, 300);
+        exporter.export();
+
+        assertNotNull(registry.find("druid.connection.active").tag("pool", "primary").gauge());
+        assertEquals(1, registry.get("druid.connection.idle").tag("pool", "replica-1").gauge().value());
+    }
+
+    static class NodeReader {
+
+        @ReplicaRead
+        public String replicaNode(JdbcTemplate jdbcTemplate) {
+            return jdbcTemplate.queryForObject(NODE_SQL, String.class);
+        }
+
+        public String node(JdbcTemplate jdbcTemplate) {
+            return jdbcTemplate.queryForObject(NODE_SQL, String.class);
+        }
+    }
+}
@@ -0,0 +1,131 @@
+package com.asta.backend.filter;
+
+import com.asta.backend.cache.TokenAuthenticationCache;
+import com.asta.backend.cache.TokenRevocationList;
+import com.asta.backend.utils.JwtUtil;
+import com.asta.backend.utils.StageMetrics;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class JwtRequestFilterTests {
+
+    private static final String SECRET = "5468576D5A7134743777217A25432A462D4A614E645267556A586E3272357538";
+
+    private final JwtUtil jwtUtil = new JwtUtil(SECRET, 60000);
+
+    private UserDetailsService userDetailsService;
+
+    private TokenRevocationList revocationList;
+
+    private SimpleMeterRegistry registry;
+
+    private StageMetrics stageMetrics;
+
+    private JwtRequestFilter filter;
+
+    private String token;
+
+    @BeforeEach
+    void setUp() {
+        User user = new User("alice", "{bcrypt}hash", List.of(new SimpleGrantedAuthority("ROLE_ADMIN")));
+        userDetailsService = mock(UserDetailsService.class);
+        when(userDetailsService.loadUserByUsername("alice")).thenAnswer(invocation ->
+                new User("alice", "{bcrypt}hash", List.of(new SimpleGrantedAuthority("ROLE_ADMIN"))));
+        revocationList = mock(TokenRevocationList.class);
+        registry = new SimpleMeterRegistry();
+        stageMetrics = new StageMetrics(registry, new Duration[]{Duration.ofMillis(1), Duration.ofMillis(10)});
+        filter = new JwtRequestFilter(userDetailsService, jwtUtil,
+                new TokenAuthenticationCache(false, 100, 60000, new SimpleMeterRegistry()), revocationList, stageMetrics);
+        token = jwtUtil.generateToken(user);
+    }
+
+    @AfterEach
+    void clearContext() {
+        SecurityContextHolder.clearContext();
+    }
+
+    private Authentication doFilter() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.addHeader("Authorization", "Bearer " + token);
+        filter.doFilter(request, new MockHttpServletResponse(), new MockFilterChain());
+        return SecurityContextHolder.getContext().getAuthentication();
+    }
+
+    @Test
+    void claimsModeBuildsPrincipalWithoutLoadingUser() throws Exception {
+        ReflectionTestUtils.setField(filter, "authMode", JwtRequestFilter.AuthMode.CLAIMS);
+
+        Authentication authentication = doFilter();
+
+        assertNotNull(authentication);
+        assertEquals(List.of("ROLE_ADMIN"),
+                authentication.getAuthorities().stream().map(GrantedAuthority::getAuthority).toList());
+        verifyNoInteractions(userDetailsService);
+    }
+
+    @Test
+    void strictModeLoadsUser() throws Exception {
+        ReflectionTestUtils.setField(filter, "authMode", JwtRequestFilter.AuthMode.STRICT);
+
+        Authentication authentication = doFilter();
+
+        assertNotNull(authentication);
+        verify(userDetailsService).loadUserByUsername("alice");
+    }
+
+    @Test
+    void revokedTokenIsNotAuthenticatedEvenWhenCached() throws Exception {
+        filter = new JwtRequestFilter(userDetailsService, jwtUtil,
+                new TokenAuthenticationCache(true, 100, 60000, new SimpleMeterRegistry()), revocationList, stageMetrics);
+        ReflectionTestUtils.setField(filter, "authMode", JwtRequestFilter.AuthMode.STRICT);
+        assertNotNull(doFilter());
+        SecurityContextHolder.clearContext();
+
+        when(revocationList.isRevoked(any())).thenReturn(true);
+
+        assertNull(doFilter());
+        verify(userDetailsService, times(1)).loadUserByUsername("alice");
+        assertEquals(1, stageCount("verify", "revoked"));
+    }
+
+    @Test
+    void recordsStageLatencyByOutcome() throws Exception {
+        ReflectionTestUtils.setField(filter, "authMode", JwtRequestFilter.AuthMode.STRICT);
+        assertNotNull(doFilter());
+        SecurityContextHolder.clearContext();
+        token = "not.a.token";
+        assertNull(doFilter());
+
+        assertEquals(1, stageCount("parse", "success"));
+        assertEquals(1, stageCount("parse", "invalid"));
+        assertEquals(1, stageCount("verify", "success"));
+        assertEquals(1, stageCount("load", "success"));
+        // SLO 桶随 Timer 一起发布
+        assertEquals(2, registry.get(StageMetrics.METRIC_NAME).tag("stage", "parse").tag("outcome", "success")
+                .timer().takeSnapshot().histogramCounts().length);
+    }
+
+    private long stageCount(String stage, String outcome) {
+        return registry.get(StageMetrics.METRIC_NAME)
+                .tag("pipeline", "filter").tag("stage", stage).tag("outcome", outcome)
+                .timer().count();
+    }
+}
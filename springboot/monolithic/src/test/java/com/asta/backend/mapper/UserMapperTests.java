@@ -0,0 +1,89 @@
+package com.asta.backend.mapper;
+
+import com.asta.backend.entity.po.User;
+import com.baomidou.mybatisplus.core.MybatisConfiguration;
+import com.baomidou.mybatisplus.core.MybatisSqlSessionFactoryBuilder;
+import org.apache.ibatis.mapping.Environment;
+import org.apache.ibatis.session.SqlSession;
+import org.apache.ibatis.transaction.jdbc.JdbcTransactionFactory;
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.core.userdetails.UserDetails;
+
+import java.sql.Connection;
+import java.sql.Statement;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class UserMapperTests {
+
+    private SqlSession session;
+
+    private UserMapper mapper;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        JdbcDataSource dataSource = new JdbcDataSource();
+        dataSource.setURL("jdbc:h2:mem:user_mapper;MODE=MySQL;DATABASE_TO_LOWER=TRUE;NON_KEYWORDS=USER;DB_CLOSE_DELAY=-1");
+        try (Connection connection = dataSource.getConnection(); Statement statement = connection.createStatement()) {
+            statement.execute("DROP TABLE IF EXISTS user");
+            statement.execute("CREATE TABLE user (user_id INT PRIMARY KEY, username VARCHAR(64), email VARCHAR(128), "
+                    + "password VARCHAR(128), create_date TIMESTAMP, role VARCHAR(16))");
+            statement.execute("INSERT INTO user VALUES (1, 'alice', 'alice@example.com', 'hash', "
+                    + "TIMESTAMP '2025-01-01 00:00:00', 'ADMIN'), (2, 'bob', NULL, 'hash', NULL, 'ADMIN')");
+        }
+        MybatisConfiguration configuration = new MybatisConfiguration();
+        configuration.setEnvironment(new Environment("test", new JdbcTransactionFactory(), dataSource));
+        configuration.addMapper(UserMapper.class);
+        session = new MybatisSqlSessionFactoryBuilder().build(configuration).openSession(true);
+        mapper = session.getMapper(UserMapper.class);
+    }
+
+    @AfterEach
+    void tearDown() {
+        session.close();
+    }
+
+    @Test
+    void findByUsernameSharesAuthorityInstances() {
+        UserDetails alice = mapper.findByUsername("alice").orElseThrow();
+        UserDetails bob = mapper.findByUsername("bob").orElseThrow();
+
+        assertEquals("hash", alice.getPassword());
+        assertEquals("ROLE_ADMIN", alice.getAuthorities().iterator().next().getAuthority());
+        assertSame(alice.getAuthorities().iterator().next(), bob.getAuthorities().iterator().next());
+        assertEquals(Optional.empty(), mapper.findByUsername("carol"));
+    }
+
+    @Test
+    void credentialsProjectOnlyLoginColumns() {
+        User user = mapper.selectCredentialsByUsername("alice");
+
+        assertEquals("alice", user.getUsername());
+        assertNull(user.getUserId());
+        assertNull(user.getEmail());
+    }
+
+    @Test
+    void profilesDoNotLoadPassword() {
+        User byId = mapper.selectProfileById(1);
+        User byEmail = mapper.selectProfileByEmail("alice@example.com");
+
+        assertEquals("alice", byId.getUsername());
+        assertNotNull(byId.getCreateDate());
+        assertNull(byId.getPassword());
+        assertEquals(1, byEmail.getUserId());
+        assertNull(byEmail.getPassword());
+    }
+
+    @Test
+    void existsByUsernameOrEmail() {
+        assertTrue(mapper.existsByUsernameOrEmail("alice", "new@example.com"));
+        assertTrue(mapper.existsByUsernameOrEmail("carol", "alice@example.com"));
+        assertFalse(mapper.existsByUsernameOrEmail("carol", "carol@example.com"));
+        assertFalse(mapper.existsByUsernameOrEmail("carol", null));
+    }
+}
@@ -0,0 +1,46 @@
+package com.asta.backend.security;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AdaptiveBCryptPasswordEncoderTests {
+
+    @Test
+    void upgradesOnlyHashesWithLowerCost() {
+        AdaptiveBCryptPasswordEncoder encoder = new AdaptiveBCryptPasswordEncoder(5, new SimpleMeterRegistry());
+
+        assertTrue(encoder.upgradeEncoding(new BCryptPasswordEncoder(4).encode("secret")));
+        assertFalse(encoder.upgradeEncoding(new BCryptPasswordEncoder(6).encode("secret")));
+        assertFalse(encoder.upgradeEncoding(encoder.encode("secret")));
+    }
+
+    @Test
+    void verifiesHashesOfAnyCostAndRecordsLatencyPerCost() {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        AdaptiveBCryptPasswordEncoder encoder = new AdaptiveBCryptPasswordEncoder(5, registry);
+
+        assertTrue(encoder.matches("secret", new BCryptPasswordEncoder(4).encode("secret")));
+
+        assertEquals(1, registry.get("password.hash.verify").tag("cost", "4").timer().count());
+    }
+
+    @Test
+    void calibrationNeverGoesBelowMinimumCost() {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+        AdaptiveBCryptPasswordEncoder encoder = AdaptiveBCryptPasswordEncoder.calibrate(0, 4, 6, registry);
+
+        assertEquals(4, encoder.getStrength());
+        assertNotNull(registry.find("password.hash.calibration.latency").tag("cost", "4").timeGauge());
+    }
+
+    @Test
+    void parsesCostFromHash() {
+        assertEquals(12, AdaptiveBCryptPasswordEncoder.costOf("$2a$12$abcdefghijklmnopqrstuv"));
+        assertEquals(-1, AdaptiveBCryptPasswordEncoder.costOf("plain"));
+        assertEquals(-1, AdaptiveBCryptPasswordEncoder.costOf(null));
+    }
+}
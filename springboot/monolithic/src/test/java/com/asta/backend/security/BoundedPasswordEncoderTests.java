@@ -0,0 +1,102 @@
+package com.asta.backend.security;
+
+import com.asta.backend.exception.ServerBusyException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BoundedPasswordEncoderTests {
+
+    /**
+     * 阻塞直到放行的编码器，用于占满线程池；与 BCrypt 一样不响应中断
+     */
+    private static class BlockingEncoder implements PasswordEncoder {
+
+        private final CountDownLatch release = new CountDownLatch(1);
+
+        private final AtomicInteger calls = new AtomicInteger();
+
+        @Override
+        public String encode(CharSequence rawPassword) {
+            calls.incrementAndGet();
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+            boolean interrupted = false;
+            while (release.getCount() > 0 && System.nanoTime() < deadline) {
+                try {
+                    release.await(deadline - System.nanoTime(), TimeUnit.NANOSECONDS);
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                }
+            }
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+            return "encoded";
+        }
+
+        @Override
+        public boolean matches(CharSequence rawPassword, String encodedPassword) {
+            return "encoded".equals(encode(rawPassword));
+        }
+    }
+
+    @Test
+    void rejectsImmediatelyWhenQueueIsFull() throws Exception {
+        BlockingEncoder delegate = new BlockingEncoder();
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        try (BoundedPasswordEncoder encoder = new BoundedPasswordEncoder(delegate, 1, 1, 10000, 2, registry)) {
+            // 一个任务占用唯一的线程，一个任务占满队列
+            CompletableFuture<String> running = CompletableFuture.supplyAsync(() -> encoder.encode("a"));
+            CompletableFuture<String> queued = CompletableFuture.supplyAsync(() -> encoder.encode("b"));
+            while (registry.get("executor.queued").tag("name", "password.hash").gauge().value() < 1) {
+                Thread.sleep(5);
+            }
+
+            ServerBusyException e = assertThrows(ServerBusyException.class, () -> encoder.encode("c"));
+            assertEquals(2, e.getRetryAfterSeconds());
+            assertEquals(1.0, registry.get("password.hash.rejected").counter().count());
+
+            delegate.release.countDown();
+            assertEquals("encoded", running.get(5, TimeUnit.SECONDS));
+            assertEquals("encoded", queued.get(5, TimeUnit.SECONDS));
+        }
+    }
+
+    @Test
+    void rejectsWhenResultTakesTooLong() {
+        BlockingEncoder delegate = new BlockingEncoder();
+        try (BoundedPasswordEncoder encoder = new BoundedPasswordEncoder(delegate, 1, 1, 50, 1, new SimpleMeterRegistry())) {
+            assertThrows(ServerBusyException.class, () -> encoder.matches("a", "encoded"));
+        } finally {
+            delegate.release.countDown();
+        }
+    }
+
+    @Test
+    void abandonedQueuedTaskIsDroppedBeforeItStarts() throws Exception {
+        BlockingEncoder delegate = new BlockingEncoder();
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        try (BoundedPasswordEncoder encoder = new BoundedPasswordEncoder(delegate, 1, 1, 100, 1, registry)) {
+            // 占用唯一线程的任务超时后仍在执行
+            assertThrows(ServerBusyException.class, () -> encoder.encode("a"));
+            assertEquals(1, delegate.calls.get());
+
+            // 排队的任务超时后移出队列，不占用位置
+            assertThrows(ServerBusyException.class, () -> encoder.encode("b"));
+            assertEquals(0, registry.get("executor.queued").tag("name", "password.hash").gauge().value());
+            assertEquals(1.0, registry.get("password.hash.expired").counter().count());
+
+            // 线程空出后只执行新请求，被丢弃的任务不再计算
+            delegate.release.countDown();
+            assertEquals("encoded", encoder.encode("c"));
+            assertEquals(2, delegate.calls.get());
+        }
+    }
+}
@@ -0,0 +1,163 @@
+package com.asta.backend.security;
+
+import com.asta.backend.exception.TooManyRequestsException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.data.redis.RedisConnectionFailureException;
+import org.springframework.data.redis.connection.ClusterSlotHashUtil;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class LoginThrottleTests {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+    private LoginThrottle throttle(long usernameCapacity, long ipCapacity) {
+        return new LoginThrottle(mock(StringRedisTemplate.class), registry, true, false, 1000,
+                usernameCapacity, 60_000, ipCapacity, 60_000);
+    }
+
+    /**
+     * Redis 模式，脚本调用按 key 与是否只检查 (ARGV[3]) 返回预设的等待微秒数
+     */
+    @SuppressWarnings("unchecked")
+    private LoginThrottle sharedThrottle(StringRedisTemplate redisTemplate, long usernamePeek, long ipTake,
+                                         long usernameTake) {
+        when(redisTemplate.execute(any(RedisScript.class), anyList(), anyString(), anyString(), anyString()))
+                .thenAnswer(invocation -> {
+                    String key = invocation.<List<String>>getArgument(1).get(0);
+                    boolean peek = "1".equals(invocation.getArgument(4));
+                    if (key.equals(LoginThrottle.ipKey("10.0.0.1"))) {
+                        return ipTake;
+                    }
+                    return peek ? usernamePeek : usernameTake;
+                });
+        return new LoginThrottle(redisTemplate, registry, true, true, 1000, 5, 60_000, 20, 60_000);
+    }
+
+    private double rejected(String dimension) {
+        return registry.get("login.throttle.rejected").tag("dimension", dimension).counter().count();
+    }
+
+    @Test
+    void usernameBucketAllowsBurstThenRejectsCaseInsensitively() {
+        LoginThrottle throttle = throttle(3, 100);
+        for (int i = 0; i < 3; i++) {
+            throttle.acquire("Alice", "10.0.0." + i);
+        }
+
+        TooManyRequestsException e = assertThrows(TooManyRequestsException.class,
+                () -> throttle.acquire("ALICE", "10.0.0.9"));
+        assertTrue(e.getRetryAfterSeconds() >= 1 && e.getRetryAfterSeconds() <= 20);
+        assertEquals(1, rejected("username"));
+        // 其他用户名不受影响
+        throttle.acquire("bob", "10.0.0.9");
+    }
+
+    @Test
+    void rejectionInOneDimensionDoesNotConsumeTheOther() {
+        LoginThrottle throttle = throttle(1, 2);
+        throttle.acquire("alice", "10.0.0.1");
+        assertThrows(TooManyRequestsException.class, () -> throttle.acquire("alice", "10.0.0.1"));
+
+        // 上一次被用户名维度拒绝，IP 仍剩一个令牌
+        throttle.acquire("bob", "10.0.0.1");
+        assertThrows(TooManyRequestsException.class, () -> throttle.acquire("carol", "10.0.0.1"));
+        assertEquals(1, rejected("username"));
+        assertEquals(1, rejected("ip"));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void sharedModeCallsScriptWithOneKeyAtATime() {
+        StringRedisTemplate redisTemplate = mock(StringRedisTemplate.class);
+        sharedThrottle(redisTemplate, 0, 0, 0).acquire("Alice", "10.0.0.1");
+
+        // 用户名与 IP 的 key 在 Redis Cluster 中不在同一个槽，每次脚本调用只能访问一个 key
+        assertNotEquals(ClusterSlotHashUtil.calculateSlot(LoginThrottle.usernameKey("alice")),
+                ClusterSlotHashUtil.calculateSlot(LoginThrottle.ipKey("10.0.0.1")));
+        ArgumentCaptor<List<String>> keys = ArgumentCaptor.forClass(List.class);
+        ArgumentCaptor<String> modes = ArgumentCaptor.forClass(String.class);
+        verify(redisTemplate, times(3)).execute(any(RedisScript.class), keys.capture(), anyString(), anyString(),
+                modes.capture());
+        assertEquals(List.of(List.of(LoginThrottle.usernameKey("alice")), List.of(LoginThrottle.ipKey("10.0.0.1")),
+                List.of(LoginThrottle.usernameKey("alice"))), keys.getAllValues());
+        // 先只检查用户名，IP 通过后才扣减用户名
+        assertEquals(List.of("1", "0", "0"), modes.getAllValues());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void sharedModeRejectsByScriptResult() {
+        StringRedisTemplate redisTemplate = mock(StringRedisTemplate.class);
+        TooManyRequestsException e = assertThrows(TooManyRequestsException.class,
+                () -> sharedThrottle(redisTemplate, 5_000_000, 0, 0).acquire("alice", "10.0.0.1"));
+        assertEquals(5, e.getRetryAfterSeconds());
+        assertEquals(1, rejected("username"));
+        // 用户名已无余量时不扣减 IP
+        verify(redisTemplate, times(1)).execute(any(RedisScript.class), anyList(), anyString(), anyString(),
+                anyString());
+
+        StringRedisTemplate ipLimited = mock(StringRedisTemplate.class);
+        assertThrows(TooManyRequestsException.class,
+                () -> sharedThrottle(ipLimited, 0, 2_500_000, 0).acquire("alice", "10.0.0.1"));
+        assertEquals(1, rejected("ip"));
+        // IP 被拒绝时不扣减用户名
+        verify(ipLimited, never()).execute(any(RedisScript.class), eq(List.of(LoginThrottle.usernameKey("alice"))),
+                anyString(), anyString(), eq("0"));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void sharedModeFallsBackToLocalBucketsWhenRedisFails() {
+        StringRedisTemplate redisTemplate = mock(StringRedisTemplate.class);
+        when(redisTemplate.execute(any(RedisScript.class), anyList(), anyString(), anyString(), anyString()))
+                .thenThrow(new RedisConnectionFailureException("down"));
+        LoginThrottle throttle = new LoginThrottle(redisTemplate, registry, true, true, 1000, 2, 60_000, 20, 60_000);
+
+        throttle.acquire("alice", "10.0.0.1");
+        throttle.acquire("alice", "10.0.0.1");
+        assertThrows(TooManyRequestsException.class, () -> throttle.acquire("alice", "10.0.0.1"));
+        assertEquals(3, registry.get("login.throttle.fallback").counter().count());
+    }
+
+    @Test
+    void concurrentAttemptsNeverExceedCapacity() throws Exception {
+        LoginThrottle throttle = throttle(50, 10_000);
+        AtomicInteger allowed = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int i = 0; i < 400; i++) {
+                futures.add(executor.submit(() -> {
+                    try {
+                        throttle.acquire("alice", "10.0.0.1");
+                        allowed.incrementAndGet();
+                    } catch (TooManyRequestsException ignored) {
+                        // 预期被拒绝
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get(10, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdown();
+        }
+        // 测试期间最多补充 1 个令牌 (每 1.2 秒一个)
+        assertTrue(allowed.get() >= 50 && allowed.get() <= 51, "allowed " + allowed.get());
+    }
+}
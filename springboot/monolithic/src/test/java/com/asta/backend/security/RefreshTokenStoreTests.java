@@ -0,0 +1,116 @@
+package com.asta.backend.security;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.data.redis.connection.ClusterSlotHashUtil;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class RefreshTokenStoreTests {
+
+    private static final String ALICE = Base64.getUrlEncoder().withoutPadding()
+            .encodeToString("alice".getBytes(StandardCharsets.UTF_8));
+
+    private StringRedisTemplate redisTemplate;
+
+    private RefreshTokenStore store;
+
+    @BeforeEach
+    void setUp() {
+        redisTemplate = mock(StringRedisTemplate.class);
+        store = new RefreshTokenStore(redisTemplate, 60_000);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void issueStoresHashOfSecretOnly() {
+        RefreshTokenStore.Issued issued = store.issue("alice");
+
+        String[] parts = issued.token().split("\\.");
+        assertEquals(3, parts.length);
+        assertEquals(ALICE, parts[0]);
+        assertEquals(issued.family(), parts[0] + "." + parts[1]);
+        ArgumentCaptor<List<String>> keys = ArgumentCaptor.forClass(List.class);
+        ArgumentCaptor<String> value = ArgumentCaptor.forClass(String.class);
+        verify(redisTemplate).execute(any(RedisScript.class), keys.capture(), value.capture(), eq("60000"));
+        assertEquals(List.of(RefreshTokenStore.familyKey(ALICE, issued.family()), RefreshTokenStore.familiesKey(ALICE)),
+                keys.getValue());
+        assertEquals(RefreshTokenStore.hash(parts[2]) + ":alice", value.getValue());
+        assertFalse(value.getValue().contains(parts[2]));
+        // 每次登录开始新的 family
+        assertNotEquals(issued.family(), store.issue("alice").family());
+    }
+
+    @Test
+    void keysOfOneUserShareClusterSlot() {
+        String family = store.issue("alice").family();
+        String familyKey = RefreshTokenStore.familyKey(ALICE, family);
+        String familiesKey = RefreshTokenStore.familiesKey(ALICE);
+
+        assertNotEquals(familyKey, familiesKey);
+        assertEquals(ClusterSlotHashUtil.calculateSlot(familyKey), ClusterSlotHashUtil.calculateSlot(familiesKey));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void rotateMapsScriptResult() {
+        String token = store.issue("alice").token();
+        String family = token.substring(0, token.lastIndexOf('.'));
+        List<String> keys = List.of(RefreshTokenStore.familyKey(ALICE, family), RefreshTokenStore.familiesKey(ALICE));
+        when(redisTemplate.execute(any(RedisScript.class), eq(keys),
+                eq(RefreshTokenStore.hash(token.substring(token.lastIndexOf('.') + 1))), anyString()))
+                .thenReturn(List.of(1L, "alice"), List.of(-1L, "alice"), List.of(0L, ""));
+
+        RefreshTokenStore.Rotation rotated = store.rotate(token);
+        assertEquals(RefreshTokenStore.Status.ROTATED, rotated.status());
+        assertEquals("alice", rotated.username());
+        assertEquals(family, rotated.family());
+        assertTrue(rotated.token().startsWith(family + "."));
+        assertNotEquals(token, rotated.token());
+
+        RefreshTokenStore.Rotation reused = store.rotate(token);
+        assertEquals(RefreshTokenStore.Status.REUSED, reused.status());
+        assertNull(reused.token());
+
+        assertEquals(RefreshTokenStore.Status.INVALID, store.rotate(token).status());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void revokeFamilyRemovesItFromUserSet() {
+        String family = store.issue("alice").family();
+        clearInvocations(redisTemplate);
+
+        store.revokeFamily(family);
+        verify(redisTemplate).execute(any(RedisScript.class),
+                eq(List.of(RefreshTokenStore.familyKey(ALICE, family), RefreshTokenStore.familiesKey(ALICE))));
+
+        // 旧格式或被篡改的 family 标识不访问 Redis
+        store.revokeFamily(family.substring(ALICE.length() + 1));
+        store.revokeFamily(null);
+        verifyNoMoreInteractions(redisTemplate);
+    }
+
+    @Test
+    void malformedTokenDoesNotTouchRedis() {
+        String token = store.issue("alice").token();
+        clearInvocations(redisTemplate);
+
+        assertEquals(RefreshTokenStore.Status.INVALID, store.rotate(null).status());
+        assertEquals(RefreshTokenStore.Status.INVALID, store.rotate("").status());
+        assertEquals(RefreshTokenStore.Status.INVALID, store.rotate(token.replace('.', '-')).status());
+        assertEquals(RefreshTokenStore.Status.INVALID, store.rotate(token + "x").status());
+        // 旧格式 family.secret (不含用户名)
+        assertEquals(RefreshTokenStore.Status.INVALID, store.rotate(token.substring(ALICE.length() + 1)).status());
+        verifyNoInteractions(redisTemplate);
+    }
+}
@@ -0,0 +1,110 @@
+package com.asta.backend.service.impl;
+
+import com.asta.backend.cache.TokenRevocationList;
+import com.asta.backend.cache.UserDetailsCache;
+import com.asta.backend.cache.UserExistenceFilter;
+import com.asta.backend.entity.po.User;
+import com.asta.backend.entity.query.RegisterQuery;
+import com.asta.backend.mapper.UserMapper;
+import com.asta.backend.security.ParallelPasswordHasher;
+import com.asta.backend.security.RefreshTokenStore;
+import com.asta.backend.utils.JwtUtil;
+import com.asta.backend.utils.KeysetPageHelper;
+import com.asta.backend.utils.StageMetrics;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.security.authentication.AuthenticationManager;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+class UserServiceImplTests {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+    private UserMapper mapper;
+
+    @BeforeEach
+    void setUp() {
+        mapper = mock(UserMapper.class);
+        when(mapper.insert(any(User.class))).thenReturn(1);
+    }
+
+    private UserServiceImpl service(UserExistenceFilter filter) {
+        PasswordEncoder passwordEncoder = mock(PasswordEncoder.class);
+        when(passwordEncoder.encode(anyString())).thenReturn("{bcrypt}hash");
+        return new UserServiceImpl(mock(AuthenticationManager.class), mock(JwtUtil.class), mapper, passwordEncoder,
+                mock(UserDetailsCache.class), filter, mock(ParallelPasswordHasher.class), new ObjectMapper(),
+                mock(KeysetPageHelper.class), mock(TokenRevocationList.class), mock(RefreshTokenStore.class),
+                new StageMetrics(registry, new Duration[]{Duration.ofMillis(1)}), mock(TransactionTemplate.class));
+    }
+
+    private UserExistenceFilter filter(boolean skipDbCheck) {
+        return new UserExistenceFilter(mapper, mock(StringRedisTemplate.class), registry, 1000, 0.01,
+                skipDbCheck, skipDbCheck, 100);
+    }
+
+    private static RegisterQuery query(String username) {
+        RegisterQuery query = new RegisterQuery();
+        query.setUsername(username);
+        query.setEmail(username + "@example.com");
+        query.setPassword("password");
+        query.setRole("USER");
+        return query;
+    }
+
+    private double count(String name) {
+        return registry.get(name).counter().count();
+    }
+
+    private double check(String result) {
+        return registry.get("user.filter.check").tag("result", result).counter().count();
+    }
+
+    @Test
+    void defaultConfigAlwaysChecksDatabaseWithoutCountingFalsePositives() {
+        UserServiceImpl service = service(filter(false));
+
+        assertTrue(service.register(query("alice")));
+        assertTrue(service.register(query("bob")));
+
+        verify(mapper, times(2)).existsByUsernameOrEmail(anyString(), anyString());
+        assertEquals(0, count("user.filter.false.positive"));
+        assertEquals(0, check("maybe"));
+        assertEquals(0, check("absent"));
+    }
+
+    @Test
+    void falsePositiveIsCountedOnlyWhenFilterSaysMaybe() {
+        // 表中已有 alice，过滤器构建后对 alice 判定可能存在
+        User alice = new User();
+        alice.setUserId(1);
+        alice.setUsername("alice");
+        alice.setEmail("alice@example.com");
+        when(mapper.selectList(any())).thenReturn(List.of(alice));
+        UserExistenceFilter filter = filter(true);
+        assertTrue(filter.rebuild());
+        UserServiceImpl service = service(filter);
+
+        // 过滤器判定一定不存在，跳过数据库预检查
+        assertTrue(service.register(query("bob")));
+        verify(mapper, never()).existsByUsernameOrEmail(anyString(), anyString());
+        assertEquals(1, check("absent"));
+
+        // 判定可能存在但数据库中已不存在 (如已被删除)
+        assertTrue(service.register(query("alice")));
+        verify(mapper).existsByUsernameOrEmail("alice", "alice@example.com");
+        assertEquals(1, check("maybe"));
+        assertEquals(1, count("user.filter.false.positive"));
+    }
+}
@@ -0,0 +1,45 @@
+package com.asta.backend.utils;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BloomFilterTests {
+
+    @Test
+    void noFalseNegativesAndFppNearTarget() {
+        BloomFilter filter = BloomFilter.create(10_000, 0.01);
+        for (int i = 0; i < 10_000; i++) {
+            filter.put("u:user" + i);
+        }
+        for (int i = 0; i < 10_000; i++) {
+            assertTrue(filter.mightContain("u:user" + i));
+        }
+
+        int falsePositives = 0;
+        for (int i = 0; i < 100_000; i++) {
+            if (filter.mightContain("u:absent" + i)) {
+                falsePositives++;
+            }
+        }
+        double observed = falsePositives / 100_000.0;
+        assertTrue(observed < 0.02, "observed fpp " + observed);
+        assertEquals(0.01, filter.expectedFpp(), 0.005);
+        assertEquals(10_000, filter.approximateElementCount(), 500);
+    }
+
+    @Test
+    void redisBitmapRoundTrip() {
+        BloomFilter filter = BloomFilter.create(1_000, 0.01);
+        filter.put("e:alice@example.com");
+
+        // 偏移量 0 对应 Redis 位图首字节的最高位
+        BloomFilter single = BloomFilter.create(1_000, 0.01);
+        single.setBit(0);
+        assertEquals((byte) 0x80, single.toRedisBytes()[0]);
+
+        BloomFilter restored = BloomFilter.fromRedisBytes(filter.bitSize(), filter.hashFunctions(), filter.toRedisBytes());
+        assertTrue(restored.mightContain("e:alice@example.com"));
+        assertArrayEquals(filter.toRedisBytes(), restored.toRedisBytes());
+    }
+}
@@ -0,0 +1,51 @@
+package com.asta.backend.utils;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ExpiringBloomFilterTests {
+
+    private static final long HOUR = 3_600_000L;
+
+    private static final long NOW = 1_700_000_000_000L;
+
+    @Test
+    void entriesLiveInTheirExpiryBucketAndExpireWithIt() {
+        ExpiringBloomFilter filter = new ExpiringBloomFilter(HOUR, 24 * HOUR, 1_000, 0.001);
+        filter.put("t:a", NOW + 2 * HOUR, NOW);
+        filter.put("t:b", NOW + 10 * HOUR, NOW);
+
+        assertTrue(filter.mightContain("t:a", NOW + 2 * HOUR, NOW));
+        assertFalse(filter.mightContain("t:a", NOW + 10 * HOUR, NOW));
+        assertFalse(filter.mightContain("t:c", NOW + 5 * HOUR, NOW));
+        assertEquals(2, filter.bucketCount());
+
+        // a 所在的桶结束后整桶丢弃，b 不受影响
+        assertEquals(1, filter.expire(NOW + 3 * HOUR));
+        assertFalse(filter.mightContain("t:a", NOW + 2 * HOUR, NOW + 3 * HOUR));
+        assertTrue(filter.mightContain("t:b", NOW + 10 * HOUR, NOW + 3 * HOUR));
+    }
+
+    @Test
+    void putUntilCoversEveryBucketUpToTheDeadline() {
+        ExpiringBloomFilter filter = new ExpiringBloomFilter(HOUR, 24 * HOUR, 1_000, 0.001);
+        filter.putUntil("u:alice", NOW + 24 * HOUR, NOW);
+
+        for (long exp = NOW + 1; exp <= NOW + 24 * HOUR; exp += HOUR / 2) {
+            assertTrue(filter.mightContain("u:alice", exp, NOW));
+        }
+        // 桶数不超过 horizon / bucket + 2
+        assertTrue(filter.bucketCount() <= 26);
+    }
+
+    @Test
+    void expiryBeyondHorizonIsNeitherStoredNorCleared() {
+        ExpiringBloomFilter filter = new ExpiringBloomFilter(HOUR, 24 * HOUR, 1_000, 0.001);
+        filter.put("t:a", NOW + 48 * HOUR, NOW);
+
+        assertEquals(0, filter.bucketCount());
+        // 超出记录范围时无法判断，交由调用方确认
+        assertTrue(filter.mightContain("t:other", NOW + 48 * HOUR, NOW));
+    }
+}
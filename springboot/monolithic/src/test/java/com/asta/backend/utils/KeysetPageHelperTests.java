@@ -0,0 +1,108 @@
+package com.asta.backend.utils;
+
+import com.asta.backend.entity.po.User;
+import com.asta.backend.entity.query.KeysetPageQuery;
+import com.asta.backend.entity.vo.KeysetPageVO;
+import com.asta.backend.mapper.UserMapper;
+import com.baomidou.mybatisplus.core.MybatisConfiguration;
+import com.baomidou.mybatisplus.core.MybatisSqlSessionFactoryBuilder;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.ibatis.mapping.Environment;
+import org.apache.ibatis.session.SqlSession;
+import org.apache.ibatis.transaction.jdbc.JdbcTransactionFactory;
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class KeysetPageHelperTests {
+
+    private SqlSession session;
+
+    private UserMapper mapper;
+
+    private final KeysetPageHelper helper = new KeysetPageHelper(
+            new ObjectMapper().registerModule(new JavaTimeModule()), new SimpleMeterRegistry(), 100, 60000);
+
+    @BeforeEach
+    void setUp() throws Exception {
+        JdbcDataSource dataSource = new JdbcDataSource();
+        dataSource.setURL("jdbc:h2:mem:keyset;MODE=MySQL;DATABASE_TO_LOWER=TRUE;NON_KEYWORDS=USER;DB_CLOSE_DELAY=-1");
+        try (Connection connection = dataSource.getConnection(); Statement statement = connection.createStatement()) {
+            statement.execute("DROP TABLE IF EXISTS user");
+            statement.execute("CREATE TABLE user (user_id INT PRIMARY KEY, username VARCHAR(64), email VARCHAR(128), "
+                    + "password VARCHAR(128), create_date TIMESTAMP, role VARCHAR(16))");
+            // create_date 只有 5 个不同值，用于验证排序列重复时按主键继续
+            statement.execute("INSERT INTO user SELECT n, 'user' || n, NULL, 'hash', "
+                    + "TIMESTAMP '2025-01-01 00:00:00' + (n % 5) * INTERVAL '1' DAY, 'USER' FROM SYSTEM_RANGE(1, 25) r(n)");
+        }
+        MybatisConfiguration configuration = new MybatisConfiguration();
+        configuration.setEnvironment(new Environment("test", new JdbcTransactionFactory(), dataSource));
+        configuration.addMapper(UserMapper.class);
+        session = new MybatisSqlSessionFactoryBuilder().build(configuration).openSession(true);
+        mapper = session.getMapper(UserMapper.class);
+    }
+
+    @AfterEach
+    void tearDown() {
+        session.close();
+    }
+
+    private List<Integer> readAll(String sortColumn, boolean descending) {
+        List<Integer> ids = new ArrayList<>();
+        KeysetPageQuery query = new KeysetPageQuery();
+        query.setPageSize(10);
+        query.setWithTotal(true);
+        KeysetPageVO<User> page;
+        do {
+            page = helper.page(mapper, User.class, query, sortColumn, descending,
+                    field -> !"password".equals(field.getColumn()), null);
+            assertEquals(25L, page.getTotal());
+            page.getRecords().forEach(user -> {
+                assertNull(user.getPassword());
+                ids.add(user.getUserId());
+            });
+            query.setCursor(page.getNextCursor());
+        } while (page.isHasMore());
+        return ids;
+    }
+
+    @Test
+    void pagesByPrimaryKey() {
+        List<Integer> ids = readAll(null, false);
+        assertEquals(25, ids.size());
+        for (int i = 0; i < ids.size(); i++) {
+            assertEquals(i + 1, ids.get(i));
+        }
+    }
+
+    @Test
+    void pagesBySortColumnWithDuplicateValues() {
+        List<Integer> ids = readAll("create_date", true);
+        assertEquals(25, ids.size());
+        assertEquals(25, ids.stream().distinct().count());
+        // 降序：create_date 最大的一组 (x % 5 == 4) 在前，组内按主键降序
+        assertEquals(List.of(24, 19, 14, 9, 4), ids.subList(0, 5));
+    }
+
+    @Test
+    void rejectsCursorForDifferentSort() {
+        KeysetPageQuery query = new KeysetPageQuery();
+        query.setPageSize(10);
+        query.setCursor(helper.page(mapper, User.class, query, null).getNextCursor());
+
+        assertThrows(IllegalArgumentException.class,
+                () -> helper.page(mapper, User.class, query, "create_date", false, null, null));
+        query.setCursor("not-a-cursor");
+        assertThrows(IllegalArgumentException.class, () -> helper.page(mapper, User.class, query, null));
+    }
+}
@@ -0,0 +1,56 @@
+package com.asta.backend.utils;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class UserImportReaderTests {
+
+    private static UserImportReader reader(String content, UserImportReader.Format format) {
+        return new UserImportReader(new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8)),
+                format, new ObjectMapper());
+    }
+
+    @Test
+    void readsCsvInBatchesWithQuotedFields() throws Exception {
+        String csv = """
+                password,Username,email,role
+                "p,1",alice,alice@example.com,USER
+
+                p2,"bob \"\"b\"\"\",,ADMIN
+                p3,carol,carol@example.com,USER
+                """;
+        try (UserImportReader reader = reader(csv, UserImportReader.Format.CSV)) {
+            List<UserImportReader.Row> first = reader.next(2);
+            assertEquals(2, first.size());
+            assertEquals("p,1", first.get(0).query().getPassword());
+            assertEquals("alice", first.get(0).query().getUsername());
+            assertEquals(2, first.get(0).line());
+            assertEquals("bob \"b\"", first.get(1).query().getUsername());
+            assertNull(first.get(1).query().getEmail());
+            assertEquals(4, first.get(1).line());
+
+            assertEquals("carol", reader.next(2).get(0).query().getUsername());
+            assertTrue(reader.next(2).isEmpty());
+        }
+    }
+
+    @Test
+    void reportsMalformedJsonLines() throws Exception {
+        String ndjson = """
+                {"username":"alice","password":"p1","unknown":1}
+                {"username":
+                """;
+        try (UserImportReader reader = reader(ndjson, UserImportReader.Format.NDJSON)) {
+            List<UserImportReader.Row> rows = reader.next(10);
+            assertEquals("alice", rows.get(0).query().getUsername());
+            assertNull(rows.get(1).query());
+            assertNotNull(rows.get(1).error());
+        }
+    }
+}
@@ -0,0 +1,126 @@
+package com.asta.backend.benchmark;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Supplier;
+
+/**
+ * 平台线程池与虚拟线程的请求处理模型对比 (需要 JDK 21)
+ * <p>
+ * 模拟一个典型请求：先等待一次下游 I/O (Redis / HTTP)，其中一部分请求还需要从容量为 20 的连接池 (对应 druid maxActive)
+ * 借出连接执行一次查询。闭环客户端以固定并发持续提交请求，分别交给 200 线程的平台线程池 (对应 Tomcat 默认 max-threads)
+ * 和每任务一个虚拟线程的执行器处理，输出吞吐量与 p50 / p99 延迟 (含排队时间)。
+ * <p>
+ * 运行方式: 使用 JDK 21 执行 mvn -Pjdk21 test-compile 后以测试 classpath 运行本类
+ */
+public class ThreadModelBenchmark {
+
+    private static final int[] CONCURRENCY = {50, 200, 1000, 4000};
+
+    private static final int PLATFORM_THREADS = 200;
+
+    private static final int DB_POOL_SIZE = 20;
+
+    /**
+     * 需要访问数据库的请求比例
+     */
+    private static final double DB_RATIO = 0.2;
+
+    private static final long IO_MILLIS = 20;
+
+    private static final long DB_MILLIS = 5;
+
+    private static final long WARMUP_MILLIS = 2_000;
+
+    private static final long MEASURE_MILLIS = 5_000;
+
+    /**
+     * 每个客户端的采样容量：单个请求至少耗时 IO_MILLIS，测量窗口内不会超过该数量
+     */
+    private static final int SAMPLE_CAPACITY = (int) (MEASURE_MILLIS / IO_MILLIS) + 1;
+
+    public static void main(String[] args) throws Exception {
+        System.out.printf("%-10s %-12s %12s %10s %10s%n", "model", "concurrency", "req/s", "p50(ms)", "p99(ms)");
+        for (int concurrency : CONCURRENCY) {
+            run("platform", concurrency, () -> Executors.newFixedThreadPool(PLATFORM_THREADS));
+            run("virtual", concurrency, Executors::newVirtualThreadPerTaskExecutor);
+        }
+    }
+
+    private static void run(String model, int concurrency, Supplier<ExecutorService> executorFactory) throws Exception {
+        Semaphore dbPool = new Semaphore(DB_POOL_SIZE, true);
+        try (ExecutorService server = executorFactory.get();
+             ExecutorService clients = Executors.newVirtualThreadPerTaskExecutor()) {
+            AtomicBoolean running = new AtomicBoolean(true);
+            AtomicBoolean recording = new AtomicBoolean(false);
+            List<long[]> samples = new ArrayList<>();
+            List<int[]> counts = new ArrayList<>();
+            for (int i = 0; i < concurrency; i++) {
+                long[] latencies = new long[SAMPLE_CAPACITY];
+                int[] count = new int[1];
+                samples.add(latencies);
+                counts.add(count);
+                clients.submit(() -> {
+                    while (running.get()) {
+                        long start = System.nanoTime();
+                        server.submit(() -> handle(dbPool)).get();
+                        if (recording.get() && count[0] < latencies.length) {
+                            latencies[count[0]++] = System.nanoTime() - start;
+                        }
+                    }
+                    return null;
+                });
+            }
+            Thread.sleep(WARMUP_MILLIS);
+            recording.set(true);
+            Thread.sleep(MEASURE_MILLIS);
+            recording.set(false);
+            running.set(false);
+            clients.shutdown();
+            clients.awaitTermination(1, TimeUnit.MINUTES);
+            report(model, concurrency, samples, counts);
+        }
+    }
+
+    private static Void handle(Semaphore dbPool) throws InterruptedException {
+        Thread.sleep(IO_MILLIS);
+        if (ThreadLocalRandom.current().nextDouble() < DB_RATIO) {
+            dbPool.acquire();
+            try {
+                Thread.sleep(DB_MILLIS);
+            } finally {
+                dbPool.release();
+            }
+        }
+        return null;
+    }
+
+    private static void report(String model, int concurrency, List<long[]> samples, List<int[]> counts) {
+        int total = counts.stream().mapToInt(c -> c[0]).sum();
+        long[] all = new long[total];
+        int offset = 0;
+        for (int i = 0; i < samples.size(); i++) {
+            int count = counts.get(i)[0];
+            System.arraycopy(samples.get(i), 0, all, offset, count);
+            offset += count;
+        }
+        Arrays.sort(all);
+        double throughput = total * 1000.0 / MEASURE_MILLIS;
+        System.out.printf("%-10s %-12d %12.0f %10.1f %10.1f%n", model, concurrency, throughput,
+                percentile(all, 0.50), percentile(all, 0.99));
+    }
+
+    private static double percentile(long[] sorted, double p) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        return sorted[(int) Math.min(sorted.length - 1, Math.ceil(p * sorted.length) - 1)] / 1_000_000.0;
+    }
+}